@@ -21,6 +21,18 @@ class Settings(BaseSettings):
         default="thoughts-to-post-response",
         description="Topic to publish enrichment responses to"
     )
+    kafka_interactive_request_topic: str = Field(
+        default="thoughts-post-request-interactive",
+        description="Priority topic for interactive requests (image refinements, single-platform work)"
+    )
+    kafka_interactive_response_topic: str = Field(
+        default="thoughts-to-post-response-interactive",
+        description="Topic to publish responses to interactive requests to"
+    )
+    kafka_control_topic: str = Field(
+        default="thoughts-to-post-control",
+        description="Topic carrying cancellation control messages for in-flight requests"
+    )
     kafka_consumer_group: str = Field(
         default="ai-agent-group",
         description="Kafka consumer group ID"
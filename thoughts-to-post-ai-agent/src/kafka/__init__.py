@@ -2,5 +2,12 @@
 
 from .consumer import KafkaRequestConsumer
 from .producer import KafkaResponseProducer
+from .control_consumer import CancellationRegistry, KafkaControlConsumer, RequestCancelled
 
-__all__ = ["KafkaRequestConsumer", "KafkaResponseProducer"]
+__all__ = [
+    "KafkaRequestConsumer",
+    "KafkaResponseProducer",
+    "CancellationRegistry",
+    "KafkaControlConsumer",
+    "RequestCancelled",
+]
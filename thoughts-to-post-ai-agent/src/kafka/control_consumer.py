@@ -0,0 +1,151 @@
+"""Kafka consumer for control messages (cancellations) from the API service."""
+
+import json
+import logging
+import threading
+import time
+import uuid
+from typing import Dict, Optional, Tuple
+
+from kafka import KafkaConsumer as KafkaPythonConsumer
+from kafka.errors import KafkaError
+
+from ..config import settings
+
+logger = logging.getLogger(__name__)
+
+
+class RequestCancelled(Exception):
+    """Raised inside the pipeline when a control message supersedes the request being processed."""
+
+    def __init__(self, request_id: str, generation: Optional[int]):
+        super().__init__(f"Request {request_id} (generation {generation}) was cancelled")
+        self.request_id = request_id
+        self.generation = generation
+
+
+class CancellationRegistry:
+    """Thread-safe record of the highest cancelled generation per request.
+
+    Entries expire after ``ttl_seconds`` so the registry does not grow without bound.
+    """
+
+    def __init__(self, ttl_seconds: float = 3600.0):
+        self._ttl_seconds = ttl_seconds
+        self._cancelled: Dict[str, Tuple[int, float]] = {}
+        self._lock = threading.Lock()
+
+    def cancel(self, request_id: str, generation: int) -> None:
+        """Mark every generation up to and including ``generation`` as cancelled."""
+        now = time.monotonic()
+        with self._lock:
+            current = self._cancelled.get(request_id)
+            if current is None or generation > current[0]:
+                self._cancelled[request_id] = (generation, now)
+            self._expire(now)
+
+    def is_cancelled(self, request_id: str, generation: Optional[int]) -> bool:
+        """Whether work for this request generation should stop.
+
+        Requests without a generation predate cancellation support and are never cancelled.
+        """
+        if generation is None:
+            return False
+        with self._lock:
+            entry = self._cancelled.get(request_id)
+        return entry is not None and entry[0] >= generation
+
+    def _expire(self, now: float) -> None:
+        expired = [key for key, (_, at) in self._cancelled.items() if now - at > self._ttl_seconds]
+        for key in expired:
+            del self._cancelled[key]
+
+
+class KafkaControlConsumer:
+    """Consumes control messages on a background thread and records cancellations.
+
+    Every agent instance must see every cancellation, so each instance joins its own
+    consumer group and starts from the latest offset.
+    """
+
+    def __init__(
+        self,
+        registry: CancellationRegistry,
+        bootstrap_servers: Optional[str] = None,
+        topic: Optional[str] = None,
+    ):
+        """Initialize the control consumer.
+
+        Args:
+            registry: Registry updated with received cancellations
+            bootstrap_servers: Kafka bootstrap servers (defaults to settings)
+            topic: Control topic (defaults to settings)
+        """
+        self.registry = registry
+        self.bootstrap_servers = bootstrap_servers or settings.kafka_bootstrap_servers
+        self.topic = topic or settings.kafka_control_topic
+        self.group_id = f"{settings.kafka_consumer_group}-control-{uuid.uuid4().hex[:8]}"
+        self._running = False
+        self._thread: Optional[threading.Thread] = None
+
+    def _deserialize_value(self, message: bytes) -> Optional[dict]:
+        if not message:
+            return None
+        try:
+            return json.loads(message.decode("utf-8"))
+        except (json.JSONDecodeError, UnicodeDecodeError) as e:
+            logger.warning(f"Failed to deserialize control message: {e}")
+            return None
+
+    def handle(self, value: Optional[dict]) -> None:
+        """Apply a single control message to the registry."""
+        if not value or value.get("type") != "CANCEL":
+            return
+        request_id = value.get("requestId")
+        generation = value.get("generation")
+        if request_id is None or generation is None:
+            logger.warning(f"Ignoring malformed cancel message: {value}")
+            return
+        logger.info(
+            f"Cancellation received for request {request_id} up to generation {generation}: "
+            f"{value.get('reason')}"
+        )
+        self.registry.cancel(request_id, int(generation))
+
+    def _run(self) -> None:
+        consumer = KafkaPythonConsumer(
+            self.topic,
+            bootstrap_servers=self.bootstrap_servers.split(","),
+            group_id=self.group_id,
+            auto_offset_reset="latest",
+            enable_auto_commit=True,
+            value_deserializer=self._deserialize_value,
+            key_deserializer=lambda k: k.decode("utf-8") if k else None,
+        )
+        logger.info(f"Starting control consumer on topic '{self.topic}' with group '{self.group_id}'")
+        try:
+            while self._running:
+                messages = consumer.poll(timeout_ms=500)
+                for records in messages.values():
+                    for record in records:
+                        self.handle(record.value)
+        except KafkaError as e:
+            logger.error(f"Control consumer Kafka error: {e}", exc_info=True)
+        finally:
+            consumer.close()
+            logger.info("Control consumer closed.")
+
+    def start(self) -> None:
+        """Start consuming control messages on a daemon thread."""
+        if self._thread and self._thread.is_alive():
+            return
+        self._running = True
+        self._thread = threading.Thread(target=self._run, name="kafka-control-consumer", daemon=True)
+        self._thread.start()
+
+    def stop(self) -> None:
+        """Stop the background thread."""
+        self._running = False
+        if self._thread:
+            self._thread.join(timeout=5)
+            self._thread = None
@@ -3,10 +3,17 @@
 import logging
 import signal
 import sys
+from datetime import datetime, timezone
 from typing import Optional
 
 from .config import settings
-from .kafka import KafkaRequestConsumer, KafkaResponseProducer
+from .kafka import (
+    KafkaRequestConsumer,
+    KafkaResponseProducer,
+    CancellationRegistry,
+    KafkaControlConsumer,
+    RequestCancelled,
+)
 from .agents import ContentEnrichmentAgent, ImageGenerationAgent, VideoGenerationAgent
 from .memory import CheckpointMemory
 from .models import (
@@ -39,7 +46,14 @@ class ThoughtsToPostAgent:
     def __init__(self):
         """Initialize the agent and its components."""
         self.consumer = KafkaRequestConsumer()
+        # Dedicated worker so interactive requests never wait behind the bulk backlog
+        self.interactive_consumer = KafkaRequestConsumer(
+            topic=settings.kafka_interactive_request_topic,
+            group_id=f"{settings.kafka_consumer_group}-interactive",
+        )
         self.producer = KafkaResponseProducer()
+        self.cancellations = CancellationRegistry()
+        self.control_consumer = KafkaControlConsumer(self.cancellations)
         self.content_agent = ContentEnrichmentAgent()
         self.image_agent = ImageGenerationAgent()
         self.video_agent = VideoGenerationAgent()
@@ -54,6 +68,7 @@ class ThoughtsToPostAgent:
             logger.info(f"Received signal {signum}, initiating shutdown...")
             self._shutdown_requested = True
             self.consumer.stop()
+            self.interactive_consumer.stop()
 
         signal.signal(signal.SIGINT, signal_handler)
         signal.signal(signal.SIGTERM, signal_handler)
@@ -93,6 +108,30 @@ class ThoughtsToPostAgent:
             })
         context.conversation_history = history_dicts
 
+    @staticmethod
+    def _is_interactive(request: ThoughtRequest) -> bool:
+        return (request.lane or "").upper() == "INTERACTIVE"
+
+    def _request_topic(self, request: ThoughtRequest) -> str:
+        return settings.kafka_interactive_request_topic if self._is_interactive(request) else settings.kafka_request_topic
+
+    def _response_topic(self, request: ThoughtRequest) -> str:
+        return settings.kafka_interactive_response_topic if self._is_interactive(request) else settings.kafka_response_topic
+
+    def _check_cancelled(self, request: ThoughtRequest, stage: str) -> None:
+        """Abort the current request if the API service has superseded it or its deadline has passed."""
+        if self.cancellations.is_cancelled(request.request_id, request.generation):
+            logger.info(f"Request {request.request_id} (generation {request.generation}) cancelled {stage}")
+            raise RequestCancelled(request.request_id, request.generation)
+        if request.deadline and datetime.now(timezone.utc) > self._as_utc(request.deadline):
+            logger.info(f"Request {request.request_id} (generation {request.generation}) expired {stage}; "
+                        f"deadline was {request.deadline.isoformat()}")
+            raise RequestCancelled(request.request_id, request.generation)
+
+    @staticmethod
+    def _as_utc(value: datetime) -> datetime:
+        return value if value.tzinfo else value.replace(tzinfo=timezone.utc)
+
     def process_request(self, request: ThoughtRequest, headers: Optional[dict] = None) -> None:
         """Process a single thought enrichment request.
 
@@ -116,6 +155,8 @@ class ThoughtsToPostAgent:
                 self.memory.add_refinement(request.request_id, request.additional_instructions)
 
         try:
+            self._check_cancelled(request, "before processing")
+
             # Update status to processing
             self.memory.update_context(
                 request.request_id, status=RequestStatus.PROCESSING
@@ -136,6 +177,7 @@ class ThoughtsToPostAgent:
                     # Find existing enriched content
                     content = next((c for c in context.enriched_contents if c.platform == platform_type), None)
                     if content:
+                        self._check_cancelled(request, f"before refining image for {platform_type.value}")
                         logger.info(f"Generating refined image for {platform_type.value}")
                         try:
                             new_image = self.image_agent.generate_for_content(
@@ -161,8 +203,10 @@ class ThoughtsToPostAgent:
                     status=final_status,
                     enriched_contents=context.enriched_contents,
                     version=context.current_version,
+                    generation=request.generation,
+                    sequence=self.memory.next_response_sequence(request.request_id),
                 )
-                self.producer.send(response)
+                self.producer.send(response, topic=self._response_topic(request))
                 return
 
             # Case 2: Full enrichment or Text Refinement (Standard Flow)
@@ -171,6 +215,7 @@ class ThoughtsToPostAgent:
             failed_platforms = []
 
             for platform in request.platforms:
+                self._check_cancelled(request, f"before platform {platform}")
                 logger.info(f"-> Processing platform: {platform}")
                 # Check if this platform was already successfully processed in a previous retry
                 existing_content = next((c for c in context.enriched_contents if c.platform == platform), None)
@@ -186,6 +231,7 @@ class ThoughtsToPostAgent:
                         enriched = existing_content
 
                     # Step 2: Generate unique image for this platform (Sequentially)
+                    self._check_cancelled(request, f"before image generation for {platform}")
                     logger.info(f"Generating unique image for platform: {platform}")
                     config = next((c for c in request.platform_configurations if c.platform == platform), None)
 
@@ -197,7 +243,9 @@ class ThoughtsToPostAgent:
                             status=RequestStatus.IN_PROGRESS,
                             enriched_contents=[enriched],
                             version=context.current_version,
-                        ))
+                            generation=request.generation,
+                            sequence=self.memory.next_response_sequence(request.request_id),
+                        ), topic=self._response_topic(request))
 
                     with self._sd_lock:
                         try:
@@ -218,6 +266,7 @@ class ThoughtsToPostAgent:
 
                     # Step 3: Video Generation
                     if config and config.video_prompt and (not existing_content or not existing_content.videos):
+                        self._check_cancelled(request, f"before video generation for {platform}")
                         logger.info(f"Generating video for platform: {platform}")
                         try:
                             video_result = self.video_agent.generate_for_content(
@@ -253,8 +302,12 @@ class ThoughtsToPostAgent:
                         status=RequestStatus.IN_PROGRESS,
                         enriched_contents=[enriched],
                         version=context.current_version,
+                        generation=request.generation,
+                        sequence=self.memory.next_response_sequence(request.request_id),
                     )
-                    self.producer.send(progress_response)
+                    self.producer.send(progress_response, topic=self._response_topic(request))
+                except RequestCancelled:
+                    raise
                 except Exception as e:
                     logger.error(f"Failed to enrich for {platform}: {e}")
                     failed_platforms.append(platform)
@@ -284,12 +337,19 @@ class ThoughtsToPostAgent:
                 enriched_contents=all_enriched_contents,
                 failed_platforms=failed_platforms,
                 version=context.current_version,
+                generation=request.generation,
+                sequence=self.memory.next_response_sequence(request.request_id),
                 error_message=f"Failed platforms: {failed_platforms}" if failed_platforms else None
             )
 
-            self.producer.send(response)
+            self.producer.send(response, topic=self._response_topic(request))
             logger.info(f"Successfully processed request: {request.request_id}")
 
+        except RequestCancelled:
+            # Superseded or past its deadline: no retry and no response, the API would drop it anyway.
+            # Work done so far stays in the checkpoint for the next generation to reuse.
+            logger.info(f"Stopped superseded request {request.request_id} (generation {request.generation})")
+
         except Exception as e:
             logger.error(f"Failed to process request {request.request_id}: {e}", exc_info=True)
 
@@ -298,7 +358,7 @@ class ThoughtsToPostAgent:
             if retry_count < 3:
                 new_retry_count = retry_count + 1
                 retry_topics = ["retry-5s", "retry-30s", "retry-5m"]
-                next_topic = f"{settings.kafka_request_topic}-{retry_topics[retry_count]}"
+                next_topic = f"{self._request_topic(request)}-{retry_topics[retry_count]}"
 
                 logger.info(f"Retrying request {request.request_id} (Attempt {new_retry_count}) via topic {next_topic}")
 
@@ -317,8 +377,10 @@ class ThoughtsToPostAgent:
                 status=RequestStatus.FAILED,
                 error_message=str(e),
                 version=context.current_version if context else 1,
+                generation=request.generation,
+                sequence=self.memory.next_response_sequence(request.request_id),
             )
-            self.producer.send(error_response)
+            self.producer.send(error_response, topic=self._response_topic(request))
 
     def start(self) -> None:
         """Start the agent and begin processing messages."""
@@ -326,6 +388,13 @@ class ThoughtsToPostAgent:
         self._setup_signal_handlers()
         try:
             self.producer.connect()
+            self.control_consumer.start()
+            threading.Thread(
+                target=self.interactive_consumer.start,
+                args=(self.process_request,),
+                name="kafka-interactive-consumer",
+                daemon=True,
+            ).start()
             self.consumer.start(self.process_request)
         except KeyboardInterrupt:
             logger.info("Keyboard interrupt received")
@@ -336,6 +405,8 @@ class ThoughtsToPostAgent:
         """Gracefully shutdown the agent."""
         logger.info("Shutting down AI Agent...")
         self.consumer.stop()
+        self.interactive_consumer.stop()
+        self.control_consumer.stop()
         self.producer.close()
 
 
@@ -2,6 +2,7 @@
 
 import json
 import logging
+import time
 from datetime import datetime
 from pathlib import Path
 from typing import Optional
@@ -29,6 +30,9 @@ class CheckpointMemory:
         """
         self._memory_saver = MemorySaver()
         self._contexts: dict[str, AgentContext] = {}
+        # Response sequences start from the process start time in microseconds, so a restarted agent
+        # numbers its responses above any earlier run's even when the persisted counters are lost
+        self._sequence_epoch = time.time_ns() // 1000
         self._persist_dir = Path(persist_dir) if persist_dir else None
 
         if self._persist_dir:
@@ -110,6 +114,7 @@ class CheckpointMemory:
             conversation_history=data.get("conversation_history", []),
             refinement_requests=data.get("refinement_requests", []),
             current_version=data.get("current_version", 1),
+            response_sequence=data.get("response_sequence", 0),
             status=status,
             error_message=data.get("error_message"),
             created_at=datetime.fromisoformat(data["created_at"]),
@@ -218,6 +223,28 @@ class CheckpointMemory:
         )
         return context
 
+    def next_response_sequence(self, request_id: str) -> Optional[int]:
+        """Assign the sequence number for the next response sent for a request.
+
+        The counter is persisted before it is returned and never starts below this process's
+        epoch, so a restarted agent never reuses a sequence the API has already recorded as
+        applied, even if the checkpoint directory did not survive the restart.
+
+        Args:
+            request_id: The request ID the response belongs to
+
+        Returns:
+            The new sequence number, or None if the context is not found
+        """
+        context = self._contexts.get(request_id)
+        if not context:
+            logger.warning(f"Context not found for response sequence: {request_id}")
+            return None
+
+        context.response_sequence = max(context.response_sequence, self._sequence_epoch) + 1
+        self._persist_context(context)
+        return context.response_sequence
+
     def delete_context(self, request_id: str) -> bool:
         """Delete a context.
 
@@ -83,7 +83,13 @@ class ThoughtRequest(BaseModel):
     platform_prompts: dict[PlatformType, str] = Field(default_factory=dict, alias="platformPrompts")
     platform_configurations: list[PlatformConfiguration] = Field(default_factory=list, alias="platformConfigurations")
     version: int = Field(default=1)
+    # Dispatch generation assigned by the API; echoed in every response so stale runs can be fenced
+    generation: Optional[int] = Field(default=None)
     created_at: datetime = Field(default_factory=datetime.utcnow, alias="createdAt")
+    # UTC instant after which the API no longer accepts results; expired requests are dropped
+    deadline: Optional[datetime] = Field(default=None)
+    # Priority lane chosen by the API: INTERACTIVE or BULK (missing means BULK)
+    lane: Optional[str] = Field(default=None)
 
     # New fields for image refinement
     image_refinement_instructions: Optional[str] = Field(default=None, alias="imageRefinementInstructions")
@@ -185,6 +191,7 @@ class AgentContext:
     conversation_history: list[dict] = field(default_factory=list)
     refinement_requests: list[str] = field(default_factory=list)
     current_version: int = 1
+    response_sequence: int = 0
     status: RequestStatus = RequestStatus.PENDING
     error_message: Optional[str] = None
     created_at: datetime = field(default_factory=datetime.utcnow)
@@ -211,6 +218,9 @@ class AgentResponse(BaseModel):
     generated_image: Optional[GeneratedImage] = Field(default=None, alias="generated_image")
     failed_platforms: list[PlatformType] = Field(default_factory=list, alias="failed_platforms")
     version: int = Field(default=1)
+    generation: Optional[int] = Field(default=None)
+    # Increases with every response sent for a request; the API dedupes on (request_id, generation, sequence)
+    sequence: Optional[int] = Field(default=None)
     error_message: Optional[str] = Field(default=None, alias="error_message")
     processed_at: datetime = Field(default_factory=datetime.utcnow, alias="processed_at")
 
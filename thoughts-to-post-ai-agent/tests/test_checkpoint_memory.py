@@ -0,0 +1,45 @@
+from src.memory import CheckpointMemory
+from src.models import ThoughtRequest
+
+
+def _request():
+    return ThoughtRequest(**{
+        "requestId": "thought-1",
+        "userId": "user-1",
+        "originalThought": "test thought",
+        "platforms": ["LINKEDIN"],
+        "createdAt": "2026-02-16T21:06:23.963",
+    })
+
+
+def test_response_sequences_increase_within_a_process(tmp_path):
+    memory = CheckpointMemory(persist_dir=str(tmp_path))
+    memory.create_context(_request())
+
+    first = memory.next_response_sequence("thought-1")
+    second = memory.next_response_sequence("thought-1")
+
+    assert second == first + 1
+
+
+def test_restart_without_checkpoints_does_not_reuse_sequences(tmp_path):
+    """The API drops responses whose (request_id, generation, sequence) it has already applied."""
+    before = CheckpointMemory(persist_dir=str(tmp_path / "lost"))
+    before.create_context(_request())
+    sent = [before.next_response_sequence("thought-1") for _ in range(3)]
+
+    # Restarted with an empty checkpoint directory, e.g. an unmounted container volume
+    after = CheckpointMemory(persist_dir=str(tmp_path / "fresh"))
+    after.create_context(_request())
+
+    assert after.next_response_sequence("thought-1") > max(sent)
+
+
+def test_restart_with_checkpoints_continues_the_sequence(tmp_path):
+    before = CheckpointMemory(persist_dir=str(tmp_path))
+    before.create_context(_request())
+    last = before.next_response_sequence("thought-1")
+
+    after = CheckpointMemory(persist_dir=str(tmp_path))
+
+    assert after.next_response_sequence("thought-1") > last
@@ -0,0 +1,32 @@
+"""The request producers' compression codecs must be ones this consumer can decode.
+
+The API only allows codecs in ProducerProfile.AGENT_CODECS; kafka-python-ng decodes lz4 and snappy
+only when their optional packages are installed, and they are not in the lock file.
+"""
+import re
+from pathlib import Path
+
+import pytest
+from kafka import codec
+
+AGENT_CODECS = {"none", "gzip", "zstd"}
+
+API_CONFIG = (
+    Path(__file__).resolve().parents[2]
+    / "thoughts-to-post-api-service" / "src" / "main" / "resources" / "application.yml"
+)
+
+
+def test_agent_decodes_the_codecs_the_api_may_use():
+    assert codec.has_gzip()
+    assert codec.has_zstd()
+
+
+def test_api_request_producers_use_codecs_the_agent_decodes():
+    if not API_CONFIG.exists():
+        pytest.skip("API service sources are not alongside the agent")
+
+    codecs = re.findall(r"^\s+compression:\s*(\w+)", API_CONFIG.read_text(), re.MULTILINE)
+
+    assert codecs
+    assert set(codecs) <= AGENT_CODECS
@@ -130,6 +130,32 @@ export interface ApproveThoughtRequest {
     postImage: boolean;
 }
 
+export type BulkThoughtAction = 'APPROVE' | 'REJECT' | 'REPOST' | 'DELETE';
+
+export interface BulkThoughtRequest {
+    action: BulkThoughtAction;
+    ids: string[];
+    textContentComments?: string;
+    imageContentComments?: string;
+    postText?: boolean;
+    postImage?: boolean;
+    skipCache?: boolean;
+}
+
+export interface BulkThoughtResult {
+    id: string;
+    outcome: 'OK' | 'NOT_FOUND' | 'INVALID_STATE' | 'CONFLICT';
+    status?: PostStatus;
+    errorMessage?: string;
+}
+
+export interface BulkThoughtResponse {
+    action: BulkThoughtAction;
+    succeeded: number;
+    failed: number;
+    results: BulkThoughtResult[];
+}
+
 export interface ThoughtHistory {
     id: string;
     thoughtsToPostId: string;
@@ -140,6 +166,25 @@ export interface ThoughtHistory {
     status: PostStatus;
 }
 
+/**
+ * Event from GET /api/thoughts/stream. 'open' is emitted locally on every (re)connect;
+ * 'resync' means events were missed and thoughts should be reloaded.
+ */
+export type ThoughtEventType = 'open' | 'status' | 'progress' | 'image_ready' | 'post_status' | 'resync';
+
+export interface ThoughtEvent {
+    id?: string;
+    type: ThoughtEventType;
+    thoughtId?: string;
+    status?: PostStatus;
+    platform?: PlatformType;
+    progress?: number;
+    imageId?: string;
+    errorMessage?: string;
+    version?: number;
+    occurredAt?: string;
+}
+
 export const PLATFORM_CONFIG: Record<PlatformType, { label: string; icon: string; color: string }> = {
     LINKEDIN: { label: 'LinkedIn', icon: 'in', color: '#0077b5' },
     FACEBOOK: { label: 'Facebook', icon: 'f', color: '#1877f2' },
@@ -1,11 +1,15 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient, HttpHeaders } from '@angular/common/http';
-import { Observable, BehaviorSubject, interval, switchMap, takeWhile, tap } from 'rxjs';
+import { Observable, BehaviorSubject, interval, switchMap, takeWhile, tap, filter, startWith, auditTime, catchError, share } from 'rxjs';
 import {
     ThoughtResponse,
     CreateThoughtRequest,
     ApproveThoughtRequest,
+    BulkThoughtRequest,
+    BulkThoughtResponse,
     ThoughtHistory,
+    ThoughtEvent,
+    ThoughtEventType,
     PlatformType
 } from '../models/thought.models';
 
@@ -17,6 +21,66 @@ export class ThoughtsService {
     private readonly apiUrl = 'http://localhost:8080/api/thoughts';
     private readonly oauthUrl = 'http://localhost:8080/api/oauth';
     private readonly adminUrl = 'http://localhost:8080/api/admin';
+    private readonly streamRetryMs = 3000;
+
+    /**
+     * One shared Server-Sent Events connection for all subscribers. Uses fetch rather than EventSource so the
+     * JWT can be sent as a header; reconnects with Last-Event-ID so missed events are replayed.
+     */
+    private readonly events$ = new Observable<ThoughtEvent>(subscriber => {
+        const controller = new AbortController();
+        let lastEventId: string | null = null;
+
+        const run = async () => {
+            while (!controller.signal.aborted) {
+                try {
+                    const headers: Record<string, string> = { Accept: 'text/event-stream' };
+                    const token = localStorage.getItem('token');
+                    if (token) {
+                        headers['Authorization'] = `Bearer ${token}`;
+                    }
+                    if (lastEventId) {
+                        headers['Last-Event-ID'] = lastEventId;
+                    }
+                    const response = await fetch(`${this.apiUrl}/stream`, { headers, signal: controller.signal });
+                    if (response.status === 401 || response.status === 403) {
+                        subscriber.error(new Error(`Event stream rejected: ${response.status}`));
+                        return;
+                    }
+                    if (!response.ok || !response.body) {
+                        throw new Error(`Event stream failed: ${response.status}`);
+                    }
+                    subscriber.next({ type: 'open' });
+
+                    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+                    let buffer = '';
+                    for (;;) {
+                        const { value, done } = await reader.read();
+                        if (done) {
+                            break;
+                        }
+                        buffer += value.replace(/\r\n/g, '\n');
+                        let boundary: number;
+                        while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                            const event = this.parseEvent(buffer.slice(0, boundary));
+                            buffer = buffer.slice(boundary + 2);
+                            if (event) {
+                                lastEventId = event.id ?? lastEventId;
+                                subscriber.next(event);
+                            }
+                        }
+                    }
+                } catch {
+                    if (controller.signal.aborted) {
+                        return;
+                    }
+                }
+                await new Promise(resolve => setTimeout(resolve, this.streamRetryMs));
+            }
+        };
+        run();
+        return () => controller.abort();
+    }).pipe(share());
 
     /**
      * Get thoughts by platform
@@ -81,6 +145,13 @@ export class ThoughtsService {
         return this.http.post<ThoughtResponse>(`${this.apiUrl}/${id}/reject`, {});
     }
 
+    /**
+     * Approve, reject, repost or delete many thoughts in one request; results are per thought
+     */
+    bulkAction(request: BulkThoughtRequest): Observable<BulkThoughtResponse> {
+        return this.http.post<BulkThoughtResponse>(`${this.apiUrl}/bulk`, request);
+    }
+
     /**
      * Update enriched content of a thought
      */
@@ -117,16 +188,60 @@ export class ThoughtsService {
     }
 
     /**
-     * Poll for thought status updates until it's no longer processing
+     * Live events for the current user's thoughts
+     */
+    streamEvents(): Observable<ThoughtEvent> {
+        return this.events$;
+    }
+
+    /**
+     * Follow a thought until it's no longer processing. Reloads it when the event stream reports a change,
+     * and falls back to polling if the stream is unavailable.
      */
     pollForUpdates(id: string, intervalMs = 2000): Observable<ThoughtResponse> {
-        return interval(intervalMs).pipe(
+        const processing = (thought: ThoughtResponse) =>
+            thought.status === 'PENDING' || thought.status === 'PROCESSING';
+
+        const polling = interval(intervalMs).pipe(
             switchMap(() => this.getThought(id)),
-            takeWhile(thought =>
-                thought.status === 'PENDING' || thought.status === 'PROCESSING',
-                true
-            )
+            takeWhile(processing, true)
         );
+
+        return this.streamEvents().pipe(
+            filter(event => event.type === 'open' || event.type === 'resync' || event.thoughtId === id),
+            startWith(null),
+            // Progress arrives in bursts; reload at most twice a second
+            auditTime(500),
+            switchMap(() => this.getThought(id)),
+            takeWhile(processing, true),
+            catchError(() => polling)
+        );
+    }
+
+    private parseEvent(block: string): ThoughtEvent | null {
+        let id: string | undefined;
+        let name = 'message';
+        const data: string[] = [];
+        for (const line of block.split('\n')) {
+            if (line.startsWith(':')) {
+                continue; // Comment (connected, heartbeat)
+            }
+            const separator = line.indexOf(':');
+            const field = separator >= 0 ? line.slice(0, separator) : line;
+            const value = separator >= 0 ? line.slice(separator + 1).replace(/^ /, '') : '';
+            if (field === 'id') {
+                id = value;
+            } else if (field === 'event') {
+                name = value;
+            } else if (field === 'data') {
+                data.push(value);
+            }
+        }
+        if (data.length === 0) {
+            return null;
+        }
+        const payload = JSON.parse(data.join('\n'));
+        return { ...payload, id, type: name as ThoughtEventType };
     }
 
     /**
@@ -1,15 +1,25 @@
 package com.carlev.thoughtstopost.config;
 
 import com.carlev.thoughtstopost.config.LenientLocalDateTimeDeserializer;
+import com.carlev.thoughtstopost.kafka.ProducerProfile;
+import com.carlev.thoughtstopost.kafka.ThoughtControlMessage;
+import com.carlev.thoughtstopost.kafka.ThoughtEventMessage;
 import com.carlev.thoughtstopost.kafka.ThoughtRequestMessage;
 import com.carlev.thoughtstopost.kafka.ThoughtResponseMessage;
+import com.carlev.thoughtstopost.kafka.WireFormat;
+import com.carlev.thoughtstopost.kafka.WireFormatDeserializer;
+import com.carlev.thoughtstopost.kafka.WireFormatSerializer;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,14 +29,17 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.util.backoff.BackOff;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -42,22 +55,75 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
-    // Producer Configuration
+    @Value("${app.kafka.request-topic}")
+    private String requestTopic;
+
+    @Value("${app.kafka.interactive-request-topic}")
+    private String interactiveRequestTopic;
+
+    @Value("${app.kafka.wire-format.request:json}")
+    private String requestWireFormat;
+
+    @Value("${app.kafka.dead-letter-topic:thoughts-to-post-response-dlt}")
+    private String deadLetterTopic;
+
+    // Request producer tuning per dispatch lane; the initializers apply when KafkaConfig is built by hand
+    @Value("${app.kafka.producer.bulk.linger-ms:20}")
+    private int bulkLingerMs = ProducerProfile.BULK.lingerMs();
+
+    @Value("${app.kafka.producer.bulk.batch-size:131072}")
+    private int bulkBatchSize = ProducerProfile.BULK.batchSize();
+
+    @Value("${app.kafka.producer.bulk.compression:gzip}")
+    private String bulkCompression = ProducerProfile.BULK.compressionType();
+
+    @Value("${app.kafka.producer.bulk.max-in-flight:5}")
+    private int bulkMaxInFlight = ProducerProfile.BULK.maxInFlight();
+
+    @Value("${app.kafka.producer.interactive.linger-ms:0}")
+    private int interactiveLingerMs = ProducerProfile.INTERACTIVE.lingerMs();
+
+    @Value("${app.kafka.producer.interactive.batch-size:16384}")
+    private int interactiveBatchSize = ProducerProfile.INTERACTIVE.batchSize();
+
+    @Value("${app.kafka.producer.interactive.compression:none}")
+    private String interactiveCompression = ProducerProfile.INTERACTIVE.compressionType();
+
+    @Value("${app.kafka.producer.interactive.max-in-flight:5}")
+    private int interactiveMaxInFlight = ProducerProfile.INTERACTIVE.maxInFlight();
+
+    /**
+     * ObjectMappers for every supported wire format, sharing the same Java time handling
+     * so JSON and CBOR payloads decode to identical messages.
+     */
     @Bean
-    public ProducerFactory<String, ThoughtRequestMessage> producerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        config.put(ProducerConfig.ACKS_CONFIG, "all");
-        
+    public Map<WireFormat, ObjectMapper> kafkaWireFormatMappers() {
+        Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+        mappers.put(WireFormat.JSON, configureKafkaMapper(new ObjectMapper()));
+        mappers.put(WireFormat.CBOR, configureKafkaMapper(new CBORMapper()));
+        return mappers;
+    }
+
+    private static ObjectMapper configureKafkaMapper(ObjectMapper objectMapper) {
         // Configure ObjectMapper for proper LocalDateTime serialization
-        ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        
-        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), 
-                new JsonSerializer<>(objectMapper));
+
+        // Ignore unknown properties to handle snake_case fields gracefully
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        // Register lenient LocalDateTime deserializer: unparseable timestamps become null and are counted, not thrown
+        SimpleModule lenientDateTimeModule = new SimpleModule();
+        lenientDateTimeModule.addDeserializer(java.time.LocalDateTime.class, new LenientLocalDateTimeDeserializer());
+        objectMapper.registerModule(lenientDateTimeModule);
+        return objectMapper;
+    }
+
+    // Producer Configuration: one request producer per dispatch lane, picked per send by ThoughtsKafkaProducer
+    @Bean
+    public ProducerFactory<String, ThoughtRequestMessage> producerFactory() {
+        return requestProducerFactory(new ProducerProfile(
+                bulkLingerMs, bulkBatchSize, bulkCompression, bulkMaxInFlight));
     }
 
     @Bean
@@ -65,6 +131,79 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    @Bean
+    public ProducerFactory<String, ThoughtRequestMessage> interactiveProducerFactory() {
+        return requestProducerFactory(new ProducerProfile(
+                interactiveLingerMs, interactiveBatchSize, interactiveCompression, interactiveMaxInFlight));
+    }
+
+    @Bean
+    public KafkaTemplate<String, ThoughtRequestMessage> interactiveKafkaTemplate() {
+        return new KafkaTemplate<>(interactiveProducerFactory());
+    }
+
+    private ProducerFactory<String, ThoughtRequestMessage> requestProducerFactory(ProducerProfile profile) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, WireFormatSerializer.class);
+        profile.applyTo(config);
+
+        // The request topic format is configurable, but the Python agent decodes JSON only: refuse to start with
+        // another format rather than send requests nobody can read
+        WireFormat requestFormat = WireFormat.fromString(requestWireFormat);
+        if (requestFormat != WireFormat.JSON) {
+            throw new IllegalStateException("app.kafka.wire-format.request=" + requestWireFormat
+                    + " is not supported: the AI agent reads JSON requests only");
+        }
+        Map<String, WireFormat> topicFormats = new HashMap<>();
+        topicFormats.put(requestTopic, requestFormat);
+        topicFormats.put(interactiveRequestTopic, requestFormat);
+        WireFormatSerializer<ThoughtRequestMessage> valueSerializer = new WireFormatSerializer<>(
+                kafkaWireFormatMappers(), topicFormats, WireFormat.JSON);
+
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), valueSerializer);
+    }
+
+    // Control topic producer (cancellations); always JSON so every agent version can read it
+    @Bean
+    public ProducerFactory<String, ThoughtControlMessage> controlProducerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        // Cancellations are latency sensitive: send immediately instead of waiting to fill a batch
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+
+        WireFormatSerializer<ThoughtControlMessage> valueSerializer = new WireFormatSerializer<>(
+                kafkaWireFormatMappers(), Map.of(), WireFormat.JSON);
+
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), valueSerializer);
+    }
+
+    @Bean
+    public KafkaTemplate<String, ThoughtControlMessage> controlKafkaTemplate() {
+        return new KafkaTemplate<>(controlProducerFactory());
+    }
+
+    // Thought events for the SSE stream; JSON, sent immediately since a user is watching
+    @Bean
+    public ProducerFactory<String, ThoughtEventMessage> eventProducerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.ACKS_CONFIG, "1");
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+
+        WireFormatSerializer<ThoughtEventMessage> valueSerializer = new WireFormatSerializer<>(
+                kafkaWireFormatMappers(), Map.of(), WireFormat.JSON);
+
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), valueSerializer);
+    }
+
+    @Bean
+    public KafkaTemplate<String, ThoughtEventMessage> eventKafkaTemplate() {
+        return new KafkaTemplate<>(eventProducerFactory());
+    }
+
     // Consumer Configuration
     @Bean
     public ConsumerFactory<String, ThoughtResponseMessage> consumerFactory() {
@@ -72,26 +211,11 @@ public class KafkaConfig {
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        config.put(JsonDeserializer.VALUE_DEFAULT_TYPE, ThoughtResponseMessage.class.getName());
-
-        // Configure ObjectMapper for proper LocalDateTime deserialization
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        
-        // Ignore unknown properties to handle snake_case fields gracefully
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        
-        // Register custom lenient LocalDateTime deserializer that falls back to current time on parsing errors
-        SimpleModule lenientDateTimeModule = new SimpleModule();
-        lenientDateTimeModule.addDeserializer(java.time.LocalDateTime.class, new LenientLocalDateTimeDeserializer());
-        objectMapper.registerModule(lenientDateTimeModule);
 
         // Use ErrorHandlingDeserializer to handle deserialization errors gracefully
         ErrorHandlingDeserializer<String> keyDeserializer = new ErrorHandlingDeserializer<>(new StringDeserializer());
-        ErrorHandlingDeserializer<ThoughtResponseMessage> valueDeserializer = 
-                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(ThoughtResponseMessage.class, objectMapper, false));
+        ErrorHandlingDeserializer<ThoughtResponseMessage> valueDeserializer = new ErrorHandlingDeserializer<>(
+                new WireFormatDeserializer<>(ThoughtResponseMessage.class, kafkaWireFormatMappers()));
 
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
         config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
@@ -107,13 +231,80 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, ThoughtResponseMessage> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         
-        // Configure error handler to skip bad messages after retries
-        // Retry 3 times with 1 second delay, then skip the message
+        // Configure error handler to dead-letter bad messages after retries
+        // Retry 3 times with 1 second delay, then publish the message to the dead-letter topic
         // This prevents infinite retry loops for messages that can't be deserialized
         BackOff backOff = new FixedBackOff(1000L, 3L);
-        CommonErrorHandler errorHandler = new DefaultErrorHandler(backOff);
+        CommonErrorHandler errorHandler = new DefaultErrorHandler(responseDeadLetterRecoverer(), backOff);
         factory.setCommonErrorHandler(errorHandler);
+
+        // Records are processed in parallel by ThoughtsKafkaConsumer and acknowledged out of order;
+        // the container only commits an offset once every record before it is acknowledged
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
         
         return factory;
     }
+
+    // Dead-letter topic for agent responses: decoded responses are re-encoded as JSON, undecodable ones are
+    // published as the original bytes. The recoverer adds the original topic/partition/offset and the exception
+    // class, cause and message as kafka_dlt-* headers.
+    @Bean
+    public ProducerFactory<String, Object> deadLetterProducerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+
+        Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+        valueSerializers.put(byte[].class, new ByteArraySerializer());
+        valueSerializers.put(ThoughtResponseMessage.class,
+                new WireFormatSerializer<ThoughtResponseMessage>(kafkaWireFormatMappers(), Map.of(), WireFormat.JSON));
+
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(),
+                new DelegatingByTypeSerializer(valueSerializers));
+    }
+
+    @Bean
+    public DeadLetterPublishingRecoverer responseDeadLetterRecoverer() {
+        return new DeadLetterPublishingRecoverer(new KafkaTemplate<>(deadLetterProducerFactory()),
+                (record, exception) -> new TopicPartition(deadLetterTopic, -1));
+    }
+
+    // Reads the dead-letter topic for browsing and replay; assigned partitions, never commits
+    @Bean
+    public ConsumerFactory<String, ThoughtResponseMessage> deadLetterConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        ErrorHandlingDeserializer<String> keyDeserializer = new ErrorHandlingDeserializer<>(new StringDeserializer());
+        ErrorHandlingDeserializer<ThoughtResponseMessage> valueDeserializer = new ErrorHandlingDeserializer<>(
+                new WireFormatDeserializer<>(ThoughtResponseMessage.class, kafkaWireFormatMappers()));
+
+        return new DefaultKafkaConsumerFactory<>(config, keyDeserializer, valueDeserializer);
+    }
+
+    // Events consumer: every instance reads from the latest offset in its own group (see ThoughtEventConsumer)
+    @Bean
+    public ConsumerFactory<String, ThoughtEventMessage> eventConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+
+        ErrorHandlingDeserializer<String> keyDeserializer = new ErrorHandlingDeserializer<>(new StringDeserializer());
+        ErrorHandlingDeserializer<ThoughtEventMessage> valueDeserializer = new ErrorHandlingDeserializer<>(
+                new WireFormatDeserializer<>(ThoughtEventMessage.class, kafkaWireFormatMappers()));
+
+        return new DefaultKafkaConsumerFactory<>(config, keyDeserializer, valueDeserializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ThoughtEventMessage> eventListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ThoughtEventMessage> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventConsumerFactory());
+        // Events are notifications; a bad one is skipped rather than retried
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(0L, 0L)));
+        return factory;
+    }
 }
@@ -4,107 +4,210 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.Month;
+import java.time.Year;
 
 /**
- * Custom deserializer for LocalDateTime that falls back to current system time
- * if date parsing fails (e.g., when encountering array-formatted dates).
+ * Lenient deserializer for LocalDateTime used on the Kafka consumer hot path.
+ * <p>
+ * Accepts ISO-8601 local date-times ({@code 2026-02-28T07:01:48}, optionally with up to 9 fraction digits),
+ * the space-separated variant ({@code 2026-02-28 07:01:48}) and Jackson's array form
+ * ({@code [2026, 2, 28, 7, 1, 48, 123000000]}). Parsing is a single pass over the parser's character
+ * buffer and never throws; values that cannot be parsed deserialize to {@code null} and are counted in
+ * the {@value #PARSE_FAILURES_METRIC} metric instead of being replaced with the current time.
+ * Fields that callers expect to be set when present (the response's processedAt and image createdAt)
+ * use {@link OrNow}, which keeps the previous fallback to the current time.
  */
 @Slf4j
 public class LenientLocalDateTimeDeserializer extends JsonDeserializer<LocalDateTime> {
 
-    private static final DateTimeFormatter[] FORMATTERS = {
-            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
-            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
-    };
+    public static final String PARSE_FAILURES_METRIC = "kafka.timestamp.parse.failures";
+
+    private final Counter parseFailures;
+
+    public LenientLocalDateTimeDeserializer() {
+        this(Metrics.counter(PARSE_FAILURES_METRIC));
+    }
+
+    public LenientLocalDateTimeDeserializer(Counter parseFailures) {
+        this.parseFailures = parseFailures;
+    }
 
     @Override
     public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-        try {
-            JsonToken token = p.getCurrentToken();
-            
-            // Handle array format: [year, month, day, hour, minute, second, nanoseconds]
-            if (token == JsonToken.START_ARRAY) {
-                log.warn("Encountered array-formatted date. Attempting to parse array format.");
-                try {
-                    // Read array values: [year, month, day, hour, minute, second, nanoseconds]
-                    int year = p.nextIntValue(-1);
-                    p.nextToken(); // consume comma
-                    int month = p.nextIntValue(-1);
-                    p.nextToken(); // consume comma
-                    int day = p.nextIntValue(-1);
-                    p.nextToken(); // consume comma
-                    int hour = p.nextIntValue(-1);
-                    p.nextToken(); // consume comma
-                    int minute = p.nextIntValue(-1);
-                    p.nextToken(); // consume comma
-                    int second = p.nextIntValue(-1);
-                    p.nextToken(); // consume comma (if nanoseconds present)
-                    int nano = 0;
-                    if (p.getCurrentToken() != JsonToken.END_ARRAY) {
-                        nano = p.nextIntValue(0);
-                        p.nextToken(); // consume closing bracket
-                    }
-                    
-                    if (year > 0 && month > 0 && day > 0) {
-                        return LocalDateTime.of(year, month, day, 
-                                hour >= 0 ? hour : 0, 
-                                minute >= 0 ? minute : 0, 
-                                second >= 0 ? second : 0,
-                                nano);
-                    } else {
-                        log.warn("Invalid array date values. Using current system time as fallback.");
-                        return LocalDateTime.now();
-                    }
-                } catch (Exception arrayException) {
-                    log.warn("Failed to parse array-formatted date. Using current system time as fallback. Error: {}", 
-                            arrayException.getMessage());
-                    // Consume remaining tokens to avoid parsing errors
-                    while (p.getCurrentToken() != JsonToken.END_ARRAY && p.getCurrentToken() != null) {
-                        p.nextToken();
-                    }
-                    if (p.getCurrentToken() == JsonToken.END_ARRAY) {
-                        p.nextToken();
-                    }
-                    return LocalDateTime.now();
+        JsonToken token = p.currentToken();
+        LocalDateTime result = null;
+
+        if (token == JsonToken.VALUE_STRING) {
+            result = parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } else if (token == JsonToken.START_ARRAY) {
+            result = parseArray(p);
+        } else if (token == JsonToken.START_OBJECT) {
+            p.skipChildren();
+        }
+
+        if (result == null) {
+            parseFailures.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Unparseable LocalDateTime token {} at {}", token, p.currentLocation());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse the array form [year, month, day, hour, minute, second, nanos]; trailing fields are optional.
+     * Always leaves the parser on the closing END_ARRAY token.
+     */
+    private static LocalDateTime parseArray(JsonParser p) throws IOException {
+        int[] fields = {0, 0, 0, 0, 0, 0, 0};
+        int count = 0;
+        boolean valid = true;
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.VALUE_NUMBER_INT && count < fields.length) {
+                fields[count++] = p.getIntValue();
+            } else {
+                valid = false;
+                if (token == JsonToken.START_ARRAY || token == JsonToken.START_OBJECT) {
+                    p.skipChildren();
                 }
             }
-            
-            // Handle string format
-            String dateString = p.getText();
-            
-            // Try to parse as ISO-8601 string first
-            for (DateTimeFormatter formatter : FORMATTERS) {
-                try {
-                    return LocalDateTime.parse(dateString, formatter);
-                } catch (DateTimeParseException e) {
-                    // Try next formatter
+        }
+        if (!valid || count < 3) {
+            return null;
+        }
+        return of(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6]);
+    }
+
+    /**
+     * Parse {@code yyyy-MM-dd('T'|' ')HH:mm[:ss[.fffffffff]]} without allocating or throwing.
+     *
+     * @return the parsed value, or {@code null} if the text is not a valid local date-time
+     */
+    public static LocalDateTime parse(char[] buf, int off, int len) {
+        if (buf == null || len < 16 || off < 0 || off + len > buf.length) {
+            return null;
+        }
+        int end = off + len;
+        int i = off;
+
+        int year = digits(buf, i, 4);
+        if (year < 0 || buf[i + 4] != '-') {
+            return null;
+        }
+        int month = digits(buf, i + 5, 2);
+        if (month < 0 || buf[i + 7] != '-') {
+            return null;
+        }
+        int day = digits(buf, i + 8, 2);
+        char separator = buf[i + 10];
+        if (day < 0 || (separator != 'T' && separator != ' ')) {
+            return null;
+        }
+        int hour = digits(buf, i + 11, 2);
+        if (hour < 0 || buf[i + 13] != ':') {
+            return null;
+        }
+        int minute = digits(buf, i + 14, 2);
+        if (minute < 0) {
+            return null;
+        }
+        i += 16;
+
+        int second = 0;
+        int nano = 0;
+        if (i < end) {
+            if (buf[i] != ':' || i + 3 > end) {
+                return null;
+            }
+            second = digits(buf, i + 1, 2);
+            if (second < 0) {
+                return null;
+            }
+            i += 3;
+            if (i < end) {
+                if (buf[i] != '.') {
+                    return null;
+                }
+                i++;
+                int fractionDigits = end - i;
+                if (fractionDigits > 9) {
+                    return null;
+                }
+                nano = digits(buf, i, fractionDigits);
+                if (nano < 0) {
+                    return null;
+                }
+                for (int scale = fractionDigits; scale < 9; scale++) {
+                    nano *= 10;
                 }
             }
-            
-            // If all formatters fail, log warning and use current time
-            log.warn("Failed to parse date string '{}'. Using current system time as fallback.", dateString);
-            return LocalDateTime.now();
-            
-        } catch (Exception e) {
-            // Handle any other unexpected formats
-            log.warn("Unexpected date format encountered. Using current system time as fallback. Error: {}", 
-                    e.getMessage());
-            
-            try {
-                return LocalDateTime.now();
-            } catch (Exception fallbackException) {
-                // This should never happen, but if it does, log and throw
-                log.error("Failed to set current system time as fallback. This should not happen.", fallbackException);
-                throw new IOException("Failed to deserialize LocalDateTime and fallback also failed", fallbackException);
+        }
+        return of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * Convenience overload for callers holding a String.
+     */
+    public static LocalDateTime parse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        char[] buf = new char[text.length()];
+        for (int i = 0; i < buf.length; i++) {
+            buf[i] = text.charAt(i);
+        }
+        return parse(buf, 0, buf.length);
+    }
+
+    private static int digits(char[] buf, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = buf[i];
+            if (c < '0' || c > '9') {
+                return -1;
             }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static LocalDateTime of(int year, int month, int day, int hour, int minute, int second, int nano) {
+        // Validate every field up front so LocalDateTime.of never throws
+        if (year < 0 || year > 9999 || month < 1 || month > 12 || day < 1
+                || day > Month.of(month).length(Year.isLeap(year))
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 59 || nano < 0 || nano > 999_999_999) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * Variant for fields that must not become null when a value was sent: unparseable values are counted
+     * and replaced with the current time, as before the lenient parser. Absent or JSON null values stay null.
+     */
+    public static class OrNow extends LenientLocalDateTimeDeserializer {
+
+        public OrNow() {
+            super();
+        }
+
+        public OrNow(Counter parseFailures) {
+            super(parseFailures);
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            LocalDateTime result = super.deserialize(p, ctxt);
+            return result != null ? result : LocalDateTime.now();
         }
     }
 }
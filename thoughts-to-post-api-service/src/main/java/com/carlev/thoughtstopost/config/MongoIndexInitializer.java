@@ -0,0 +1,67 @@
+package com.carlev.thoughtstopost.config;
+
+import com.carlev.thoughtstopost.model.EnrichmentCacheEntry;
+import com.carlev.thoughtstopost.model.IdempotencyRecord;
+import com.carlev.thoughtstopost.model.ProcessedMessage;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Creates the indexes the service relies on at startup.
+ * <p>
+ * Automatic index creation stays off so only these collections are touched. The processed-message
+ * ledger's TTL index is declared here with its retention from configuration; its dedupe key is the
+ * document id, which Mongo already keeps unique. The other entities still declare their indexes with
+ * {@code @Indexed}/{@code @CompoundIndex}, and those definitions are resolved and applied for the
+ * listed classes only.
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer {
+
+    private static final List<Class<?>> ANNOTATED_ENTITIES = List.of(
+            ThoughtsToPost.class,
+            ThoughtsToPostHistory.class,
+            IdempotencyRecord.class,
+            EnrichmentCacheEntry.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration processedMessageRetention;
+
+    public MongoIndexInitializer(
+            MongoTemplate mongoTemplate,
+            @Value("${app.kafka.dedupe.retention:7d}") Duration processedMessageRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.processedMessageRetention = processedMessageRetention;
+    }
+
+    @PostConstruct
+    void createIndexes() {
+        mongoTemplate.indexOps(ProcessedMessage.class).ensureIndex(new Index()
+                .on("processedAt", Sort.Direction.ASC)
+                .named("processed_at_ttl")
+                .expire(processedMessageRetention));
+
+        IndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : ANNOTATED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            resolver.resolveIndexFor(entity).forEach(indexOps::ensureIndex);
+        }
+        log.info("Ensured Mongo indexes for {} and {} annotated entities",
+                ProcessedMessage.class.getSimpleName(), ANNOTATED_ENTITIES.size());
+    }
+}
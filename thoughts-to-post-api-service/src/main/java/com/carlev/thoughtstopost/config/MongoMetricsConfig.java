@@ -0,0 +1,37 @@
+package com.carlev.thoughtstopost.config;
+
+import com.carlev.thoughtstopost.kafka.ResponseFlowControl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+/**
+ * Wires {@link MongoOperationMetrics} into the Mongo client and the API's handler chain, and registers
+ * {@link ResponseFlowControl} to watch the client's command latency and cluster state.
+ */
+@Configuration
+public class MongoMetricsConfig {
+
+    @Bean
+    public MongoOperationMetrics mongoOperationMetrics(MeterRegistry meterRegistry) {
+        return new MongoOperationMetrics(meterRegistry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoOperationCounter(MongoOperationMetrics metrics) {
+        return settings -> settings.addCommandListener(metrics);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer responseFlowControlListener(ResponseFlowControl flowControl) {
+        return settings -> settings.addCommandListener(flowControl)
+                .applyToClusterSettings(cluster -> cluster.addClusterListener(flowControl));
+    }
+
+    @Bean
+    public MappedInterceptor mongoOperationInterceptor(MongoOperationMetrics metrics) {
+        return new MappedInterceptor(new String[]{"/api/**"}, metrics);
+    }
+}
@@ -0,0 +1,69 @@
+package com.carlev.thoughtstopost.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the Mongo commands each API request sends, as the {@code mongo.operations} summary tagged with the
+ * endpoint. Commands are counted on the request thread only, so work handed to Kafka, schedulers or a streamed
+ * response body is not included.
+ */
+public class MongoOperationMetrics implements CommandListener, AsyncHandlerInterceptor {
+
+    private static final ThreadLocal<int[]> OPERATIONS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public MongoOperationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        int[] operations = OPERATIONS.get();
+        if (operations != null) {
+            operations[0]++;
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.REQUEST) {
+            OPERATIONS.set(new int[1]);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        record(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        record(request);
+    }
+
+    private void record(HttpServletRequest request) {
+        int[] operations = OPERATIONS.get();
+        if (operations == null) {
+            return;
+        }
+        OPERATIONS.remove();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("mongo.operations")
+                .description("Mongo commands sent per API request")
+                .tag("endpoint", request.getMethod() + " " + (pattern != null ? pattern : "unmatched"))
+                .register(meterRegistry)
+                .record(operations[0]);
+    }
+}
@@ -0,0 +1,86 @@
+package com.carlev.thoughtstopost.config;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Times how long thoughts spend in each status (PENDING, PROCESSING, ENRICHED, APPROVED, POSTING, POSTED, ...).
+ * <p>
+ * Status changes are picked up from the saves that write them, so every writer is covered: the service, the poster,
+ * the scheduler and merge retries. A change is stamped on the document before it is converted and recorded once the
+ * save succeeds, so a save that conflicts and is merged or retried is counted once. A thought's first status has no
+ * previous one and is only stamped. Bulk writes emit a save event for every item, including those whose version
+ * check matched nothing, so their transitions are left pending and ThoughtsToPostRepositoryImpl publishes the save
+ * again for the items actually written.
+ * <p>
+ * {@code thoughts.status.transition} is tagged with the previous and new status and the platform. A thought
+ * targeting several platforms is recorded under each of them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ThoughtTransitionMetrics extends AbstractMongoEventListener<ThoughtsToPost> {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<ThoughtsToPost> event) {
+        stamp(event.getSource(), Instant.now());
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<ThoughtsToPost> event) {
+        ThoughtsToPost thought = event.getSource();
+        ThoughtsToPost.StatusTransition transition = thought.getPendingTransition();
+        if (transition == null || thought.isBulkWrite()) {
+            return;
+        }
+        thought.setPendingTransition(null);
+        for (String platform : platforms(thought)) {
+            Timer.builder("thoughts.status.transition")
+                    .description("Time a thought spent in a status before moving to the next")
+                    .tag("from", transition.from().name().toLowerCase())
+                    .tag("to", transition.to().name().toLowerCase())
+                    .tag("platform", platform)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(transition.elapsed());
+        }
+    }
+
+    /**
+     * Stamp a status change on the thought, keeping the transition to record once it is saved.
+     */
+    static void stamp(ThoughtsToPost thought, Instant now) {
+        thought.setPendingTransition(null);
+        PostStatus status = thought.getStatus();
+        if (status == null || (status == thought.getTimedStatus() && thought.getStatusEnteredAt() != null)) {
+            return;
+        }
+        if (thought.getTimedStatus() != null && thought.getStatusEnteredAt() != null) {
+            thought.setPendingTransition(new ThoughtsToPost.StatusTransition(thought.getTimedStatus(), status,
+                    Duration.between(thought.getStatusEnteredAt(), now)));
+        }
+        thought.setTimedStatus(status);
+        thought.setStatusEnteredAt(now);
+    }
+
+    private static List<String> platforms(ThoughtsToPost thought) {
+        List<PlatformType> selected = thought.getSelectedPlatforms();
+        if (selected == null || selected.isEmpty()) {
+            return List.of("none");
+        }
+        return selected.stream().distinct().map(platform -> platform.name().toLowerCase()).toList();
+    }
+}
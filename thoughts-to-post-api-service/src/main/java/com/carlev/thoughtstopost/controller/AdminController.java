@@ -1,10 +1,12 @@
 package com.carlev.thoughtstopost.controller;
 
+import com.carlev.thoughtstopost.dto.DispatchQueueStatus;
 import com.carlev.thoughtstopost.model.PlatformPrompt;
 import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.ThoughtCategory;
 import com.carlev.thoughtstopost.repository.PlatformPromptRepository;
 import com.carlev.thoughtstopost.repository.ThoughtCategoryRepository;
+import com.carlev.thoughtstopost.service.EnrichmentDispatcher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +23,7 @@ public class AdminController {
 
     private final ThoughtCategoryRepository categoryRepository;
     private final PlatformPromptRepository platformPromptRepository;
+    private final EnrichmentDispatcher enrichmentDispatcher;
 
     // Thought Categories
     @GetMapping("/categories")
@@ -95,4 +98,10 @@ public class AdminController {
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    // Enrichment dispatch queue
+    @GetMapping("/dispatch-queue")
+    public DispatchQueueStatus getDispatchQueue() {
+        return enrichmentDispatcher.status();
+    }
 }
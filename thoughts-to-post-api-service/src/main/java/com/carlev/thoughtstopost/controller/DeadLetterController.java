@@ -0,0 +1,73 @@
+package com.carlev.thoughtstopost.controller;
+
+import com.carlev.thoughtstopost.dto.DeadLetterEntry;
+import com.carlev.thoughtstopost.dto.DeadLetterReplayRequest;
+import com.carlev.thoughtstopost.dto.DeadLetterReplayStatus;
+import com.carlev.thoughtstopost.service.DeadLetterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller for browsing dead-lettered agent responses and replaying them.
+ */
+@RestController
+@RequestMapping("/api/admin/dead-letters")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping
+    public List<DeadLetterEntry> browse(
+            @RequestParam(required = false) String requestId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String exceptionType,
+            @RequestParam(defaultValue = "100") int limit) {
+        DeadLetterReplayRequest filter = DeadLetterReplayRequest.builder()
+                .requestId(requestId)
+                .from(from)
+                .to(to)
+                .exceptionType(exceptionType)
+                .build();
+        return deadLetterService.browse(filter, limit);
+    }
+
+    /**
+     * Start replaying the matching dead letters at {@code ratePerSecond}; poll {@code GET /replay} for progress.
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayStatus> startReplay(@RequestBody DeadLetterReplayRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(deadLetterService.startReplay(request));
+    }
+
+    @GetMapping("/replay")
+    public ResponseEntity<DeadLetterReplayStatus> replayStatus() {
+        return ResponseEntity.of(deadLetterService.replayStatus());
+    }
+
+    @DeleteMapping("/replay")
+    public ResponseEntity<DeadLetterReplayStatus> cancelReplay() {
+        return ResponseEntity.of(deadLetterService.cancelReplay());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+}
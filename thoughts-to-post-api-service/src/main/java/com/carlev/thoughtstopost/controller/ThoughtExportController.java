@@ -0,0 +1,66 @@
+package com.carlev.thoughtstopost.controller;
+
+import com.carlev.thoughtstopost.service.ThoughtExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST controller for exporting a user's thoughts as NDJSON.
+ */
+@RestController
+@RequestMapping("/api/thoughts")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class ThoughtExportController {
+
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    private final ThoughtExportService exportService;
+
+    /**
+     * Stream all of the user's thoughts, then optionally their history, from the database cursor into the
+     * response. Compressed with gzip when the client accepts it.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportThoughts(
+            @RequestParam(defaultValue = "false") boolean includeHistory,
+            @RequestParam(defaultValue = "false") boolean includeImages,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        log.info("Exporting thoughts for user: {} (history: {}, images: {}, gzip: {})",
+                userId, includeHistory, includeImages, gzip);
+
+        StreamingResponseBody stream = out -> {
+            if (gzip) {
+                // syncFlush, so each batch of lines the export flushes reaches the client compressed
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER, true)) {
+                    exportService.export(userId, includeHistory, includeImages, compressed);
+                }
+            } else {
+                exportService.export(userId, includeHistory, includeImages, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("thoughts-export.ndjson").build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(stream);
+    }
+}
@@ -0,0 +1,48 @@
+package com.carlev.thoughtstopost.controller;
+
+import com.carlev.thoughtstopost.service.ThoughtImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * REST controller for importing thoughts from NDJSON or CSV uploads.
+ */
+@RestController
+@RequestMapping("/api/thoughts")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class ThoughtImportController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final ThoughtImportService importService;
+
+    /**
+     * Import one thought per NDJSON line or CSV row. The body is read as it arrives and the per-row results
+     * are streamed back as NDJSON, batch by batch; imported thoughts are sent to the agent as it frees up.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importThoughts(
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        String userId = authentication.getName();
+        ThoughtImportService.Format format = TEXT_CSV.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? ThoughtImportService.Format.CSV
+                : ThoughtImportService.Format.NDJSON;
+        log.info("Importing {} thoughts for user: {}", format, userId);
+        InputStream body = request.getInputStream();
+        StreamingResponseBody stream = out -> importService.importThoughts(body, format, userId, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
+    }
+}
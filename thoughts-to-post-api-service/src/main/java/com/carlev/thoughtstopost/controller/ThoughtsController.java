@@ -1,21 +1,36 @@
 package com.carlev.thoughtstopost.controller;
 
 import com.carlev.thoughtstopost.dto.ApproveThoughtRequest;
+import com.carlev.thoughtstopost.dto.BulkThoughtRequest;
+import com.carlev.thoughtstopost.dto.BulkThoughtResponse;
 import com.carlev.thoughtstopost.dto.CreateThoughtRequest;
+import com.carlev.thoughtstopost.dto.SimilarThoughtResponse;
+import com.carlev.thoughtstopost.dto.ThoughtField;
 import com.carlev.thoughtstopost.dto.ThoughtResponse;
 import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.PostStatus;
 import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+import com.carlev.thoughtstopost.service.ThoughtEventBroadcaster;
 import com.carlev.thoughtstopost.service.ThoughtsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 /**
  * REST controller for thought post operations.
@@ -27,7 +42,11 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ThoughtsController {
 
+    // Browsers may keep the body but must revalidate it with If-None-Match on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final ThoughtsService thoughtsService;
+    private final ThoughtEventBroadcaster eventBroadcaster;
 
     @PostMapping
     public ResponseEntity<ThoughtResponse> createThought(
@@ -39,25 +58,152 @@ public class ThoughtsController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Approve, reject, repost or delete many thoughts at once, with a result per thought.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkThoughtResponse> bulkAction(
+            @Valid @RequestBody BulkThoughtRequest request,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        log.info("Bulk {} of {} thoughts by user: {}", request.getAction(), request.getIds().size(), userId);
+        try {
+            return ResponseEntity.ok(thoughtsService.bulkAction(request, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/similar")
+    public ResponseEntity<List<SimilarThoughtResponse>> findSimilarThoughts(
+            @RequestParam String text,
+            @RequestParam(defaultValue = "5") int limit,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        log.info("Finding thoughts similar to a draft for user: {}", userId);
+        return ResponseEntity.ok(thoughtsService.findSimilarThoughts(text, Math.min(limit, 50), userId));
+    }
+
+    /**
+     * Server-Sent Events stream of the user's thought status, progress, image and posting events.
+     * Reconnecting clients send Last-Event-ID to receive the events they missed.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        log.info("Opening thought event stream for user: {} (Last-Event-ID: {})", userId, lastEventId);
+        return eventBroadcaster.subscribe(userId, lastEventId);
+    }
+
+    /**
+     * Get a thought. Sends a strong ETag from (id, version); a matching If-None-Match is answered with 304 from
+     * an index lookup, without loading the document.
+     */
     @GetMapping("/{id}")
     public ResponseEntity<ThoughtResponse> getThought(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication) {
         String userId = authentication.getName();
         log.info("Getting thought: {} for user: {}", id, userId);
+        if (ifNoneMatch != null) {
+            String eTag = thoughtsService.getThoughtETag(id, userId);
+            if (matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+            }
+        }
         ThoughtResponse response = thoughtsService.getThought(id, userId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(ThoughtsService.thoughtETag(response.getId(), response.getVersion()))
+                .cacheControl(REVALIDATE)
+                .body(response);
     }
 
+    /**
+     * Get only the requested fields of a thought, e.g. {@code ?fields=id,status,updatedAt}. Unrequested fields
+     * are not read from the database. Same ETag as the full thought.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<byte[]> getThoughtFields(
+            @PathVariable String id,
+            @RequestParam String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication) throws IOException {
+        String userId = authentication.getName();
+        log.info("Getting fields {} of thought: {} for user: {}", fields, id, userId);
+        Set<ThoughtField> requested;
+        try {
+            requested = ThoughtField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = thoughtsService.getThoughtETag(id, userId);
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        thoughtsService.writeThoughtFields(id, userId, requested, body);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.toByteArray());
+    }
+
+    /**
+     * List only the requested fields of the user's thoughts, streamed from the database cursor to the response.
+     * Filters and ETag as {@link #getUserThoughts}.
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<StreamingResponseBody> getUserThoughtsFields(
+            @RequestParam String fields,
+            @RequestParam(required = false) PostStatus status,
+            @RequestParam(required = false) PostStatus notStatus,
+            @RequestParam(required = false) PlatformType platform,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication) {
+        String userId = authentication.getName();
+        log.info("Getting fields {} of thoughts for user: {} with filter status: {}, notStatus: {}, platform: {}",
+                fields, userId, status, notStatus, platform);
+        Set<ThoughtField> requested;
+        try {
+            requested = ThoughtField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = thoughtsService.getUserThoughtsETag(userId, status, notStatus, platform);
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+        }
+        StreamingResponseBody body = out ->
+                thoughtsService.writeUserThoughtsFields(userId, status, notStatus, platform, requested, out);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * List the user's thoughts. The ETag is computed from the filter's count and latest update before the list
+     * is read, so an unchanged list costs two index queries and a 304.
+     */
     @GetMapping
     public ResponseEntity<List<ThoughtResponse>> getUserThoughts(
             @RequestParam(required = false) PostStatus status,
             @RequestParam(required = false) PostStatus notStatus,
             @RequestParam(required = false) PlatformType platform,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             Authentication authentication) {
         String userId = authentication.getName();
         log.info("Getting thoughts for user: {} with filter status: {}, notStatus: {}, platform: {}",
                 userId, status, notStatus, platform);
+        String eTag = thoughtsService.getUserThoughtsETag(userId, status, notStatus, platform);
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+        }
         List<ThoughtResponse> responses;
         if (status != null) {
             responses = thoughtsService.getUserThoughtsByStatus(userId, status);
@@ -68,7 +214,7 @@ public class ThoughtsController {
         } else {
             responses = thoughtsService.getUserThoughts(userId);
         }
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(responses);
     }
 
     @GetMapping("/{id}/history")
@@ -120,8 +266,9 @@ public class ThoughtsController {
             Authentication authentication) {
         String userId = authentication.getName();
         String instructions = request.get("additionalInstructions");
+        boolean skipCache = Boolean.parseBoolean(request.get("skipCache"));
         log.info("Re-enriching thought: {} by user: {}", id, userId);
-        ThoughtResponse response = thoughtsService.reenrichThought(id, instructions, userId);
+        ThoughtResponse response = thoughtsService.reenrichThought(id, instructions, skipCache, userId);
         return ResponseEntity.ok(response);
     }
 
@@ -152,10 +299,11 @@ public class ThoughtsController {
     @PostMapping("/{id}/repost")
     public ResponseEntity<ThoughtResponse> repostThought(
             @PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean skipCache,
             Authentication authentication) {
         String userId = authentication.getName();
         log.info("Reposting thought: {} by user: {}", id, userId);
-        ThoughtResponse response = thoughtsService.repostThought(id, userId);
+        ThoughtResponse response = thoughtsService.repostThought(id, skipCache, userId);
         return ResponseEntity.ok(response);
     }
 
@@ -163,4 +311,26 @@ public class ThoughtsController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("OK");
     }
+
+    /**
+     * A write that still conflicted after merging with concurrent changes; the client reloads and retries.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException e) {
+        log.info("Thought write conflicted: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("The thought was changed by another update; reload and retry");
+    }
+
+    /**
+     * If-None-Match uses the weak comparison: a list of tags or {@code *}.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = ETag.create(eTag);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(candidate -> candidate.isWildcard() || candidate.compare(current, false));
+    }
 }
@@ -0,0 +1,45 @@
+package com.carlev.thoughtstopost.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for applying one action to many thoughts.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkThoughtRequest {
+
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    @NotEmpty(message = "At least one thought id is required")
+    private List<String> ids; // At most app.bulk.max-ids
+
+    // APPROVE only, applied to every thought as in ApproveThoughtRequest
+    private String textContentComments;
+    private String imageContentComments;
+
+    @Builder.Default
+    private boolean postText = true;
+
+    @Builder.Default
+    private boolean postImage = true;
+
+    private boolean skipCache; // REPOST only
+
+    public enum Action {
+        APPROVE,
+        REJECT,
+        REPOST,
+        DELETE
+    }
+}
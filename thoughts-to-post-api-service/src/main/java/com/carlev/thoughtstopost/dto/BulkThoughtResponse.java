@@ -0,0 +1,41 @@
+package com.carlev.thoughtstopost.dto;
+
+import com.carlev.thoughtstopost.model.PostStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Per-thought results of a bulk action, in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkThoughtResponse {
+    private BulkThoughtRequest.Action action;
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private String id;
+        private Outcome outcome;
+        private PostStatus status; // Status after the action; null for deleted or failed items
+        private String errorMessage;
+    }
+
+    public enum Outcome {
+        OK,
+        NOT_FOUND,
+        INVALID_STATE,
+        CONFLICT // Changed by another request between the read and the write; retry the item
+    }
+}
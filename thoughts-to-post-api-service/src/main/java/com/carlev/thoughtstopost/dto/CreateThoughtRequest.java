@@ -31,6 +31,10 @@ public class CreateThoughtRequest {
 
     private List<PlatformConfig> platformConfigs;
 
+    private boolean skipCache; // Always run the AI agent, even if an identical enrichment is cached
+
+    private String reuseThoughtId; // Copy this past thought's enriched content instead of running the AI agent
+
     @Data
     @Builder
     @NoArgsConstructor
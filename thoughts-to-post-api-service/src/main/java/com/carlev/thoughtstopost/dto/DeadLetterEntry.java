@@ -0,0 +1,31 @@
+package com.carlev.thoughtstopost.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An agent response on the dead-letter topic, with where it came from and why it failed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterEntry {
+    private int partition;
+    private long offset;
+    private Instant deadLetteredAt;
+    private String key;
+    private String requestId; // Null if the payload could not be decoded
+    private String status;
+    private Long generation;
+    private String originalTopic;
+    private Integer originalPartition;
+    private Long originalOffset;
+    private String exceptionType;
+    private String exceptionMessage;
+    private boolean replayable;
+}
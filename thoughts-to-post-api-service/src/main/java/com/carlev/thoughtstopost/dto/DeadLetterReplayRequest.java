@@ -0,0 +1,24 @@
+package com.carlev.thoughtstopost.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Which dead-lettered agent responses to replay, and how fast. Unset filters match everything.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayRequest {
+    private String requestId;
+    private Instant from; // Dead-lettered at or after
+    private Instant to; // Dead-lettered before
+    private String exceptionType; // Class name, or part of it, of the failure or its cause
+    @Builder.Default
+    private double ratePerSecond = 10;
+}
@@ -0,0 +1,40 @@
+package com.carlev.thoughtstopost.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of a dead-letter replay.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayStatus {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private String id;
+    private State state;
+    private DeadLetterReplayRequest request;
+    private long scanned; // Dead letters read
+    private long matched; // Of those, matching the filters
+    private long replayed; // Applied by handleAgentResponse
+    private long failed; // Failed again; left on the dead-letter topic
+    private long alreadyApplied; // Replayed before, per the dedupe ledger
+    private long unreadable; // Payload could not be decoded, so cannot be replayed
+    private long remaining; // Dead letters not yet read
+    private double throughputPerSecond;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
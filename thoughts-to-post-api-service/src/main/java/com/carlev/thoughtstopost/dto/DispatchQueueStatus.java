@@ -0,0 +1,36 @@
+package com.carlev.thoughtstopost.dto;
+
+import com.carlev.thoughtstopost.kafka.DispatchLane;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Snapshot of the enrichment dispatch queue on this API instance.
+ * Top-level figures are totals across lanes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchQueueStatus {
+    private int capacity;
+    private int inFlight;
+    private int queued;
+    private Map<String, Integer> queuedByUser;
+    private Map<DispatchLane, LaneStatus> lanes;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LaneStatus {
+        private int capacity;
+        private int inFlight;
+        private int queued;
+        private Map<String, Integer> queuedByUser;
+    }
+}
@@ -0,0 +1,19 @@
+package com.carlev.thoughtstopost.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A past thought similar to a draft, with its enriched results available for reuse.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarThoughtResponse {
+
+    private double similarity; // Estimated Jaccard similarity of the original texts, 0 to 1
+    private ThoughtResponse thought;
+}
@@ -0,0 +1,108 @@
+package com.carlev.thoughtstopost.dto;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A top-level {@link ThoughtResponse} field that can be requested with {@code fields=}.
+ * <p>
+ * Each field knows the document paths it needs, which become the Mongo projection, and how to read its value
+ * from a projected entity. Nested fields project only the sub-paths their DTOs expose, so image base64 data and
+ * dispatch bookkeeping are never read for a sparse response.
+ */
+public enum ThoughtField {
+    ID("id", ThoughtsToPost::getId, "id"),
+    USER_ID("userId", ThoughtsToPost::getUserId, "userId"),
+    CATEGORY_ID("categoryId", ThoughtsToPost::getCategoryId, "categoryId"),
+    ORIGINAL_THOUGHT("originalThought", ThoughtsToPost::getOriginalThought, "originalThought"),
+    ADDITIONAL_INSTRUCTIONS("additionalInstructions", ThoughtsToPost::getAdditionalInstructions, "additionalInstructions"),
+    PLATFORM_SELECTIONS("platformSelections",
+            thought -> ThoughtResponse.selectionDtos(thought.getPlatformSelections()),
+            "platformSelections.platform", "platformSelections.presetId", "platformSelections.additionalContext"),
+    ENRICHED_CONTENTS("enrichedContents",
+            thought -> ThoughtResponse.enrichedContentDtos(thought.getEnrichedContents()),
+            "enrichedContents.platform", "enrichedContents.title", "enrichedContents.body",
+            "enrichedContents.hashtags", "enrichedContents.callToAction", "enrichedContents.characterCount",
+            "enrichedContents.status", "enrichedContents.errorMessage",
+            "enrichedContents.images.id", "enrichedContents.images.url", "enrichedContents.images.prompt",
+            "enrichedContents.images.format", "enrichedContents.images.width", "enrichedContents.images.height",
+            "enrichedContents.images.selected", "enrichedContents.images.tag", "enrichedContents.images.createdAt"),
+    GENERATED_IMAGE_URL("generatedImageUrl", ThoughtsToPost::getGeneratedImageUrl, "generatedImageUrl"),
+    SELECTED_PLATFORMS("selectedPlatforms", ThoughtsToPost::getSelectedPlatforms, "selectedPlatforms"),
+    STATUS("status", ThoughtsToPost::getStatus, "status"),
+    VERSION("version", ThoughtsToPost::getVersion, "version"),
+    CREATED_AT("createdAt", ThoughtsToPost::getCreatedAt, "createdAt"),
+    UPDATED_AT("updatedAt", ThoughtsToPost::getUpdatedAt, "updatedAt"),
+    ERROR_MESSAGE("errorMessage", ThoughtsToPost::getErrorMessage, "errorMessage"),
+    TEXT_CONTENT_COMMENTS("textContentComments", ThoughtsToPost::getTextContentComments, "textContentComments"),
+    IMAGE_CONTENT_COMMENTS("imageContentComments", ThoughtsToPost::getImageContentComments, "imageContentComments"),
+    POST_TEXT("postText", ThoughtsToPost::isPostText, "postText"),
+    POST_IMAGE("postImage", ThoughtsToPost::isPostImage, "postImage");
+
+    private final String jsonName;
+    private final Function<ThoughtsToPost, Object> reader;
+    private final List<String> paths;
+
+    ThoughtField(String jsonName, Function<ThoughtsToPost, Object> reader, String... paths) {
+        this.jsonName = jsonName;
+        this.reader = reader;
+        this.paths = List.of(paths);
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    public List<String> paths() {
+        return paths;
+    }
+
+    /**
+     * The field's response value, read from an entity projected with at least this field's paths.
+     */
+    public Object read(ThoughtsToPost thought) {
+        return reader.apply(thought);
+    }
+
+    /**
+     * Parse a comma-separated {@code fields=} value of JSON field names. Fields are written in ThoughtResponse order.
+     *
+     * @throws IllegalArgumentException if the list is empty or names an unknown field
+     */
+    public static Set<ThoughtField> parse(String fields) {
+        Set<ThoughtField> parsed = EnumSet.noneOf(ThoughtField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            ThoughtField field = null;
+            for (ThoughtField candidate : values()) {
+                if (candidate.jsonName.equals(trimmed)) {
+                    field = candidate;
+                    break;
+                }
+            }
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown thought field: " + trimmed);
+            }
+            parsed.add(field);
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("No thought fields requested");
+        }
+        return parsed;
+    }
+
+    /**
+     * Document paths to project for the given fields.
+     */
+    public static List<String> projection(Collection<ThoughtField> fields) {
+        return fields.stream().flatMap(field -> field.paths.stream()).toList();
+    }
+}
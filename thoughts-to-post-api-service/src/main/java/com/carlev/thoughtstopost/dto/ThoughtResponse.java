@@ -95,8 +95,31 @@ public class ThoughtResponse {
      * Convert from entity to DTO.
      */
     public static ThoughtResponse fromEntity(ThoughtsToPost entity) {
-        List<PlatformSelectionDto> selectionDtos = entity.getPlatformSelections() != null
-                ? entity.getPlatformSelections().stream()
+        return ThoughtResponse.builder()
+                .id(entity.getId())
+                .userId(entity.getUserId())
+                .categoryId(entity.getCategoryId())
+                .originalThought(entity.getOriginalThought())
+                .additionalInstructions(entity.getAdditionalInstructions())
+                .platformSelections(selectionDtos(entity.getPlatformSelections()))
+                .enrichedContents(enrichedContentDtos(entity.getEnrichedContents()))
+                .generatedImageUrl(entity.getGeneratedImageUrl())
+                .selectedPlatforms(entity.getSelectedPlatforms())
+                .status(entity.getStatus())
+                .version(entity.getVersion())
+                .createdAt(entity.getCreatedAt())
+                .updatedAt(entity.getUpdatedAt())
+                .errorMessage(entity.getErrorMessage())
+                .textContentComments(entity.getTextContentComments())
+                .imageContentComments(entity.getImageContentComments())
+                .postText(entity.isPostText())
+                .postImage(entity.isPostImage())
+                .build();
+    }
+
+    public static List<PlatformSelectionDto> selectionDtos(List<ThoughtsToPost.PlatformSelection> selections) {
+        return selections != null
+                ? selections.stream()
                         .map(ps -> PlatformSelectionDto.builder()
                                 .platform(ps.getPlatform())
                                 .presetId(ps.getPresetId())
@@ -104,9 +127,11 @@ public class ThoughtResponse {
                                 .build())
                         .collect(Collectors.toList())
                 : List.of();
+    }
 
-        List<EnrichedContentDto> enrichedDtos = entity.getEnrichedContents() != null
-                ? entity.getEnrichedContents().stream()
+    public static List<EnrichedContentDto> enrichedContentDtos(List<ThoughtsToPost.EnrichedContent> contents) {
+        return contents != null
+                ? contents.stream()
                         .map(ec -> EnrichedContentDto.builder()
                                 .platform(ec.getPlatform())
                                 .title(ec.getTitle())
@@ -132,26 +157,5 @@ public class ThoughtResponse {
                                 .build())
                         .collect(Collectors.toList())
                 : List.of();
-
-        return ThoughtResponse.builder()
-                .id(entity.getId())
-                .userId(entity.getUserId())
-                .categoryId(entity.getCategoryId())
-                .originalThought(entity.getOriginalThought())
-                .additionalInstructions(entity.getAdditionalInstructions())
-                .platformSelections(selectionDtos)
-                .enrichedContents(enrichedDtos)
-                .generatedImageUrl(entity.getGeneratedImageUrl())
-                .selectedPlatforms(entity.getSelectedPlatforms())
-                .status(entity.getStatus())
-                .version(entity.getVersion())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
-                .errorMessage(entity.getErrorMessage())
-                .textContentComments(entity.getTextContentComments())
-                .imageContentComments(entity.getImageContentComments())
-                .postText(entity.isPostText())
-                .postImage(entity.isPostImage())
-                .build();
     }
 }
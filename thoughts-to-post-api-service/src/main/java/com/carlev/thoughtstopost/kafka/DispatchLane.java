@@ -0,0 +1,33 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+
+/**
+ * Priority lane of an enrichment request. Each lane has its own request and response topics and
+ * its own dispatch credits, so a user waiting on an image refinement is never queued behind bulk
+ * first-time enrichments.
+ */
+public enum DispatchLane {
+    /** Image refinement or single-platform work a user is actively waiting for. */
+    INTERACTIVE,
+    /** Full multi-platform enrichment (create, re-enrich, repost). */
+    BULK;
+
+    /**
+     * Lane for an operation: image refinements and single-platform requests are interactive.
+     */
+    public static DispatchLane forOperation(String imageRefinementInstructions, PlatformType targetPlatform) {
+        return imageRefinementInstructions != null || targetPlatform != null ? INTERACTIVE : BULK;
+    }
+
+    /**
+     * Lane of a request message; messages without one (sent before lanes existed) are bulk.
+     */
+    public static DispatchLane of(ThoughtRequestMessage message) {
+        return message.getLane() != null ? message.getLane() : BULK;
+    }
+
+    public String tagValue() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,103 @@
+package com.carlev.thoughtstopost.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs agent responses in parallel across request IDs and in order within each, on virtual threads.
+ * <p>
+ * Each key has a chain of tasks: a task starts when the previous one for its key has finished, so updates to one
+ * thought are applied in the order they were read, while other thoughts' updates run alongside them. At most
+ * {@code app.kafka.response-consumer.concurrency} tasks run at once; each one is mostly waiting on Mongo. Once
+ * {@code max-pending} records are waiting or running, {@link #submit} blocks the consumer thread until one finishes,
+ * so a slow database holds back polling instead of filling the heap.
+ */
+@Component
+@Slf4j
+public class KeyOrderedExecutor {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("agent-response-", 0).factory());
+    private final Map<String, CompletableFuture<Void>> tails = new HashMap<>();
+    private final Semaphore running;
+    private final Semaphore pending;
+    private final int maxPending;
+
+    public KeyOrderedExecutor(MeterRegistry meterRegistry,
+                              @Value("${app.kafka.response-consumer.concurrency:16}") int concurrency,
+                              @Value("${app.kafka.response-consumer.max-pending:1000}") int maxPending) {
+        this.running = new Semaphore(concurrency);
+        this.pending = new Semaphore(maxPending);
+        this.maxPending = maxPending;
+        Gauge.builder("kafka.response.pending", this, KeyOrderedExecutor::pendingCount)
+                .description("Agent responses read from Kafka and waiting for or being processed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run {@code task} after every task already submitted with the same key. Blocks while the executor is full.
+     *
+     * @throws InterruptedException if interrupted while waiting for room
+     */
+    public void submit(String key, Runnable task) throws InterruptedException {
+        pending.acquire();
+        Runnable limited = () -> {
+            running.acquireUninterruptibly();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // The next task for this key runs regardless
+                log.error("Unhandled error processing record for key {}: {}", key, e.getMessage(), e);
+            } finally {
+                running.release();
+                pending.release();
+            }
+        };
+
+        synchronized (tails) {
+            CompletableFuture<Void> previous = tails.get(key);
+            CompletableFuture<Void> next = previous == null
+                    ? CompletableFuture.runAsync(limited, executor)
+                    : previous.thenRunAsync(limited, executor);
+            tails.put(key, next);
+            next.whenComplete((result, error) -> {
+                synchronized (tails) {
+                    tails.remove(key, next);
+                }
+            });
+        }
+    }
+
+    /**
+     * Records submitted and not yet finished.
+     */
+    public int pendingCount() {
+        return maxPending - pending.availablePermits();
+    }
+
+    /**
+     * Keys with a record waiting or running.
+     */
+    int activeKeys() {
+        synchronized (tails) {
+            return tails.size();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Unfinished records were never acknowledged, so they are read again after the restart or rebalance
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,83 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.model.ProcessedMessage;
+import com.carlev.thoughtstopost.repository.ProcessedMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dedupe ledger for AI agent responses.
+ * <p>
+ * A response is identified by (requestId, generation, sequence), where the sequence is assigned by the
+ * agent and increases with every response it sends for a request. Redeliveries after error-handler
+ * retries, consumer rebalances or a producer retry that wrote the record twice all carry the same
+ * sequence, while distinct progress updates for one request do not. The TTL'd {@code processed_messages}
+ * collection is authoritative: every response is looked up by key before the thought document is read, so a
+ * redelivery is caught whichever instance applied the original and however long ago within the retention.
+ */
+@Component
+public class ProcessedMessageLedger {
+
+    private final ProcessedMessageRepository repository;
+    private final Counter duplicates;
+    private final Counter accepted;
+
+    public ProcessedMessageLedger(ProcessedMessageRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.duplicates = Counter.builder("agent.response.dedupe")
+                .tag("result", "duplicate")
+                .description("Agent responses dropped because they were already applied")
+                .register(meterRegistry);
+        this.accepted = Counter.builder("agent.response.dedupe")
+                .tag("result", "new")
+                .description("Agent responses applied for the first time")
+                .register(meterRegistry);
+        Gauge.builder("agent.response.dedupe.hit.ratio", this, ProcessedMessageLedger::hitRatio)
+                .description("Share of agent responses that were duplicates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the dedupe key for a response record. Responses from agents that predate the sequence
+     * fall back to the record's position, which still catches consumer-side redeliveries.
+     */
+    public String keyFor(ThoughtResponseMessage message, String topic, int partition, long offset) {
+        if (message.getSequence() != null) {
+            return message.getRequestId() + ":" + message.getGeneration() + ":" + message.getSequence();
+        }
+        return message.getRequestId() + ":" + message.getVersion() + ":" + topic + "-" + partition + "@" + offset;
+    }
+
+    /**
+     * Check whether the message was already applied, by a single _id lookup in the ledger.
+     * Duplicates are counted here; new messages once they are marked processed, so retries count once.
+     */
+    public boolean isDuplicate(String key) {
+        boolean duplicate = repository.existsById(key);
+        if (duplicate) {
+            duplicates.increment();
+        }
+        return duplicate;
+    }
+
+    /**
+     * Record that the message has been applied. Call only after processing succeeded,
+     * so failed attempts are still retried.
+     */
+    public void markProcessed(String key) {
+        repository.save(ProcessedMessage.builder()
+                .id(key)
+                .processedAt(LocalDateTime.now())
+                .build());
+        accepted.increment();
+    }
+
+    private double hitRatio() {
+        double total = duplicates.count() + accepted.count();
+        return total == 0 ? 0.0 : duplicates.count() / total;
+    }
+}
@@ -0,0 +1,53 @@
+package com.carlev.thoughtstopost.kafka;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batching, compression and in-flight settings of a request producer. Each {@link DispatchLane} sends through
+ * its own producer: bulk lingers to fill large compressed batches, interactive sends each request at once.
+ * Both are idempotent with {@code acks=all}, so retries never duplicate or reorder a request.
+ *
+ * @param lingerMs        how long a batch waits for more records before it is sent
+ * @param batchSize       maximum batch size per partition, in bytes
+ * @param compressionType none, gzip or zstd. The agent consumes with kafka-python-ng, which decodes lz4 and snappy only
+ *                        if their optional packages are installed, and the agent does not install them
+ * @param maxInFlight     unacknowledged requests per connection; at most 5 with idempotence
+ */
+public record ProducerProfile(int lingerMs, int batchSize, String compressionType, int maxInFlight) {
+
+    /**
+     * Codecs the agent can decode; kept in step with the agent's tests/test_kafka_codecs.py.
+     */
+    public static final Set<String> AGENT_CODECS = Set.of("none", "gzip", "zstd");
+
+    public static final ProducerProfile BULK = new ProducerProfile(20, 131_072, "gzip", 5);
+    public static final ProducerProfile INTERACTIVE = new ProducerProfile(0, 16_384, "none", 5);
+
+    public ProducerProfile {
+        if (lingerMs < 0 || batchSize < 0) {
+            throw new IllegalArgumentException("linger-ms and batch-size must not be negative");
+        }
+        if (maxInFlight < 1 || maxInFlight > 5) {
+            throw new IllegalArgumentException("max-in-flight must be between 1 and 5 for an idempotent producer");
+        }
+        if (!AGENT_CODECS.contains(compressionType)) {
+            throw new IllegalArgumentException("compression must be one of " + AGENT_CODECS
+                    + " so the agent can decode it, not " + compressionType);
+        }
+    }
+
+    /**
+     * Add this profile's settings to a producer configuration.
+     */
+    public void applyTo(Map<String, Object> config) {
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlight);
+    }
+}
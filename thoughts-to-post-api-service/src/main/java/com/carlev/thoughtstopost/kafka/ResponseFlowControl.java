@@ -0,0 +1,308 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.event.ClusterDescriptionChangedEvent;
+import com.mongodb.event.ClusterListener;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Pauses the agent-response listeners while Mongo is struggling, instead of reading records only to fail them.
+ * <p>
+ * The latency and outcome of each Mongo command sent while applying a response is recorded here, and evaluated
+ * once per interval; commands from other work, such as exports and imports, are ignored. A window with an average
+ * latency above {@code pause-latency}, or an error rate above {@code pause-error-rate}, pauses the listeners'
+ * partitions; records already read keep retrying. They resume only after {@code resume-windows} consecutive windows
+ * below the lower {@code resume-latency} and {@code resume-error-rate}, so a database hovering around the limit does
+ * not flap.
+ * <p>
+ * An unreachable Mongo sends no commands: server selection times out first. So the listeners also pause as soon as
+ * the cluster loses its writable server, or a response fails to reach Mongo, and stay paused until Mongo answers
+ * again. While paused, a ping is sent each interval on a thread of its own so recovery is seen even with no other
+ * traffic; a ping unanswered after {@code probe-timeout} counts as a failed command. The state is reported by the
+ * {@code responseFlowControl} health indicator.
+ */
+@Component
+@Slf4j
+public class ResponseFlowControl implements CommandListener, ClusterListener, HealthIndicator {
+
+    static final String RESPONSE_LISTENER = "agent-responses";
+    static final String INTERACTIVE_RESPONSE_LISTENER = "agent-responses-interactive";
+
+    private static final ThreadLocal<Boolean> WATCHED = new ThreadLocal<>();
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final Executor probeExecutor;
+
+    @Value("${app.kafka.backpressure.pause-latency:500ms}")
+    private Duration pauseLatency = Duration.ofMillis(500);
+
+    @Value("${app.kafka.backpressure.resume-latency:100ms}")
+    private Duration resumeLatency = Duration.ofMillis(100);
+
+    @Value("${app.kafka.backpressure.pause-error-rate:0.2}")
+    private double pauseErrorRate = 0.2;
+
+    @Value("${app.kafka.backpressure.resume-error-rate:0.02}")
+    private double resumeErrorRate = 0.02;
+
+    @Value("${app.kafka.backpressure.min-commands:5}")
+    private int minCommands = 5;
+
+    @Value("${app.kafka.backpressure.resume-windows:5}")
+    private int resumeWindows = 5;
+
+    @Value("${app.kafka.backpressure.probe-timeout:2s}")
+    private Duration probeTimeout = Duration.ofSeconds(2);
+
+    private volatile boolean paused;
+    private volatile Instant pausedSince;
+    private volatile String reason;
+    private volatile double lastLatencyMillis;
+    private volatile double lastErrorRate;
+    private int healthyWindows;
+    private volatile String unreachable;
+    private CompletableFuture<Void> probe;
+    private Instant probeSentAt;
+
+    @Autowired
+    public ResponseFlowControl(KafkaListenerEndpointRegistry listenerRegistry,
+                               ObjectProvider<MongoTemplate> mongoTemplate,
+                               MeterRegistry meterRegistry) {
+        this(listenerRegistry, mongoTemplate, meterRegistry,
+                Executors.newSingleThreadExecutor(Thread.ofVirtual().name("flow-probe-", 0).factory()));
+    }
+
+    ResponseFlowControl(KafkaListenerEndpointRegistry listenerRegistry,
+                        ObjectProvider<MongoTemplate> mongoTemplate,
+                        MeterRegistry meterRegistry,
+                        Executor probeExecutor) {
+        this.listenerRegistry = listenerRegistry;
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+        this.probeExecutor = probeExecutor;
+        Gauge.builder("kafka.response.paused", this, flowControl -> flowControl.isPaused() ? 1 : 0)
+                .description("Whether the agent-response listeners are paused because Mongo is degraded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count the Mongo commands the calling thread sends until the scope is closed. Applying agent responses runs
+     * in one; commands sent anywhere else are not evaluated.
+     */
+    public static Scope watchCommands() {
+        WATCHED.set(Boolean.TRUE);
+        return WATCHED::remove;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (WATCHED.get() != null) {
+            record(event.getElapsedTime(TimeUnit.NANOSECONDS), false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        if (WATCHED.get() != null) {
+            record(event.getElapsedTime(TimeUnit.NANOSECONDS), true);
+        }
+    }
+
+    void record(long nanos, boolean failed) {
+        commands.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        if (failed) {
+            failures.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void clusterDescriptionChanged(ClusterDescriptionChangedEvent event) {
+        if (event.getNewDescription().hasWritableServer()) {
+            unreachable = null;
+        } else if (event.getPreviousDescription().hasWritableServer()) {
+            unreachable = "no writable server";
+        }
+    }
+
+    /**
+     * Record a failure to apply a response. Failures to reach Mongo at all, such as server selection timing
+     * out, send no command the listener would see, and pause the listeners straight away.
+     */
+    public void recordFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoTimeoutException || cause instanceof MongoSocketException) {
+                unreachable = cause.getClass().getSimpleName();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Whether Mongo is degraded and the listeners are paused. Records already read are held, not skipped.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Evaluate the window of commands since the last run, and pause or resume the listeners.
+     */
+    @Scheduled(fixedDelayString = "${app.kafka.backpressure.interval:1000}")
+    public synchronized void evaluate() {
+        if (paused) {
+            probe();
+        }
+
+        String down = unreachable;
+        if (down != null) {
+            if (!paused) {
+                pause("Mongo unreachable: " + down);
+            }
+            healthyWindows = 0;
+        }
+
+        long count = commands.getAndSet(0);
+        long failed = failures.getAndSet(0);
+        long nanos = totalNanos.getAndSet(0);
+        if (count == 0 || down != null) {
+            return;
+        }
+        lastLatencyMillis = nanos / 1e6 / count;
+        lastErrorRate = (double) failed / count;
+
+        if (!paused) {
+            if (count < minCommands) {
+                return;
+            }
+            if (lastLatencyMillis > pauseLatency.toMillis()) {
+                pause(String.format("average command latency %.0f ms over %d commands", lastLatencyMillis, count));
+            } else if (lastErrorRate > pauseErrorRate) {
+                pause(String.format("%.0f%% of %d commands failed", lastErrorRate * 100, count));
+            }
+            return;
+        }
+
+        boolean healthy = lastLatencyMillis < resumeLatency.toMillis() && lastErrorRate <= resumeErrorRate;
+        healthyWindows = healthy ? healthyWindows + 1 : 0;
+        if (healthyWindows >= resumeWindows) {
+            resume();
+        }
+    }
+
+    /**
+     * Send a ping off the scheduler thread, unless the last one is still waiting for Mongo.
+     */
+    private void probe() {
+        if (probe != null && !probe.isDone()) {
+            if (Duration.between(probeSentAt, Instant.now()).compareTo(probeTimeout) > 0) {
+                record(probeTimeout.toNanos(), true);
+            }
+            return;
+        }
+        probeSentAt = Instant.now();
+        probe = CompletableFuture.runAsync(() -> {
+            try (Scope ignored = watchCommands()) {
+                mongoTemplate.getObject().executeCommand(new Document("ping", 1));
+                unreachable = null;
+            } catch (RuntimeException e) {
+                recordFailure(e);
+                log.debug("Mongo ping failed while response listeners are paused: {}", e.getMessage());
+            }
+        }, probeExecutor);
+    }
+
+    private void pause(String why) {
+        log.warn("Pausing agent-response listeners: Mongo is degraded ({})", why);
+        paused = true;
+        pausedSince = Instant.now();
+        reason = why;
+        healthyWindows = 0;
+        forEachListener(MessageListenerContainer::pause);
+        meterRegistry.counter("kafka.response.flow", "action", "pause").increment();
+    }
+
+    private void resume() {
+        log.info("Resuming agent-response listeners after {} healthy windows (paused for {})",
+                healthyWindows, Duration.between(pausedSince, Instant.now()));
+        paused = false;
+        pausedSince = null;
+        reason = null;
+        forEachListener(MessageListenerContainer::resume);
+        meterRegistry.counter("kafka.response.flow", "action", "resume").increment();
+    }
+
+    private void forEachListener(Consumer<MessageListenerContainer> action) {
+        for (String id : new String[]{RESPONSE_LISTENER, INTERACTIVE_RESPONSE_LISTENER}) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(id);
+            if (container != null) {
+                action.accept(container);
+            }
+        }
+    }
+
+    @Override
+    public Health health() {
+        // Reported as UP: the instance is serving and will catch up, so it should not be restarted for this
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("paused", paused);
+        if (paused) {
+            details.put("pausedSince", pausedSince);
+            details.put("reason", reason);
+        }
+        details.put("latencyMillis", Math.round(lastLatencyMillis * 10) / 10.0);
+        details.put("errorRate", Math.round(lastErrorRate * 1000) / 1000.0);
+        return Health.up().withDetails(details).build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (probeExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Scope of {@link #watchCommands()}.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Control message sent to the AI agent on the control topic, keyed by requestId.
+ * <p>
+ * A {@link ControlType#CANCEL} tells every agent instance to abort work for {@code requestId}
+ * whose generation is less than or equal to {@code generation}. Newer dispatches are unaffected,
+ * so the message is safe to deliver late or more than once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThoughtControlMessage {
+
+    private String requestId;
+    private String userId;
+    private ControlType type;
+    private Long generation; // Highest generation being cancelled
+    private String reason;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+    private LocalDateTime createdAt;
+
+    public enum ControlType {
+        CANCEL
+    }
+}
@@ -0,0 +1,38 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.service.ThoughtEventBroadcaster;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the events topic and hands every event to this instance's SSE broadcaster.
+ * <p>
+ * Each instance joins its own consumer group (a random suffix per start) so all instances see all events,
+ * and starts from the latest offset: events only matter to streams that are open now.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ThoughtEventConsumer {
+
+    private final ThoughtEventBroadcaster broadcaster;
+
+    @KafkaListener(topics = "${app.kafka.events-topic}",
+            groupId = "${spring.kafka.consumer.group-id}-events-${random.uuid}",
+            containerFactory = "eventListenerContainerFactory")
+    public void handleEvent(
+            @Payload(required = false) ThoughtEventMessage event,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+            @Header(KafkaHeaders.OFFSET) long offset) {
+        if (event == null || event.getUserId() == null || event.getType() == null) {
+            log.debug("Skipping unreadable thought event at {}-{}", partition, offset);
+            return;
+        }
+        broadcaster.broadcast(partition + "-" + offset, event);
+    }
+}
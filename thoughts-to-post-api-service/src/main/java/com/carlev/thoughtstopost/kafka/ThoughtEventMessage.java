@@ -0,0 +1,41 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Small state-change notification for a thought, published on the events topic keyed by userId and pushed
+ * to the user's open {@code /api/thoughts/stream} connections on every API instance.
+ * <p>
+ * Events carry no content; clients fetch the thought when they need more than the status.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThoughtEventMessage {
+
+    private String thoughtId;
+    private String userId;
+    private EventType type;
+    private PostStatus status; // Thought status, or the platform's posting status for POST_STATUS
+    private PlatformType platform;
+    private Double progress;
+    private String imageId;
+    private String errorMessage;
+    private Long version;
+    private Instant occurredAt;
+
+    public enum EventType {
+        STATUS, // The thought's overall status changed
+        PROGRESS, // The agent reported progress for one platform
+        IMAGE_READY, // A new image was attached for one platform
+        POST_STATUS // Posting to one platform finished or failed
+    }
+}
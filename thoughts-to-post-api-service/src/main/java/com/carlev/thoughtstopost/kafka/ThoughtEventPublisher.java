@@ -0,0 +1,85 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Publishes thought state changes to the events topic for the SSE stream.
+ * <p>
+ * Events are best effort: the thought document stays the source of truth and a failed publish is logged,
+ * never thrown into the state change that caused it. Keyed by userId so a user's events stay ordered.
+ */
+@Component
+@Slf4j
+public class ThoughtEventPublisher {
+
+    private final KafkaTemplate<String, ThoughtEventMessage> eventKafkaTemplate;
+    private final String eventsTopic;
+
+    public ThoughtEventPublisher(KafkaTemplate<String, ThoughtEventMessage> eventKafkaTemplate,
+                                 @Value("${app.kafka.events-topic}") String eventsTopic) {
+        this.eventKafkaTemplate = eventKafkaTemplate;
+        this.eventsTopic = eventsTopic;
+    }
+
+    public void statusChanged(ThoughtsToPost thought) {
+        publish(event(thought, ThoughtEventMessage.EventType.STATUS)
+                .status(thought.getStatus())
+                .errorMessage(thought.getErrorMessage())
+                .build());
+    }
+
+    public void progress(ThoughtsToPost thought, PlatformType platform, Double progress) {
+        publish(event(thought, ThoughtEventMessage.EventType.PROGRESS)
+                .platform(platform)
+                .progress(progress)
+                .build());
+    }
+
+    public void imageReady(ThoughtsToPost thought, PlatformType platform, String imageId) {
+        publish(event(thought, ThoughtEventMessage.EventType.IMAGE_READY)
+                .platform(platform)
+                .imageId(imageId)
+                .build());
+    }
+
+    public void postStatus(ThoughtsToPost thought, ThoughtsToPost.EnrichedContent content) {
+        publish(event(thought, ThoughtEventMessage.EventType.POST_STATUS)
+                .platform(content.getPlatform())
+                .status(content.getStatus())
+                .errorMessage(content.getErrorMessage())
+                .build());
+    }
+
+    private ThoughtEventMessage.ThoughtEventMessageBuilder event(ThoughtsToPost thought, ThoughtEventMessage.EventType type) {
+        return ThoughtEventMessage.builder()
+                .thoughtId(thought.getId())
+                .userId(thought.getUserId())
+                .type(type)
+                .version(thought.getVersion())
+                .occurredAt(Instant.now());
+    }
+
+    private void publish(ThoughtEventMessage event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        try {
+            eventKafkaTemplate.send(eventsTopic, event.getUserId(), event)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.warn("Failed to publish {} event for thought {}: {}",
+                                    event.getType(), event.getThoughtId(), ex.getMessage());
+                        }
+                    });
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish {} event for thought {}: {}", event.getType(), event.getThoughtId(), e.getMessage());
+        }
+    }
+}
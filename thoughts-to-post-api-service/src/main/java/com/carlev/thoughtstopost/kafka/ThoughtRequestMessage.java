@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -19,6 +20,12 @@ import java.util.List;
 @AllArgsConstructor
 public class ThoughtRequestMessage {
 
+    /**
+     * Additional instructions sent with a repost. It asks for nothing beyond the original enrichment, so it is
+     * left out of the enrichment cache key.
+     */
+    public static final String REPOST_INSTRUCTIONS = "Reposting this thought.";
+
     private String requestId;
     private String userId;
     private String originalThought;
@@ -29,8 +36,11 @@ public class ThoughtRequestMessage {
     private java.util.Map<PlatformType, String> platformPrompts;
     private List<PlatformConfiguration> platformConfigurations;
     private Integer version;
+    private Long generation; // Echoed back by the agent so stale responses can be fenced
+    private DispatchLane lane; // Selects the request topic; the agent replies on the matching response topic
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
     private LocalDateTime createdAt;
+    private Instant deadline; // Results arriving after this instant are dropped; the agent skips expired work
 
     // For image refinement
     private String imageRefinementInstructions;
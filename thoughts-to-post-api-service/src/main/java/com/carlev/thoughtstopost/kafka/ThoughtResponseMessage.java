@@ -1,9 +1,12 @@
 package com.carlev.thoughtstopost.kafka;
 
+import com.carlev.thoughtstopost.config.LenientLocalDateTimeDeserializer;
 import com.carlev.thoughtstopost.model.PlatformType;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -40,12 +43,17 @@ public class ThoughtResponseMessage {
     private List<PlatformType> failedPlatforms;
     
     private Integer version;
+
+    private Long generation; // Dispatch generation copied from the request
+
+    private Long sequence; // Per-request response counter assigned by the agent, used for dedupe
     
     @JsonProperty("error_message") // Map from snake_case to camelCase
     private String errorMessage;
     
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
     @JsonProperty("processed_at") // Map from snake_case to camelCase
+    @JsonDeserialize(using = LenientLocalDateTimeDeserializer.OrNow.class) // Set whenever the agent sent one
     private LocalDateTime processedAt;
 
     /**
@@ -87,6 +95,8 @@ public class ThoughtResponseMessage {
         private String id;
 
         @JsonProperty("image_base64")
+        @JsonSerialize(using = Base64Binary.Serializer.class)
+        @JsonDeserialize(using = Base64Binary.Deserializer.class)
         private String imageBase64;
         
         @JsonProperty("image_format")
@@ -103,6 +113,7 @@ public class ThoughtResponseMessage {
 
         @JsonProperty("created_at")
         @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
+        @JsonDeserialize(using = LenientLocalDateTimeDeserializer.OrNow.class)
         private LocalDateTime createdAt;
     }
 }
@@ -1,56 +1,165 @@
 package com.carlev.thoughtstopost.kafka;
 
 import com.carlev.thoughtstopost.service.ThoughtsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * Kafka consumer for receiving AI agent processing results.
+ * <p>
+ * Records are handed to a {@link KeyOrderedExecutor} keyed by request ID, so responses for different thoughts are
+ * processed concurrently and those for one thought in order. Each record is acknowledged when it is done; the
+ * container commits out-of-order acknowledgments only once every earlier offset is acknowledged, so a restart
+ * resumes before the oldest unfinished record and the dedupe ledger drops what was already applied.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ThoughtsKafkaConsumer {
 
+    // Matches the container's error handler: 3 retries a second apart, then the record is dead-lettered.
+    // Failures while ResponseFlowControl has paused the listeners are not counted: Mongo is down, not the record.
+    private static final int MAX_ATTEMPTS = 4;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
+
     private final ThoughtsService thoughtsService;
+    private final ProcessedMessageLedger processedMessageLedger;
+    private final KeyOrderedExecutor responseExecutor;
+    private final ResponseFlowControl flowControl;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Handle incoming response messages from the AI agent.
-     *
-     * @param message The response message from AI agent
-     * @param key The Kafka message key
+     * @param record The response record from the AI agent; deduped on its agent-assigned sequence
+     * @param acknowledgment Acknowledges the record once it has been processed or dead-lettered
      */
-    @KafkaListener(topics = "${app.kafka.response-topic}", groupId = "${spring.kafka.consumer.group-id}", containerFactory = "kafkaListenerContainerFactory")
-    public void handleResponse(
-            @Payload(required = false) ThoughtResponseMessage message,
-            @Header(value = KafkaHeaders.RECEIVED_KEY, required = false) String key) {
-        
+    @KafkaListener(id = ResponseFlowControl.RESPONSE_LISTENER, idIsGroup = false,
+            topics = "${app.kafka.response-topic}", groupId = "${spring.kafka.consumer.group-id}", containerFactory = "kafkaListenerContainerFactory")
+    public void handleResponse(ConsumerRecord<String, ThoughtResponseMessage> record, Acknowledgment acknowledgment)
+            throws InterruptedException {
+        ThoughtResponseMessage message = record.value();
+
         // Handle null messages (can occur if deserialization fails)
         if (message == null) {
             log.warn("Received null message from Kafka (key: {}). This may indicate a deserialization error. " +
-                    "The error handler will manage retries and skip this message if it cannot be processed.", key);
+                    "The error handler will manage retries and dead-letter this message if it cannot be processed.",
+                    record.key());
             // Throw exception to let error handler manage retries
             throw new IllegalArgumentException("Cannot process null message. Deserialization may have failed.");
         }
 
         log.info("Received AI agent response: requestId={}, status={}",
                 message.getRequestId(), message.getStatus());
+        recordLag(record);
+
+        String orderingKey = message.getRequestId() != null ? message.getRequestId() : record.key();
+        responseExecutor.submit(orderingKey, () -> process(record, acknowledgment));
+    }
+
+    /**
+     * Handle responses to interactive-lane requests. A separate listener container, so they are never
+     * read behind a backlog of bulk progress updates.
+     */
+    @KafkaListener(id = ResponseFlowControl.INTERACTIVE_RESPONSE_LISTENER, idIsGroup = false,
+            topics = "${app.kafka.interactive-response-topic}", groupId = "${spring.kafka.consumer.group-id}", containerFactory = "kafkaListenerContainerFactory")
+    public void handleInteractiveResponse(ConsumerRecord<String, ThoughtResponseMessage> record,
+                                          Acknowledgment acknowledgment) throws InterruptedException {
+        handleResponse(record, acknowledgment);
+    }
+
+    /**
+     * Apply one response on an executor thread, retrying failures, and acknowledge it. A response that keeps
+     * failing is published to the dead-letter topic, from where it can be replayed.
+     */
+    void process(ConsumerRecord<String, ThoughtResponseMessage> record, Acknowledgment acknowledgment) {
+        // Only the Mongo commands sent for responses decide whether the listeners are paused
+        try (ResponseFlowControl.Scope ignored = ResponseFlowControl.watchCommands()) {
+            apply(record, acknowledgment);
+        }
+    }
+
+    private void apply(ConsumerRecord<String, ThoughtResponseMessage> record, Acknowledgment acknowledgment) {
+        ThoughtResponseMessage message = record.value();
+        // Redeliveries are dropped before the thought document is read
+        String dedupeKey = processedMessageLedger.keyFor(message, record.topic(), record.partition(), record.offset());
+        int failures = 0;
+        while (true) {
+            try {
+                if (processedMessageLedger.isDuplicate(dedupeKey)) {
+                    log.info("Skipping duplicate AI agent response: requestId={}, key={}",
+                            message.getRequestId(), dedupeKey);
+                } else {
+                    thoughtsService.handleAgentResponse(message);
+                    processedMessageLedger.markProcessed(dedupeKey);
+                    log.info("Successfully processed AI agent response: requestId={}",
+                            message.getRequestId());
+                }
+                acknowledgment.acknowledge();
+                return;
+            } catch (Exception e) {
+                flowControl.recordFailure(e);
+                if (flowControl.isPaused()) {
+                    log.warn("Holding AI agent response until Mongo recovers: requestId={}, error={}",
+                            message.getRequestId(), e.getMessage());
+                } else {
+                    failures++;
+                    log.error("Error processing AI agent response: requestId={}, attempt={}, error={}",
+                            message.getRequestId() != null ? message.getRequestId() : "unknown",
+                            failures, e.getMessage(), e);
+                    if (failures == MAX_ATTEMPTS) {
+                        deadLetter(record, e, acknowledgment);
+                        return;
+                    }
+                }
+            }
+            try {
+                Thread.sleep(RETRY_BACKOFF);
+            } catch (InterruptedException e) {
+                // Shutting down: left unacknowledged, so it is read again
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Time from the agent producing the response to it being read here.
+     */
+    private void recordLag(ConsumerRecord<String, ThoughtResponseMessage> record) {
+        if (record.timestamp() < 0) {
+            return;
+        }
+        Timer.builder("kafka.consumer.record.lag")
+                .description("Time from a response's record timestamp to it being received")
+                .tag("topic", record.topic())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - record.timestamp())));
+    }
 
+    private void deadLetter(ConsumerRecord<String, ThoughtResponseMessage> record, Exception failure,
+                            Acknowledgment acknowledgment) {
+        log.error("Dead-lettering AI agent response after {} attempts: requestId={}, record={}-{}@{}",
+                MAX_ATTEMPTS, record.value().getRequestId(), record.topic(), record.partition(), record.offset());
         try {
-            thoughtsService.handleAgentResponse(message);
-            log.info("Successfully processed AI agent response: requestId={}",
-                    message.getRequestId());
-        } catch (Exception e) {
-            log.error("Error processing AI agent response: requestId={}, error={}",
-                    message.getRequestId() != null ? message.getRequestId() : "unknown", 
-                    e.getMessage(), e);
-            // Re-throw to let the error handler manage retries
-            throw e;
+            deadLetterRecoverer.accept(record, failure);
+        } catch (RuntimeException e) {
+            // Left unacknowledged: nothing after it is committed, and it is read again after a restart
+            log.error("Failed to dead-letter AI agent response {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage(), e);
+            return;
         }
+        meterRegistry.counter("kafka.response.dead.lettered", "topic", record.topic()).increment();
+        acknowledgment.acknowledge();
     }
 }
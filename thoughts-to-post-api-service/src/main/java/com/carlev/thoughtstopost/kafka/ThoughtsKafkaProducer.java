@@ -1,7 +1,9 @@
 package com.carlev.thoughtstopost.kafka;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
@@ -11,29 +13,62 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * Kafka producer for sending thought enrichment requests to the AI agent.
+ * Requests go through the producer of their lane: batched and compressed for bulk, immediate for interactive
+ * (see {@link ProducerProfile}).
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ThoughtsKafkaProducer {
 
     private final KafkaTemplate<String, ThoughtRequestMessage> kafkaTemplate;
+    private final KafkaTemplate<String, ThoughtRequestMessage> interactiveKafkaTemplate;
+    private final KafkaTemplate<String, ThoughtControlMessage> controlKafkaTemplate;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.kafka.request-topic}")
     private String requestTopic;
 
+    @Value("${app.kafka.interactive-request-topic}")
+    private String interactiveRequestTopic;
+
+    @Value("${app.kafka.control-topic}")
+    private String controlTopic;
+
+    public ThoughtsKafkaProducer(
+            @Qualifier("kafkaTemplate") KafkaTemplate<String, ThoughtRequestMessage> kafkaTemplate,
+            @Qualifier("interactiveKafkaTemplate")
+            KafkaTemplate<String, ThoughtRequestMessage> interactiveKafkaTemplate,
+            KafkaTemplate<String, ThoughtControlMessage> controlKafkaTemplate,
+            MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.interactiveKafkaTemplate = interactiveKafkaTemplate;
+        this.controlKafkaTemplate = controlKafkaTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
-     * Send a thought request to the AI agent.
+     * Send a thought request to the AI agent on the topic of its lane.
      *
      * @param message The request message to send
      * @return CompletableFuture with the send result
      */
     public CompletableFuture<SendResult<String, ThoughtRequestMessage>> sendRequest(
             ThoughtRequestMessage message) {
-        log.info("Sending thought request to Kafka: requestId={}", message.getRequestId());
+        DispatchLane lane = DispatchLane.of(message);
+        boolean interactive = lane == DispatchLane.INTERACTIVE;
+        String topic = interactive ? interactiveRequestTopic : requestTopic;
+        KafkaTemplate<String, ThoughtRequestMessage> template = interactive ? interactiveKafkaTemplate : kafkaTemplate;
+        log.info("Sending thought request to Kafka: requestId={}, lane={}", message.getRequestId(), lane);
 
-        return kafkaTemplate.send(requestTopic, message.getRequestId(), message)
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return template.send(topic, message.getRequestId(), message)
                 .whenComplete((result, ex) -> {
+                    sample.stop(Timer.builder("kafka.producer.send")
+                            .description("Time from send to the broker's acknowledgment")
+                            .tag("lane", lane.tagValue())
+                            .tag("outcome", ex == null ? "success" : "failure")
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
                     if (ex != null) {
                         log.error("Failed to send message: {}", ex.getMessage(), ex);
                     } else {
@@ -44,4 +79,24 @@ public class ThoughtsKafkaProducer {
                     }
                 });
     }
+
+    /**
+     * Publish a control message (e.g. a cancellation) for an in-flight request.
+     * Sent with the requestId as key so all control messages for a thought stay ordered.
+     *
+     * @param message The control message to send
+     * @return CompletableFuture with the send result
+     */
+    public CompletableFuture<SendResult<String, ThoughtControlMessage>> sendControl(
+            ThoughtControlMessage message) {
+        log.info("Sending {} control message to Kafka: requestId={}, generation={}",
+                message.getType(), message.getRequestId(), message.getGeneration());
+
+        return controlKafkaTemplate.send(controlTopic, message.getRequestId(), message)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to send control message: {}", ex.getMessage(), ex);
+                    }
+                });
+    }
 }
@@ -0,0 +1,77 @@
+package com.carlev.thoughtstopost.kafka;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire formats supported for Kafka message values.
+ * The format is recorded in the {@link #HEADER} record header so that producers
+ * can be switched topic by topic while consumers keep reading mixed traffic.
+ */
+public enum WireFormat {
+    JSON("application/json"),
+    CBOR("application/cbor");
+
+    /**
+     * Record header carrying the content type of the value.
+     * Records without this header are treated as JSON (the format used before the header existed).
+     */
+    public static final String HEADER = "x-wire-format";
+
+    private final String contentType;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] headerValue() {
+        return contentType.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Case-insensitive lookup by enum name, used for configuration values.
+     */
+    public static WireFormat fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return JSON;
+        }
+        try {
+            return WireFormat.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown wire format: " + value + ". Supported values: JSON, CBOR");
+        }
+    }
+
+    /**
+     * Detect the wire format of a record from its headers. Records without the header are JSON; a header naming
+     * any other content type is rejected rather than read as JSON, so the failure names the value that was sent.
+     * Media type parameters (e.g. {@code ; charset=utf-8}) are ignored.
+     *
+     * @throws IllegalArgumentException if the header names an unsupported content type
+     */
+    public static WireFormat fromHeaders(Headers headers) {
+        if (headers == null) {
+            return JSON;
+        }
+        Header header = headers.lastHeader(HEADER);
+        if (header == null || header.value() == null) {
+            return JSON;
+        }
+        String value = new String(header.value(), StandardCharsets.UTF_8);
+        int parameters = value.indexOf(';');
+        String contentType = (parameters >= 0 ? value.substring(0, parameters) : value).trim();
+        for (WireFormat format : values()) {
+            if (format.contentType.equalsIgnoreCase(contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported " + HEADER + " header: '" + value
+                + "'. Supported values: application/json, application/cbor");
+    }
+}
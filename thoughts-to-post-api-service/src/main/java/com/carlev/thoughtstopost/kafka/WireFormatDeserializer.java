@@ -0,0 +1,58 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Kafka deserializer that detects the wire format from the {@link WireFormat#HEADER} header.
+ * Records without the header are read as JSON, which keeps older producers working during a rollout; records
+ * with an unsupported header value fail with that value in the error, and are dead-lettered like any bad payload.
+ *
+ * @param <T> The message type
+ */
+public class WireFormatDeserializer<T> implements Deserializer<T> {
+
+    private final Map<WireFormat, ObjectReader> readers = new EnumMap<>(WireFormat.class);
+
+    public WireFormatDeserializer(Class<T> type, Map<WireFormat, ObjectMapper> mappers) {
+        mappers.forEach((format, mapper) -> readers.put(format, mapper.readerFor(type)));
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return read(WireFormat.JSON, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        WireFormat format;
+        try {
+            format = WireFormat.fromHeaders(headers);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Can't deserialize record from " + topic + ": " + e.getMessage(), e);
+        }
+        return read(format, data);
+    }
+
+    private T read(WireFormat format, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        ObjectReader reader = readers.get(format);
+        if (reader == null) {
+            throw new SerializationException("No reader configured for wire format " + format);
+        }
+        try {
+            return reader.readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException("Can't deserialize " + format + " payload", e);
+        }
+    }
+}
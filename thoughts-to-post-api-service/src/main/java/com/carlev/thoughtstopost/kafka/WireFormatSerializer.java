@@ -0,0 +1,67 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka serializer that writes values in the wire format configured for the target topic
+ * and stamps the {@link WireFormat#HEADER} header so consumers can decode it.
+ *
+ * @param <T> The message type
+ */
+public class WireFormatSerializer<T> implements Serializer<T> {
+
+    private final Map<WireFormat, ObjectMapper> mappers;
+    private final Map<String, WireFormat> topicFormats;
+    private final WireFormat defaultFormat;
+
+    /**
+     * @param mappers       ObjectMapper per wire format (must contain the default and every topic format)
+     * @param topicFormats  Wire format per topic name
+     * @param defaultFormat Format used for topics not listed in {@code topicFormats}
+     */
+    public WireFormatSerializer(Map<WireFormat, ObjectMapper> mappers,
+                                Map<String, WireFormat> topicFormats,
+                                WireFormat defaultFormat) {
+        this.mappers = Map.copyOf(mappers);
+        this.topicFormats = Map.copyOf(topicFormats);
+        this.defaultFormat = defaultFormat;
+    }
+
+    public WireFormat formatFor(String topic) {
+        return topic != null ? topicFormats.getOrDefault(topic, defaultFormat) : defaultFormat;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        // Without headers the format cannot be announced, so fall back to headerless JSON
+        return write(WireFormat.JSON, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        WireFormat format = formatFor(topic);
+        headers.remove(WireFormat.HEADER);
+        headers.add(WireFormat.HEADER, format.headerValue());
+        return write(format, data);
+    }
+
+    private byte[] write(WireFormat format, T data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return mappers.get(format).writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Can't serialize " + data.getClass().getSimpleName() + " as " + format, e);
+        }
+    }
+}
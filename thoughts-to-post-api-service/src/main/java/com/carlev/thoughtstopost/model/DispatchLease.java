@@ -0,0 +1,48 @@
+package com.carlev.thoughtstopost.model;
+
+import com.carlev.thoughtstopost.kafka.DispatchLane;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One agent credit of a dispatch lane, shared by every API instance.
+ * A lane has one document per credit; a request holds the credit while {@code requestId} is set and
+ * {@code expiresAt} has not passed.
+ */
+@Document(collection = "dispatch_leases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchLease {
+
+    /**
+     * Lane and slot number, e.g. {@code bulk-0}.
+     */
+    @Id
+    private String id;
+
+    private DispatchLane lane;
+
+    private int slot;
+
+    private String requestId;
+
+    private Long generation;
+
+    /**
+     * Instance that sent the request; informational, any instance may release the credit.
+     */
+    private String owner;
+
+    /**
+     * Counted from when the request was sent to the agent.
+     */
+    private Instant expiresAt;
+}
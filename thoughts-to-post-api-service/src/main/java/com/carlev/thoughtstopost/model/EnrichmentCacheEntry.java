@@ -0,0 +1,46 @@
+package com.carlev.thoughtstopost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enrichment result stored under a content hash of the request that produced it,
+ * so an identical request can be answered without involving the AI agent.
+ */
+@Document(collection = "enrichment_cache")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrichmentCacheEntry {
+
+    /**
+     * SHA-256 of the normalized enrichment inputs.
+     */
+    @Id
+    private String id;
+
+    @Builder.Default
+    private List<ThoughtsToPost.EnrichedContent> enrichedContents = new ArrayList<>();
+
+    /**
+     * Insertion time; the oldest entries are evicted first when the cache is over its size bound.
+     */
+    @Indexed
+    private Instant createdAt;
+
+    /**
+     * Removed by the TTL index once this instant has passed.
+     */
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
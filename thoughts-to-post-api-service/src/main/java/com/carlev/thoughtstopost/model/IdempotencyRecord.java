@@ -0,0 +1,63 @@
+package com.carlev.thoughtstopost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A client-supplied Idempotency-Key and the response it produced.
+ * The document doubles as the lock: inserting it claims the key, and a concurrent duplicate fails on the id.
+ */
+@Document(collection = "idempotency_keys")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    /**
+     * User id and the client's key; keys are scoped per user.
+     */
+    @Id
+    private String id;
+
+    /**
+     * SHA-256 of the method, path and body, so a key reused for a different request is rejected.
+     */
+    private String fingerprint;
+
+    private State state;
+
+    /**
+     * Random token of the request holding the lock. Completing or releasing the record requires it, so a holder
+     * whose lock was taken over cannot overwrite the new holder's lock.
+     */
+    private String lockToken;
+
+    private Integer statusCode;
+
+    private String contentType;
+
+    private byte[] responseBody;
+
+    private Instant createdAt;
+
+    private Instant completedAt;
+
+    /**
+     * Removed by the TTL index: a short lease while IN_PROGRESS, the replay window once COMPLETED.
+     */
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+
+    public enum State {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
@@ -0,0 +1,31 @@
+package com.carlev.thoughtstopost.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger entry for a Kafka message that has already been applied.
+ * Entries expire through the TTL index created by {@code MongoIndexInitializer} once redelivery is no
+ * longer possible.
+ */
+@Document(collection = "processed_messages")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedMessage {
+
+    /**
+     * Dedupe key: requestId, generation and the agent-assigned response sequence.
+     */
+    @Id
+    private String id;
+
+    private LocalDateTime processedAt;
+}
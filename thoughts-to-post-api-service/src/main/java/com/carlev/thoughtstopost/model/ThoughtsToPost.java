@@ -1,12 +1,17 @@
 package com.carlev.thoughtstopost.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.*;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +20,16 @@ import java.util.List;
  * Main document entity for storing thought posts.
  */
 @Document(collection = "thoughts_to_post")
+@CompoundIndexes({
+        @CompoundIndex(name = "status_dispatch_deadline", def = "{'status': 1, 'dispatchDeadline': 1}"),
+        @CompoundIndex(name = "status_updated_at", def = "{'status': 1, 'updatedAt': 1}"),
+        // Conditional GETs: the ETag of a thought and of each list filter are read from these indexes alone
+        @CompoundIndex(name = "user_id_version", def = "{'userId': 1, '_id': 1, 'version': 1}"),
+        @CompoundIndex(name = "user_updated_at", def = "{'userId': 1, 'updatedAt': -1}"),
+        @CompoundIndex(name = "user_status_updated_at", def = "{'userId': 1, 'status': 1, 'updatedAt': -1}"),
+        // Only imported thoughts waiting for dispatch carry the field, so the index stays small
+        @CompoundIndex(name = "queued_for_dispatch_at", def = "{'queuedForDispatchAt': 1}", sparse = true)
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -51,6 +66,58 @@ public class ThoughtsToPost {
     @Version
     private Long version;
 
+    /**
+     * Dispatch generation, incremented each time the thought is sent to the AI agent.
+     * Agent responses carrying an older generation belong to a superseded run and are discarded.
+     */
+    private Long generation;
+
+    /**
+     * Deadline of the current dispatch. Agent results arriving later are dropped and the
+     * enrichment watchdog fails thoughts still PROCESSING past it.
+     */
+    private Instant dispatchDeadline;
+
+    /**
+     * Parameters of the current dispatch, kept so a lost request can be re-sent unchanged.
+     */
+    private DispatchRecord lastDispatch;
+
+    /**
+     * Set on imported thoughts until the import feeder dispatches them, as the agent frees up.
+     */
+    private Instant queuedForDispatchAt;
+
+    /**
+     * Token of the bulk write that last wrote the thought, so the writer can tell its own write from a
+     * concurrent save of the same version (see ThoughtsToPostRepositoryImpl).
+     */
+    @JsonIgnore
+    private String writeToken;
+
+    /**
+     * The status as of statusEnteredAt. It differs from status only between a status change and its save,
+     * which records the time spent in the previous status (see ThoughtTransitionMetrics).
+     */
+    private PostStatus timedStatus;
+
+    private Instant statusEnteredAt;
+
+    /**
+     * Status change stamped by the save in progress, recorded once the save succeeds.
+     */
+    @Transient
+    @JsonIgnore
+    private StatusTransition pendingTransition;
+
+    /**
+     * Set while the thought is part of a bulk write, which reports every item as saved whether or not its version
+     * matched; the pending transition is recorded only once the write is known to have gone through.
+     */
+    @Transient
+    @JsonIgnore
+    private boolean bulkWrite;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -75,6 +142,12 @@ public class ThoughtsToPost {
     @Builder.Default
     private boolean postImage = true;
 
+    /**
+     * A status change and how long the thought was in the previous status.
+     */
+    public record StatusTransition(PostStatus from, PostStatus to, Duration elapsed) {
+    }
+
     /**
      * Selection details for each platform.
      */
@@ -92,6 +165,27 @@ public class ThoughtsToPost {
         private com.carlev.thoughtstopost.kafka.GenerationParameters videoParams;
     }
 
+    /**
+     * What was sent to the AI agent for the current generation and how many times.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DispatchRecord {
+        private String additionalInstructions;
+        private String imageRefinementInstructions;
+        private PlatformType targetPlatform;
+        private com.carlev.thoughtstopost.kafka.DispatchLane lane;
+        @Builder.Default
+        private Integer attempts = 1;
+        private Instant dispatchedAt;
+        private Instant lastAttemptAt;
+        private Instant sentAt; // Handed to Kafka; null while the request waits in an instance's dispatch queue
+        private Instant queueHeartbeatAt; // Refreshed by the instance queueing the request, until it is sent
+        private String cacheKey; // Set when the completed result may be stored in the enrichment cache
+    }
+
     /**
      * Nested class for platform-specific enriched content.
      */
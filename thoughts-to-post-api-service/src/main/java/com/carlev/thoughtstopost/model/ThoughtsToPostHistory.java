@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -16,6 +17,8 @@ import java.util.List;
  * Each modification creates a new history entry.
  */
 @Document(collection = "thoughts_to_post_history")
+// Exports stream a user's history grouped by thought, in version order
+@CompoundIndex(name = "user_thought_version", def = "{'userId': 1, 'thoughtsToPostId': 1, 'version': 1}")
 @Data
 @Builder
 @NoArgsConstructor
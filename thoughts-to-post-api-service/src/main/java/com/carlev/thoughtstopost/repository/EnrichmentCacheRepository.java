@@ -0,0 +1,22 @@
+package com.carlev.thoughtstopost.repository;
+
+import com.carlev.thoughtstopost.model.EnrichmentCacheEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the content-addressed enrichment result cache.
+ */
+@Repository
+public interface EnrichmentCacheRepository extends MongoRepository<EnrichmentCacheEntry, String> {
+
+    /**
+     * Keys of the oldest entries, used to evict down to the size bound.
+     */
+    @Query(value = "{}", fields = "{ '_id': 1 }", sort = "{ 'createdAt': 1 }")
+    List<EnrichmentCacheEntry> findOldest(Pageable pageable);
+}
@@ -0,0 +1,38 @@
+package com.carlev.thoughtstopost.repository;
+
+import com.carlev.thoughtstopost.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repository for stored Idempotency-Key responses.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+
+    /**
+     * Remove a lock whose lease ran out, leaving completed records and live locks untouched.
+     */
+    long deleteByIdAndStateAndExpiresAtBefore(String id, IdempotencyRecord.State state, Instant now);
+
+    /**
+     * Remove a lock held by an attempt that failed, so the client's retry runs again. Only the lock's holder
+     * matches.
+     */
+    long deleteByIdAndStateAndLockToken(String id, IdempotencyRecord.State state, String lockToken);
+
+    /**
+     * Store the response on a lock, provided it is still held by the given token.
+     *
+     * @return 1 if stored, 0 if the lock was taken over or has expired
+     */
+    @Query("{ '_id': ?0, 'state': 'IN_PROGRESS', 'lockToken': ?1 }")
+    @Update("{ '$set': { 'state': 'COMPLETED', 'statusCode': ?2, 'contentType': ?3, 'responseBody': ?4, "
+            + "'completedAt': ?5, 'expiresAt': ?6 } }")
+    long completeHeldLock(String id, String lockToken, int statusCode, String contentType, byte[] responseBody,
+                          Instant completedAt, Instant expiresAt);
+}
@@ -0,0 +1,12 @@
+package com.carlev.thoughtstopost.repository;
+
+import com.carlev.thoughtstopost.model.ProcessedMessage;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the processed-message dedupe ledger.
+ */
+@Repository
+public interface ProcessedMessageRepository extends MongoRepository<ProcessedMessage, String> {
+}
@@ -10,7 +10,8 @@ import java.util.List;
  * Repository for ThoughtsToPostHistory documents.
  */
 @Repository
-public interface ThoughtsToPostHistoryRepository extends MongoRepository<ThoughtsToPostHistory, String> {
+public interface ThoughtsToPostHistoryRepository extends MongoRepository<ThoughtsToPostHistory, String>,
+        ThoughtsToPostHistoryRepositoryCustom {
 
     /**
      * Find all history entries for a specific thought document.
@@ -0,0 +1,18 @@
+package com.carlev.thoughtstopost.repository;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * History queries whose projection is chosen at runtime.
+ */
+public interface ThoughtsToPostHistoryRepositoryCustom {
+
+    /**
+     * Stream all of the user's history entries grouped by thought, oldest version first, leaving out the given
+     * paths. The stream holds a cursor and must be closed.
+     */
+    Stream<ThoughtsToPostHistory> streamByUserIdExcluding(String userId, Collection<String> excludedPaths);
+}
@@ -0,0 +1,29 @@
+package com.carlev.thoughtstopost.repository;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Runtime projections for {@link ThoughtsToPostHistoryRepository}, picked up as its custom fragment.
+ */
+@RequiredArgsConstructor
+public class ThoughtsToPostHistoryRepositoryImpl implements ThoughtsToPostHistoryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Stream<ThoughtsToPostHistory> streamByUserIdExcluding(String userId, Collection<String> excludedPaths) {
+        // Filter and sort are both served by the user_thought_version index
+        Query query = new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by("thoughtsToPostId", "version"));
+        excludedPaths.forEach(path -> query.fields().exclude(path));
+        return mongoTemplate.stream(query, ThoughtsToPostHistory.class);
+    }
+}
@@ -1,18 +1,26 @@
 package com.carlev.thoughtstopost.repository;
 
 import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Hint;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for ThoughtsToPost documents.
  */
 @Repository
-public interface ThoughtsToPostRepository extends MongoRepository<ThoughtsToPost, String> {
+public interface ThoughtsToPostRepository extends MongoRepository<ThoughtsToPost, String>, ThoughtsToPostRepositoryCustom {
 
     /**
      * Find all thoughts by user ID.
@@ -24,6 +32,11 @@ public interface ThoughtsToPostRepository extends MongoRepository<ThoughtsToPost
      */
     Optional<ThoughtsToPost> findByIdAndUserId(String id, String userId);
 
+    /**
+     * Find the user's thoughts among the given IDs with one $in query.
+     */
+    List<ThoughtsToPost> findByUserIdAndIdIn(String userId, Collection<String> ids);
+
     /**
      * Delete a thought by ID and user ID.
      */
@@ -49,8 +62,64 @@ public interface ThoughtsToPostRepository extends MongoRepository<ThoughtsToPost
      */
     List<ThoughtsToPost> findByStatusOrderByCreatedAtAsc(PostStatus status);
 
+    /**
+     * Find thoughts in a status whose dispatch deadline has passed (served by the status_dispatch_deadline index).
+     */
+    List<ThoughtsToPost> findByStatusAndDispatchDeadlineBefore(PostStatus status, Instant deadline);
+
+    /**
+     * Find the oldest thoughts in a status not updated since the given time whose dispatch was neither sent nor
+     * confirmed queued by an instance since {@code markedBefore} (served by the status_updated_at index).
+     */
+    @Query(value = "{ 'status': ?0, 'updatedAt': { '$lt': ?1 }, "
+            + "'lastDispatch.sentAt': { '$not': { '$gte': ?2 } }, "
+            + "'lastDispatch.queueHeartbeatAt': { '$not': { '$gte': ?2 } } }", sort = "{ 'updatedAt': 1 }")
+    List<ThoughtsToPost> findStalled(PostStatus status, LocalDateTime updatedBefore, Instant markedBefore,
+                                     Pageable pageable);
+
     /**
      * Find all thoughts by user ID and platform.
      */
     List<ThoughtsToPost> findByUserIdAndSelectedPlatformsContains(String userId, com.carlev.thoughtstopost.model.PlatformType platform);
+
+    /**
+     * Id, owner and version only, answered from the user_id_version index without loading the document.
+     */
+    @Hint("user_id_version")
+    @Query(value = "{ '_id': ?0, 'userId': ?1 }", fields = "{ '_id': 1, 'userId': 1, 'version': 1 }")
+    Optional<ThoughtsToPost> findVersionByIdAndUserId(String id, String userId);
+
+    // Count and latest updatedAt per list filter, for the list ETag (covered by user_updated_at / user_status_updated_at)
+
+    long countByUserId(String userId);
+
+    long countByUserIdAndStatus(String userId, PostStatus status);
+
+    long countByUserIdAndStatusNot(String userId, PostStatus status);
+
+    long countByUserIdAndSelectedPlatformsContains(String userId, PlatformType platform);
+
+    @Query(value = "{ 'userId': ?0 }", fields = "{ '_id': 0, 'updatedAt': 1 }", sort = "{ 'updatedAt': -1 }")
+    List<ThoughtsToPost> findLatestUpdateByUserId(String userId, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'status': ?1 }", fields = "{ '_id': 0, 'updatedAt': 1 }", sort = "{ 'updatedAt': -1 }")
+    List<ThoughtsToPost> findLatestUpdateByUserIdAndStatus(String userId, PostStatus status, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'status': { '$ne': ?1 } }", fields = "{ '_id': 0, 'updatedAt': 1 }", sort = "{ 'updatedAt': -1 }")
+    List<ThoughtsToPost> findLatestUpdateByUserIdAndStatusNot(String userId, PostStatus status, Pageable pageable);
+
+    @Query(value = "{ 'userId': ?0, 'selectedPlatforms': ?1 }", fields = "{ '_id': 0, 'updatedAt': 1 }", sort = "{ 'updatedAt': -1 }")
+    List<ThoughtsToPost> findLatestUpdateByUserIdAndPlatform(String userId, PlatformType platform, Pageable pageable);
+
+    /**
+     * Oldest imported thoughts still waiting for dispatch (served by the queued_for_dispatch_at index).
+     */
+    @Query(value = "{ 'queuedForDispatchAt': { '$exists': true } }", sort = "{ 'queuedForDispatchAt': 1 }")
+    List<ThoughtsToPost> findQueuedForDispatch(Pageable pageable);
+
+    /**
+     * Stream every thought's id, user and original text, used to rebuild the near-duplicate index.
+     */
+    @Query(value = "{}", fields = "{ 'userId': 1, 'originalThought': 1 }")
+    Stream<ThoughtsToPost> findAllOriginalThoughts();
 }
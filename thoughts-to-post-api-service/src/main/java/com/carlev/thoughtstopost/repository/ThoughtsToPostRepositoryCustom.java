@@ -0,0 +1,56 @@
+package com.carlev.thoughtstopost.repository;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Thought queries whose projection is chosen at runtime. Returned entities hold only the projected paths;
+ * every other property keeps its default.
+ */
+public interface ThoughtsToPostRepositoryCustom {
+
+    /**
+     * Find a thought by ID and user ID, reading only the given paths.
+     */
+    Optional<ThoughtsToPost> findProjectedByIdAndUserId(String id, String userId, Collection<String> paths);
+
+    /**
+     * Stream the user's thoughts, reading only the given paths. At most one of status, notStatus and platform
+     * filters the list, in that order of precedence, as in the list endpoint. The stream holds a cursor and must
+     * be closed.
+     */
+    Stream<ThoughtsToPost> streamProjectedByUserId(String userId, PostStatus status, PostStatus notStatus,
+                                                   PlatformType platform, Collection<String> paths);
+
+    /**
+     * Replace and delete many of the user's thoughts in one unordered bulkWrite. Each replacement and deletion is
+     * conditional on the version it was loaded with, as a versioned save or delete would be; replacements are
+     * given the next version and a new updatedAt. Deletions are stamped in the bulkWrite and the stamped thoughts
+     * removed after it.
+     *
+     * @return ids of replacements and deletions that did not apply because the thought changed or was deleted
+     * meanwhile
+     */
+    Set<String> replaceAndDeleteAll(String userId, List<ThoughtsToPost> replacements, List<ThoughtsToPost> deletions);
+
+    /**
+     * Record that the thought's dispatch of the given generation was handed to Kafka: sets lastDispatch.sentAt and
+     * clears its queue heartbeat. Version and updatedAt are left alone, so a concurrent versioned save never
+     * conflicts with it.
+     */
+    void markDispatchSent(String id, Long generation, Instant sentAt);
+
+    /**
+     * Refresh the queue heartbeat of the given PROCESSING thoughts whose dispatch has not been sent yet, leaving
+     * version and updatedAt alone.
+     */
+    void touchDispatchQueued(Collection<String> ids, Instant heartbeatAt);
+}
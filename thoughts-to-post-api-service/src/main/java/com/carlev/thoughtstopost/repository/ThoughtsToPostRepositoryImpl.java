@@ -0,0 +1,170 @@
+package com.carlev.thoughtstopost.repository;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Runtime projections for {@link ThoughtsToPostRepository}, picked up as its custom fragment.
+ */
+@RequiredArgsConstructor
+public class ThoughtsToPostRepositoryImpl implements ThoughtsToPostRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Optional<ThoughtsToPost> findProjectedByIdAndUserId(String id, String userId, Collection<String> paths) {
+        Query query = project(new Query(Criteria.where("id").is(id).and("userId").is(userId)), paths);
+        return Optional.ofNullable(mongoTemplate.findOne(query, ThoughtsToPost.class));
+    }
+
+    @Override
+    public Stream<ThoughtsToPost> streamProjectedByUserId(String userId, PostStatus status, PostStatus notStatus,
+                                                          PlatformType platform, Collection<String> paths) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (status != null) {
+            criteria.and("status").is(status);
+        } else if (notStatus != null) {
+            criteria.and("status").ne(notStatus);
+        } else if (platform != null) {
+            criteria.and("selectedPlatforms").is(platform);
+        }
+        return mongoTemplate.stream(project(new Query(criteria), paths), ThoughtsToPost.class);
+    }
+
+    @Override
+    public Set<String> replaceAndDeleteAll(String userId, List<ThoughtsToPost> replacements,
+                                           List<ThoughtsToPost> deletions) {
+        if (replacements.isEmpty() && deletions.isEmpty()) {
+            return Set.of();
+        }
+        // Every write carries this token, so a re-read tells our writes from a concurrent save of the same version
+        String token = UUID.randomUUID().toString();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ThoughtsToPost.class);
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, StatusTiming> loadedTimings = new HashMap<>();
+        for (ThoughtsToPost thought : replacements) {
+            Long loaded = thought.getVersion();
+            loadedTimings.put(thought.getId(),
+                    new StatusTiming(thought.getTimedStatus(), thought.getStatusEnteredAt()));
+            thought.setVersion(loaded != null ? loaded + 1 : 0);
+            thought.setUpdatedAt(now);
+            thought.setWriteToken(token);
+            thought.setBulkWrite(true);
+            bulk.replaceOne(versioned(thought.getId(), userId, loaded), thought);
+        }
+        // Deletions are claimed first with a versioned stamp, then only the stamped documents are removed
+        Map<String, Long> stampedVersions = new HashMap<>();
+        for (ThoughtsToPost thought : deletions) {
+            Long loaded = thought.getVersion();
+            stampedVersions.put(thought.getId(), loaded != null ? loaded + 1 : 0);
+            bulk.updateOne(versioned(thought.getId(), userId, loaded),
+                    new Update().set("writeToken", token).inc("version", 1));
+        }
+        BulkWriteResult result = bulk.execute();
+
+        Set<String> conflicts = new HashSet<>();
+        if (result.getMatchedCount() < replacements.size() + deletions.size()) {
+            Set<String> ids = new HashSet<>(stampedVersions.keySet());
+            replacements.forEach(thought -> ids.add(thought.getId()));
+            conflicts.addAll(ids);
+            Query stored = new Query(Criteria.where("id").in(ids));
+            stored.fields().include("writeToken");
+            for (ThoughtsToPost current : mongoTemplate.find(stored, ThoughtsToPost.class)) {
+                if (token.equals(current.getWriteToken())) {
+                    conflicts.remove(current.getId());
+                }
+            }
+        }
+
+        List<Criteria> stamped = stampedVersions.entrySet().stream()
+                .filter(entry -> !conflicts.contains(entry.getKey()))
+                .map(entry -> Criteria.where("id").is(entry.getKey()).and("version").is(entry.getValue()))
+                .toList();
+        if (!stamped.isEmpty()) {
+            long removed = mongoTemplate.remove(new Query(new Criteria().orOperator(stamped)
+                    .and("writeToken").is(token)), ThoughtsToPost.class).getDeletedCount();
+            if (removed < stamped.size()) {
+                // Saved over our stamp before it could be removed; whatever is still there was not deleted
+                Query remaining = new Query(Criteria.where("id").in(stampedVersions.keySet()));
+                remaining.fields().include("id");
+                mongoTemplate.find(remaining, ThoughtsToPost.class)
+                        .forEach(current -> conflicts.add(current.getId()));
+            }
+        }
+
+        // The bulkWrite emitted a save event for every replacement; only the written ones changed status
+        String collection = mongoTemplate.getCollectionName(ThoughtsToPost.class);
+        for (ThoughtsToPost thought : replacements) {
+            thought.setBulkWrite(false);
+            if (conflicts.contains(thought.getId())) {
+                StatusTiming loaded = loadedTimings.get(thought.getId());
+                thought.setTimedStatus(loaded.status());
+                thought.setStatusEnteredAt(loaded.enteredAt());
+                thought.setPendingTransition(null);
+            } else if (thought.getPendingTransition() != null) {
+                eventPublisher.publishEvent(new AfterSaveEvent<>(thought, null, collection));
+            }
+        }
+        return conflicts;
+    }
+
+    @Override
+    public void markDispatchSent(String id, Long generation, Instant sentAt) {
+        // Addressed by collection name: an update typed to the entity would also increment its version
+        Query query = new Query(Criteria.where("_id").is(id).and("generation").is(generation));
+        mongoTemplate.updateFirst(query, new Update()
+                        .set("lastDispatch.sentAt", sentAt)
+                        .unset("lastDispatch.queueHeartbeatAt"),
+                mongoTemplate.getCollectionName(ThoughtsToPost.class));
+    }
+
+    @Override
+    public void touchDispatchQueued(Collection<String> ids, Instant heartbeatAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Query query = new Query(Criteria.where("_id").in(ids)
+                .and("status").is(PostStatus.PROCESSING.name())
+                .and("lastDispatch.sentAt").is(null));
+        mongoTemplate.updateMulti(query, new Update().set("lastDispatch.queueHeartbeatAt", heartbeatAt),
+                mongoTemplate.getCollectionName(ThoughtsToPost.class));
+    }
+
+    private record StatusTiming(PostStatus status, Instant enteredAt) {
+    }
+
+    private static Query versioned(String id, String userId, Long version) {
+        return new Query(Criteria.where("id").is(id).and("userId").is(userId).and("version").is(version));
+    }
+
+    private static Query project(Query query, Collection<String> paths) {
+        paths.forEach(path -> query.fields().include(path));
+        if (!paths.contains("id")) {
+            query.fields().exclude("id");
+        }
+        return query;
+    }
+}
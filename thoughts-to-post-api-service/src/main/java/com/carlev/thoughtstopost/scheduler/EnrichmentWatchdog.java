@@ -0,0 +1,88 @@
+package com.carlev.thoughtstopost.scheduler;
+
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.carlev.thoughtstopost.service.ThoughtsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Scheduler that watches PROCESSING thoughts: fails those past their dispatch deadline and
+ * re-dispatches those that have made no progress, in case the request or the agent was lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EnrichmentWatchdog {
+
+    private static final int SWEEP_SIZE = 100;
+
+    private final ThoughtsToPostRepository thoughtsRepository;
+    private final ThoughtsService thoughtsService;
+
+    @Value("${app.enrichment.watchdog.stall-timeout:5m}")
+    private Duration stallTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Sweep overdue enrichments every minute (configurable).
+     */
+    @Scheduled(fixedDelayString = "${app.enrichment.watchdog.interval:60000}")
+    public void expireOverdueEnrichments() {
+        List<ThoughtsToPost> overdue = thoughtsRepository
+                .findByStatusAndDispatchDeadlineBefore(PostStatus.PROCESSING, Instant.now());
+        if (overdue.isEmpty()) {
+            return;
+        }
+
+        log.info("Expiring {} enrichment(s) past their deadline", overdue.size());
+        for (ThoughtsToPost thought : overdue) {
+            try {
+                thoughtsService.expireEnrichment(thought, "watchdog");
+            } catch (OptimisticLockingFailureException e) {
+                // A response or a new dispatch updated the thought since the query; the next sweep re-evaluates it
+                log.debug("Thought {} changed during expiry, skipping", thought.getId());
+            } catch (Exception e) {
+                log.error("Error expiring enrichment for thought {}: {}", thought.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Re-dispatch thoughts with no progress (no agent response or other update) within the stall timeout.
+     * Every agent response updates the thought, so updatedAt is the last sign of progress. A dispatch sent or
+     * confirmed queued by its instance within the timeout is not stalled either, whichever instance holds it:
+     * its persisted lastDispatch.sentAt and queueHeartbeatAt say so. The query is answered from the
+     * (status, updatedAt) index, oldest first, at most 100 per sweep.
+     */
+    @Scheduled(fixedDelayString = "${app.enrichment.watchdog.interval:60000}")
+    public void redispatchStalledEnrichments() {
+        LocalDateTime stalledBefore = LocalDateTime.now().minus(stallTimeout);
+        List<ThoughtsToPost> stalled = thoughtsRepository.findStalled(PostStatus.PROCESSING, stalledBefore,
+                Instant.now().minus(stallTimeout), PageRequest.of(0, SWEEP_SIZE));
+        if (stalled.isEmpty()) {
+            return;
+        }
+
+        log.info("Found {} enrichment(s) with no progress since {}", stalled.size(), stalledBefore);
+        for (ThoughtsToPost thought : stalled) {
+            try {
+                thoughtsService.redispatchStalled(thought);
+            } catch (OptimisticLockingFailureException e) {
+                log.debug("Thought {} made progress during the sweep, skipping", thought.getId());
+            } catch (Exception e) {
+                log.error("Error re-dispatching thought {}: {}", thought.getId(), e.getMessage());
+            }
+        }
+    }
+}
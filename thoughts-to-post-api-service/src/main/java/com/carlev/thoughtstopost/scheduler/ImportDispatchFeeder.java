@@ -0,0 +1,52 @@
+package com.carlev.thoughtstopost.scheduler;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.carlev.thoughtstopost.service.EnrichmentDispatcher;
+import com.carlev.thoughtstopost.service.ThoughtsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Scheduler that sends imported thoughts to the agent, oldest first, only as fast as the dispatch queue drains:
+ * each run tops the queue up to the configured depth, so a large import never floods it and interactive
+ * requests are not stuck behind thousands of imported ones.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImportDispatchFeeder {
+
+    private final ThoughtsToPostRepository thoughtsRepository;
+    private final ThoughtsService thoughtsService;
+    private final EnrichmentDispatcher enrichmentDispatcher;
+
+    @Value("${app.import.max-queued:200}")
+    private int maxQueued = 200;
+
+    @Scheduled(fixedDelayString = "${app.import.feed-interval:5000}")
+    public void feedImportedThoughts() {
+        int room = maxQueued - enrichmentDispatcher.status().getQueued();
+        if (room <= 0) {
+            return;
+        }
+        List<ThoughtsToPost> queued = thoughtsRepository.findQueuedForDispatch(PageRequest.of(0, room));
+        if (queued.isEmpty()) {
+            return;
+        }
+
+        try {
+            int dispatched = thoughtsService.dispatchQueued(queued);
+            log.info("Dispatched {} of {} imported thought(s)", dispatched, queued.size());
+        } catch (Exception e) {
+            // Unwritten thoughts keep their queue marker for the next run; the watchdog re-sends any left PROCESSING
+            log.error("Error dispatching imported thoughts: {}", e.getMessage());
+        }
+    }
+}
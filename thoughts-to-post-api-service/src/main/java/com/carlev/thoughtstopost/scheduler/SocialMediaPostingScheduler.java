@@ -3,9 +3,12 @@ package com.carlev.thoughtstopost.scheduler;
 import com.carlev.thoughtstopost.model.PostStatus;
 import com.carlev.thoughtstopost.model.ThoughtsToPost;
 import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.carlev.thoughtstopost.service.ThoughtMergeEngine;
+import com.carlev.thoughtstopost.service.ThoughtWriter;
 import com.carlev.thoughtstopost.service.ThoughtsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -22,6 +25,7 @@ public class SocialMediaPostingScheduler {
 
     private final ThoughtsToPostRepository thoughtsRepository;
     private final ThoughtsService thoughtsService;
+    private final ThoughtMergeEngine mergeEngine;
 
     /**
      * Poll for posts that need retry every 10 minutes.
@@ -68,7 +72,11 @@ public class SocialMediaPostingScheduler {
             // post".
             thought.setStatus(PostStatus.FAILED);
             thought.setErrorMessage("Reached maximum retry limit (100) for one or more platforms.");
-            thoughtsRepository.save(thought);
+            try {
+                thoughtsRepository.save(thought);
+            } catch (OptimisticLockingFailureException e) {
+                mergeEngine.merge(thought, ThoughtWriter.POSTER, e);
+            }
             return;
         }
 
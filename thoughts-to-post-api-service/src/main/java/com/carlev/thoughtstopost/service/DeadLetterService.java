@@ -0,0 +1,379 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.DeadLetterEntry;
+import com.carlev.thoughtstopost.dto.DeadLetterReplayRequest;
+import com.carlev.thoughtstopost.dto.DeadLetterReplayStatus;
+import com.carlev.thoughtstopost.kafka.ProcessedMessageLedger;
+import com.carlev.thoughtstopost.kafka.ThoughtResponseMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Browses the agent-response dead-letter topic and replays it into {@link ThoughtsService#handleAgentResponse}.
+ * <p>
+ * Both read the topic up to its end as it was when they started, with an unassigned consumer that never commits,
+ * so browsing is repeatable and a replay never touches the live listeners' offsets. A replay runs in the
+ * background at a fixed rate, one at a time per instance. Each replayed response is recorded in the dedupe ledger
+ * under its original record, so replaying the same range twice, or the original being redelivered, applies it
+ * once. Responses that fail again stay on the topic for a later replay.
+ */
+@Service
+@Slf4j
+public class DeadLetterService {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final double MAX_RATE = 1_000;
+
+    private final ConsumerFactory<String, ThoughtResponseMessage> consumerFactory;
+    private final ThoughtsService thoughtsService;
+    private final ProcessedMessageLedger processedMessageLedger;
+    private final MeterRegistry meterRegistry;
+    private final String deadLetterTopic;
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("dead-letter-replay-", 0).factory());
+    private final AtomicReference<Replay> replay = new AtomicReference<>();
+
+    public DeadLetterService(@Qualifier("deadLetterConsumerFactory")
+                             ConsumerFactory<String, ThoughtResponseMessage> consumerFactory,
+                             ThoughtsService thoughtsService,
+                             ProcessedMessageLedger processedMessageLedger,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.kafka.dead-letter-topic:thoughts-to-post-response-dlt}")
+                             String deadLetterTopic) {
+        this.consumerFactory = consumerFactory;
+        this.thoughtsService = thoughtsService;
+        this.processedMessageLedger = processedMessageLedger;
+        this.meterRegistry = meterRegistry;
+        this.deadLetterTopic = deadLetterTopic;
+    }
+
+    @PreDestroy
+    void shutdownReplayExecutor() {
+        replayExecutor.shutdownNow();
+    }
+
+    /**
+     * Up to {@code limit} dead letters matching the filters, oldest first within each partition.
+     */
+    public List<DeadLetterEntry> browse(DeadLetterReplayRequest filter, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        List<DeadLetterEntry> entries = new ArrayList<>();
+        scan(filter, record -> {
+            entries.add(toEntry(record));
+            return entries.size() < limit;
+        }, null);
+        return entries;
+    }
+
+    /**
+     * Start replaying the dead letters matching the request in the background.
+     *
+     * @throws IllegalArgumentException if the rate is not positive or above the maximum
+     * @throws IllegalStateException    if a replay is already running
+     */
+    public DeadLetterReplayStatus startReplay(DeadLetterReplayRequest request) {
+        if (!(request.getRatePerSecond() > 0) || request.getRatePerSecond() > MAX_RATE) {
+            throw new IllegalArgumentException("ratePerSecond must be above 0 and at most " + MAX_RATE);
+        }
+        Replay job = new Replay(UUID.randomUUID().toString(), request);
+        Replay current = replay.get();
+        if ((current != null && current.state == DeadLetterReplayStatus.State.RUNNING)
+                || !replay.compareAndSet(current, job)) {
+            throw new IllegalStateException("A dead-letter replay is already running");
+        }
+
+        log.info("Starting dead-letter replay {} at {}/s (requestId: {}, from: {}, to: {}, exception: {})",
+                job.id, request.getRatePerSecond(), request.getRequestId(), request.getFrom(), request.getTo(),
+                request.getExceptionType());
+        replayExecutor.submit(() -> run(job));
+        return job.status();
+    }
+
+    /**
+     * The running or last replay on this instance.
+     */
+    public Optional<DeadLetterReplayStatus> replayStatus() {
+        return Optional.ofNullable(replay.get()).map(Replay::status);
+    }
+
+    /**
+     * Stop the running replay after the response being applied, if any.
+     */
+    public Optional<DeadLetterReplayStatus> cancelReplay() {
+        Replay job = replay.get();
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelled = true;
+        return Optional.of(job.status());
+    }
+
+    private void run(Replay job) {
+        long intervalNanos = (long) (1e9 / job.request.getRatePerSecond());
+        long[] nextAt = {System.nanoTime()};
+        try {
+            scan(job.request, record -> {
+                if (job.cancelled) {
+                    return false;
+                }
+                job.matched.incrementAndGet();
+                ThoughtResponseMessage message = record.value();
+                if (message == null) {
+                    job.unreadable.incrementAndGet();
+                    count("unreadable");
+                    return true;
+                }
+
+                long wait = nextAt[0] - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        Thread.sleep(Duration.ofNanos(wait));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        job.cancelled = true;
+                        return false;
+                    }
+                }
+                nextAt[0] = Math.max(nextAt[0], System.nanoTime() - intervalNanos) + intervalNanos;
+                replayOne(job, record, message);
+                return true;
+            }, job);
+            job.finish(job.cancelled ? DeadLetterReplayStatus.State.CANCELLED : DeadLetterReplayStatus.State.COMPLETED,
+                    null);
+        } catch (RuntimeException e) {
+            log.error("Dead-letter replay {} failed: {}", job.id, e.getMessage(), e);
+            job.finish(DeadLetterReplayStatus.State.FAILED, e.getMessage());
+        }
+        log.info("Dead-letter replay {} {}: {}", job.id, job.state, job.status());
+    }
+
+    private void replayOne(Replay job, ConsumerRecord<String, ThoughtResponseMessage> record,
+                           ThoughtResponseMessage message) {
+        String originalTopic = header(record, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        Integer originalPartition = intHeader(record, KafkaHeaders.DLT_ORIGINAL_PARTITION);
+        Long originalOffset = longHeader(record, KafkaHeaders.DLT_ORIGINAL_OFFSET);
+        String dedupeKey = originalTopic != null && originalPartition != null && originalOffset != null
+                ? processedMessageLedger.keyFor(message, originalTopic, originalPartition, originalOffset)
+                : null;
+        try {
+            if (dedupeKey != null && processedMessageLedger.isDuplicate(dedupeKey)) {
+                job.alreadyApplied.incrementAndGet();
+                count("already-applied");
+                return;
+            }
+            thoughtsService.handleAgentResponse(message);
+            if (dedupeKey != null) {
+                processedMessageLedger.markProcessed(dedupeKey);
+            }
+            job.replayed.incrementAndGet();
+            count("replayed");
+        } catch (RuntimeException e) {
+            log.warn("Replayed dead letter {}@{} for request {} failed again: {}",
+                    record.partition(), record.offset(), message.getRequestId(), e.getMessage());
+            job.failed.incrementAndGet();
+            count("failed");
+        }
+    }
+
+    /**
+     * Read the dead-letter topic from the filter's start time, or the beginning, up to its current end, passing
+     * matching records to {@code visitor} until it returns false.
+     */
+    private void scan(DeadLetterReplayRequest filter, Predicate<ConsumerRecord<String, ThoughtResponseMessage>> visitor,
+                      Replay progress) {
+        try (Consumer<String, ThoughtResponseMessage> consumer = consumerFactory.createConsumer(null, "dead-letters")) {
+            List<TopicPartition> partitions = consumer.partitionsFor(deadLetterTopic).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            if (partitions.isEmpty()) {
+                return;
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            if (filter.getFrom() != null) {
+                Map<TopicPartition, Long> startTimes = new HashMap<>();
+                partitions.forEach(partition -> startTimes.put(partition, filter.getFrom().toEpochMilli()));
+                Map<TopicPartition, OffsetAndTimestamp> starts = consumer.offsetsForTimes(startTimes);
+                for (TopicPartition partition : partitions) {
+                    OffsetAndTimestamp start = starts.get(partition);
+                    consumer.seek(partition, start != null ? start.offset() : endOffsets.get(partition));
+                }
+            } else {
+                consumer.seekToBeginning(partitions);
+            }
+
+            Set<TopicPartition> open = new HashSet<>(partitions);
+            open.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+            while (!open.isEmpty()) {
+                if (progress != null) {
+                    progress.remaining.set(open.stream()
+                            .mapToLong(partition -> endOffsets.get(partition) - consumer.position(partition))
+                            .sum());
+                }
+                for (ConsumerRecord<String, ThoughtResponseMessage> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    if (progress != null) {
+                        progress.scanned.incrementAndGet();
+                    }
+                    if (matches(record, filter) && !visitor.test(record)) {
+                        return;
+                    }
+                }
+                open.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+            }
+            if (progress != null) {
+                progress.remaining.set(0);
+            }
+        }
+    }
+
+    static boolean matches(ConsumerRecord<String, ThoughtResponseMessage> record, DeadLetterReplayRequest filter) {
+        if (filter.getRequestId() != null && !filter.getRequestId().equals(record.key())
+                && (record.value() == null || !filter.getRequestId().equals(record.value().getRequestId()))) {
+            return false;
+        }
+        if (filter.getFrom() != null && record.timestamp() < filter.getFrom().toEpochMilli()) {
+            return false;
+        }
+        if (filter.getTo() != null && record.timestamp() >= filter.getTo().toEpochMilli()) {
+            return false;
+        }
+        if (filter.getExceptionType() != null) {
+            String wanted = filter.getExceptionType().toLowerCase(Locale.ROOT);
+            return containsIgnoreCase(header(record, KafkaHeaders.DLT_EXCEPTION_FQCN), wanted)
+                    || containsIgnoreCase(header(record, KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN), wanted);
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(String value, String wanted) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(wanted);
+    }
+
+    private static DeadLetterEntry toEntry(ConsumerRecord<String, ThoughtResponseMessage> record) {
+        ThoughtResponseMessage message = record.value();
+        String cause = header(record, KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN);
+        return DeadLetterEntry.builder()
+                .partition(record.partition())
+                .offset(record.offset())
+                .deadLetteredAt(Instant.ofEpochMilli(record.timestamp()))
+                .key(record.key())
+                .requestId(message != null ? message.getRequestId() : null)
+                .status(message != null ? message.getStatus() : null)
+                .generation(message != null ? message.getGeneration() : null)
+                .originalTopic(header(record, KafkaHeaders.DLT_ORIGINAL_TOPIC))
+                .originalPartition(intHeader(record, KafkaHeaders.DLT_ORIGINAL_PARTITION))
+                .originalOffset(longHeader(record, KafkaHeaders.DLT_ORIGINAL_OFFSET))
+                .exceptionType(cause != null ? cause : header(record, KafkaHeaders.DLT_EXCEPTION_FQCN))
+                .exceptionMessage(header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE))
+                .replayable(message != null)
+                .build();
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null && header.value() != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    private static Integer intHeader(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null && header.value() != null && header.value().length == Integer.BYTES
+                ? ByteBuffer.wrap(header.value()).getInt() : null;
+    }
+
+    private static Long longHeader(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null && header.value() != null && header.value().length == Long.BYTES
+                ? ByteBuffer.wrap(header.value()).getLong() : null;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("kafka.dlt.replay", "outcome", outcome).increment();
+    }
+
+    private static final class Replay {
+
+        private final String id;
+        private final DeadLetterReplayRequest request;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong matched = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong alreadyApplied = new AtomicLong();
+        private final AtomicLong unreadable = new AtomicLong();
+        private final AtomicLong remaining = new AtomicLong();
+        private volatile DeadLetterReplayStatus.State state = DeadLetterReplayStatus.State.RUNNING;
+        private volatile boolean cancelled;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Replay(String id, DeadLetterReplayRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        private void finish(DeadLetterReplayStatus.State finalState, String failure) {
+            finishedAt = Instant.now();
+            error = failure;
+            state = finalState;
+        }
+
+        private DeadLetterReplayStatus status() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            long applied = replayed.get() + failed.get() + alreadyApplied.get();
+            return DeadLetterReplayStatus.builder()
+                    .id(id)
+                    .state(state)
+                    .request(request)
+                    .scanned(scanned.get())
+                    .matched(matched.get())
+                    .replayed(replayed.get())
+                    .failed(failed.get())
+                    .alreadyApplied(alreadyApplied.get())
+                    .unreadable(unreadable.get())
+                    .remaining(remaining.get())
+                    .throughputPerSecond(Math.round(applied / seconds * 10) / 10.0)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.kafka.DispatchLane;
+
+import java.time.Instant;
+
+/**
+ * Agent credits shared by all API instances, so the dispatch limit holds across replicas and whichever
+ * instance consumes a response can return the credit.
+ */
+public interface DispatchLeaseStore {
+
+    /**
+     * Make sure the lane has {@code capacity} credits. Later claims use only these, even if more were created
+     * under an earlier configuration.
+     */
+    void ensureCapacity(DispatchLane lane, int capacity);
+
+    /**
+     * Take a free or expired credit of the lane for a request. A request that already holds a credit of the
+     * lane keeps it and only has its generation and expiry updated.
+     *
+     * @return false if every credit of the lane is held
+     */
+    boolean claim(DispatchLane lane, String requestId, Long generation, String owner, Instant expiresAt);
+
+    /**
+     * Whether the request holds an unexpired credit for this generation.
+     */
+    boolean holds(String requestId, Long generation);
+
+    /**
+     * Return the credits held by a request.
+     *
+     * @param generation generation the agent finished; leases of newer generations are kept. {@code null}
+     *                   releases every lease of the request
+     * @return number of credits returned
+     */
+    long release(String requestId, Long generation);
+
+    /**
+     * Number of unexpired credits held in the lane.
+     */
+    int countHeld(DispatchLane lane);
+}
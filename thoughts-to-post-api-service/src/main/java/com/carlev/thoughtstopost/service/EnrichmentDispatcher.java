@@ -0,0 +1,452 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.DispatchQueueStatus;
+import com.carlev.thoughtstopost.kafka.DispatchLane;
+import com.carlev.thoughtstopost.kafka.GenerationParameters;
+import com.carlev.thoughtstopost.kafka.ThoughtRequestMessage;
+import com.carlev.thoughtstopost.kafka.ThoughtsKafkaProducer;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Weighted fair queue in front of {@link ThoughtsKafkaProducer}.
+ * <p>
+ * Requests are ordered by start-time fair queuing: each user has a virtual finish time that advances by the
+ * estimated cost of each request they submit, so a user who queues 500 SDXL batches only gets their share of
+ * the agent while others are waiting. Each {@link DispatchLane} has its own queue and credits
+ * ({@code app.dispatch.max-in-flight} for bulk, {@code app.dispatch.interactive-max-in-flight} for interactive),
+ * and the interactive lane is always drained first. Credits are leases in a {@link DispatchLeaseStore} shared by
+ * every API instance, so the limits are global and the instance that consumes the agent's response returns the
+ * credit even if another one sent the request. A credit is returned when the agent reports a terminal status or
+ * the dispatch is cancelled or expired; a lease that is never returned lapses {@code app.dispatch.lease} after
+ * the request was sent. Queues are per instance and held in memory, and are drained again every
+ * {@code app.dispatch.poll-interval} to pick up credits returned elsewhere. Where a request is lives on the thought
+ * itself: {@code lastDispatch.sentAt} is set once it is handed to Kafka, and while it waits the queueing instance
+ * refreshes {@code lastDispatch.queueHeartbeatAt} every {@code app.dispatch.queue-heartbeat}. Requests queued
+ * when an instance stops lose their heartbeat, stay PROCESSING and are re-sent by the enrichment watchdog.
+ * <p>
+ * The queues are guarded by the dispatcher's monitor, which is never held across a lease store round trip;
+ * drains run one at a time under their own lock.
+ */
+@Component
+@Slf4j
+public class EnrichmentDispatcher {
+
+    private static final int DEFAULT_STEPS = 30;
+    private static final double REFERENCE_PIXELS = 1024.0 * 1024.0;
+    private static final int DEFAULT_VIDEO_SECONDS = 5;
+    private static final int DEFAULT_VIDEO_FPS = 8;
+
+    private final ThoughtsKafkaProducer kafkaProducer;
+    private final DispatchLeaseStore leaseStore;
+    private final ThoughtsToPostRepository thoughtsRepository;
+    private final Duration leaseDuration;
+    private final Duration queueHeartbeat;
+    private final String owner = UUID.randomUUID().toString();
+    private final Map<DispatchLane, LaneQueue> lanes = new EnumMap<>(DispatchLane.class);
+    private final Map<String, QueuedRequest> queuedByRequestId = new HashMap<>();
+    private final Object drainLock = new Object();
+    private long sequence;
+    private Instant lastHeartbeat = Instant.MIN;
+
+    public EnrichmentDispatcher(ThoughtsKafkaProducer kafkaProducer,
+                                DispatchLeaseStore leaseStore,
+                                ThoughtsToPostRepository thoughtsRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.dispatch.max-in-flight:4}") int maxInFlight,
+                                @Value("${app.dispatch.interactive-max-in-flight:1}") int interactiveMaxInFlight,
+                                @Value("${app.dispatch.lease:30m}") Duration leaseDuration,
+                                @Value("${app.dispatch.queue-heartbeat:1m}") Duration queueHeartbeat) {
+        this.kafkaProducer = kafkaProducer;
+        this.leaseStore = leaseStore;
+        this.thoughtsRepository = thoughtsRepository;
+        this.leaseDuration = leaseDuration;
+        this.queueHeartbeat = queueHeartbeat;
+        // Drain order follows declaration order: INTERACTIVE before BULK
+        lanes.put(DispatchLane.INTERACTIVE, new LaneQueue(DispatchLane.INTERACTIVE, interactiveMaxInFlight, meterRegistry));
+        lanes.put(DispatchLane.BULK, new LaneQueue(DispatchLane.BULK, maxInFlight, meterRegistry));
+
+        for (LaneQueue lane : lanes.values()) {
+            String tag = lane.lane.tagValue();
+            Gauge.builder("enrichment.dispatch.queue.depth", this, d -> d.queuedCount(lane))
+                    .description("Enrichment requests waiting for an agent credit")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("enrichment.dispatch.in.flight", this, d -> d.inFlightCount(lane))
+                    .description("Enrichment requests outstanding at the AI agent")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("enrichment.dispatch.queued.users", this, d -> d.queuedUserCount(lane))
+                    .description("Users with at least one queued enrichment request")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Create each lane's credits in the lease store, once at startup rather than in the constructor.
+     */
+    @PostConstruct
+    public void ensureCapacity() {
+        for (LaneQueue lane : lanes.values()) {
+            leaseStore.ensureCapacity(lane.lane, lane.maxInFlight);
+        }
+    }
+
+    /**
+     * Queue a request for the agent. A queued request for the same thought is replaced (only the newest generation
+     * is worth sending); re-sending the generation that already holds a credit goes out immediately.
+     */
+    public void submit(ThoughtRequestMessage message) {
+        submitAll(List.of(message));
+    }
+
+    /**
+     * Queue several requests under one lock and drain once, so a batch is interleaved fairly with other users'
+     * requests as a whole rather than one submission at a time.
+     */
+    public void submitAll(List<ThoughtRequestMessage> messages) {
+        List<ThoughtRequestMessage> toSend = new ArrayList<>();
+        List<ThoughtRequestMessage> toQueue = new ArrayList<>();
+        for (ThoughtRequestMessage message : messages) {
+            Long generation = message.getGeneration();
+            if (generation != null && leaseStore.holds(message.getRequestId(), generation)) {
+                toSend.add(message);
+            } else {
+                toQueue.add(message);
+            }
+        }
+        if (!toQueue.isEmpty()) {
+            synchronized (this) {
+                for (ThoughtRequestMessage message : toQueue) {
+                    removeQueued(message.getRequestId());
+                    lanes.get(DispatchLane.of(message)).enqueue(message);
+                }
+            }
+            toSend.addAll(drain());
+        }
+        send(toSend);
+    }
+
+    /**
+     * Return the credit held by a request once the agent has finished it, then dispatch waiting requests.
+     * Works on any instance, whichever one sent the request.
+     *
+     * @param generation generation the agent finished; older leases are released too, newer ones are kept
+     */
+    public void release(String requestId, Long generation) {
+        leaseStore.release(requestId, generation);
+        send(drain());
+    }
+
+    /**
+     * Drop a request entirely: remove it from the queue and return its credit.
+     */
+    public void cancel(String requestId) {
+        synchronized (this) {
+            removeQueued(requestId);
+        }
+        leaseStore.release(requestId, null);
+        send(drain());
+    }
+
+    /**
+     * Send queued requests into credits returned by other instances, or by leases that lapsed, then refresh the
+     * queue heartbeat of those still waiting once it is due.
+     */
+    @Scheduled(fixedDelayString = "${app.dispatch.poll-interval:5000}")
+    public void drainQueued() {
+        synchronized (this) {
+            if (queuedByRequestId.isEmpty()) {
+                return;
+            }
+        }
+        send(drain());
+
+        Instant now = Instant.now();
+        List<String> waiting;
+        synchronized (this) {
+            if (queuedByRequestId.isEmpty() || now.isBefore(lastHeartbeat.plus(queueHeartbeat))) {
+                return;
+            }
+            lastHeartbeat = now;
+            waiting = new ArrayList<>(queuedByRequestId.keySet());
+        }
+        thoughtsRepository.touchDispatchQueued(waiting, now);
+    }
+
+    public synchronized boolean isQueued(String requestId) {
+        return queuedByRequestId.containsKey(requestId);
+    }
+
+    public DispatchQueueStatus status() {
+        // Lease counts come from the store, before the queue monitor is taken
+        Map<DispatchLane, Integer> inFlightByLane = new EnumMap<>(DispatchLane.class);
+        for (LaneQueue lane : lanes.values()) {
+            inFlightByLane.put(lane.lane, inFlightCount(lane));
+        }
+
+        Map<String, Integer> queuedByUser = new TreeMap<>();
+        Map<DispatchLane, DispatchQueueStatus.LaneStatus> laneStatuses = new EnumMap<>(DispatchLane.class);
+        int capacity = 0;
+        int inFlight = 0;
+        int queued = 0;
+        synchronized (this) {
+            for (LaneQueue lane : lanes.values()) {
+                lane.depthByUser.forEach((user, depth) -> queuedByUser.merge(user, depth, Integer::sum));
+                int laneInFlight = inFlightByLane.get(lane.lane);
+                capacity += lane.maxInFlight;
+                inFlight += laneInFlight;
+                queued += lane.queue.size();
+                laneStatuses.put(lane.lane, DispatchQueueStatus.LaneStatus.builder()
+                        .capacity(lane.maxInFlight)
+                        .inFlight(laneInFlight)
+                        .queued(lane.queue.size())
+                        .queuedByUser(new TreeMap<>(lane.depthByUser))
+                        .build());
+            }
+        }
+        return DispatchQueueStatus.builder()
+                .capacity(capacity)
+                .inFlight(inFlight)
+                .queued(queued)
+                .queuedByUser(queuedByUser)
+                .lanes(laneStatuses)
+                .build();
+    }
+
+    /**
+     * Estimated agent cost of a request, in units of one text enrichment.
+     * Images scale with sampler steps, batch size and pixel count; videos with duration and frame rate.
+     */
+    static double estimateCost(ThoughtRequestMessage message) {
+        boolean imageOnly = message.getImageRefinementInstructions() != null;
+        List<ThoughtRequestMessage.PlatformConfiguration> configurations = message.getPlatformConfigurations();
+        if (configurations == null || configurations.isEmpty()) {
+            int platforms = message.getPlatforms() != null ? message.getPlatforms().size() : 1;
+            return Math.max(1, platforms) * (imageOnly ? 1.0 : 2.0);
+        }
+
+        double cost = 0;
+        for (ThoughtRequestMessage.PlatformConfiguration configuration : configurations) {
+            if (!imageOnly) {
+                cost += 1.0;
+            }
+            cost += imageCost(configuration.getImageParams());
+            if (!imageOnly && configuration.getVideoPrompt() != null) {
+                cost += videoCost(configuration.getVideoParams());
+            }
+        }
+        return cost;
+    }
+
+    private static double imageCost(GenerationParameters params) {
+        if (params == null) {
+            return 1.0;
+        }
+        double steps = params.getSteps() != null && params.getSteps() > 0 ? params.getSteps() : DEFAULT_STEPS;
+        int batch = params.getBatchSize() != null && params.getBatchSize() > 0 ? params.getBatchSize() : 1;
+        return (steps / DEFAULT_STEPS) * batch * pixelFactor(params.getResolution());
+    }
+
+    private static double videoCost(GenerationParameters params) {
+        int seconds = params != null && params.getDuration() != null && params.getDuration() > 0
+                ? params.getDuration() : DEFAULT_VIDEO_SECONDS;
+        int fps = params != null && params.getFps() != null && params.getFps() > 0 ? params.getFps() : DEFAULT_VIDEO_FPS;
+        // Each frame costs roughly a fifth of a full image
+        return seconds * fps * 0.2;
+    }
+
+    private static double pixelFactor(String resolution) {
+        if (resolution == null) {
+            return 1.0;
+        }
+        int x = resolution.toLowerCase().indexOf('x');
+        if (x <= 0) {
+            return 1.0;
+        }
+        try {
+            double width = Integer.parseInt(resolution.substring(0, x).trim());
+            double height = Integer.parseInt(resolution.substring(x + 1).trim());
+            return Math.max(0.25, (width * height) / REFERENCE_PIXELS);
+        } catch (NumberFormatException e) {
+            return 1.0;
+        }
+    }
+
+    private void removeQueued(String requestId) {
+        QueuedRequest queued = queuedByRequestId.remove(requestId);
+        if (queued != null) {
+            lanes.get(queued.lane()).remove(queued);
+        }
+    }
+
+    /**
+     * Take as many requests off each lane as it can claim credits for, interactive first. Each claim is made for
+     * the lane's head with the queue monitor released; a request cancelled or replaced meanwhile gives its credit
+     * back. Drains are serialized so two never claim for the same head.
+     */
+    private List<ThoughtRequestMessage> drain() {
+        List<ThoughtRequestMessage> toSend = new ArrayList<>();
+        synchronized (drainLock) {
+            for (LaneQueue lane : lanes.values()) {
+                QueuedRequest head;
+                while ((head = nextToClaim(lane)) != null) {
+                    ThoughtRequestMessage message = head.message();
+                    // The lease starts now, at send time, so time spent waiting in the queue does not count against it
+                    if (!leaseStore.claim(lane.lane, message.getRequestId(), message.getGeneration(), owner,
+                            Instant.now().plus(leaseDuration))) {
+                        break;
+                    }
+                    if (takeClaimed(lane, head)) {
+                        toSend.add(message);
+                    } else {
+                        leaseStore.release(message.getRequestId(), message.getGeneration());
+                    }
+                }
+            }
+        }
+        return toSend;
+    }
+
+    /**
+     * The lane's next request, after dropping those past their deadline; null if the lane is empty.
+     */
+    private synchronized QueuedRequest nextToClaim(LaneQueue lane) {
+        while (!lane.queue.isEmpty()) {
+            Instant now = Instant.now();
+            QueuedRequest head = lane.queue.peek();
+            if (head.message().getDeadline() == null || !now.isAfter(head.message().getDeadline())) {
+                return head;
+            }
+            // The watchdog fails the thought; there is no point spending agent time on it
+            log.info("Dropping queued request {} past its deadline", head.message().getRequestId());
+            take(lane, head, now);
+        }
+        return null;
+    }
+
+    /**
+     * Take a request a credit was claimed for off its lane, unless it was cancelled or replaced meanwhile.
+     */
+    private synchronized boolean takeClaimed(LaneQueue lane, QueuedRequest claimed) {
+        if (queuedByRequestId.get(claimed.message().getRequestId()) != claimed) {
+            return false;
+        }
+        take(lane, claimed, Instant.now());
+        return true;
+    }
+
+    private void take(LaneQueue lane, QueuedRequest queued, Instant now) {
+        lane.take(queued);
+        queuedByRequestId.remove(queued.message().getRequestId());
+        lane.waitTimer.record(Duration.between(queued.enqueuedAt(), now));
+    }
+
+    private void send(List<ThoughtRequestMessage> messages) {
+        for (ThoughtRequestMessage message : messages) {
+            kafkaProducer.sendRequest(message);
+            try {
+                thoughtsRepository.markDispatchSent(message.getRequestId(), message.getGeneration(), Instant.now());
+            } catch (RuntimeException e) {
+                // Without the mark the request looks lost once its heartbeat ages, and the watchdog re-sends it
+                log.warn("Could not record dispatch of {}: {}", message.getRequestId(), e.getMessage());
+            }
+        }
+    }
+
+    private synchronized int queuedCount(LaneQueue lane) {
+        return lane.queue.size();
+    }
+
+    private int inFlightCount(LaneQueue lane) {
+        return leaseStore.countHeld(lane.lane);
+    }
+
+    private synchronized int queuedUserCount(LaneQueue lane) {
+        return lane.depthByUser.size();
+    }
+
+    /**
+     * Fair queue of one lane. Guarded by the dispatcher's monitor.
+     */
+    private final class LaneQueue {
+        private final DispatchLane lane;
+        private final int maxInFlight;
+        private final Timer waitTimer;
+        private final PriorityQueue<QueuedRequest> queue = new PriorityQueue<>(
+                Comparator.comparingDouble(QueuedRequest::finishTag).thenComparingLong(QueuedRequest::sequence));
+        private final Map<String, Integer> depthByUser = new HashMap<>();
+        private final Map<String, Double> lastFinishByUser = new HashMap<>();
+        private double virtualTime;
+
+        private LaneQueue(DispatchLane lane, int maxInFlight, MeterRegistry meterRegistry) {
+            this.lane = lane;
+            this.maxInFlight = Math.max(1, maxInFlight);
+            this.waitTimer = Timer.builder("enrichment.dispatch.wait")
+                    .description("Time enrichment requests spend queued before being sent to the agent")
+                    .tag("lane", lane.tagValue())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private void enqueue(ThoughtRequestMessage message) {
+            String user = message.getUserId() != null ? message.getUserId() : "";
+            double start = Math.max(virtualTime, lastFinishByUser.getOrDefault(user, 0.0));
+            double finish = start + estimateCost(message);
+            lastFinishByUser.put(user, finish);
+
+            QueuedRequest queued = new QueuedRequest(message, lane, user, start, finish, sequence++, Instant.now());
+            queue.add(queued);
+            queuedByRequestId.put(message.getRequestId(), queued);
+            depthByUser.merge(user, 1, Integer::sum);
+        }
+
+        private void take(QueuedRequest next) {
+            if (queue.peek() == next) {
+                queue.poll();
+            } else {
+                // A request with an earlier finish tag was queued while the credit was being claimed
+                queue.remove(next);
+            }
+            decrementDepth(next.user());
+            virtualTime = Math.max(virtualTime, next.startTag());
+            if (queue.isEmpty()) {
+                // Idle: forget accumulated finish times so returning users start level with everyone else
+                lastFinishByUser.clear();
+            }
+        }
+
+        private void remove(QueuedRequest queued) {
+            queue.remove(queued);
+            decrementDepth(queued.user());
+        }
+
+        private void decrementDepth(String user) {
+            depthByUser.computeIfPresent(user, (key, depth) -> depth > 1 ? depth - 1 : null);
+        }
+    }
+
+    private record QueuedRequest(ThoughtRequestMessage message, DispatchLane lane, String user, double startTag,
+                                 double finishTag, long sequence, Instant enqueuedAt) {
+    }
+}
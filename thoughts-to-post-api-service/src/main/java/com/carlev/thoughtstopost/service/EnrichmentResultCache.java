@@ -0,0 +1,231 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.kafka.GenerationParameters;
+import com.carlev.thoughtstopost.kafka.ThoughtRequestMessage;
+import com.carlev.thoughtstopost.model.EnrichmentCacheEntry;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.EnrichmentCacheRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Content-addressed cache of completed enrichments.
+ * <p>
+ * The key is a SHA-256 over everything that determines the agent's output: the original thought, the resolved
+ * prompt texts, the category's model role, the additional instructions and the normalized generation parameters.
+ * Image generation is only reproducible with a fixed seed, so requests where any platform lacks an image seed
+ * (or a video seed, when a video prompt is set) are never cached. Image refinements build on the thought's
+ * existing images and are not cached either. Entries expire after {@code app.enrichment.cache.ttl} and the
+ * oldest are evicted once the collection exceeds {@code app.enrichment.cache.max-entries}.
+ */
+@Component
+@Slf4j
+public class EnrichmentResultCache {
+
+    private static final int MAX_EVICTIONS_PER_STORE = 1000;
+
+    private final EnrichmentCacheRepository cacheRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final long maxEntries;
+
+    public EnrichmentResultCache(EnrichmentCacheRepository cacheRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.enrichment.cache.enabled:true}") boolean enabled,
+                                 @Value("${app.enrichment.cache.ttl:7d}") Duration ttl,
+                                 @Value("${app.enrichment.cache.max-entries:5000}") long maxEntries) {
+        this.cacheRepository = cacheRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Cache key for a request, or empty if its result cannot be reused.
+     */
+    public Optional<String> keyFor(ThoughtRequestMessage request) {
+        if (!enabled || !isCacheable(request)) {
+            return Optional.empty();
+        }
+        return Optional.of(computeKey(request));
+    }
+
+    /**
+     * Stored contents for the key, copied with fresh posting state.
+     */
+    public Optional<List<ThoughtsToPost.EnrichedContent>> lookup(String key) {
+        Optional<List<ThoughtsToPost.EnrichedContent>> result = cacheRepository.findById(key)
+                // The TTL monitor only runs once a minute
+                .filter(entry -> entry.getExpiresAt() == null || entry.getExpiresAt().isAfter(Instant.now()))
+                .map(entry -> entry.getEnrichedContents().stream().map(EnrichmentResultCache::copyForReuse).toList());
+        meterRegistry.counter("enrichment.cache", "result", result.isPresent() ? "hit" : "miss").increment();
+        return result;
+    }
+
+    /**
+     * Store a completed enrichment and evict the oldest entries beyond the size bound.
+     */
+    public void store(String key, List<ThoughtsToPost.EnrichedContent> contents) {
+        if (contents == null || contents.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        cacheRepository.save(EnrichmentCacheEntry.builder()
+                .id(key)
+                .enrichedContents(contents.stream().map(EnrichmentResultCache::copyForReuse).toList())
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        meterRegistry.counter("enrichment.cache", "result", "store").increment();
+
+        long excess = cacheRepository.count() - maxEntries;
+        if (excess > 0) {
+            List<String> oldest = cacheRepository.findOldest(PageRequest.of(0, (int) Math.min(excess, MAX_EVICTIONS_PER_STORE)))
+                    .stream()
+                    .map(EnrichmentCacheEntry::getId)
+                    .toList();
+            cacheRepository.deleteAllById(oldest);
+            meterRegistry.counter("enrichment.cache.evicted").increment(oldest.size());
+            log.debug("Evicted {} enrichment cache entries over the bound of {}", oldest.size(), maxEntries);
+        }
+    }
+
+    /**
+     * Whether the agent's output for this request is reproducible and may be served again.
+     */
+    static boolean isCacheable(ThoughtRequestMessage request) {
+        if (request.getImageRefinementInstructions() != null || request.getTargetPlatform() != null) {
+            return false;
+        }
+        List<ThoughtRequestMessage.PlatformConfiguration> configurations = request.getPlatformConfigurations();
+        if (configurations == null || configurations.isEmpty()) {
+            return false;
+        }
+        for (ThoughtRequestMessage.PlatformConfiguration config : configurations) {
+            if (!hasFixedSeed(config.getImageParams())) {
+                return false;
+            }
+            if (config.getVideoPrompt() != null && !hasFixedSeed(config.getVideoParams())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * SHA-256 over the normalized enrichment inputs. Each field is length-prefixed so values cannot run together.
+     */
+    static String computeKey(ThoughtRequestMessage request) {
+        StringBuilder canonical = new StringBuilder();
+        append(canonical, "thought", request.getOriginalThought());
+        append(canonical, "modelRole", request.getModelRole());
+        // A repost asks for the same enrichment as the thought's first run and must find its entry
+        String instructions = request.getAdditionalInstructions();
+        append(canonical, "instructions",
+                ThoughtRequestMessage.REPOST_INSTRUCTIONS.equals(instructions) ? null : instructions);
+
+        List<ThoughtRequestMessage.PlatformConfiguration> configurations = new ArrayList<>(request.getPlatformConfigurations());
+        configurations.sort(Comparator.comparing(config -> config.getPlatform().name()));
+        for (ThoughtRequestMessage.PlatformConfiguration config : configurations) {
+            append(canonical, "platform", config.getPlatform().name());
+            append(canonical, "prompt", config.getPrompt());
+            append(canonical, "imagePrompt", config.getImagePrompt());
+            append(canonical, "videoPrompt", config.getVideoPrompt());
+            append(canonical, "context", config.getAdditionalContext());
+            append(canonical, "imageParams", normalize(config.getImageParams()));
+            append(canonical, "videoParams", config.getVideoPrompt() != null ? normalize(config.getVideoParams()) : null);
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Canonical form of generation parameters: case and whitespace do not matter, an unset batch size is one
+     * image, and the async flag only changes how results are delivered.
+     */
+    static String normalize(GenerationParameters params) {
+        if (params == null) {
+            return null;
+        }
+        return String.join("|",
+                "res=" + (params.getResolution() != null ? params.getResolution().replaceAll("\\s", "").toLowerCase(Locale.ROOT) : ""),
+                "steps=" + (params.getSteps() != null ? params.getSteps() : ""),
+                "cfg=" + (params.getCfgScale() != null ? String.format(Locale.ROOT, "%.2f", params.getCfgScale()) : ""),
+                "seed=" + (params.getSeed() != null ? params.getSeed() : ""),
+                "model=" + (params.getModelType() != null ? params.getModelType().trim().toLowerCase(Locale.ROOT) : ""),
+                "sampler=" + (params.getSampler() != null ? params.getSampler().trim().toLowerCase(Locale.ROOT) : ""),
+                "batch=" + (params.getBatchSize() != null ? params.getBatchSize() : 1),
+                "duration=" + (params.getDuration() != null ? params.getDuration() : ""),
+                "fps=" + (params.getFps() != null ? params.getFps() : ""));
+    }
+
+    private static boolean hasFixedSeed(GenerationParameters params) {
+        return params != null && params.getSeed() != null && params.getSeed() >= 0;
+    }
+
+    private static void append(StringBuilder canonical, String name, String value) {
+        canonical.append(name).append('=');
+        if (value == null) {
+            canonical.append("-;");
+        } else {
+            canonical.append(value.length()).append(':').append(value).append(';');
+        }
+    }
+
+    /**
+     * Copy of stored content with fresh posting state, safe to attach to another thought.
+     */
+    static ThoughtsToPost.EnrichedContent copyForReuse(ThoughtsToPost.EnrichedContent source) {
+        List<ThoughtsToPost.GeneratedImage> images = new ArrayList<>();
+        if (source.getImages() != null) {
+            for (ThoughtsToPost.GeneratedImage image : source.getImages()) {
+                images.add(ThoughtsToPost.GeneratedImage.builder()
+                        .id(image.getId())
+                        .base64Data(image.getBase64Data())
+                        .url(image.getUrl())
+                        .prompt(image.getPrompt())
+                        .format(image.getFormat())
+                        .width(image.getWidth())
+                        .height(image.getHeight())
+                        .selected(image.isSelected())
+                        .tag(image.getTag())
+                        .createdAt(image.getCreatedAt())
+                        .build());
+            }
+        }
+        return ThoughtsToPost.EnrichedContent.builder()
+                .platform(source.getPlatform())
+                .title(source.getTitle())
+                .body(source.getBody())
+                .hashtags(source.getHashtags() != null ? new ArrayList<>(source.getHashtags()) : new ArrayList<>())
+                .callToAction(source.getCallToAction())
+                .characterCount(source.getCharacterCount())
+                .images(images)
+                .status(PostStatus.PENDING)
+                .progress(source.getProgress())
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.IdempotencyRecord;
+import com.carlev.thoughtstopost.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Claims, completes and replays Idempotency-Key requests.
+ * <p>
+ * A claim inserts an IN_PROGRESS record; MongoDB's unique _id makes the insert the lock, so of two concurrent
+ * requests with the same key exactly one proceeds. The winner stores its response on completion and later
+ * requests with the key get that response back without running the handler again. A lock whose holder died is
+ * taken over once its lease ({@code app.idempotency.lock-timeout}) has passed; each claim carries its own lock
+ * token, so a slow holder that lost its lock can no longer complete or release it.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository repository;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${app.idempotency.lock-timeout:1m}") Duration lockTimeout) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * Try to claim a key for a request.
+     *
+     * @param fingerprint hash of the request, compared against the request that first used the key
+     */
+    public Claim claim(String userId, String key, String fingerprint) {
+        String id = userId + ":" + key;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Instant now = Instant.now();
+            IdempotencyRecord lock = IdempotencyRecord.builder()
+                    .id(id)
+                    .fingerprint(fingerprint)
+                    .state(IdempotencyRecord.State.IN_PROGRESS)
+                    .lockToken(UUID.randomUUID().toString())
+                    .createdAt(now)
+                    .expiresAt(now.plus(lockTimeout))
+                    .build();
+            try {
+                repository.insert(lock);
+                return record(new Claim(Claim.Result.ACQUIRED, lock));
+            } catch (DuplicateKeyException e) {
+                Optional<IdempotencyRecord> existing = repository.findById(id);
+                if (existing.isEmpty()) {
+                    continue; // Expired between the insert and the read
+                }
+                IdempotencyRecord found = existing.get();
+                if (!fingerprint.equals(found.getFingerprint())) {
+                    return record(new Claim(Claim.Result.MISMATCH, found));
+                }
+                if (found.getState() == IdempotencyRecord.State.COMPLETED) {
+                    return record(new Claim(Claim.Result.REPLAY, found));
+                }
+                if (found.getExpiresAt() != null && found.getExpiresAt().isBefore(now)
+                        && repository.deleteByIdAndStateAndExpiresAtBefore(id, IdempotencyRecord.State.IN_PROGRESS, now) > 0) {
+                    log.warn("Taking over abandoned idempotency lock {}", id);
+                    continue;
+                }
+                return record(new Claim(Claim.Result.IN_PROGRESS, found));
+            }
+        }
+        return record(new Claim(Claim.Result.IN_PROGRESS, null));
+    }
+
+    /**
+     * Store the response for a claimed key so retries replay it. Nothing is stored if the lock has been taken over
+     * by another request in the meantime.
+     *
+     * @return whether the response was stored
+     */
+    public boolean complete(IdempotencyRecord lock, int statusCode, String contentType, byte[] body) {
+        Instant now = Instant.now();
+        boolean stored = repository.completeHeldLock(lock.getId(), lock.getLockToken(), statusCode, contentType, body,
+                now, now.plus(ttl)) > 0;
+        if (!stored) {
+            log.warn("Not storing response for idempotency key {}: its lock was taken over", lock.getId());
+            meterRegistry.counter("idempotency.lock.lost").increment();
+        }
+        return stored;
+    }
+
+    /**
+     * Give up a claimed key without a stored response, so a retry runs the request again.
+     */
+    public void release(IdempotencyRecord lock) {
+        repository.deleteByIdAndStateAndLockToken(lock.getId(), IdempotencyRecord.State.IN_PROGRESS,
+                lock.getLockToken());
+    }
+
+    private Claim record(Claim claim) {
+        meterRegistry.counter("idempotency.requests", "result", claim.result().name().toLowerCase()).increment();
+        return claim;
+    }
+
+    /**
+     * Outcome of a claim and the record it concerns.
+     */
+    public record Claim(Result result, IdempotencyRecord record) {
+
+        public enum Result {
+            ACQUIRED, // Run the request and complete or release the record
+            REPLAY, // Return the stored response
+            IN_PROGRESS, // Another request holds the key
+            MISMATCH // The key was first used for a different request
+        }
+    }
+}
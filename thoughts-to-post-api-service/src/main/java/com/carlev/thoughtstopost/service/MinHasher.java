@@ -0,0 +1,125 @@
+package com.carlev.thoughtstopost.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * MinHash signatures over character shingles of normalized text.
+ * <p>
+ * Each shingle is hashed once and permuted with {@link #HASHES} multiply-add hash functions. Signatures keep
+ * the low 16 bits of each minimum (b-bit MinHash), which quarters memory against longs while only adding
+ * a 1/65536 chance of a spurious match per position. The high bits would not do: every minimum sits close to
+ * {@code Long.MIN_VALUE}, so they barely vary between texts. The coefficients are fixed so signatures are stable
+ * across restarts.
+ */
+final class MinHasher {
+
+    static final int HASHES = 64;
+    static final int BANDS = 16;
+    static final int ROWS = HASHES / BANDS;
+
+    private static final int SHINGLE_LENGTH = 5;
+    private static final long[] MULTIPLIERS = new long[HASHES];
+    private static final long[] INCREMENTS = new long[HASHES];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix64(seed + 0x9E3779B97F4A7C15L);
+            MULTIPLIERS[i] = seed | 1;
+            seed = mix64(seed + 0x9E3779B97F4A7C15L);
+            INCREMENTS[i] = seed;
+        }
+    }
+
+    private MinHasher() {
+    }
+
+    /**
+     * Signature of the text, or null if it has no letters or digits.
+     */
+    static short[] signature(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        long[] mins = new long[HASHES];
+        Arrays.fill(mins, Long.MAX_VALUE);
+        int shingles = Math.max(1, normalized.length() - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = mix64(hashShingle(normalized, start, Math.min(normalized.length(), start + SHINGLE_LENGTH)));
+            for (int i = 0; i < HASHES; i++) {
+                // Signed order is as good a permutation as any, and Math.min compiles without a branch
+                mins[i] = Math.min(mins[i], MULTIPLIERS[i] * shingle + INCREMENTS[i]);
+            }
+        }
+
+        short[] signature = new short[HASHES];
+        for (int i = 0; i < HASHES; i++) {
+            signature[i] = (short) mins[i];
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the texts behind two signatures.
+     */
+    static double similarity(short[] a, int aOffset, short[] b) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[aOffset + i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / HASHES;
+    }
+
+    /**
+     * LSH bucket key of one band: texts sharing any band key become candidates.
+     */
+    static int bandKey(short[] signature, int offset, int band) {
+        long packed = 0;
+        int from = offset + band * ROWS;
+        for (int i = from; i < from + ROWS; i++) {
+            packed = (packed << 16) | (signature[i] & 0xFFFFL);
+        }
+        return (int) mix64(packed ^ ((long) band << 58));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static long hashShingle(String text, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Stafford variant 13 of the MurmurHash3 finalizer
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,104 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.kafka.DispatchLane;
+import com.carlev.thoughtstopost.model.DispatchLease;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * {@link DispatchLeaseStore} on the {@code dispatch_leases} collection. Each credit is a document and is
+ * claimed with a single findAndModify, so two instances can never hold the same credit. Only slots below the
+ * lane's configured capacity are claimed, so credits left over from a larger configuration that are still held
+ * elsewhere are never handed out again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoDispatchLeaseStore implements DispatchLeaseStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<DispatchLane, Integer> capacities = new ConcurrentHashMap<>();
+
+    @Override
+    public void ensureCapacity(DispatchLane lane, int capacity) {
+        capacities.put(lane, capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            mongoTemplate.upsert(query(where("_id").is(slotId(lane, slot))),
+                    new Update().setOnInsert("lane", lane).setOnInsert("slot", slot), DispatchLease.class);
+        }
+        // Credits left over from a larger configuration go once they are free
+        mongoTemplate.remove(query(where("lane").is(lane).and("slot").gte(capacity)
+                .orOperator(where("requestId").is(null), where("expiresAt").lt(Instant.now()))), DispatchLease.class);
+    }
+
+    @Override
+    public boolean claim(DispatchLane lane, String requestId, Long generation, String owner, Instant expiresAt) {
+        Update update = new Update()
+                .set("requestId", requestId)
+                .set("generation", generation)
+                .set("owner", owner)
+                .set("expiresAt", expiresAt);
+        if (mongoTemplate.updateFirst(query(where("lane").is(lane).and("requestId").is(requestId)),
+                update, DispatchLease.class).getMatchedCount() > 0) {
+            return true;
+        }
+
+        Criteria slots = where("lane").is(lane);
+        Integer capacity = capacities.get(lane);
+        if (capacity != null) {
+            slots = slots.and("slot").lt(capacity);
+        }
+        Query free = query(slots.orOperator(where("requestId").is(null), where("expiresAt").lt(Instant.now())));
+        DispatchLease previous = mongoTemplate.findAndModify(free, update, DispatchLease.class);
+        if (previous == null) {
+            return false;
+        }
+        if (previous.getRequestId() != null) {
+            log.warn("Reclaimed dispatch credit {} from request {} after its lease expired",
+                    previous.getId(), previous.getRequestId());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean holds(String requestId, Long generation) {
+        return mongoTemplate.exists(query(where("requestId").is(requestId).and("generation").is(generation)
+                .and("expiresAt").gt(Instant.now())), DispatchLease.class);
+    }
+
+    @Override
+    public long release(String requestId, Long generation) {
+        Criteria held = where("requestId").is(requestId);
+        if (generation != null) {
+            held = held.orOperator(where("generation").is(null), where("generation").lte(generation));
+        }
+        Update free = new Update()
+                .set("requestId", null)
+                .set("generation", null)
+                .set("owner", null)
+                .set("expiresAt", null);
+        return mongoTemplate.updateMulti(query(held), free, DispatchLease.class).getModifiedCount();
+    }
+
+    @Override
+    public int countHeld(DispatchLane lane) {
+        return (int) mongoTemplate.count(query(where("lane").is(lane).and("requestId").ne(null)
+                .and("expiresAt").gt(Instant.now())), DispatchLease.class);
+    }
+
+    private static String slotId(DispatchLane lane, int slot) {
+        return lane.tagValue() + "-" + slot;
+    }
+}
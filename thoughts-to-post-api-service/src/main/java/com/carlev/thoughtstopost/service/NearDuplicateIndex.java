@@ -0,0 +1,263 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory near-duplicate index over each user's original thoughts.
+ * <p>
+ * Every thought gets a {@link MinHasher} signature; locality-sensitive hashing splits it into
+ * {@link MinHasher#BANDS} bands of {@link MinHasher#ROWS} rows, and thoughts sharing any band become candidates,
+ * ranked by estimated Jaccard similarity of their character shingles. With 16 bands of 4 rows a pair at 0.5
+ * similarity is found 64% of the time and a pair at 0.7 about 99% of the time. Signatures and buckets live in
+ * flat per-user arrays (about 320 bytes per thought plus its id) rather than boxed collections.
+ * <p>
+ * The index is per API instance: it is rebuilt from MongoDB at startup and kept current by {@link ThoughtsService}
+ * for the writes this instance handles. With several replicas, a thought created or deleted through another
+ * replica is not reflected here until this instance restarts, so similarity lookups and auto-reuse are only
+ * complete when a single instance serves a user's writes.
+ */
+@Component
+@Slf4j
+public class NearDuplicateIndex {
+
+    private final ThoughtsToPostRepository thoughtsRepository;
+    private final Map<String, UserIndex> users = new ConcurrentHashMap<>();
+
+    public NearDuplicateIndex(ThoughtsToPostRepository thoughtsRepository, MeterRegistry meterRegistry) {
+        this.thoughtsRepository = thoughtsRepository;
+        Gauge.builder("near.duplicate.index.size", this, NearDuplicateIndex::size)
+                .description("Thoughts in the near-duplicate index")
+                .register(meterRegistry);
+        Gauge.builder("near.duplicate.index.bytes", this, NearDuplicateIndex::estimatedBytes)
+                .description("Approximate heap held by the near-duplicate index arrays")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void rebuild() {
+        users.clear();
+        long started = System.nanoTime();
+        int loaded = 0;
+        try (Stream<ThoughtsToPost> thoughts = thoughtsRepository.findAllOriginalThoughts()) {
+            for (ThoughtsToPost thought : (Iterable<ThoughtsToPost>) thoughts::iterator) {
+                add(thought.getUserId(), thought.getId(), thought.getOriginalThought());
+                loaded++;
+            }
+        }
+        log.info("Rebuilt near-duplicate index with {} thoughts in {} ms", loaded, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Index a thought. Re-adding an id replaces its previous text.
+     */
+    public void add(String userId, String thoughtId, String text) {
+        if (userId == null || thoughtId == null) {
+            return;
+        }
+        short[] signature = MinHasher.signature(text);
+        if (signature == null) {
+            return;
+        }
+        users.computeIfAbsent(userId, id -> new UserIndex()).add(thoughtId, signature);
+    }
+
+    public void remove(String userId, String thoughtId) {
+        UserIndex index = users.get(userId);
+        if (index != null) {
+            index.remove(thoughtId);
+        }
+    }
+
+    /**
+     * The user's past thoughts most similar to the text, best first.
+     *
+     * @param minSimilarity lowest estimated Jaccard similarity to return, between 0 and 1
+     */
+    public List<Match> findSimilar(String userId, String text, int limit, double minSimilarity) {
+        UserIndex index = users.get(userId);
+        short[] signature = MinHasher.signature(text);
+        if (index == null || signature == null || limit <= 0) {
+            return List.of();
+        }
+        return index.query(signature, limit, minSimilarity);
+    }
+
+    public int size() {
+        return users.values().stream().mapToInt(UserIndex::size).sum();
+    }
+
+    public long estimatedBytes() {
+        return users.values().stream().mapToLong(UserIndex::estimatedBytes).sum();
+    }
+
+    /**
+     * A similar thought and its estimated Jaccard similarity.
+     */
+    public record Match(String thoughtId, double similarity) {
+    }
+
+    /**
+     * One user's signatures and LSH buckets in flat arrays. Slot {@code s} owns
+     * {@code signatures[s * HASHES .. (s + 1) * HASHES)} and one bucket entry per band.
+     * Removed slots are tombstoned and skipped, and compacted away once they make up half of the used slots.
+     */
+    private static final class UserIndex {
+
+        private static final int INITIAL_CAPACITY = 2;
+
+        private final Map<String, Integer> slotsById = new HashMap<>();
+        private String[] ids = new String[INITIAL_CAPACITY];
+        private short[] signatures = new short[INITIAL_CAPACITY * MinHasher.HASHES];
+        private int slots;
+        private int tombstones;
+
+        // Chained hash table from band key to bucket entries; entry e belongs to slot e / BANDS
+        private int[] heads = newHeads(INITIAL_CAPACITY * MinHasher.BANDS);
+        private int[] entryKeys = new int[INITIAL_CAPACITY * MinHasher.BANDS];
+        private int[] entryNext = new int[INITIAL_CAPACITY * MinHasher.BANDS];
+
+        synchronized void add(String thoughtId, short[] signature) {
+            removeInternal(thoughtId);
+            if (slots == ids.length) {
+                if (tombstones * 2 >= slots) {
+                    compact();
+                } else {
+                    grow();
+                }
+            }
+            int slot = slots++;
+            ids[slot] = thoughtId;
+            System.arraycopy(signature, 0, signatures, slot * MinHasher.HASHES, MinHasher.HASHES);
+            for (int band = 0; band < MinHasher.BANDS; band++) {
+                link(slot * MinHasher.BANDS + band, MinHasher.bandKey(signature, 0, band));
+            }
+            slotsById.put(thoughtId, slot);
+        }
+
+        synchronized void remove(String thoughtId) {
+            removeInternal(thoughtId);
+            if (tombstones * 2 > slots) {
+                compact();
+            }
+        }
+
+        synchronized List<Match> query(short[] signature, int limit, double minSimilarity) {
+            BitSet seen = new BitSet(slots);
+            List<Match> matches = new ArrayList<>();
+            for (int band = 0; band < MinHasher.BANDS; band++) {
+                int key = MinHasher.bandKey(signature, 0, band);
+                for (int entry = heads[key & (heads.length - 1)]; entry >= 0; entry = entryNext[entry]) {
+                    int slot = entry / MinHasher.BANDS;
+                    if (entryKeys[entry] != key || seen.get(slot) || ids[slot] == null) {
+                        continue;
+                    }
+                    seen.set(slot);
+                    double similarity = MinHasher.similarity(signatures, slot * MinHasher.HASHES, signature);
+                    if (similarity >= minSimilarity) {
+                        matches.add(new Match(ids[slot], similarity));
+                    }
+                }
+            }
+            matches.sort(Comparator.comparingDouble(Match::similarity).reversed());
+            return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+        }
+
+        synchronized int size() {
+            return slotsById.size();
+        }
+
+        synchronized long estimatedBytes() {
+            // String plus HashMap entry and boxed slot per live id
+            long idBytes = 0;
+            for (String id : slotsById.keySet()) {
+                idBytes += 40L + id.length() + 48L;
+            }
+            return (long) ids.length * 4 + (long) signatures.length * 2 + (long) heads.length * 4
+                    + (long) entryKeys.length * 4 + (long) entryNext.length * 4 + idBytes;
+        }
+
+        private void removeInternal(String thoughtId) {
+            Integer slot = slotsById.remove(thoughtId);
+            if (slot != null) {
+                ids[slot] = null;
+                tombstones++;
+            }
+        }
+
+        private void link(int entry, int key) {
+            int bucket = key & (heads.length - 1);
+            entryKeys[entry] = key;
+            entryNext[entry] = heads[bucket];
+            heads[bucket] = entry;
+        }
+
+        /**
+         * Move the live slots to the front, keeping capacity, and relink their bucket entries.
+         */
+        private void compact() {
+            int live = 0;
+            Arrays.fill(heads, -1);
+            for (int slot = 0; slot < slots; slot++) {
+                if (ids[slot] == null) {
+                    continue;
+                }
+                if (slot != live) {
+                    ids[live] = ids[slot];
+                    System.arraycopy(signatures, slot * MinHasher.HASHES, signatures, live * MinHasher.HASHES,
+                            MinHasher.HASHES);
+                    System.arraycopy(entryKeys, slot * MinHasher.BANDS, entryKeys, live * MinHasher.BANDS,
+                            MinHasher.BANDS);
+                    slotsById.put(ids[live], live);
+                }
+                for (int band = 0; band < MinHasher.BANDS; band++) {
+                    int entry = live * MinHasher.BANDS + band;
+                    link(entry, entryKeys[entry]);
+                }
+                live++;
+            }
+            Arrays.fill(ids, live, slots, null);
+            slots = live;
+            tombstones = 0;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            signatures = Arrays.copyOf(signatures, capacity * MinHasher.HASHES);
+            entryKeys = Arrays.copyOf(entryKeys, capacity * MinHasher.BANDS);
+            entryNext = Arrays.copyOf(entryNext, capacity * MinHasher.BANDS);
+
+            // One head per bucket entry keeps chains short; relink every chain into the larger table
+            if (capacity * MinHasher.BANDS > heads.length) {
+                heads = newHeads(Integer.highestOneBit(capacity * MinHasher.BANDS - 1) * 2);
+                for (int entry = 0; entry < slots * MinHasher.BANDS; entry++) {
+                    int bucket = entryKeys[entry] & (heads.length - 1);
+                    entryNext[entry] = heads[bucket];
+                    heads[bucket] = entry;
+                }
+            }
+        }
+
+        private static int[] newHeads(int size) {
+            int[] heads = new int[size];
+            Arrays.fill(heads, -1);
+            return heads;
+        }
+    }
+}
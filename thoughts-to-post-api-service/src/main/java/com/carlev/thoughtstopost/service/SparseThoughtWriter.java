@@ -0,0 +1,71 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.ThoughtField;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Writes projected thoughts as JSON objects holding only the requested {@link ThoughtField}s, straight to the
+ * response stream. No {@code ThoughtResponse} is built; values are written in the same form as its fields.
+ */
+@Component
+public class SparseThoughtWriter {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter valueWriter;
+
+    public SparseThoughtWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // One flush per response rather than per field value
+        this.valueWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Write one thought as a JSON object.
+     */
+    public void writeObject(ThoughtsToPost thought, Set<ThoughtField> fields, OutputStream out) throws IOException {
+        try (JsonGenerator generator = generator(out)) {
+            write(generator, thought, fields);
+        }
+    }
+
+    /**
+     * Write thoughts as a JSON array, one at a time as the iterator yields them.
+     */
+    public void writeArray(Iterator<ThoughtsToPost> thoughts, Set<ThoughtField> fields, OutputStream out)
+            throws IOException {
+        try (JsonGenerator generator = generator(out)) {
+            generator.writeStartArray();
+            while (thoughts.hasNext()) {
+                write(generator, thoughts.next(), fields);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        // The caller owns the stream; closing the generator only flushes it
+        return objectMapper.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Write one thought as a JSON object to a generator the caller manages.
+     */
+    public void write(JsonGenerator generator, ThoughtsToPost thought, Set<ThoughtField> fields) throws IOException {
+        generator.writeStartObject();
+        for (ThoughtField field : fields) {
+            generator.writeFieldName(field.jsonName());
+            valueWriter.writeValue(generator, field.read(thought));
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,295 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.kafka.ThoughtEventMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes thought events to the SSE connections open on this API instance.
+ * <p>
+ * Every instance reads the whole events topic, so a user's connections receive their events wherever they
+ * landed. Event ids are the Kafka {@code partition-offset} of the event, identical on every instance, so a client
+ * that reconnects to any instance with {@code Last-Event-ID} gets the events it missed from a short per-user
+ * replay buffer ({@code app.events.replay-buffer} events, kept for {@code app.events.replay-window}). If the id
+ * is no longer buffered the client gets a {@code resync} event and should reload over REST.
+ * <p>
+ * Events are queued per stream and written by a send task on a virtual thread, never on the caller's thread, so
+ * a slow or half-open client cannot hold up the events consumer or other users. A stream that falls more than
+ * {@code app.events.max-pending} events behind is completed; its client reconnects with {@code Last-Event-ID}.
+ */
+@Component
+@Slf4j
+public class ThoughtEventBroadcaster {
+
+    static final String RESYNC_EVENT = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final int replayBuffer;
+    private final Duration replayWindow;
+    private final Duration emitterTimeout;
+    private final int maxPending;
+    private final Executor sendExecutor;
+    private final Counter laggingStreams;
+    private final Map<String, UserChannel> channels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ThoughtEventBroadcaster(ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.events.replay-buffer:100}") int replayBuffer,
+                                   @Value("${app.events.replay-window:10m}") Duration replayWindow,
+                                   @Value("${app.events.emitter-timeout:30m}") Duration emitterTimeout,
+                                   @Value("${app.events.max-pending:256}") int maxPending) {
+        this(objectMapper, meterRegistry, replayBuffer, replayWindow, emitterTimeout, maxPending,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-send-", 0).factory()));
+    }
+
+    ThoughtEventBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry, int replayBuffer,
+                            Duration replayWindow, Duration emitterTimeout, int maxPending, Executor sendExecutor) {
+        this.objectMapper = objectMapper;
+        this.replayBuffer = replayBuffer;
+        this.replayWindow = replayWindow;
+        this.emitterTimeout = emitterTimeout;
+        this.maxPending = maxPending;
+        this.sendExecutor = sendExecutor;
+        this.laggingStreams = Counter.builder("thought.events.lagging")
+                .description("Streams completed because their client fell too far behind")
+                .register(meterRegistry);
+        Gauge.builder("thought.events.subscribers", this, ThoughtEventBroadcaster::subscriberCount)
+                .description("Open thought event streams on this instance")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for the user, first replaying buffered events after {@code lastEventId}.
+     */
+    public SseEmitter subscribe(String userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        UserChannel channel = lockChannel(userId);
+        Subscriber subscriber = new Subscriber(channel, emitter);
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> channel.subscribers.remove(subscriber));
+        emitter.onError(e -> channel.subscribers.remove(subscriber));
+
+        try {
+            // Sends the response headers first, so the client knows it is connected before any event. Queued
+            // under the channel lock, so the replay comes before any live event
+            subscriber.enqueue(SseEmitter.event().comment("connected").reconnectTime(3000));
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(channel, subscriber, lastEventId.trim());
+            }
+            channel.subscribers.add(subscriber);
+            channel.lastActivity = Instant.now();
+        } finally {
+            channel.lock.unlock();
+        }
+        return emitter;
+    }
+
+    /**
+     * Buffer an event and send it to the user's open streams.
+     *
+     * @param eventId the event's {@code partition-offset} in the events topic
+     */
+    public void broadcast(String eventId, ThoughtEventMessage event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot serialize {} event for thought {}: {}", event.getType(), event.getThoughtId(), e.getMessage());
+            return;
+        }
+        BufferedEvent buffered = new BufferedEvent(eventId, event.getType().name().toLowerCase(), data, Instant.now());
+
+        UserChannel channel = lockChannel(event.getUserId());
+        try {
+            channel.events.addLast(buffered);
+            while (channel.events.size() > replayBuffer) {
+                channel.events.removeFirst();
+            }
+            channel.lastActivity = buffered.receivedAt();
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.enqueue(buffered.toSse());
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+    }
+
+    /**
+     * Keeps idle connections from being closed by proxies, finds dead ones, and drops replay buffers of users
+     * who have had no stream and no event within the replay window.
+     */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-interval:15000}")
+    public void heartbeat() {
+        Instant cutoff = Instant.now().minus(replayWindow);
+        for (Iterator<Map.Entry<String, UserChannel>> it = channels.entrySet().iterator(); it.hasNext(); ) {
+            UserChannel channel = it.next().getValue();
+            channel.lock.lock();
+            try {
+                for (Subscriber subscriber : channel.subscribers) {
+                    // A dead connection fails this send and is dropped by its send task
+                    subscriber.enqueue(SseEmitter.event().comment("heartbeat"));
+                }
+                while (!channel.events.isEmpty() && channel.events.peekFirst().receivedAt().isBefore(cutoff)) {
+                    channel.events.removeFirst();
+                }
+                if (channel.subscribers.isEmpty() && channel.lastActivity.isBefore(cutoff)) {
+                    channel.removed = true;
+                    it.remove();
+                }
+            } finally {
+                channel.lock.unlock();
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    /**
+     * The user's channel, locked. Retries if the heartbeat dropped the channel before the lock was taken.
+     */
+    private UserChannel lockChannel(String userId) {
+        while (true) {
+            UserChannel channel = channels.computeIfAbsent(userId, id -> new UserChannel());
+            channel.lock.lock();
+            if (!channel.removed) {
+                return channel;
+            }
+            channel.lock.unlock();
+        }
+    }
+
+    private void replay(UserChannel channel, Subscriber subscriber, String lastEventId) {
+        List<BufferedEvent> missed = new ArrayList<>();
+        boolean found = false;
+        for (BufferedEvent event : channel.events) {
+            if (found) {
+                missed.add(event);
+            } else if (event.id().equals(lastEventId)) {
+                found = true;
+            }
+        }
+        if (!found) {
+            subscriber.enqueue(SseEmitter.event().name(RESYNC_EVENT).data("{}"));
+            return;
+        }
+        for (BufferedEvent event : missed) {
+            subscriber.enqueue(event.toSse());
+        }
+    }
+
+    private record BufferedEvent(String id, String name, String data, Instant receivedAt) {
+
+        SseEmitter.SseEventBuilder toSse() {
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+
+    /**
+     * One open stream and the events waiting to be written to it. At most one send task runs per stream, so
+     * events keep their order.
+     */
+    private final class Subscriber {
+
+        private final UserChannel channel;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        private Subscriber(UserChannel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            boolean lagging = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() >= maxPending) {
+                    closed = true;
+                    pending.clear();
+                    lagging = true;
+                } else {
+                    pending.addLast(event);
+                    if (!sending) {
+                        sending = true;
+                        sendExecutor.execute(this::sendPending);
+                    }
+                }
+            }
+            if (lagging) {
+                log.info("Closing event stream that fell {} events behind", maxPending);
+                laggingStreams.increment();
+                channel.subscribers.remove(this);
+                emitter.complete();
+            }
+        }
+
+        private void sendPending() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                synchronized (this) {
+                    next = closed ? null : pending.pollFirst();
+                    if (next == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(next);
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away; the container completes the emitter
+                    synchronized (this) {
+                        closed = true;
+                        pending.clear();
+                        sending = false;
+                    }
+                    channel.subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * One user's open streams and recent events. Events are queued to streams and replays under the channel
+     * lock, so a new subscriber never misses an event between its replay and its first live event; the writes
+     * themselves happen outside it.
+     */
+    private static final class UserChannel {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean removed;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final ArrayDeque<BufferedEvent> events = new ArrayDeque<>();
+        private Instant lastActivity = Instant.now();
+    }
+}
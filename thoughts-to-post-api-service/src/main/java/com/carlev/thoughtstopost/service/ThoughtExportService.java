@@ -0,0 +1,129 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.ThoughtField;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Exports a user's thoughts, and optionally their history, as NDJSON written straight from Mongo cursors.
+ * <p>
+ * Every line is {@code {"type":"thought"|"history","data":{...}}}, and the last is
+ * {@code {"type":"summary","thoughts":n,"history":m}} so a consumer can tell a complete export from a cut-off one.
+ * Thoughts are written as the list endpoint would, history entries as the history endpoint would. Image data is
+ * never read: with images, only their references (id, prompt, format, size, tag) are exported. One document is
+ * held at a time, whatever the size of the export.
+ */
+@Service
+@Slf4j
+public class ThoughtExportService {
+
+    private static final int FLUSH_EVERY = 1000; // lines; keeps a slow export visibly moving without tiny writes
+    private static final Set<ThoughtField> THOUGHT_FIELDS = EnumSet.allOf(ThoughtField.class);
+    private static final List<String> THOUGHT_PATHS = ThoughtField.projection(THOUGHT_FIELDS).stream()
+            // Agent images are stored as data URIs, so the URL is image data too
+            .filter(path -> !path.equals("enrichedContents.images.url"))
+            .toList();
+    private static final List<String> THOUGHT_PATHS_WITHOUT_IMAGES = THOUGHT_PATHS.stream()
+            .filter(path -> !path.startsWith("enrichedContents.images."))
+            .toList();
+    private static final List<String> HISTORY_IMAGE_DATA = List.of(
+            "enrichedContents.images.base64Data", "enrichedContents.images.url");
+    private static final List<String> HISTORY_IMAGES = List.of("enrichedContents.images");
+
+    private final ThoughtsToPostRepository thoughtsRepository;
+    private final ThoughtsToPostHistoryRepository historyRepository;
+    private final SparseThoughtWriter thoughtWriter;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter valueWriter;
+    private final Timer exportTimer;
+
+    public ThoughtExportService(ThoughtsToPostRepository thoughtsRepository,
+                                ThoughtsToPostHistoryRepository historyRepository,
+                                SparseThoughtWriter thoughtWriter,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        this.thoughtsRepository = thoughtsRepository;
+        this.historyRepository = historyRepository;
+        this.thoughtWriter = thoughtWriter;
+        this.objectMapper = objectMapper;
+        this.valueWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.exportTimer = meterRegistry.timer("thoughts.export");
+    }
+
+    /**
+     * Write the user's export to {@code out}, which the caller owns and closes.
+     */
+    public void export(String userId, boolean includeHistory, boolean includeImages, OutputStream out)
+            throws IOException {
+        Timer.Sample sample = Timer.start();
+        long thoughts = 0;
+        long history = 0;
+        // One record per line; the default root separator would put a space in front of each
+        try (JsonGenerator generator = objectMapper.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)) {
+            try (Stream<ThoughtsToPost> cursor = thoughtsRepository.streamProjectedByUserId(userId, null, null, null,
+                    includeImages ? THOUGHT_PATHS : THOUGHT_PATHS_WITHOUT_IMAGES)) {
+                Iterator<ThoughtsToPost> it = cursor.iterator();
+                while (it.hasNext()) {
+                    startLine(generator, "thought");
+                    thoughtWriter.write(generator, it.next(), THOUGHT_FIELDS);
+                    endLine(generator, ++thoughts);
+                }
+            }
+            if (includeHistory) {
+                try (Stream<ThoughtsToPostHistory> cursor = historyRepository.streamByUserIdExcluding(userId,
+                        includeImages ? HISTORY_IMAGE_DATA : HISTORY_IMAGES)) {
+                    Iterator<ThoughtsToPostHistory> it = cursor.iterator();
+                    while (it.hasNext()) {
+                        startLine(generator, "history");
+                        valueWriter.writeValue(generator, it.next());
+                        endLine(generator, thoughts + ++history);
+                    }
+                }
+            }
+
+            generator.writeStartObject();
+            generator.writeStringField("type", "summary");
+            generator.writeNumberField("thoughts", thoughts);
+            generator.writeNumberField("history", history);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } finally {
+            sample.stop(exportTimer);
+        }
+        log.info("Exported {} thought(s) and {} history entries for user {}", thoughts, history, userId);
+    }
+
+    private static void startLine(JsonGenerator generator, String type) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", type);
+        generator.writeFieldName("data");
+    }
+
+    private static void endLine(JsonGenerator generator, long lines) throws IOException {
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        if (lines % FLUSH_EVERY == 0) {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.CreateThoughtRequest;
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Imports thoughts from an uploaded NDJSON or CSV body, one row at a time.
+ * <p>
+ * Each row is validated as a {@link CreateThoughtRequest}; valid rows are inserted as PENDING thoughts in batches
+ * and marked for dispatch, and {@code ImportDispatchFeeder} hands them to the agent as the dispatch queue drains.
+ * A result line is written for every row once its batch is stored, then a summary line. Only one batch of rows
+ * is held at a time, so memory does not grow with the size of the upload.
+ */
+@Service
+@Slf4j
+public class ThoughtImportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private final ThoughtsToPostRepository thoughtsRepository;
+    private final ThoughtsToPostHistoryRepository historyRepository;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader csvReader;
+    private final Validator validator;
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private final int batchSize;
+
+    public ThoughtImportService(ThoughtsToPostRepository thoughtsRepository,
+                                ThoughtsToPostHistoryRepository historyRepository,
+                                NearDuplicateIndex nearDuplicateIndex,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.import.batch-size:500}") int batchSize) {
+        this.thoughtsRepository = thoughtsRepository;
+        this.historyRepository = historyRepository;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.objectMapper = objectMapper;
+        this.csvReader = new CsvMapper().readerFor(Map.class).with(CsvSchema.emptySchema().withHeader());
+        this.validator = validator;
+        this.importedRows = meterRegistry.counter("thoughts.import.rows", "outcome", "imported");
+        this.failedRows = meterRegistry.counter("thoughts.import.rows", "outcome", "failed");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import every row of {@code in} for the user, writing NDJSON results to {@code out}:
+     * {@code {"row":1,"id":"..."}} or {@code {"row":2,"error":"..."}} per row, then
+     * {@code {"rows":2,"imported":1,"failed":1}}. Rows are numbered from 1, not counting a CSV header.
+     * <p>
+     * CSV columns are {@code thought}, {@code categoryId}, {@code platforms} (separated by {@code ;} or {@code |})
+     * and {@code additionalInstructions}.
+     */
+    public void importThoughts(InputStream in, Format format, String userId, OutputStream out) throws IOException {
+        // One result object per line; the default root separator would put a space in front of each
+        Batch batch = new Batch(userId, objectMapper.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null));
+        if (format == Format.CSV) {
+            try (MappingIterator<Map<String, String>> rows = csvReader.readValues(in)) {
+                while (rows.hasNextValue()) {
+                    Map<String, String> row;
+                    try {
+                        row = rows.nextValue();
+                    } catch (RuntimeException e) {
+                        batch.fail("Unreadable row: " + e.getMessage());
+                        continue;
+                    }
+                    try {
+                        batch.add(fromCsv(row));
+                    } catch (IllegalArgumentException e) {
+                        batch.fail(e.getMessage());
+                    }
+                }
+            }
+        } else {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, CreateThoughtRequest.class));
+                } catch (JsonProcessingException e) {
+                    batch.fail("Unreadable row: " + e.getOriginalMessage());
+                }
+            }
+        }
+        batch.finish();
+        log.info("Imported {} of {} thought row(s) for user {}", batch.imported, batch.rows, userId);
+    }
+
+    private static CreateThoughtRequest fromCsv(Map<String, String> row) {
+        String platforms = blankToNull(row.get("platforms"));
+        return CreateThoughtRequest.builder()
+                .thought(blankToNull(row.get("thought")))
+                .categoryId(blankToNull(row.get("categoryId")))
+                .platforms(platforms == null ? null : Arrays.stream(platforms.split("[;|]"))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .map(ThoughtImportService::platform)
+                        .toList())
+                .additionalInstructions(blankToNull(row.get("additionalInstructions")))
+                .build();
+    }
+
+    private static PlatformType platform(String name) {
+        try {
+            return PlatformType.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown platform: " + name);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * The rows read since the last flush, in order: a thought to insert or an error for each.
+     */
+    private final class Batch {
+
+        private final String userId;
+        private final JsonGenerator results;
+        private final List<ThoughtsToPost> thoughts = new ArrayList<>();
+        // Per pending row, the index of its thought in thoughts or the reason it was rejected
+        private final List<Object> pending = new ArrayList<>();
+        private int rows;
+        private int imported;
+
+        private Batch(String userId, JsonGenerator results) {
+            this.userId = userId;
+            this.results = results;
+        }
+
+        void add(CreateThoughtRequest request) throws IOException {
+            String error = validate(request);
+            if (error != null) {
+                fail(error);
+                return;
+            }
+            ThoughtsToPost thought = ThoughtsService.newThought(request, userId);
+            thought.setQueuedForDispatchAt(Instant.now());
+            pending.add(thoughts.size());
+            thoughts.add(thought);
+            flushIfFull();
+        }
+
+        void fail(String error) throws IOException {
+            pending.add(error);
+            flushIfFull();
+        }
+
+        void finish() throws IOException {
+            flush();
+            results.writeStartObject();
+            results.writeNumberField("rows", rows);
+            results.writeNumberField("imported", imported);
+            results.writeNumberField("failed", rows - imported);
+            results.writeEndObject();
+            results.writeRaw('\n');
+            results.close();
+        }
+
+        private void flushIfFull() throws IOException {
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            List<ThoughtsToPost> saved = thoughts.isEmpty()
+                    ? List.of()
+                    : thoughtsRepository.insert(List.copyOf(thoughts));
+            if (!saved.isEmpty()) {
+                historyRepository.insert(saved.stream()
+                        .map(thought -> ThoughtsToPostHistory.fromThoughtsToPost(thought,
+                                ThoughtsToPostHistory.ActionType.CREATE, userId))
+                        .toList());
+                saved.forEach(thought -> nearDuplicateIndex.add(userId, thought.getId(), thought.getOriginalThought()));
+            }
+
+            for (Object row : pending) {
+                rows++;
+                results.writeStartObject();
+                results.writeNumberField("row", rows);
+                if (row instanceof Integer index) {
+                    results.writeStringField("id", saved.get(index).getId());
+                    imported++;
+                } else {
+                    results.writeStringField("error", (String) row);
+                }
+                results.writeEndObject();
+                results.writeRaw('\n');
+            }
+            importedRows.increment(saved.size());
+            failedRows.increment(pending.size() - saved.size());
+            // Results reach the client batch by batch rather than at the end of the upload
+            results.flush();
+            thoughts.clear();
+            pending.clear();
+        }
+
+        private String validate(CreateThoughtRequest request) {
+            if (request == null) {
+                return "Row is empty";
+            }
+            String violations = validator.validate(request).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return violations.isEmpty() ? null : violations;
+        }
+    }
+}
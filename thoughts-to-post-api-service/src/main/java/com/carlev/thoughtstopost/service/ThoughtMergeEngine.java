@@ -0,0 +1,148 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves optimistic-lock conflicts on thoughts by merging instead of failing.
+ * <p>
+ * The Kafka consumer, the schedulers, social media posting and the user all save the same versioned document.
+ * When a save loses the race, the stored thought is reloaded and the intended change is rebased onto it: the
+ * writer's own fields ({@link ThoughtWriter}) keep the intended values, all others take the stored ones, and the
+ * save is retried. Rebasing happens on the intended instance, so callers holding it, or its contents, stay current.
+ */
+@Component
+@Slf4j
+public class ThoughtMergeEngine {
+
+    private static final Set<String> IDENTITY = Set.of("class", "id", "version", "platform");
+
+    private final ThoughtsToPostRepository thoughtsRepository;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+
+    public ThoughtMergeEngine(ThoughtsToPostRepository thoughtsRepository, MeterRegistry meterRegistry,
+                              @Value("${app.merge.max-attempts:3}") int maxAttempts) {
+        this.thoughtsRepository = thoughtsRepository;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Merge a write whose save failed with {@code conflict} and save it again, up to the configured attempts.
+     *
+     * @return the saved thought, which is {@code intended}
+     * @throws OptimisticLockingFailureException if the thought was deleted, the writer's change no longer applies,
+     *                                           or every attempt conflicted
+     */
+    public ThoughtsToPost merge(ThoughtsToPost intended, ThoughtWriter writer,
+                                OptimisticLockingFailureException conflict) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            ThoughtsToPost stored = thoughtsRepository.findById(intended.getId()).orElse(null);
+            if (stored == null || !writer.accepts(stored, intended)) {
+                log.info("Write by {} to thought {} conflicts with a change it cannot merge", writer, intended.getId());
+                count(writer, "rejected");
+                throw conflict;
+            }
+
+            rebase(intended, stored, writer);
+            try {
+                ThoughtsToPost saved = thoughtsRepository.save(intended);
+                log.debug("Merged write by {} to thought {} on attempt {}", writer, intended.getId(), attempt);
+                count(writer, "merged");
+                return saved;
+            } catch (OptimisticLockingFailureException e) {
+                conflict = e;
+            }
+        }
+
+        log.warn("Write by {} to thought {} still conflicted after {} merge attempts", writer, intended.getId(),
+                maxAttempts);
+        count(writer, "exhausted");
+        throw conflict;
+    }
+
+    /**
+     * Take every field the writer does not own from the stored thought, and its version.
+     */
+    static void rebase(ThoughtsToPost intended, ThoughtsToPost stored, ThoughtWriter writer) {
+        copyUnowned(stored, intended, writer.thoughtFields(), "enrichedContents");
+        intended.setVersion(stored.getVersion());
+
+        Map<Object, ThoughtsToPost.EnrichedContent> storedContents = index(stored.getEnrichedContents(),
+                ThoughtsToPost.EnrichedContent::getPlatform);
+        intended.setEnrichedContents(rebaseAll(intended.getEnrichedContents(), storedContents,
+                ThoughtsToPost.EnrichedContent::getPlatform, writer, (mine, theirs) -> {
+                    copyUnowned(theirs, mine, writer.contentFields(), "images");
+                    Map<Object, ThoughtsToPost.GeneratedImage> storedImages = index(theirs.getImages(),
+                            ThoughtsToPost.GeneratedImage::getId);
+                    mine.setImages(rebaseAll(mine.getImages(), storedImages, ThoughtsToPost.GeneratedImage::getId,
+                            writer, (image, storedImage) -> copyUnowned(storedImage, image, writer.imageFields())));
+                }));
+    }
+
+    /**
+     * Rebase each intended element onto the stored one with the same key. Elements only the writer has are kept
+     * if it creates them; elements only stored are added.
+     */
+    private static <T> List<T> rebaseAll(List<T> intended, Map<Object, T> stored, Function<T, Object> key,
+                                         ThoughtWriter writer, BiConsumer<T, T> rebaseOne) {
+        List<T> merged = new ArrayList<>();
+        for (T mine : intended) {
+            T theirs = stored.remove(key.apply(mine));
+            if (theirs != null) {
+                rebaseOne.accept(mine, theirs);
+                merged.add(mine);
+            } else if (writer.createsContent()) {
+                merged.add(mine);
+            }
+        }
+        merged.addAll(stored.values());
+        return merged;
+    }
+
+    private static <T> Map<Object, T> index(List<T> items, Function<T, Object> key) {
+        return items.stream().filter(item -> key.apply(item) != null)
+                .collect(Collectors.toMap(key, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static void copyUnowned(Object from, Object to, Set<String> owned, String... skipped) {
+        BeanWrapper source = PropertyAccessorFactory.forBeanPropertyAccess(from);
+        BeanWrapper target = PropertyAccessorFactory.forBeanPropertyAccess(to);
+        Set<String> skip = Set.of(skipped);
+        for (PropertyDescriptor property : source.getPropertyDescriptors()) {
+            String name = property.getName();
+            if (IDENTITY.contains(name) || owned.contains(name) || skip.contains(name)
+                    || !source.isReadableProperty(name) || !target.isWritableProperty(name)) {
+                continue;
+            }
+            Object value = source.getPropertyValue(name);
+            if (!Objects.equals(value, target.getPropertyValue(name))) {
+                target.setPropertyValue(name, value);
+            }
+        }
+    }
+
+    private void count(ThoughtWriter writer, String outcome) {
+        meterRegistry.counter("thoughts.write.conflicts", "writer", writer.name().toLowerCase(),
+                "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,129 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import org.bson.types.ObjectId;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One service call's working copy of a thought. The thought is loaded once and changed in memory, and history
+ * entries are recorded as the call goes. {@link #flush()} then writes the thought with a single versioned save
+ * and its history with a single save or insertMany, however many steps changed it. Code that needs the thought
+ * again reads it from here, not from Mongo.
+ */
+final class ThoughtUnitOfWork {
+
+    private final ThoughtsToPostRepository thoughtsRepository;
+    private final ThoughtsToPostHistoryRepository historyRepository;
+    private final List<ThoughtsToPostHistory> pendingHistory = new ArrayList<>();
+    private ThoughtsToPost thought;
+    private boolean dirty;
+    private ThoughtMergeEngine mergeEngine;
+    private ThoughtWriter writer;
+
+    private ThoughtUnitOfWork(ThoughtsToPostRepository thoughtsRepository,
+                              ThoughtsToPostHistoryRepository historyRepository,
+                              ThoughtsToPost thought, boolean dirty) {
+        this.thoughtsRepository = thoughtsRepository;
+        this.historyRepository = historyRepository;
+        this.thought = thought;
+        this.dirty = dirty;
+    }
+
+    /**
+     * Load the user's thought.
+     *
+     * @throws RuntimeException if the user has no thought with this ID
+     */
+    static ThoughtUnitOfWork load(ThoughtsToPostRepository thoughtsRepository,
+                                  ThoughtsToPostHistoryRepository historyRepository, String id, String userId) {
+        ThoughtsToPost thought = thoughtsRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
+        return new ThoughtUnitOfWork(thoughtsRepository, historyRepository, thought, false);
+    }
+
+    /**
+     * Track a thought loaded elsewhere, such as by a scheduler query.
+     */
+    static ThoughtUnitOfWork of(ThoughtsToPostRepository thoughtsRepository,
+                                ThoughtsToPostHistoryRepository historyRepository, ThoughtsToPost thought) {
+        return new ThoughtUnitOfWork(thoughtsRepository, historyRepository, thought, false);
+    }
+
+    /**
+     * Track a thought that is not stored yet. It is given its ID now, so dispatches built before the flush can
+     * refer to it; the flush inserts it.
+     */
+    static ThoughtUnitOfWork create(ThoughtsToPostRepository thoughtsRepository,
+                                    ThoughtsToPostHistoryRepository historyRepository, ThoughtsToPost thought) {
+        thought.setId(new ObjectId().toHexString());
+        return new ThoughtUnitOfWork(thoughtsRepository, historyRepository, thought, true);
+    }
+
+    ThoughtsToPost thought() {
+        return thought;
+    }
+
+    /**
+     * Merge the flushes that follow with concurrent writes instead of failing on a version conflict, keeping the
+     * fields this writer owns.
+     */
+    void mergeAs(ThoughtMergeEngine mergeEngine, ThoughtWriter writer) {
+        this.mergeEngine = mergeEngine;
+        this.writer = writer;
+    }
+
+    /**
+     * Mark the thought as changed, so the next flush saves it.
+     */
+    void changed() {
+        dirty = true;
+    }
+
+    /**
+     * Record a history entry for the thought as it is now and mark it changed. The entry is given the version
+     * the next flush writes.
+     */
+    void record(ThoughtsToPostHistory.ActionType actionType, String performedBy) {
+        pendingHistory.add(ThoughtsToPostHistory.fromThoughtsToPost(thought, actionType, performedBy));
+        dirty = true;
+    }
+
+    /**
+     * Write the changes made since the last flush: one save for the thought and one write for its history.
+     *
+     * @return the saved thought
+     */
+    ThoughtsToPost flush() {
+        if (dirty) {
+            try {
+                thought = thoughtsRepository.save(thought);
+            } catch (OptimisticLockingFailureException e) {
+                if (mergeEngine == null) {
+                    throw e;
+                }
+                thought = mergeEngine.merge(thought, writer, e);
+            }
+            dirty = false;
+        }
+        if (pendingHistory.isEmpty()) {
+            return thought;
+        }
+
+        for (ThoughtsToPostHistory entry : pendingHistory) {
+            entry.setVersion(thought.getVersion());
+        }
+        if (pendingHistory.size() == 1) {
+            historyRepository.save(pendingHistory.get(0));
+        } else {
+            historyRepository.insert(List.copyOf(pendingHistory));
+        }
+        pendingHistory.clear();
+        return thought;
+    }
+}
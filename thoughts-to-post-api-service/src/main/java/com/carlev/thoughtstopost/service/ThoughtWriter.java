@@ -0,0 +1,103 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The writers that update a thought concurrently, and the fields each owns. When a versioned save conflicts,
+ * {@link ThoughtMergeEngine} keeps the writer's own fields and takes every other field from the stored thought.
+ * Fields no writer lists, such as the dispatch generation, are never merged over.
+ */
+public enum ThoughtWriter {
+
+    /**
+     * AI agent responses: the generated text and images, and the enrichment status.
+     */
+    AGENT(Set.of("status", "errorMessage"),
+            Set.of("title", "body", "hashtags", "callToAction", "characterCount", "progress"),
+            Set.of("base64Data", "url", "prompt", "format", "width", "height", "createdAt"),
+            true) {
+        @Override
+        boolean accepts(ThoughtsToPost stored, ThoughtsToPost intended) {
+            // A re-enrichment or expiry since the response was applied fences it, as a retry would
+            return Objects.equals(stored.getGeneration(), intended.getGeneration())
+                    && ENRICHING.contains(stored.getStatus());
+        }
+    },
+
+    /**
+     * Social media posting: the post status of the thought and of each platform.
+     */
+    POSTER(Set.of("status", "errorMessage"),
+            Set.of("status", "postId", "retryCount", "lastRetryAt", "errorMessage"),
+            Set.of(),
+            false) {
+        @Override
+        boolean accepts(ThoughtsToPost stored, ThoughtsToPost intended) {
+            // Not once the user has rejected or re-enriched the thought
+            return POSTING.contains(stored.getStatus());
+        }
+    },
+
+    /**
+     * The user's review: comments, platform and image selections, what to post, and edits of the generated text.
+     * The text is the agent's while it writes it, so an edit merges only if the thought is still in the state,
+     * and the generation, it was edited in.
+     */
+    USER(Set.of("textContentComments", "imageContentComments", "postText", "postImage",
+                    "platformSelections", "selectedPlatforms", "updatedBy"),
+            Set.of("title", "body", "hashtags", "callToAction", "characterCount"),
+            Set.of("selected", "tag"),
+            false) {
+        @Override
+        boolean accepts(ThoughtsToPost stored, ThoughtsToPost intended) {
+            return stored.getStatus() != PostStatus.POSTED && stored.getStatus() == intended.getStatus()
+                    && Objects.equals(stored.getGeneration(), intended.getGeneration());
+        }
+    };
+
+    private static final Set<PostStatus> ENRICHING = EnumSet.of(PostStatus.PROCESSING, PostStatus.PARTIALLY_COMPLETED);
+    private static final Set<PostStatus> POSTING = EnumSet.of(PostStatus.APPROVED, PostStatus.POSTING,
+            PostStatus.FAILED, PostStatus.POSTED);
+
+    private final Set<String> thoughtFields;
+    private final Set<String> contentFields;
+    private final Set<String> imageFields;
+    private final boolean createsContent;
+
+    ThoughtWriter(Set<String> thoughtFields, Set<String> contentFields, Set<String> imageFields,
+                  boolean createsContent) {
+        this.thoughtFields = thoughtFields;
+        this.contentFields = contentFields;
+        this.imageFields = imageFields;
+        this.createsContent = createsContent;
+    }
+
+    /**
+     * Whether the writer's change still applies to the thought as now stored.
+     */
+    abstract boolean accepts(ThoughtsToPost stored, ThoughtsToPost intended);
+
+    Set<String> thoughtFields() {
+        return thoughtFields;
+    }
+
+    Set<String> contentFields() {
+        return contentFields;
+    }
+
+    Set<String> imageFields() {
+        return imageFields;
+    }
+
+    /**
+     * Whether the writer adds platform contents and images, so those missing from the stored thought are kept.
+     */
+    boolean createsContent() {
+        return createsContent;
+    }
+}
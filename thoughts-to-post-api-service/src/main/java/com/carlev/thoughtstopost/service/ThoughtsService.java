@@ -1,7 +1,14 @@
 package com.carlev.thoughtstopost.service;
 
+import com.carlev.thoughtstopost.dto.BulkThoughtRequest;
+import com.carlev.thoughtstopost.dto.BulkThoughtResponse;
 import com.carlev.thoughtstopost.dto.CreateThoughtRequest;
+import com.carlev.thoughtstopost.dto.SimilarThoughtResponse;
+import com.carlev.thoughtstopost.dto.ThoughtField;
 import com.carlev.thoughtstopost.dto.ThoughtResponse;
+import com.carlev.thoughtstopost.kafka.DispatchLane;
+import com.carlev.thoughtstopost.kafka.ThoughtControlMessage;
+import com.carlev.thoughtstopost.kafka.ThoughtEventPublisher;
 import com.carlev.thoughtstopost.kafka.ThoughtRequestMessage;
 import com.carlev.thoughtstopost.kafka.ThoughtResponseMessage;
 import com.carlev.thoughtstopost.kafka.ThoughtsKafkaProducer;
@@ -16,17 +23,36 @@ import com.carlev.thoughtstopost.repository.ThoughtCategoryRepository;
 import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
 import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
 import com.carlev.thoughtstopost.social.SocialMediaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing thought posts.
@@ -36,12 +62,52 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ThoughtsService {
 
+    private static final Set<PostStatus> REUSABLE_STATUSES = EnumSet.of(PostStatus.ENRICHED, PostStatus.APPROVED,
+            PostStatus.POSTING, PostStatus.POSTED, PostStatus.PARTIALLY_COMPLETED);
+    private static final Set<PostStatus> APPROVABLE_STATUSES = EnumSet.of(PostStatus.ENRICHED, PostStatus.FAILED,
+            PostStatus.PARTIALLY_COMPLETED);
+
     private final ThoughtsToPostRepository thoughtsRepository;
     private final ThoughtsToPostHistoryRepository historyRepository;
     private final ThoughtsKafkaProducer kafkaProducer;
     private final SocialMediaService socialMediaService;
     private final ThoughtCategoryRepository categoryRepository;
     private final PlatformPromptRepository platformPromptRepository;
+    private final MeterRegistry meterRegistry;
+    private final EnrichmentDispatcher enrichmentDispatcher;
+    private final EnrichmentResultCache enrichmentResultCache;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final ThoughtEventPublisher eventPublisher;
+    private final SparseThoughtWriter sparseThoughtWriter;
+    private final ThoughtMergeEngine mergeEngine;
+
+    @Value("${app.enrichment.deadline.full:30m}")
+    private Duration fullEnrichmentBudget = Duration.ofMinutes(30);
+
+    @Value("${app.enrichment.deadline.image-refinement:10m}")
+    private Duration imageRefinementBudget = Duration.ofMinutes(10);
+
+    @Value("${app.enrichment.watchdog.max-dispatch-attempts:3}")
+    private int maxDispatchAttempts = 3;
+
+    @Value("${app.near-duplicate.min-similarity:0.5}")
+    private double nearDuplicateMinSimilarity = 0.5;
+
+    @Value("${app.near-duplicate.auto-reuse-threshold:0}")
+    private double autoReuseThreshold = 0;
+
+    @Value("${app.bulk.max-ids:100}")
+    private int bulkMaxIds = 100;
+
+    // Postings of bulk-approved thoughts run here one batch at a time, off the request thread
+    private final ExecutorService postingExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("bulk-posting-", 0).factory());
+
+    @PreDestroy
+    void shutdownPostingExecutor() {
+        // Thoughts left APPROVED are picked up by SocialMediaPostingScheduler
+        postingExecutor.shutdownNow();
+    }
 
     /**
      * Create a new thought post and send it to the AI agent for enrichment.
@@ -50,6 +116,30 @@ public class ThoughtsService {
     public ThoughtResponse createThought(CreateThoughtRequest request, String userId) {
         log.info("Creating new thought for user: {}", userId);
 
+        // Inserted once, already dispatched or served from a reused result, together with its history
+        ThoughtUnitOfWork work = ThoughtUnitOfWork.create(thoughtsRepository, historyRepository,
+                newThought(request, userId));
+        ThoughtsToPost thought = work.thought();
+        work.record(ThoughtsToPostHistory.ActionType.CREATE, userId);
+
+        ThoughtsToPost reuseSource = findReuseSource(thought, request);
+        if (reuseSource != null) {
+            mergeReusedResult(thought, reusableContents(reuseSource, thought.getSelectedPlatforms()), "near-duplicate");
+            completeReusedResult(work, "near-duplicate");
+        } else {
+            sendToAiAgent(work, request.getAdditionalInstructions(), null, null, request.isSkipCache(), null, null);
+        }
+        thought = work.thought();
+        nearDuplicateIndex.add(userId, thought.getId(), thought.getOriginalThought());
+
+        log.info("Created thought with ID: {}", thought.getId());
+        return ThoughtResponse.fromEntity(thought);
+    }
+
+    /**
+     * A new PENDING thought for the request, not yet saved.
+     */
+    static ThoughtsToPost newThought(CreateThoughtRequest request, String userId) {
         List<ThoughtsToPost.PlatformSelection> selections = new ArrayList<>();
         List<PlatformType> selectedPlatforms = new ArrayList<>();
 
@@ -75,7 +165,7 @@ public class ThoughtsService {
             }
         }
 
-        ThoughtsToPost thought = ThoughtsToPost.builder()
+        return ThoughtsToPost.builder()
                 .userId(userId)
                 .categoryId(request.getCategoryId())
                 .originalThought(request.getThought())
@@ -86,13 +176,6 @@ public class ThoughtsService {
                 .createdBy(userId)
                 .build();
 
-        thought = thoughtsRepository.save(thought);
-        createHistoryEntry(thought, ThoughtsToPostHistory.ActionType.CREATE, userId);
-
-        sendToAiAgent(thought, request.getAdditionalInstructions(), null, null);
-
-        log.info("Created thought with ID: {}", thought.getId());
-        return ThoughtResponse.fromEntity(thought);
     }
 
     public ThoughtResponse getThought(String id, String userId) {
@@ -101,6 +184,45 @@ public class ThoughtsService {
         return ThoughtResponse.fromEntity(thought);
     }
 
+    /**
+     * Strong ETag of a thought, read from the user_id_version index without loading the document.
+     */
+    public String getThoughtETag(String id, String userId) {
+        ThoughtsToPost version = thoughtsRepository.findVersionByIdAndUserId(id, userId)
+                .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
+        return thoughtETag(id, version.getVersion());
+    }
+
+    /**
+     * ETag of a thought list from the filter's count and latest updatedAt. Weak, since it identifies the list's
+     * state rather than its exact bytes. Any create, update or delete under the filter changes one of them.
+     */
+    public String getUserThoughtsETag(String userId, PostStatus status, PostStatus notStatus, PlatformType platform) {
+        PageRequest latest = PageRequest.of(0, 1);
+        long count;
+        List<ThoughtsToPost> newest;
+        if (status != null) {
+            count = thoughtsRepository.countByUserIdAndStatus(userId, status);
+            newest = thoughtsRepository.findLatestUpdateByUserIdAndStatus(userId, status, latest);
+        } else if (notStatus != null) {
+            count = thoughtsRepository.countByUserIdAndStatusNot(userId, notStatus);
+            newest = thoughtsRepository.findLatestUpdateByUserIdAndStatusNot(userId, notStatus, latest);
+        } else if (platform != null) {
+            count = thoughtsRepository.countByUserIdAndSelectedPlatformsContains(userId, platform);
+            newest = thoughtsRepository.findLatestUpdateByUserIdAndPlatform(userId, platform, latest);
+        } else {
+            count = thoughtsRepository.countByUserId(userId);
+            newest = thoughtsRepository.findLatestUpdateByUserId(userId, latest);
+        }
+        LocalDateTime updatedAt = newest.isEmpty() ? null : newest.get(0).getUpdatedAt();
+        long updatedMillis = updatedAt != null ? updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+        return "W/\"" + count + "-" + Long.toHexString(updatedMillis) + "\"";
+    }
+
+    public static String thoughtETag(String id, Long version) {
+        return "\"" + id + "-" + (version != null ? version : 0) + "\"";
+    }
+
     public List<ThoughtResponse> getUserThoughts(String userId) {
         return thoughtsRepository.findByUserId(userId).stream()
                 .map(ThoughtResponse::fromEntity)
@@ -125,6 +247,28 @@ public class ThoughtsService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Write the requested fields of a thought as JSON. Only those fields are read from the database.
+     */
+    public void writeThoughtFields(String id, String userId, Set<ThoughtField> fields, OutputStream out)
+            throws IOException {
+        ThoughtsToPost thought = thoughtsRepository.findProjectedByIdAndUserId(id, userId, ThoughtField.projection(fields))
+                .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
+        sparseThoughtWriter.writeObject(thought, fields, out);
+    }
+
+    /**
+     * Stream the requested fields of the user's thoughts as a JSON array, one document at a time from the cursor.
+     * Filters as {@link #getUserThoughtsETag}.
+     */
+    public void writeUserThoughtsFields(String userId, PostStatus status, PostStatus notStatus, PlatformType platform,
+                                        Set<ThoughtField> fields, OutputStream out) throws IOException {
+        try (Stream<ThoughtsToPost> thoughts = thoughtsRepository.streamProjectedByUserId(userId, status, notStatus,
+                platform, ThoughtField.projection(fields))) {
+            sparseThoughtWriter.writeArray(thoughts.iterator(), fields, out);
+        }
+    }
+
     public List<ThoughtsToPostHistory> getThoughtHistory(String thoughtId, String userId) {
         thoughtsRepository.findByIdAndUserId(thoughtId, userId)
                 .orElseThrow(() -> new RuntimeException("Thought not found: " + thoughtId));
@@ -133,10 +277,10 @@ public class ThoughtsService {
 
     @Transactional
     public ThoughtResponse approveAndPost(String id, com.carlev.thoughtstopost.dto.ApproveThoughtRequest request, String userId) {
-        ThoughtsToPost thought = thoughtsRepository.findByIdAndUserId(id, userId)
-                .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
+        ThoughtUnitOfWork work = ThoughtUnitOfWork.load(thoughtsRepository, historyRepository, id, userId);
+        ThoughtsToPost thought = work.thought();
 
-        if (thought.getStatus() != PostStatus.ENRICHED && thought.getStatus() != PostStatus.FAILED && thought.getStatus() != PostStatus.PARTIALLY_COMPLETED) {
+        if (!APPROVABLE_STATUSES.contains(thought.getStatus())) {
             throw new RuntimeException("Thought is not ready for approval. Status: " + thought.getStatus());
         }
 
@@ -146,22 +290,27 @@ public class ThoughtsService {
         thought.setImageContentComments(request.getImageContentComments());
         thought.setPostText(request.isPostText());
         thought.setPostImage(request.isPostImage());
+        work.record(ThoughtsToPostHistory.ActionType.APPROVE, userId);
 
-        thought = thoughtsRepository.save(thought);
-        createHistoryEntry(thought, ThoughtsToPostHistory.ActionType.APPROVE, userId);
-
-        attemptPosting(id);
+        // The approval is written together with the POSTING state, and the response comes from memory
+        post(work);
 
-        return ThoughtResponse.fromEntity(thoughtsRepository.findById(id).orElse(thought));
+        return ThoughtResponse.fromEntity(work.thought());
     }
 
     public void attemptPosting(String id) {
         ThoughtsToPost thought = thoughtsRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
+        post(ThoughtUnitOfWork.of(thoughtsRepository, historyRepository, thought));
+    }
 
+    private void post(ThoughtUnitOfWork work) {
+        ThoughtsToPost thought = work.thought();
+        String id = thought.getId();
         if (thought.getStatus() != PostStatus.APPROVED && thought.getStatus() != PostStatus.POSTING
                 && thought.getStatus() != PostStatus.FAILED) {
             log.warn("Thought {} is not in a postable state: {}", id, thought.getStatus());
+            work.flush();
             return;
         }
 
@@ -171,32 +320,43 @@ public class ThoughtsService {
 
             if (allPosted) {
                 thought.setStatus(PostStatus.POSTED);
-                thoughtsRepository.save(thought);
+                work.changed();
+                work.flush();
                 return;
             }
 
             thought.setStatus(PostStatus.POSTING);
-            thoughtsRepository.save(thought);
+            work.changed();
+            thought = work.flush();
+            eventPublisher.statusChanged(thought);
+            // From here on the thought is the poster's: a concurrent user or agent write is merged, not lost
+            work.mergeAs(mergeEngine, ThoughtWriter.POSTER);
 
+            // Saves this same instance around each platform post, so it is still current afterwards
             socialMediaService.postToSelectedPlatforms(thought);
 
-            thought = thoughtsRepository.findById(id).orElse(thought);
+            for (ThoughtsToPost.EnrichedContent content : thought.getEnrichedContents()) {
+                eventPublisher.postStatus(thought, content);
+            }
             boolean fullyPosted = thought.getEnrichedContents().stream()
                     .allMatch(c -> c.getStatus() == PostStatus.POSTED);
 
             if (fullyPosted) {
                 thought.setStatus(PostStatus.POSTED);
-                thought = thoughtsRepository.save(thought);
-                createHistoryEntry(thought, ThoughtsToPostHistory.ActionType.POST, "system");
+                work.record(ThoughtsToPostHistory.ActionType.POST, "system");
             } else {
                 thought.setStatus(PostStatus.FAILED);
-                thoughtsRepository.save(thought);
+                work.changed();
             }
+            thought = work.flush();
+            eventPublisher.statusChanged(thought);
         } catch (Exception e) {
             log.error("Failed post attempt for thought {}: {}", id, e.getMessage());
             thought.setStatus(PostStatus.FAILED);
             thought.setErrorMessage("Post attempt failed: " + e.getMessage());
-            thoughtsRepository.save(thought);
+            work.changed();
+            thought = work.flush();
+            eventPublisher.statusChanged(thought);
         }
     }
 
@@ -209,6 +369,7 @@ public class ThoughtsService {
         thought.setUpdatedBy(userId);
         thought = thoughtsRepository.save(thought);
         createHistoryEntry(thought, ThoughtsToPostHistory.ActionType.REJECT, userId);
+        eventPublisher.statusChanged(thought);
         return ThoughtResponse.fromEntity(thought);
     }
 
@@ -256,7 +417,7 @@ public class ThoughtsService {
         }
 
         thought.setUpdatedBy(userId);
-        ThoughtsToPost savedThought = thoughtsRepository.save(thought);
+        ThoughtsToPost savedThought = saveAs(thought, ThoughtWriter.USER);
         createHistoryEntry(savedThought, ThoughtsToPostHistory.ActionType.UPDATE, userId);
 
         return ThoughtResponse.fromEntity(savedThought);
@@ -264,38 +425,46 @@ public class ThoughtsService {
 
     @Transactional
     public ThoughtResponse reenrichThought(String id, String additionalInstructions, String userId) {
-        ThoughtsToPost thought = thoughtsRepository.findByIdAndUserId(id, userId)
-                .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
+        return reenrichThought(id, additionalInstructions, false, userId);
+    }
+
+    /**
+     * Re-enrich a thought; {@code skipCache} forces a fresh agent run even if an identical result is cached.
+     */
+    @Transactional
+    public ThoughtResponse reenrichThought(String id, String additionalInstructions, boolean skipCache, String userId) {
+        ThoughtUnitOfWork work = ThoughtUnitOfWork.load(thoughtsRepository, historyRepository, id, userId);
+        ThoughtsToPost thought = work.thought();
 
         if (thought.getStatus() == PostStatus.POSTED) {
             throw new RuntimeException("Cannot re-enrich content after it has been posted.");
         }
 
+        Long superseded = runningGeneration(thought);
         thought.setUpdatedBy(userId);
-        ThoughtsToPost savedThought = thoughtsRepository.save(thought);
-        createHistoryEntry(savedThought, ThoughtsToPostHistory.ActionType.UPDATE, userId);
+        work.record(ThoughtsToPostHistory.ActionType.UPDATE, userId);
 
-        sendToAiAgent(savedThought, additionalInstructions, null, null);
+        sendToAiAgent(work, additionalInstructions, null, null, skipCache, superseded, "Superseded by re-enrichment");
 
-        return ThoughtResponse.fromEntity(thoughtsRepository.findById(id).orElse(savedThought));
+        return ThoughtResponse.fromEntity(work.thought());
     }
 
     @Transactional
     public ThoughtResponse refineImage(String id, String refinementInstructions, PlatformType platform, String userId) {
-        ThoughtsToPost thought = thoughtsRepository.findByIdAndUserId(id, userId)
-                .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
+        ThoughtUnitOfWork work = ThoughtUnitOfWork.load(thoughtsRepository, historyRepository, id, userId);
+        ThoughtsToPost thought = work.thought();
 
         if (thought.getStatus() == PostStatus.POSTED) {
             throw new RuntimeException("Cannot refine image after it has been posted.");
         }
 
+        Long superseded = runningGeneration(thought);
         thought.setUpdatedBy(userId);
-        ThoughtsToPost savedThought = thoughtsRepository.save(thought);
-        createHistoryEntry(savedThought, ThoughtsToPostHistory.ActionType.UPDATE, userId);
+        work.record(ThoughtsToPostHistory.ActionType.UPDATE, userId);
 
-        sendToAiAgent(savedThought, null, refinementInstructions, platform);
+        sendToAiAgent(work, null, refinementInstructions, platform, true, superseded, "Superseded by image refinement");
 
-        return ThoughtResponse.fromEntity(thoughtsRepository.findById(id).orElse(savedThought));
+        return ThoughtResponse.fromEntity(work.thought());
     }
 
     @Transactional
@@ -304,26 +473,239 @@ public class ThoughtsService {
                 .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
         createHistoryEntry(thought, ThoughtsToPostHistory.ActionType.DELETE, userId);
         thoughtsRepository.delete(thought);
+        nearDuplicateIndex.remove(userId, id);
+    }
+
+    /**
+     * The user's past thoughts most similar to a draft, best first, so their enriched results can be reused.
+     */
+    public List<SimilarThoughtResponse> findSimilarThoughts(String text, int limit, String userId) {
+        List<NearDuplicateIndex.Match> matches = nearDuplicateIndex.findSimilar(userId, text, limit, nearDuplicateMinSimilarity);
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, ThoughtsToPost> thoughts = new HashMap<>();
+        for (ThoughtsToPost thought : thoughtsRepository.findAllById(matches.stream().map(NearDuplicateIndex.Match::thoughtId).toList())) {
+            if (userId.equals(thought.getUserId())) {
+                thoughts.put(thought.getId(), thought);
+            }
+        }
+
+        return matches.stream()
+                .filter(match -> thoughts.containsKey(match.thoughtId()))
+                .map(match -> SimilarThoughtResponse.builder()
+                        .similarity(match.similarity())
+                        .thought(ThoughtResponse.fromEntity(thoughts.get(match.thoughtId())))
+                        .build())
+                .collect(Collectors.toList());
     }
 
     @Transactional
     public ThoughtResponse repostThought(String id, String userId) {
-        ThoughtsToPost thought = thoughtsRepository.findByIdAndUserId(id, userId)
-                .orElseThrow(() -> new RuntimeException("Thought not found: " + id));
+        return repostThought(id, false, userId);
+    }
 
-        thought.setStatus(PostStatus.PENDING);
-        thought.setEnrichedContents(new ArrayList<>());
-        thought.setGeneratedImageUrl(null);
-        thought.setGeneratedImageBase64(null);
-        thought.setErrorMessage(null);
+    /**
+     * Repost a thought from scratch; {@code skipCache} forces a fresh agent run even if an identical result is cached.
+     */
+    @Transactional
+    public ThoughtResponse repostThought(String id, boolean skipCache, String userId) {
+        ThoughtUnitOfWork work = ThoughtUnitOfWork.load(thoughtsRepository, historyRepository, id, userId);
+        ThoughtsToPost thought = work.thought();
+
+        Long superseded = runningGeneration(thought);
+        resetForRepost(thought);
         thought.setUpdatedBy(userId);
+        work.record(ThoughtsToPostHistory.ActionType.UPDATE, userId);
 
-        ThoughtsToPost savedThought = thoughtsRepository.save(thought);
-        createHistoryEntry(savedThought, ThoughtsToPostHistory.ActionType.UPDATE, userId);
+        sendToAiAgent(work, ThoughtRequestMessage.REPOST_INSTRUCTIONS, null, null, skipCache,
+                superseded, "Superseded by repost");
+
+        return ThoughtResponse.fromEntity(work.thought());
+    }
+
+    /**
+     * Apply one action to many of the user's thoughts: one $in read, one bulkWrite for every state change and
+     * delete, and one insertMany for their history. Approved thoughts are posted afterwards as one background
+     * batch, and reposted thoughts are queued for the agent together. Per-thought failures are reported in the
+     * results rather than failing the request.
+     *
+     * @throws IllegalArgumentException if more than {@code app.bulk.max-ids} distinct ids are given
+     */
+    public BulkThoughtResponse bulkAction(BulkThoughtRequest request, String userId) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        if (ids.size() > bulkMaxIds) {
+            throw new IllegalArgumentException("At most " + bulkMaxIds + " thoughts per bulk action");
+        }
+        BulkThoughtRequest.Action action = request.getAction();
+        log.info("Bulk {} of {} thoughts for user: {}", action, ids.size(), userId);
+
+        Map<String, ThoughtsToPost> loaded = new HashMap<>();
+        for (ThoughtsToPost thought : thoughtsRepository.findByUserIdAndIdIn(userId, ids)) {
+            loaded.put(thought.getId(), thought);
+        }
+
+        Map<String, BulkThoughtResponse.ItemResult> results = new HashMap<>();
+        List<ThoughtsToPost> changed = new ArrayList<>();
+        List<ThoughtsToPost> deleted = new ArrayList<>();
+        Map<String, Long> supersededGenerations = new HashMap<>();
+        Map<String, ThoughtRequestMessage> dispatches = new HashMap<>();
+        for (String id : ids) {
+            ThoughtsToPost thought = loaded.get(id);
+            if (thought == null) {
+                results.put(id, bulkFailure(id, BulkThoughtResponse.Outcome.NOT_FOUND, "Thought not found: " + id));
+                continue;
+            }
+            switch (action) {
+                case APPROVE -> {
+                    if (!APPROVABLE_STATUSES.contains(thought.getStatus())) {
+                        results.put(id, bulkFailure(id, BulkThoughtResponse.Outcome.INVALID_STATE,
+                                "Thought is not ready for approval. Status: " + thought.getStatus()));
+                        continue;
+                    }
+                    thought.setStatus(PostStatus.APPROVED);
+                    thought.setTextContentComments(request.getTextContentComments());
+                    thought.setImageContentComments(request.getImageContentComments());
+                    thought.setPostText(request.isPostText());
+                    thought.setPostImage(request.isPostImage());
+                }
+                case REJECT -> thought.setStatus(PostStatus.REJECTED);
+                case REPOST -> {
+                    // Cancelled only once the write has gone through, so a conflicting item keeps its run
+                    Long superseded = runningGeneration(thought);
+                    if (superseded != null) {
+                        supersededGenerations.put(id, superseded);
+                    }
+                    resetForRepost(thought);
+                    ThoughtRequestMessage dispatch = prepareDispatch(thought, ThoughtRequestMessage.REPOST_INSTRUCTIONS,
+                            null, null, request.isSkipCache());
+                    if (dispatch != null) {
+                        dispatches.put(id, dispatch);
+                    }
+                }
+                case DELETE -> {
+                    deleted.add(thought);
+                    continue;
+                }
+            }
+            thought.setUpdatedBy(userId);
+            changed.add(thought);
+        }
+
+        Set<String> conflicts = thoughtsRepository.replaceAndDeleteAll(userId, changed, deleted);
+
+        List<ThoughtsToPostHistory> history = new ArrayList<>();
+        List<ThoughtRequestMessage> toDispatch = new ArrayList<>();
+        List<String> toPost = new ArrayList<>();
+        for (ThoughtsToPost thought : changed) {
+            String id = thought.getId();
+            if (conflicts.contains(id)) {
+                results.put(id, bulkFailure(id, BulkThoughtResponse.Outcome.CONFLICT,
+                        "Thought was modified by another request"));
+                continue;
+            }
+            history.add(ThoughtsToPostHistory.fromThoughtsToPost(thought, historyAction(action), userId));
+            ThoughtRequestMessage dispatch = dispatches.get(id);
+            if (action == BulkThoughtRequest.Action.REPOST && dispatch == null) {
+                history.add(ThoughtsToPostHistory.fromThoughtsToPost(thought, ThoughtsToPostHistory.ActionType.STATUS_CHANGE, "cache"));
+            }
+            if (supersededGenerations.containsKey(id)) {
+                cancelGeneration(id, userId, supersededGenerations.get(id), "Superseded by repost");
+            }
+            if (dispatch != null) {
+                dispatch.setVersion(thought.getVersion() != null ? thought.getVersion().intValue() : 1);
+                toDispatch.add(dispatch);
+            }
+            if (action == BulkThoughtRequest.Action.APPROVE) {
+                toPost.add(id);
+            }
+            eventPublisher.statusChanged(thought);
+            results.put(id, BulkThoughtResponse.ItemResult.builder()
+                    .id(id)
+                    .outcome(BulkThoughtResponse.Outcome.OK)
+                    .status(thought.getStatus())
+                    .build());
+        }
+        for (ThoughtsToPost thought : deleted) {
+            String id = thought.getId();
+            if (conflicts.contains(id)) {
+                results.put(id, bulkFailure(id, BulkThoughtResponse.Outcome.CONFLICT,
+                        "Thought was modified or deleted by another request"));
+                continue;
+            }
+            history.add(ThoughtsToPostHistory.fromThoughtsToPost(thought, ThoughtsToPostHistory.ActionType.DELETE, userId));
+            nearDuplicateIndex.remove(userId, id);
+            results.put(id, BulkThoughtResponse.ItemResult.builder().id(id).outcome(BulkThoughtResponse.Outcome.OK).build());
+        }
 
-        sendToAiAgent(savedThought, "Reposting this thought.", null, null);
+        if (!history.isEmpty()) {
+            historyRepository.insert(history);
+        }
+        if (!toDispatch.isEmpty()) {
+            enrichmentDispatcher.submitAll(toDispatch);
+        }
+        if (!toPost.isEmpty()) {
+            queuePostings(toPost);
+        }
 
-        return ThoughtResponse.fromEntity(thoughtsRepository.findById(id).orElse(savedThought));
+        List<BulkThoughtResponse.ItemResult> ordered = ids.stream().map(results::get).toList();
+        int succeeded = (int) ordered.stream().filter(r -> r.getOutcome() == BulkThoughtResponse.Outcome.OK).count();
+        meterRegistry.counter("thoughts.bulk.items", "action", action.name().toLowerCase()).increment(ids.size());
+        return BulkThoughtResponse.builder()
+                .action(action)
+                .succeeded(succeeded)
+                .failed(ordered.size() - succeeded)
+                .results(ordered)
+                .build();
+    }
+
+    /**
+     * Dispatch imported thoughts taken off the import queue: one bulkWrite per user records the new dispatch
+     * state and clears the queue marker, then their agent requests are queued together. Thoughts another
+     * instance dispatched meanwhile fail the version check and are skipped.
+     *
+     * @return how many thoughts were dispatched or served from the enrichment cache
+     */
+    public int dispatchQueued(List<ThoughtsToPost> thoughts) {
+        Map<String, List<ThoughtsToPost>> byUser = thoughts.stream()
+                .collect(Collectors.groupingBy(ThoughtsToPost::getUserId, LinkedHashMap::new, Collectors.toList()));
+        List<ThoughtsToPostHistory> history = new ArrayList<>();
+        List<ThoughtRequestMessage> toDispatch = new ArrayList<>();
+        int dispatched = 0;
+        for (Map.Entry<String, List<ThoughtsToPost>> user : byUser.entrySet()) {
+            Map<String, ThoughtRequestMessage> requests = new HashMap<>();
+            for (ThoughtsToPost thought : user.getValue()) {
+                ThoughtRequestMessage request = prepareDispatch(thought, thought.getAdditionalInstructions(), null, null, false);
+                if (request != null) {
+                    requests.put(thought.getId(), request);
+                }
+            }
+
+            Set<String> conflicts = thoughtsRepository.replaceAndDeleteAll(user.getKey(), user.getValue(), List.of());
+            for (ThoughtsToPost thought : user.getValue()) {
+                if (conflicts.contains(thought.getId())) {
+                    continue;
+                }
+                ThoughtRequestMessage request = requests.get(thought.getId());
+                if (request != null) {
+                    request.setVersion(thought.getVersion() != null ? thought.getVersion().intValue() : 1);
+                    toDispatch.add(request);
+                } else {
+                    history.add(ThoughtsToPostHistory.fromThoughtsToPost(thought, ThoughtsToPostHistory.ActionType.STATUS_CHANGE, "cache"));
+                }
+                eventPublisher.statusChanged(thought);
+                dispatched++;
+            }
+        }
+
+        if (!history.isEmpty()) {
+            historyRepository.insert(history);
+        }
+        if (!toDispatch.isEmpty()) {
+            enrichmentDispatcher.submitAll(toDispatch);
+        }
+        return dispatched;
     }
 
     @Transactional
@@ -333,6 +715,30 @@ public class ThoughtsService {
         ThoughtsToPost thought = thoughtsRepository.findById(message.getRequestId())
                 .orElseThrow(() -> new RuntimeException("Thought not found: " + message.getRequestId()));
 
+        // A newer dispatch supersedes this response. The versioned save below makes the check atomic:
+        // if a dispatch bumps the generation in between, the save fails, no merge is made across generations,
+        // and the retry is fenced here.
+        if (isSuperseded(message, thought)) {
+            log.info("Discarding stale AI agent response for request: {} (generation {} < {})",
+                    message.getRequestId(), message.getGeneration(), thought.getGeneration());
+            meterRegistry.counter("agent.response.fenced").increment();
+            return;
+        }
+
+        // The user has been told this run missed its deadline (or will be now); late results are not applied
+        Instant now = Instant.now();
+        if (thought.getDispatchDeadline() != null && now.isAfter(thought.getDispatchDeadline())) {
+            log.warn("Dropping AI agent response for request: {} received {} after its deadline",
+                    message.getRequestId(), Duration.between(thought.getDispatchDeadline(), now));
+            meterRegistry.summary("agent.response.late.seconds")
+                    .record(Duration.between(thought.getDispatchDeadline(), now).toSeconds());
+            expireEnrichment(thought, "response");
+            return;
+        }
+
+        PostStatus previousStatus = thought.getStatus();
+        Map<PlatformType, Double> progressed = new LinkedHashMap<>();
+        Map<String, PlatformType> newImages = new LinkedHashMap<>();
         if (message.getEnrichedContents() != null) {
             for (ThoughtResponseMessage.EnrichedContentMessage ecMsg : message.getEnrichedContents()) {
                 ThoughtsToPost.EnrichedContent content = thought.getEnrichedContents().stream()
@@ -357,6 +763,7 @@ public class ThoughtsService {
                     content.setCharacterCount(ecMsg.getCharacterCount());
                     if (ecMsg.getProgress() != null) {
                         content.setProgress(ecMsg.getProgress());
+                        progressed.put(ecMsg.getPlatform(), ecMsg.getProgress());
                     }
                 }
 
@@ -377,6 +784,7 @@ public class ThoughtsService {
                                     .createdAt(imgMsg.getCreatedAt() != null ? imgMsg.getCreatedAt() : LocalDateTime.now())
                                     .selected(content.getImages().isEmpty()) // Select first by default
                                     .build());
+                            newImages.put(imgMsg.getId(), ecMsg.getPlatform());
                         }
                     }
                 }
@@ -396,11 +804,380 @@ public class ThoughtsService {
             thought.setErrorMessage(message.getErrorMessage());
         }
 
+        thought = saveAs(thought, ThoughtWriter.AGENT);
+        createHistoryEntry(thought, ThoughtsToPostHistory.ActionType.STATUS_CHANGE, "system");
+
+        // Pushed after the save, so a client that reloads on an event sees the new state
+        for (Map.Entry<PlatformType, Double> entry : progressed.entrySet()) {
+            eventPublisher.progress(thought, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, PlatformType> image : newImages.entrySet()) {
+            eventPublisher.imageReady(thought, image.getValue(), image.getKey());
+        }
+        if (thought.getStatus() != previousStatus) {
+            eventPublisher.statusChanged(thought);
+        }
+
+        if (thought.getStatus() != PostStatus.PROCESSING) {
+            // The agent is done with this request; its credit goes to the next queued one
+            enrichmentDispatcher.release(thought.getId(), message.getGeneration());
+            recordEnrichmentLatency(thought);
+        }
+
+        if (thought.getStatus() == PostStatus.ENRICHED && thought.getLastDispatch() != null
+                && thought.getLastDispatch().getCacheKey() != null) {
+            try {
+                enrichmentResultCache.store(thought.getLastDispatch().getCacheKey(), thought.getEnrichedContents());
+            } catch (RuntimeException e) {
+                log.warn("Failed to cache enrichment result for thought {}: {}", thought.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Save a thought, merging the writer's change with a concurrent one if the versioned save conflicts.
+     */
+    private ThoughtsToPost saveAs(ThoughtsToPost thought, ThoughtWriter writer) {
+        try {
+            return thoughtsRepository.save(thought);
+        } catch (OptimisticLockingFailureException e) {
+            return mergeEngine.merge(thought, writer, e);
+        }
+    }
+
+    /**
+     * Fail a thought whose enrichment missed its dispatch deadline and tell the agent to stop working on it.
+     *
+     * @param source what detected the expiry ("response" or "watchdog"), used as a metric tag
+     */
+    public void expireEnrichment(ThoughtsToPost thought, String source) {
+        if (thought.getStatus() != PostStatus.PROCESSING) {
+            return;
+        }
+
+        log.info("Enrichment for thought {} expired (deadline {}, detected by {})",
+                thought.getId(), thought.getDispatchDeadline(), source);
+        Long expired = runningGeneration(thought);
+        thought.setStatus(PostStatus.FAILED);
+        thought.setErrorMessage("Enrichment did not complete before its deadline (" + thought.getDispatchDeadline()
+                + "). Re-enrich to try again.");
         thought = thoughtsRepository.save(thought);
+        if (expired != null) {
+            cancelGeneration(thought.getId(), thought.getUserId(), expired, "Enrichment deadline exceeded");
+        }
         createHistoryEntry(thought, ThoughtsToPostHistory.ActionType.STATUS_CHANGE, "system");
+        eventPublisher.statusChanged(thought);
+        meterRegistry.counter("enrichment.expired", "source", source).increment();
+    }
+
+    /**
+     * Re-send the current dispatch of a thought that has made no progress, keeping its generation so
+     * results from the original attempt are still accepted. Fails the thought once attempts are exhausted.
+     * Thoughts still waiting in a live instance's dispatch queue are left out by the watchdog's query, which
+     * reads the dispatch's persisted send and queue heartbeat marks.
+     */
+    public void redispatchStalled(ThoughtsToPost thought) {
+        if (thought.getStatus() != PostStatus.PROCESSING) {
+            return;
+        }
+        if (thought.getDispatchDeadline() != null && Instant.now().isAfter(thought.getDispatchDeadline())) {
+            expireEnrichment(thought, "watchdog");
+            return;
+        }
+
+        ThoughtsToPost.DispatchRecord dispatch = thought.getLastDispatch() != null
+                ? thought.getLastDispatch()
+                : ThoughtsToPost.DispatchRecord.builder()
+                        .additionalInstructions(thought.getAdditionalInstructions())
+                        .attempts(1)
+                        .build();
+        int attempts = dispatch.getAttempts() != null ? dispatch.getAttempts() : 1;
+
+        if (attempts >= maxDispatchAttempts) {
+            log.warn("Thought {} made no progress after {} dispatch attempts; marking FAILED", thought.getId(), attempts);
+            thought.setStatus(PostStatus.FAILED);
+            thought.setErrorMessage("Enrichment made no progress after " + attempts
+                    + " dispatch attempts. Re-enrich to try again.");
+            thought = thoughtsRepository.save(thought);
+            createHistoryEntry(thought, ThoughtsToPostHistory.ActionType.STATUS_CHANGE, "system");
+            eventPublisher.statusChanged(thought);
+            meterRegistry.counter("enrichment.redispatch", "result", "exhausted").increment();
+            return;
+        }
+
+        log.info("Re-dispatching stalled thought {} (generation {}, attempt {})",
+                thought.getId(), thought.getGeneration(), attempts + 1);
+        Instant now = Instant.now();
+        dispatch.setAttempts(attempts + 1);
+        dispatch.setLastAttemptAt(now);
+        // Queued again until the dispatcher sends it
+        dispatch.setSentAt(null);
+        dispatch.setQueueHeartbeatAt(now);
+        thought.setLastDispatch(dispatch);
+        // The versioned save fails if a response or a new dispatch raced with this sweep
+        thought = thoughtsRepository.save(thought);
+
+        enrichmentDispatcher.submit(buildRequestMessage(thought));
+        meterRegistry.counter("enrichment.redispatch", "result", "redispatched").increment();
+    }
+
+    /**
+     * Dispatch-to-result latency per lane, including time spent in the dispatch queue.
+     */
+    private void recordEnrichmentLatency(ThoughtsToPost thought) {
+        ThoughtsToPost.DispatchRecord dispatch = thought.getLastDispatch();
+        if (dispatch == null || dispatch.getDispatchedAt() == null) {
+            return;
+        }
+        DispatchLane lane = dispatch.getLane() != null ? dispatch.getLane() : DispatchLane.BULK;
+        Timer.builder("enrichment.latency")
+                .description("Time from dispatch to the agent's final result")
+                .tag("lane", lane.tagValue())
+                .tag("status", thought.getStatus().name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(dispatch.getDispatchedAt(), Instant.now()));
+    }
+
+    private boolean isSuperseded(ThoughtResponseMessage message, ThoughtsToPost thought) {
+        // Responses from agents that predate generations carry none and are always applied
+        return message.getGeneration() != null && thought.getGeneration() != null
+                && message.getGeneration() < thought.getGeneration();
+    }
+
+    /**
+     * The generation of the enrichment running for this thought, or null if none is. Read before the thought is
+     * changed and cancelled with {@link #cancelGeneration} only once the change is written, so a write that fails
+     * or conflicts leaves the running job alone.
+     */
+    private static Long runningGeneration(ThoughtsToPost thought) {
+        return thought.getStatus() == PostStatus.PROCESSING ? thought.getGeneration() : null;
+    }
+
+    /**
+     * Ask the AI agent to abort a superseded enrichment. Its late results would be fenced by generation anyway;
+     * cancelling saves the agent the remaining work.
+     */
+    private void cancelGeneration(String thoughtId, String userId, Long generation, String reason) {
+        log.info("Cancelling in-flight enrichment for thought {} (generation {}): {}", thoughtId, generation, reason);
+        enrichmentDispatcher.cancel(thoughtId);
+        kafkaProducer.sendControl(ThoughtControlMessage.builder()
+                .requestId(thoughtId)
+                .userId(userId)
+                .type(ThoughtControlMessage.ControlType.CANCEL)
+                .generation(generation)
+                .reason(reason)
+                .createdAt(LocalDateTime.now())
+                .build());
+        meterRegistry.counter("agent.dispatch.cancelled").increment();
+    }
+
+    private void cancelSuperseded(ThoughtsToPost thought, Long supersededGeneration, String reason) {
+        if (supersededGeneration != null) {
+            cancelGeneration(thought.getId(), thought.getUserId(), supersededGeneration, reason);
+        }
+    }
+
+    private void resetForRepost(ThoughtsToPost thought) {
+        thought.setStatus(PostStatus.PENDING);
+        thought.setEnrichedContents(new ArrayList<>());
+        thought.setGeneratedImageUrl(null);
+        thought.setGeneratedImageBase64(null);
+        thought.setErrorMessage(null);
+    }
+
+    private void queuePostings(List<String> ids) {
+        postingExecutor.execute(() -> {
+            for (String id : ids) {
+                try {
+                    attemptPosting(id);
+                } catch (RuntimeException e) {
+                    log.error("Queued posting failed for thought {}: {}", id, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static BulkThoughtResponse.ItemResult bulkFailure(String id, BulkThoughtResponse.Outcome outcome, String message) {
+        return BulkThoughtResponse.ItemResult.builder().id(id).outcome(outcome).errorMessage(message).build();
+    }
+
+    private static ThoughtsToPostHistory.ActionType historyAction(BulkThoughtRequest.Action action) {
+        return switch (action) {
+            case APPROVE -> ThoughtsToPostHistory.ActionType.APPROVE;
+            case REJECT -> ThoughtsToPostHistory.ActionType.REJECT;
+            case REPOST -> ThoughtsToPostHistory.ActionType.UPDATE;
+            case DELETE -> ThoughtsToPostHistory.ActionType.DELETE;
+        };
+    }
+
+    /**
+     * Dispatch the thought, or serve it from the enrichment cache, and flush the unit of work: the dispatch state
+     * is written in the same save as the changes that led to it. A {@code supersededGeneration} still running in
+     * the agent is cancelled once that save has gone through.
+     */
+    private void sendToAiAgent(ThoughtUnitOfWork work, String additionalInstructions, String imageRefinementInstructions,
+                               PlatformType targetPlatform, boolean skipCache, Long supersededGeneration,
+                               String cancelReason) {
+        ThoughtRequestMessage request = prepareDispatch(work.thought(), additionalInstructions,
+                imageRefinementInstructions, targetPlatform, skipCache);
+        if (request == null) {
+            completeReusedResult(work, "cache");
+            cancelSuperseded(work.thought(), supersededGeneration, cancelReason);
+            return;
+        }
+
+        work.changed();
+        ThoughtsToPost thought = work.flush();
+        // Before the submit: cancelling also drops the thought's queued request from the dispatcher
+        cancelSuperseded(thought, supersededGeneration, cancelReason);
+        eventPublisher.statusChanged(thought);
+        request.setVersion(thought.getVersion() != null ? thought.getVersion().intValue() : 1);
+
+        // Fair-queued per user; goes to Kafka once the agent has a free credit
+        enrichmentDispatcher.submit(request);
+    }
+
+    /**
+     * Start a new dispatch generation on the thought and build its agent request, leaving the thought PROCESSING.
+     * Returns null if an identical cached result was merged into the thought instead (left unsaved, to be
+     * completed by the caller). The caller saves the thought and sets the request's version before submitting it.
+     */
+    private ThoughtRequestMessage prepareDispatch(ThoughtsToPost thought, String additionalInstructions,
+                                                  String imageRefinementInstructions, PlatformType targetPlatform,
+                                                  boolean skipCache) {
+        // Each dispatch starts a new generation; responses from earlier runs are fenced off
+        long generation = (thought.getGeneration() != null ? thought.getGeneration() : 0L) + 1;
+        thought.setGeneration(generation);
+        // Dispatching an imported thought by any route takes it off the import queue
+        thought.setQueuedForDispatchAt(null);
+        Duration budget = imageRefinementInstructions != null ? imageRefinementBudget : fullEnrichmentBudget;
+        thought.setDispatchDeadline(Instant.now().plus(budget));
+        Instant now = Instant.now();
+        thought.setLastDispatch(ThoughtsToPost.DispatchRecord.builder()
+                .additionalInstructions(additionalInstructions)
+                .imageRefinementInstructions(imageRefinementInstructions)
+                .targetPlatform(targetPlatform)
+                .lane(DispatchLane.forOperation(imageRefinementInstructions, targetPlatform))
+                .dispatchedAt(now)
+                .lastAttemptAt(now)
+                .queueHeartbeatAt(now)
+                .build());
+
+        ThoughtRequestMessage request = buildRequestMessage(thought);
+        Optional<String> cacheKey = skipCache ? Optional.empty() : enrichmentResultCache.keyFor(request);
+        if (cacheKey.isPresent()) {
+            Optional<List<ThoughtsToPost.EnrichedContent>> cached = enrichmentResultCache.lookup(cacheKey.get());
+            if (cached.isPresent()) {
+                mergeReusedResult(thought, cached.get(), "cache");
+                return null;
+            }
+            // Only results built from scratch are stored; a re-enrichment merges into earlier images
+            if (thought.getEnrichedContents().isEmpty()) {
+                thought.getLastDispatch().setCacheKey(cacheKey.get());
+            }
+        }
+
+        thought.setStatus(PostStatus.PROCESSING);
+        return request;
+    }
+
+    /**
+     * The past thought whose enrichment a new thought should reuse instead of running the agent: the one the user
+     * picked, or else the closest near-duplicate at or above {@code app.near-duplicate.auto-reuse-threshold}.
+     */
+    private ThoughtsToPost findReuseSource(ThoughtsToPost thought, CreateThoughtRequest request) {
+        if (request.getReuseThoughtId() != null) {
+            ThoughtsToPost source = thoughtsRepository.findByIdAndUserId(request.getReuseThoughtId(), thought.getUserId())
+                    .orElseThrow(() -> new RuntimeException("Thought not found: " + request.getReuseThoughtId()));
+            if (!canReuse(source, thought.getSelectedPlatforms())) {
+                throw new RuntimeException("Thought " + source.getId() + " has no enriched content to reuse for every selected platform.");
+            }
+            meterRegistry.counter("near.duplicate.reuse", "mode", "explicit").increment();
+            return source;
+        }
+
+        if (request.isSkipCache() || autoReuseThreshold <= 0) {
+            return null;
+        }
+        for (NearDuplicateIndex.Match match : nearDuplicateIndex.findSimilar(thought.getUserId(), thought.getOriginalThought(), 3, autoReuseThreshold)) {
+            Optional<ThoughtsToPost> source = thoughtsRepository.findByIdAndUserId(match.thoughtId(), thought.getUserId())
+                    .filter(candidate -> canReuse(candidate, thought.getSelectedPlatforms()));
+            if (source.isPresent()) {
+                log.info("Thought {} is a near-duplicate of {} (similarity {}); reusing its enrichment",
+                        thought.getId(), match.thoughtId(), match.similarity());
+                meterRegistry.counter("near.duplicate.reuse", "mode", "auto").increment();
+                return source.get();
+            }
+        }
+        return null;
+    }
+
+    private boolean canReuse(ThoughtsToPost source, List<PlatformType> platforms) {
+        if (!REUSABLE_STATUSES.contains(source.getStatus())) {
+            return false;
+        }
+        return platforms.stream().allMatch(platform -> source.getEnrichedContents().stream()
+                .anyMatch(content -> content.getPlatform() == platform && content.getBody() != null));
+    }
+
+    private List<ThoughtsToPost.EnrichedContent> reusableContents(ThoughtsToPost source, List<PlatformType> platforms) {
+        return source.getEnrichedContents().stream()
+                .filter(content -> platforms.contains(content.getPlatform()))
+                .map(EnrichmentResultCache::copyForReuse)
+                .collect(Collectors.toList());
     }
 
-    private void sendToAiAgent(ThoughtsToPost thought, String additionalInstructions, String imageRefinementInstructions, PlatformType targetPlatform) {
+    /**
+     * Complete a thought from stored results (the enrichment cache or a near-duplicate) without involving
+     * the agent, merging the same way an agent response would.
+     */
+    private void mergeReusedResult(ThoughtsToPost thought, List<ThoughtsToPost.EnrichedContent> reused, String source) {
+        log.info("Serving enrichment for thought {} from {}", thought.getId(), source);
+
+        for (ThoughtsToPost.EnrichedContent cachedContent : reused) {
+            ThoughtsToPost.EnrichedContent content = thought.getEnrichedContents().stream()
+                    .filter(existing -> existing.getPlatform() == cachedContent.getPlatform())
+                    .findFirst()
+                    .orElse(null);
+
+            if (content == null) {
+                thought.getEnrichedContents().add(cachedContent);
+                continue;
+            }
+
+            content.setTitle(cachedContent.getTitle());
+            content.setBody(cachedContent.getBody());
+            content.setHashtags(cachedContent.getHashtags());
+            content.setCallToAction(cachedContent.getCallToAction());
+            content.setCharacterCount(cachedContent.getCharacterCount());
+            content.setProgress(cachedContent.getProgress());
+            for (ThoughtsToPost.GeneratedImage image : cachedContent.getImages()) {
+                boolean exists = content.getImages().stream().anyMatch(i -> i.getId().equals(image.getId()));
+                if (!exists) {
+                    image.setSelected(content.getImages().isEmpty());
+                    content.getImages().add(image);
+                }
+            }
+        }
+
+        thought.setStatus(PostStatus.ENRICHED);
+        thought.setErrorMessage(null);
+    }
+
+    private void completeReusedResult(ThoughtUnitOfWork work, String source) {
+        work.record(ThoughtsToPostHistory.ActionType.STATUS_CHANGE, source);
+        eventPublisher.statusChanged(work.flush());
+    }
+
+    /**
+     * Build the agent request for the thought's current generation from its dispatch record.
+     */
+    private ThoughtRequestMessage buildRequestMessage(ThoughtsToPost thought) {
+        ThoughtsToPost.DispatchRecord dispatch = thought.getLastDispatch() != null
+                ? thought.getLastDispatch()
+                : ThoughtsToPost.DispatchRecord.builder().additionalInstructions(thought.getAdditionalInstructions()).build();
+
         String categoryId = thought.getCategoryId();
         ThoughtCategory category = null;
         if (categoryId != null) {
@@ -414,7 +1191,7 @@ public class ThoughtsService {
         Map<PlatformType, String> legacyPlatformPrompts = new HashMap<>();
 
         for (ThoughtsToPost.PlatformSelection selection : thought.getPlatformSelections()) {
-            if (targetPlatform != null && selection.getPlatform() != targetPlatform) {
+            if (dispatch.getTargetPlatform() != null && selection.getPlatform() != dispatch.getTargetPlatform()) {
                 continue;
             }
 
@@ -460,25 +1237,25 @@ public class ThoughtsService {
             legacyPlatformPrompts.put(selection.getPlatform(), promptText);
         }
 
-        ThoughtRequestMessage message = ThoughtRequestMessage.builder()
+        return ThoughtRequestMessage.builder()
                 .requestId(thought.getId())
                 .userId(thought.getUserId())
                 .originalThought(thought.getOriginalThought())
                 .platforms(configurations.stream().map(ThoughtRequestMessage.PlatformConfiguration::getPlatform).collect(Collectors.toList()))
-                .additionalInstructions(additionalInstructions)
-                .imageRefinementInstructions(imageRefinementInstructions)
-                .targetPlatform(targetPlatform)
+                .additionalInstructions(dispatch.getAdditionalInstructions())
+                .imageRefinementInstructions(dispatch.getImageRefinementInstructions())
+                .targetPlatform(dispatch.getTargetPlatform())
+                .lane(dispatch.getLane() != null ? dispatch.getLane()
+                        : DispatchLane.forOperation(dispatch.getImageRefinementInstructions(), dispatch.getTargetPlatform()))
                 .modelRole(category != null ? category.getModelRole() : null)
                 .searchDescription(category != null ? category.getSearchDescription() : null)
                 .platformPrompts(legacyPlatformPrompts)
                 .platformConfigurations(configurations)
                 .version(thought.getVersion() != null ? thought.getVersion().intValue() : 1)
+                .generation(thought.getGeneration())
+                .deadline(thought.getDispatchDeadline())
                 .createdAt(LocalDateTime.now())
                 .build();
-
-        kafkaProducer.sendRequest(message);
-        thought.setStatus(PostStatus.PROCESSING);
-        thoughtsRepository.save(thought);
     }
 
     private void createHistoryEntry(ThoughtsToPost thought, ThoughtsToPostHistory.ActionType actionType, String performedBy) {
@@ -4,6 +4,8 @@ import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.ThoughtsToPost;
 import com.carlev.thoughtstopost.model.UserAccount;
 import com.carlev.thoughtstopost.repository.UserAccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,12 +15,14 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * LinkedIn API integration service.
@@ -45,6 +49,7 @@ public class LinkedInService {
 
     private final WebClient.Builder webClientBuilder;
     private final UserAccountRepository userAccountRepository;
+    private final MeterRegistry meterRegistry;
 
     // LinkedIn API base URL
     private static final String LINKEDIN_API_URL = "https://api.linkedin.com/v2";
@@ -132,13 +137,13 @@ public class LinkedInService {
         formData.add("client_secret", clientSecret);
         formData.add("redirect_uri", redirectUri);
 
-        return client.post()
+        return timed("access-token", () -> client.post()
                 .uri("/oauth/v2/accessToken")
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .body(BodyInserters.fromFormData(formData))
                 .retrieve()
                 .bodyToMono(Map.class)
-                .block();
+                .block());
     }
 
     /**
@@ -148,12 +153,12 @@ public class LinkedInService {
     public Map<String, Object> getMemberInfo(String accessToken) {
         WebClient client = webClientBuilder.baseUrl(LINKEDIN_API_URL).build();
 
-        return client.get()
+        return timed("userinfo", () -> client.get()
                 .uri("/userinfo")
                 .header("Authorization", "Bearer " + accessToken)
                 .retrieve()
                 .bodyToMono(Map.class)
-                .block();
+                .block());
     }
 
     /**
@@ -283,14 +288,14 @@ public class LinkedInService {
                 .defaultHeader("Authorization", "Bearer " + accessToken)
                 .build();
 
-        return client.post()
+        return timed("ugc-posts", () -> client.post()
                 .uri("/ugcPosts")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(shareRequest)
                 .retrieve()
                 .bodyToMono(Map.class)
                 .map(response -> (String) response.get("id"))
-                .block();
+                .block());
     }
 
     /**
@@ -317,13 +322,13 @@ public class LinkedInService {
         registerRequest.put("registerUploadRequest", registerUploadRequest);
 
         // Make actual POST request to /assets?action=registerUpload
-        Map response = client.post()
+        Map response = timed("register-upload", () -> client.post()
                 .uri("/assets?action=registerUpload")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(registerRequest)
                 .retrieve()
                 .bodyToMono(Map.class)
-                .block();
+                .block());
 
         if (response == null) {
             throw new RuntimeException("Failed to register upload: response is null");
@@ -350,18 +355,43 @@ public class LinkedInService {
         // Create a new client for the upload URL (which might be different domain)
         WebClient client = webClientBuilder.build();
 
-        client.put()
+        timed("upload-image", () -> client.put()
                 .uri(uploadUrl)
                 .header("Authorization", "Bearer " + accessToken)
                 .contentType(MediaType.IMAGE_PNG) // Or detect type
                 .bodyValue(imageBytes)
                 .retrieve()
                 .toBodilessEntity()
-                .block();
+                .block());
 
         log.info("Image uploaded successfully to {}", uploadUrl);
     }
 
+    /**
+     * Time one LinkedIn API call. Tagged by a fixed endpoint name rather than the URI, since upload URLs are
+     * unique per image.
+     */
+    private <T> T timed(String endpoint, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.get();
+        } catch (WebClientResponseException e) {
+            outcome = e.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("linkedin.api.latency")
+                    .description("LinkedIn API call latency")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
     /**
      * Build the share request body for LinkedIn API.
      */
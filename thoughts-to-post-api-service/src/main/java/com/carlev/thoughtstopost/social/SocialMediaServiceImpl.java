@@ -4,8 +4,11 @@ import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.PostStatus;
 import com.carlev.thoughtstopost.model.ThoughtsToPost;
 import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.carlev.thoughtstopost.service.ThoughtMergeEngine;
+import com.carlev.thoughtstopost.service.ThoughtWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -22,6 +25,7 @@ public class SocialMediaServiceImpl implements SocialMediaService {
 
     private final LinkedInService linkedInService;
     private final ThoughtsToPostRepository thoughtsRepository;
+    private final ThoughtMergeEngine mergeEngine;
     // Future: FacebookService, InstagramService
 
     @Override
@@ -49,7 +53,7 @@ public class SocialMediaServiceImpl implements SocialMediaService {
                 // Update status to POSTING
                 content.setStatus(PostStatus.POSTING);
                 content.setLastRetryAt(LocalDateTime.now());
-                thoughtsRepository.save(thought);
+                save(thought);
 
                 String postId = postToPlatform(thought, platform);
 
@@ -73,13 +77,24 @@ public class SocialMediaServiceImpl implements SocialMediaService {
 
                 throw new RuntimeException("Failed to post to " + platform + ": " + e.getMessage(), e);
             } finally {
-                thoughtsRepository.save(thought);
+                save(thought);
             }
         }
 
         return results;
     }
 
+    /**
+     * Save the posting state, merging it with a concurrent write to the thought rather than failing the post.
+     */
+    private void save(ThoughtsToPost thought) {
+        try {
+            thoughtsRepository.save(thought);
+        } catch (OptimisticLockingFailureException e) {
+            mergeEngine.merge(thought, ThoughtWriter.POSTER, e);
+        }
+    }
+
     @Override
     public String postToPlatform(ThoughtsToPost thought, PlatformType platform) {
         return switch (platform) {
@@ -0,0 +1,154 @@
+package com.carlev.thoughtstopost.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deserializing messages with three timestamps each, as on the consumer hot path: the single-pass parser against
+ * the formatter chain it replaced, by timestamp form. Reports throughput and heap allocated per message; the
+ * replaced chain is reproduced without its per-record WARN logging, so its numbers are a lower bound.
+ * Also runs the fuzz suite at scale.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark -Dbenchmark.timestamp-messages=200000
+ * -Dbenchmark.fuzz-iterations=1000000}.
+ */
+@Tag("benchmark")
+public class LenientLocalDateTimeDeserializerBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private final ObjectMapper lenient = mapper(new LenientLocalDateTimeDeserializer(
+            new SimpleMeterRegistry().counter(LenientLocalDateTimeDeserializer.PARSE_FAILURES_METRIC)));
+    private final ObjectMapper formatterChain = mapper(new FormatterChainDeserializer());
+
+    @Test
+    void singlePassAgainstFormatterChain() throws Exception {
+        int messages = Integer.getInteger("benchmark.timestamp-messages", 200_000);
+        System.out.printf("%,d messages with 3 timestamps each%n", messages);
+        for (String[] form : new String[][]{
+                {"iso micros", "\"2026-02-28T07:01:48.123456\""},
+                {"millis", "\"2026-02-28T07:01:48.123\""},
+                {"space-separated", "\"2026-02-28 07:01:48\""},
+                {"array", "[2026, 2, 28, 7, 1, 48, 123000000]"},
+                {"invalid", "\"2026-02-30T10:00:00\""}}) {
+            List<String> documents = documents(messages, form[1]);
+            Result chain = measure(formatterChain, documents);
+            Result singlePass = measure(lenient, documents);
+            print(form[0] + " / formatter chain", chain, messages);
+            print(form[0] + " / single pass", singlePass, messages);
+            assertTrue(singlePass.allocatedBytes() <= chain.allocatedBytes());
+        }
+    }
+
+    @Test
+    void fuzzAtScale() {
+        LenientLocalDateTimeDeserializerTest.fuzz(Integer.getInteger("benchmark.fuzz-iterations", 1_000_000));
+    }
+
+    private static Result measure(ObjectMapper mapper, List<String> documents) throws IOException {
+        Result best = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocatedBefore = allocatedBytes();
+            long started = System.nanoTime();
+            for (String document : documents) {
+                mapper.readValue(document, Message.class);
+            }
+            Result result = new Result(allocatedBytes() - allocatedBefore, System.nanoTime() - started);
+            best = best == null || result.nanos() < best.nanos() ? result : best;
+        }
+        return best;
+    }
+
+    private static void print(String label, Result result, int messages) {
+        System.out.printf("  %-36s %,10.0f msg/s  allocated %,6d B/msg%n", label,
+                messages / (result.nanos() / 1e9), result.allocatedBytes() / messages);
+    }
+
+    private static List<String> documents(int messages, String timestamp) {
+        List<String> documents = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            documents.add("{\"requestId\": \"thought-" + i + "\", \"createdAt\": " + timestamp
+                    + ", \"processedAt\": " + timestamp + ", \"imageCreatedAt\": " + timestamp + "}");
+        }
+        return documents;
+    }
+
+    private static ObjectMapper mapper(JsonDeserializer<LocalDateTime> deserializer) {
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(LocalDateTime.class, deserializer);
+        return new ObjectMapper().registerModule(module);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    public static class Message {
+        public String requestId;
+        public LocalDateTime createdAt;
+        public LocalDateTime processedAt;
+        public LocalDateTime imageCreatedAt;
+    }
+
+    private record Result(long allocatedBytes, long nanos) {
+    }
+
+    /**
+     * The deserializer before the single-pass parser: up to four formatters tried in order, each miss throwing
+     * a DateTimeParseException, falling back to the current time.
+     */
+    private static class FormatterChainDeserializer extends JsonDeserializer<LocalDateTime> {
+
+        private static final DateTimeFormatter[] FORMATTERS = {
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"),
+                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        };
+
+        @Override
+        public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.START_ARRAY) {
+                // The replaced version read the array with nextIntValue; its skipped-token bug is left out here
+                int[] fields = new int[7];
+                int count = 0;
+                while (p.nextToken() == JsonToken.VALUE_NUMBER_INT) {
+                    if (count < fields.length) {
+                        fields[count++] = p.getIntValue();
+                    }
+                }
+                try {
+                    return LocalDateTime.of(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5],
+                            fields[6]);
+                } catch (RuntimeException e) {
+                    return LocalDateTime.now();
+                }
+            }
+            String text = p.getText();
+            for (DateTimeFormatter formatter : FORMATTERS) {
+                try {
+                    return LocalDateTime.parse(text, formatter);
+                } catch (DateTimeParseException e) {
+                    // Try next formatter
+                }
+            }
+            return LocalDateTime.now();
+        }
+    }
+}
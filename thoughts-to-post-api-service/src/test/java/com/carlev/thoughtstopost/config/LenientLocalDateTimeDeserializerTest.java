@@ -0,0 +1,178 @@
+package com.carlev.thoughtstopost.config;
+
+import com.carlev.thoughtstopost.kafka.ThoughtResponseMessage;
+import com.carlev.thoughtstopost.kafka.WireFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LenientLocalDateTimeDeserializerTest {
+
+    private static final String ALPHABET = "0123456789-T :.Z+";
+    private static final String[] SEEDS = {
+            "2026-02-28T07:01:48.123456",
+            "2024-02-29T23:59:59",
+            "2023-02-29T00:00",
+            "2026-12-31T23:59:59.999999999",
+            "2026-01-01T00:00:00."
+    };
+
+    private ObjectMapper objectMapper;
+    private Counter failures;
+
+    static class Holder {
+        private LocalDateTime at;
+        private String extra;
+
+        public LocalDateTime getAt() {
+            return at;
+        }
+
+        public void setAt(LocalDateTime at) {
+            this.at = at;
+        }
+
+        public String getExtra() {
+            return extra;
+        }
+
+        public void setExtra(String extra) {
+            this.extra = extra;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        failures = new SimpleMeterRegistry().counter(LenientLocalDateTimeDeserializer.PARSE_FAILURES_METRIC);
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(LocalDateTime.class, new LenientLocalDateTimeDeserializer(failures));
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(module);
+    }
+
+    @Test
+    void parsesSupportedStringForms() throws Exception {
+        assertEquals(LocalDateTime.of(2026, 2, 28, 7, 1, 48, 123_456_000), read("\"2026-02-28T07:01:48.123456\""));
+        assertEquals(LocalDateTime.of(2026, 2, 28, 7, 1, 48, 123_000_000), read("\"2026-02-28T07:01:48.123\""));
+        assertEquals(LocalDateTime.of(2026, 2, 28, 7, 1, 48), read("\"2026-02-28T07:01:48\""));
+        assertEquals(LocalDateTime.of(2026, 2, 28, 7, 1), read("\"2026-02-28T07:01\""));
+        assertEquals(LocalDateTime.of(2026, 2, 28, 7, 1, 48), read("\"2026-02-28 07:01:48\""));
+        assertEquals(0, failures.count());
+    }
+
+    @Test
+    void parsesArrayForm() throws Exception {
+        assertEquals(LocalDateTime.of(2026, 2, 28, 7, 1, 48, 5), read("[2026, 2, 28, 7, 1, 48, 5]"));
+        assertEquals(LocalDateTime.of(2026, 2, 28, 7, 1), read("[2026, 2, 28, 7, 1]"));
+        assertEquals(0, failures.count());
+    }
+
+    @Test
+    void invalidValuesBecomeNullAndAreCounted() throws Exception {
+        assertNull(read("\"not a date\""));
+        assertNull(read("\"2026-02-30T10:00:00\""));
+        assertNull(read("[2026, 13, 1]"));
+        assertNull(read("[2026, \"x\", 1, [1, 2], {\"a\": 1}]"));
+        assertNull(read("1772262108000"));
+        assertEquals(5, failures.count());
+    }
+
+    @Test
+    void arrayFormLeavesParserOnNextField() throws Exception {
+        Holder holder = objectMapper.readValue("{\"at\": [2026, \"bad\", [1], 3], \"extra\": \"next\"}",
+                Holder.class);
+        assertNull(holder.getAt());
+        assertEquals("next", holder.getExtra());
+    }
+
+    @Test
+    void orNowFields_KeepCurrentTimeFallback() throws Exception {
+        ObjectMapper mapper = new KafkaConfig().kafkaWireFormatMappers().get(WireFormat.JSON);
+        LocalDateTime before = LocalDateTime.now();
+
+        ThoughtResponseMessage message = mapper.readValue("""
+                {"request_id": "thought-1", "status": "completed", "processed_at": "yesterday",
+                 "enriched_contents": [{"platform": "linkedin",
+                   "images": [{"id": "img-1", "created_at": "2026-02-30T10:00:00"}]}]}
+                """, ThoughtResponseMessage.class);
+
+        assertFalse(message.getProcessedAt().isBefore(before));
+        assertFalse(message.getEnrichedContents().get(0).getImages().get(0).getCreatedAt().isBefore(before));
+    }
+
+    @Test
+    void orNowFields_StayNullWhenAbsent() throws Exception {
+        ObjectMapper mapper = new KafkaConfig().kafkaWireFormatMappers().get(WireFormat.JSON);
+
+        ThoughtResponseMessage message = mapper.readValue("{\"request_id\": \"thought-1\"}",
+                ThoughtResponseMessage.class);
+
+        assertNull(message.getProcessedAt());
+    }
+
+    @Test
+    void fuzz_MatchesIsoFormatterAndNeverThrows() {
+        fuzz(20_000);
+    }
+
+    /**
+     * Parse {@code iterations} mutated seeds and random strings, checking each against the JDK ISO formatter.
+     * Scaled up by {@link LenientLocalDateTimeDeserializerBenchmark}.
+     */
+    static void fuzz(int iterations) {
+        Random random = new Random(20260228L);
+        for (int n = 0; n < iterations; n++) {
+            String text = n % 2 == 0 ? mutate(SEEDS[random.nextInt(SEEDS.length)], random) : noise(random);
+
+            LocalDateTime parsed = assertDoesNotThrow(() -> LenientLocalDateTimeDeserializer.parse(text));
+
+            if (text.length() > 10 && text.charAt(10) == ' ') {
+                // Space-separated form has no JDK formatter with identical semantics; just require consistency
+                if (parsed != null) {
+                    assertEquals(parsed, LenientLocalDateTimeDeserializer.parse(text.replace(' ', 'T')), text);
+                }
+                continue;
+            }
+            LocalDateTime expected;
+            try {
+                expected = LocalDateTime.parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            } catch (DateTimeParseException e) {
+                expected = null;
+            }
+            assertEquals(expected, parsed, text);
+        }
+    }
+
+    private LocalDateTime read(String json) throws Exception {
+        return objectMapper.readValue("{\"at\": " + json + "}", Holder.class).getAt();
+    }
+
+    private static String mutate(String seed, Random random) {
+        char[] chars = seed.toCharArray();
+        int mutations = random.nextInt(3);
+        for (int i = 0; i < mutations; i++) {
+            chars[random.nextInt(chars.length)] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        String text = new String(chars);
+        return random.nextInt(5) == 0 ? text.substring(0, random.nextInt(text.length() + 1)) : text;
+    }
+
+    private static String noise(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(32);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.carlev.thoughtstopost.config;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThoughtTransitionMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ThoughtTransitionMetrics metrics = new ThoughtTransitionMetrics(meterRegistry);
+
+    @Test
+    void newThought_IsStampedWithoutRecording() {
+        // Arrange
+        ThoughtsToPost thought = thought(PostStatus.PENDING);
+
+        // Act
+        save(thought);
+
+        // Assert
+        assertEquals(PostStatus.PENDING, thought.getTimedStatus());
+        assertNotNull(thought.getStatusEnteredAt());
+        assertTrue(meterRegistry.find("thoughts.status.transition").timers().isEmpty());
+    }
+
+    @Test
+    void statusChange_RecordsTimeInPreviousStatusPerPlatform() {
+        // Arrange
+        ThoughtsToPost thought = thought(PostStatus.ENRICHED);
+        thought.setTimedStatus(PostStatus.PROCESSING);
+        thought.setStatusEnteredAt(Instant.now().minusSeconds(30));
+
+        // Act
+        save(thought);
+
+        // Assert
+        for (String platform : List.of("linkedin", "facebook")) {
+            Timer timer = meterRegistry.get("thoughts.status.transition")
+                    .tag("from", "processing").tag("to", "enriched").tag("platform", platform).timer();
+            assertEquals(1, timer.count());
+            assertTrue(timer.totalTime(TimeUnit.SECONDS) >= 30);
+        }
+        assertEquals(PostStatus.ENRICHED, thought.getTimedStatus());
+        assertNull(thought.getPendingTransition());
+    }
+
+    @Test
+    void unchangedStatus_IsNotRecorded() {
+        // Arrange
+        ThoughtsToPost thought = thought(PostStatus.PROCESSING);
+        Instant entered = Instant.now().minusSeconds(30);
+        thought.setTimedStatus(PostStatus.PROCESSING);
+        thought.setStatusEnteredAt(entered);
+
+        // Act
+        save(thought);
+
+        // Assert
+        assertEquals(entered, thought.getStatusEnteredAt());
+        assertTrue(meterRegistry.find("thoughts.status.transition").timers().isEmpty());
+    }
+
+    @Test
+    void failedSave_IsRecordedOnceByTheRetry() {
+        // Arrange
+        ThoughtsToPost thought = thought(PostStatus.POSTED);
+        Instant entered = Instant.now().minusSeconds(30);
+        thought.setTimedStatus(PostStatus.POSTING);
+        thought.setStatusEnteredAt(entered);
+        metrics.onBeforeConvert(new BeforeConvertEvent<>(thought, "thoughts_to_post"));
+
+        // Act: the write conflicted; the merge takes the stamp back from the stored thought and saves again
+        thought.setTimedStatus(PostStatus.POSTING);
+        thought.setStatusEnteredAt(entered);
+        save(thought);
+
+        // Assert
+        assertEquals(1, meterRegistry.get("thoughts.status.transition")
+                .tag("from", "posting").tag("to", "posted").tag("platform", "linkedin").timer().count());
+    }
+
+    @Test
+    void bulkWrite_IsRecordedOnlyWhenPublishedAgainAfterTheWrite() {
+        // Arrange
+        ThoughtsToPost thought = thought(PostStatus.APPROVED);
+        thought.setTimedStatus(PostStatus.ENRICHED);
+        thought.setStatusEnteredAt(Instant.now().minusSeconds(30));
+        thought.setBulkWrite(true);
+
+        // Act: the bulkWrite's own event, then the repository's once the item is known to be written
+        save(thought);
+        boolean recordedBeforeConfirmation = !meterRegistry.find("thoughts.status.transition").timers().isEmpty();
+        thought.setBulkWrite(false);
+        metrics.onAfterSave(new AfterSaveEvent<>(thought, null, "thoughts_to_post"));
+
+        // Assert
+        assertFalse(recordedBeforeConfirmation);
+        assertEquals(1, meterRegistry.get("thoughts.status.transition")
+                .tag("from", "enriched").tag("to", "approved").tag("platform", "linkedin").timer().count());
+    }
+
+    private void save(ThoughtsToPost thought) {
+        metrics.onBeforeConvert(new BeforeConvertEvent<>(thought, "thoughts_to_post"));
+        metrics.onAfterSave(new AfterSaveEvent<>(thought, null, "thoughts_to_post"));
+    }
+
+    private static ThoughtsToPost thought(PostStatus status) {
+        return ThoughtsToPost.builder()
+                .id("thought-1")
+                .status(status)
+                .selectedPlatforms(new ArrayList<>(List.of(PlatformType.LINKEDIN, PlatformType.FACEBOOK)))
+                .build();
+    }
+}
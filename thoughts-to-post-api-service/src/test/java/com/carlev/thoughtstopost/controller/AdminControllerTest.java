@@ -1,5 +1,6 @@
 package com.carlev.thoughtstopost.controller;
 
+import com.carlev.thoughtstopost.dto.DispatchQueueStatus;
 import com.carlev.thoughtstopost.model.PlatformPrompt;
 import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.ThoughtCategory;
@@ -7,6 +8,8 @@ import com.carlev.thoughtstopost.repository.PlatformPromptRepository;
 import com.carlev.thoughtstopost.repository.ThoughtCategoryRepository;
 import com.carlev.thoughtstopost.repository.UserAccountRepository;
 import com.carlev.thoughtstopost.security.JwtService;
+import com.carlev.thoughtstopost.service.EnrichmentDispatcher;
+import com.carlev.thoughtstopost.service.IdempotencyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +21,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -38,6 +42,12 @@ public class AdminControllerTest {
     @MockBean
     private PlatformPromptRepository platformPromptRepository;
 
+    @MockBean
+    private EnrichmentDispatcher enrichmentDispatcher;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
     @MockBean
     private JwtService jwtService;
 
@@ -85,4 +95,16 @@ public class AdminControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].platform").value("LINKEDIN"));
     }
+
+    @Test
+    @WithMockUser
+    void getDispatchQueue_ShouldReturnDepthPerUser() throws Exception {
+        when(enrichmentDispatcher.status()).thenReturn(DispatchQueueStatus.builder()
+                .capacity(4).inFlight(4).queued(3).queuedByUser(Map.of("user-1", 3)).build());
+
+        mockMvc.perform(get("/api/admin/dispatch-queue"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inFlight").value(4))
+                .andExpect(jsonPath("$.queuedByUser['user-1']").value(3));
+    }
 }
@@ -5,6 +5,7 @@ import com.carlev.thoughtstopost.dto.RegisterRequest;
 import com.carlev.thoughtstopost.model.UserAccount;
 import com.carlev.thoughtstopost.repository.UserAccountRepository;
 import com.carlev.thoughtstopost.security.JwtService;
+import com.carlev.thoughtstopost.service.IdempotencyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +40,9 @@ public class AuthControllerTest {
     @MockBean
     private UserAccountRepository userAccountRepository;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
     @MockBean
     private PasswordEncoder passwordEncoder;
 
@@ -0,0 +1,78 @@
+package com.carlev.thoughtstopost.controller;
+
+import com.carlev.thoughtstopost.config.SecurityConfig;
+import com.carlev.thoughtstopost.repository.UserAccountRepository;
+import com.carlev.thoughtstopost.security.JwtService;
+import com.carlev.thoughtstopost.service.DeadLetterService;
+import com.carlev.thoughtstopost.service.IdempotencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DeadLetterController.class)
+@Import(SecurityConfig.class)
+public class DeadLetterControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DeadLetterService deadLetterService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private UserAccountRepository userAccountRepository;
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void browse_AsRegularUser_IsForbidden() throws Exception {
+        mockMvc.perform(get("/api/admin/dead-letters"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(deadLetterService);
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void startReplay_AsRegularUser_IsForbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/dead-letters/replay")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requestId\":\"someone-elses-thought\"}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(deadLetterService);
+    }
+
+    @Test
+    @WithMockUser(username = "ops", roles = "ADMIN")
+    void browse_AsAdmin_ListsDeadLetters() throws Exception {
+        when(deadLetterService.browse(any(), anyInt())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/admin/dead-letters"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,119 @@
+package com.carlev.thoughtstopost.controller;
+
+import com.carlev.thoughtstopost.repository.UserAccountRepository;
+import com.carlev.thoughtstopost.security.JwtService;
+import com.carlev.thoughtstopost.service.IdempotencyService;
+import com.carlev.thoughtstopost.service.ThoughtExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ThoughtExportController.class)
+public class ThoughtExportControllerTest {
+
+    /**
+     * Tomcat's default async request timeout, which the export must outlast.
+     */
+    private static final Duration SERVLET_DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String SUMMARY = "{\"type\":\"summary\",\"thoughts\":0,\"history\":0}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ThoughtExportService exportService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private UserAccountRepository userAccountRepository;
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void exportThoughts_AcceptsGzip_StreamsCompressedExport() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write(SUMMARY.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).export(eq("user-1"), eq(true), eq(false), any());
+
+        MvcResult result = mockMvc.perform(get("/api/thoughts/export").param("includeHistory", "true")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(SUMMARY, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void exportThoughts_WithoutAcceptEncoding_StreamsPlainExport() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write(SUMMARY.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).export(eq("user-1"), eq(false), eq(false), any());
+
+        MvcResult result = mockMvc.perform(get("/api/thoughts/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(SUMMARY));
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void exportThoughts_RunningPastTheServletDefaultTimeout_CompletesTheStream() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(SERVLET_DEFAULT_TIMEOUT.plusSeconds(1).toMillis());
+            invocation.<OutputStream>getArgument(3).write(SUMMARY.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportService).export(eq("user-1"), eq(false), eq(false), any());
+
+        MvcResult result = mockMvc.perform(get("/api/thoughts/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertTrue(result.getRequest().getAsyncContext().getTimeout() > SERVLET_DEFAULT_TIMEOUT.toMillis());
+        // asyncDispatch waits up to the request's async timeout, so this fails if the stream is cut off
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(SUMMARY));
+    }
+}
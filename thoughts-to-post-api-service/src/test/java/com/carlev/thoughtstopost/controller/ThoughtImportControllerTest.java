@@ -0,0 +1,80 @@
+package com.carlev.thoughtstopost.controller;
+
+import com.carlev.thoughtstopost.repository.UserAccountRepository;
+import com.carlev.thoughtstopost.security.JwtService;
+import com.carlev.thoughtstopost.service.IdempotencyService;
+import com.carlev.thoughtstopost.service.ThoughtImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ThoughtImportController.class)
+public class ThoughtImportControllerTest {
+
+    /**
+     * Tomcat's default async request timeout, which the import must outlast.
+     */
+    private static final Duration SERVLET_DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String RESULT = "{\"line\":1,\"status\":\"CREATED\"}\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ThoughtImportService importService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private UserAccountRepository userAccountRepository;
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void importThoughts_RunningPastTheServletDefaultTimeout_CompletesTheStream() throws Exception {
+        doAnswer(invocation -> {
+            Thread.sleep(SERVLET_DEFAULT_TIMEOUT.plusSeconds(1).toMillis());
+            invocation.<OutputStream>getArgument(3).write(RESULT.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(importService).importThoughts(any(), eq(ThoughtImportService.Format.NDJSON), eq("user-1"), any());
+
+        MvcResult result = mockMvc.perform(post("/api/thoughts/import")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"originalThought\":\"Imported\"}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertTrue(result.getRequest().getAsyncContext().getTimeout() > SERVLET_DEFAULT_TIMEOUT.toMillis());
+        // asyncDispatch waits up to the request's async timeout, so this fails if the stream is cut off
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(RESULT));
+    }
+}
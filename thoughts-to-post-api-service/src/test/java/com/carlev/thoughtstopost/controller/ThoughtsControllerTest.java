@@ -0,0 +1,173 @@
+package com.carlev.thoughtstopost.controller;
+
+import com.carlev.thoughtstopost.dto.ThoughtField;
+import com.carlev.thoughtstopost.dto.ThoughtResponse;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.repository.UserAccountRepository;
+import com.carlev.thoughtstopost.security.JwtService;
+import com.carlev.thoughtstopost.service.IdempotencyService;
+import com.carlev.thoughtstopost.service.ThoughtEventBroadcaster;
+import com.carlev.thoughtstopost.service.ThoughtsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ThoughtsController.class)
+public class ThoughtsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ThoughtsService thoughtsService;
+
+    @MockBean
+    private ThoughtEventBroadcaster eventBroadcaster;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private UserAccountRepository userAccountRepository;
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void getThought_ReturnsStrongETagFromIdAndVersion() throws Exception {
+        when(thoughtsService.getThought("thought-1", "user-1")).thenReturn(thought("thought-1", 3L));
+
+        mockMvc.perform(get("/api/thoughts/thought-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"thought-1-3\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andExpect(jsonPath("$.id").value("thought-1"));
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void getThought_MatchingIfNoneMatch_Returns304WithoutLoadingDocument() throws Exception {
+        when(thoughtsService.getThoughtETag("thought-1", "user-1")).thenReturn("\"thought-1-3\"");
+
+        mockMvc.perform(get("/api/thoughts/thought-1").header("If-None-Match", "\"thought-1-2\", \"thought-1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"thought-1-3\""))
+                .andExpect(content().string(""));
+
+        verify(thoughtsService, never()).getThought(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void getThought_StaleIfNoneMatch_ReturnsFullBody() throws Exception {
+        when(thoughtsService.getThoughtETag("thought-1", "user-1")).thenReturn("\"thought-1-4\"");
+        when(thoughtsService.getThought("thought-1", "user-1")).thenReturn(thought("thought-1", 4L));
+
+        mockMvc.perform(get("/api/thoughts/thought-1").header("If-None-Match", "\"thought-1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"thought-1-4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void getUserThoughts_MatchingListETag_Returns304WithoutLoadingList() throws Exception {
+        when(thoughtsService.getUserThoughtsETag("user-1", PostStatus.ENRICHED, null, null)).thenReturn("W/\"2-18f\"");
+
+        mockMvc.perform(get("/api/thoughts").param("status", "ENRICHED").header("If-None-Match", "W/\"2-18f\""))
+                .andExpect(status().isNotModified());
+
+        verify(thoughtsService, never()).getUserThoughtsByStatus(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void getUserThoughts_ChangedList_ReturnsBodyAndListETag() throws Exception {
+        when(thoughtsService.getUserThoughtsETag("user-1", null, null, null)).thenReturn("W/\"3-190\"");
+        when(thoughtsService.getUserThoughts("user-1")).thenReturn(List.of(thought("thought-1", 1L)));
+
+        mockMvc.perform(get("/api/thoughts").header("If-None-Match", "W/\"2-18f\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"3-190\""))
+                .andExpect(jsonPath("$[0].id").value("thought-1"));
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void getThoughtFields_WritesOnlyRequestedFieldsWithThoughtETag() throws Exception {
+        when(thoughtsService.getThoughtETag("thought-1", "user-1")).thenReturn("\"thought-1-3\"");
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write("{\"id\":\"thought-1\",\"status\":\"ENRICHED\"}"
+                    .getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(thoughtsService).writeThoughtFields(eq("thought-1"), eq("user-1"),
+                eq(EnumSet.of(ThoughtField.ID, ThoughtField.STATUS)), any());
+
+        mockMvc.perform(get("/api/thoughts/thought-1").param("fields", "status,id"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"thought-1-3\""))
+                .andExpect(content().json("{\"id\":\"thought-1\",\"status\":\"ENRICHED\"}", true));
+
+        verify(thoughtsService, never()).getThought(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void getThoughtFields_UnknownField_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/thoughts/thought-1").param("fields", "id,base64Data"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(thoughtsService);
+    }
+
+    @Test
+    @WithMockUser(username = "user-1")
+    void getUserThoughtsFields_StreamsRequestedFieldsForFilter() throws Exception {
+        when(thoughtsService.getUserThoughtsETag("user-1", null, PostStatus.POSTED, null)).thenReturn("W/\"3-190\"");
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(5).write("[{\"id\":\"thought-1\"}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(thoughtsService).writeUserThoughtsFields(eq("user-1"), eq(null), eq(PostStatus.POSTED), eq(null),
+                eq(EnumSet.of(ThoughtField.ID)), any());
+
+        MvcResult result = mockMvc.perform(get("/api/thoughts").param("fields", "id").param("notStatus", "POSTED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"3-190\""))
+                .andExpect(content().json("[{\"id\":\"thought-1\"}]", true));
+        verify(thoughtsService, never()).getUserThoughtsByStatusNot(any(), any());
+    }
+
+    private static ThoughtResponse thought(String id, Long version) {
+        return ThoughtResponse.builder()
+                .id(id)
+                .userId("user-1")
+                .status(PostStatus.ENRICHED)
+                .version(version)
+                .build();
+    }
+}
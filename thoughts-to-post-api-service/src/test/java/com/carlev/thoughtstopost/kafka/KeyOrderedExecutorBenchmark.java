@@ -0,0 +1,69 @@
+package com.carlev.thoughtstopost.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Agent-response throughput by concurrency. Each record stands in for handleAgentResponse: a few milliseconds
+ * waiting on Mongo, on records spread over many request IDs as in a bulk enrichment. Concurrency 1 is the former
+ * single consumer thread. Excluded from {@code test}; run with
+ * {@code ./gradlew benchmark -Dbenchmark.response-records=20000 -Dbenchmark.response-keys=500}.
+ */
+@Tag("benchmark")
+public class KeyOrderedExecutorBenchmark {
+
+    private static final long MONGO_MILLIS = 4;
+
+    @Test
+    void throughputByConcurrency() throws Exception {
+        int records = Integer.getInteger("benchmark.response-records", 5_000);
+        int keys = Integer.getInteger("benchmark.response-keys", 500);
+
+        System.out.printf("%,d responses over %,d request IDs, %d ms each%n", records, keys, MONGO_MILLIS);
+        double baseline = 0;
+        for (int concurrency : List.of(1, 2, 4, 8, 16, 32, 64)) {
+            KeyOrderedExecutor executor = new KeyOrderedExecutor(new SimpleMeterRegistry(), concurrency, 1_000);
+            AtomicLongArray lastSequence = new AtomicLongArray(keys);
+            CountDownLatch done = new CountDownLatch(records);
+            int[] outOfOrder = new int[1];
+
+            long started = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                int key = i % keys;
+                long sequence = i / keys;
+                executor.submit("request-" + key, () -> {
+                    try {
+                        Thread.sleep(MONGO_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    if (lastSequence.getAndSet(key, sequence + 1) != sequence) {
+                        synchronized (outOfOrder) {
+                            outOfOrder[0]++;
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.MINUTES));
+            double perSecond = records / ((System.nanoTime() - started) / 1e9);
+            executor.shutdown();
+
+            if (concurrency == 1) {
+                baseline = perSecond;
+            }
+            System.out.printf("  concurrency %2d: %,8.0f responses/s (%.1fx)%n", concurrency, perSecond,
+                    perSecond / baseline);
+            assertEquals(0, outOfOrder[0], "responses applied out of order");
+        }
+    }
+}
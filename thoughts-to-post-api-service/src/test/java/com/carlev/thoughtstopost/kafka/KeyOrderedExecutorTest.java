@@ -0,0 +1,115 @@
+package com.carlev.thoughtstopost.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyOrderedExecutorTest {
+
+    private KeyOrderedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_KeepsOrderPerKeyWhileKeysRunInParallel() throws Exception {
+        // Arrange
+        executor = new KeyOrderedExecutor(new SimpleMeterRegistry(), 8, 100);
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(40);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            for (String key : List.of("a", "b", "c", "d")) {
+                int sequence = i;
+                executor.submit(key, () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(5);
+                    seen.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+        }
+
+        // Assert
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        List<Integer> expected = List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        seen.values().forEach(sequence -> assertEquals(expected, sequence));
+        assertTrue(maxRunning.get() > 1, "keys never ran in parallel");
+        assertTrue(maxRunning.get() <= 4, "a key ran two records at once");
+    }
+
+    @Test
+    void submit_AfterFailure_RunsTheNextTaskForTheKey() throws Exception {
+        // Arrange
+        executor = new KeyOrderedExecutor(new SimpleMeterRegistry(), 2, 10);
+        CountDownLatch done = new CountDownLatch(1);
+
+        // Act
+        executor.submit("a", () -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.submit("a", done::countDown);
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submit_WhenFull_BlocksUntilARecordFinishes() throws Exception {
+        // Arrange
+        executor = new KeyOrderedExecutor(new SimpleMeterRegistry(), 2, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("a", () -> await(release));
+        executor.submit("b", () -> await(release));
+        CountDownLatch submitted = new CountDownLatch(1);
+
+        // Act
+        Thread.ofVirtual().start(() -> {
+            try {
+                executor.submit("c", () -> { });
+                submitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Assert
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(2, executor.pendingCount());
+        release.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
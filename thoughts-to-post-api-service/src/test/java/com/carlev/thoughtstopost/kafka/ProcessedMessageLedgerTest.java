@@ -0,0 +1,80 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.model.ProcessedMessage;
+import com.carlev.thoughtstopost.repository.ProcessedMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProcessedMessageLedgerTest {
+
+    @Mock
+    private ProcessedMessageRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProcessedMessageLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ledger = new ProcessedMessageLedger(repository, meterRegistry);
+    }
+
+    @Test
+    void unseenKey_IsConfirmedAgainstLedger() {
+        // A key this instance never saw may have been applied by another one before a rebalance
+        when(repository.existsById("thought-1:1:7")).thenReturn(true);
+
+        assertTrue(ledger.isDuplicate("thought-1:1:7"));
+        assertEquals(1.0, meterRegistry.get("agent.response.dedupe.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void newKey_IsCountedOnceAcrossRetries() {
+        String key = "thought-1:1:7";
+
+        // Two failed attempts, then the one that applies it
+        assertFalse(ledger.isDuplicate(key));
+        assertFalse(ledger.isDuplicate(key));
+        assertFalse(ledger.isDuplicate(key));
+        ledger.markProcessed(key);
+
+        verify(repository).save(any(ProcessedMessage.class));
+        assertEquals(1.0, meterRegistry.get("agent.response.dedupe").tag("result", "new").counter().count());
+        assertEquals(0.0, meterRegistry.get("agent.response.dedupe.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void processedKey_IsDuplicate() {
+        String key = "thought-1:1:7";
+        ledger.markProcessed(key);
+        when(repository.existsById(key)).thenReturn(true);
+
+        assertTrue(ledger.isDuplicate(key));
+        assertEquals(0.5, meterRegistry.get("agent.response.dedupe.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void keyFor_CombinesRequestGenerationAndSequence() {
+        ThoughtResponseMessage message = ThoughtResponseMessage.builder()
+                .requestId("thought-1").version(4).generation(3L).sequence(9L).build();
+
+        // The same response written twice by a producer retry lands at two offsets but shares one key
+        assertEquals("thought-1:3:9", ledger.keyFor(message, "responses", 2, 17L));
+        assertEquals(ledger.keyFor(message, "responses", 2, 17L), ledger.keyFor(message, "responses", 2, 18L));
+    }
+
+    @Test
+    void keyFor_WithoutSequence_FallsBackToPosition() {
+        ThoughtResponseMessage message = ThoughtResponseMessage.builder().requestId("thought-1").version(4).build();
+        assertEquals("thought-1:4:responses-2@17", ledger.keyFor(message, "responses", 2, 17L));
+    }
+}
@@ -0,0 +1,132 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.config.KafkaConfig;
+import com.carlev.thoughtstopost.model.PlatformType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Request producer throughput and send latency per {@link ProducerProfile} on an embedded broker. A burst sends
+ * every request without waiting, as a bulk import does; sequential waits for each ack, as a user waiting on one
+ * refinement does. Latency is from send() to the broker's ack. Excluded from {@code test}; run with
+ * {@code ./gradlew benchmark -Dbenchmark.producer-records=50000 -Dbenchmark.producer-sequential=1000}.
+ */
+@Tag("benchmark")
+@EmbeddedKafka(partitions = 3, topics = {
+        ProducerProfileBenchmark.BULK_TOPIC,
+        ProducerProfileBenchmark.INTERACTIVE_TOPIC})
+public class ProducerProfileBenchmark {
+
+    static final String BULK_TOPIC = "thoughts-post-request";
+    static final String INTERACTIVE_TOPIC = "thoughts-post-request-interactive";
+
+    private static final int KEYS = 500;
+    private static final int WARMUP = 200;
+
+    @Test
+    void throughputAndLatencyByProfile(EmbeddedKafkaBroker broker) throws Exception {
+        int records = Integer.getInteger("benchmark.producer-records", 20_000);
+        int sequential = Integer.getInteger("benchmark.producer-sequential", 500);
+
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(kafkaConfig, "requestTopic", BULK_TOPIC);
+        ReflectionTestUtils.setField(kafkaConfig, "interactiveRequestTopic", INTERACTIVE_TOPIC);
+        ReflectionTestUtils.setField(kafkaConfig, "requestWireFormat", "json");
+        Map<String, KafkaTemplate<String, ThoughtRequestMessage>> templates = Map.of(
+                "bulk", kafkaConfig.kafkaTemplate(),
+                "interactive", kafkaConfig.interactiveKafkaTemplate());
+
+        System.out.printf("%,d-record bursts and %,d sequential sends over %d request IDs%n",
+                records, sequential, KEYS);
+        System.out.printf("%-12s %-11s %12s %10s %10s%n", "profile", "workload", "records/s", "p50 ms", "p99 ms");
+        try {
+            for (String profile : List.of("bulk", "interactive")) {
+                KafkaTemplate<String, ThoughtRequestMessage> template = templates.get(profile);
+                String topic = profile.equals("bulk") ? BULK_TOPIC : INTERACTIVE_TOPIC;
+                burst(template, topic, WARMUP);
+
+                report(profile, "burst", burst(template, topic, records));
+                report(profile, "sequential", sequential(template, topic, sequential));
+            }
+        } finally {
+            templates.values().forEach(KafkaTemplate::destroy);
+        }
+    }
+
+    private static Result burst(KafkaTemplate<String, ThoughtRequestMessage> template, String topic, int records)
+            throws InterruptedException {
+        long[] latencies = new long[records];
+        CountDownLatch acked = new CountDownLatch(records);
+        AtomicInteger failures = new AtomicInteger();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            int index = i;
+            long sentAt = System.nanoTime();
+            template.send(topic, "thought-" + (i % KEYS), request(i)).whenComplete((result, ex) -> {
+                latencies[index] = System.nanoTime() - sentAt;
+                if (ex != null) {
+                    failures.incrementAndGet();
+                }
+                acked.countDown();
+            });
+        }
+        assertTrue(acked.await(2, TimeUnit.MINUTES), "Burst was not acknowledged in time");
+        long elapsed = System.nanoTime() - started;
+        assertEquals(0, failures.get());
+        return new Result(records, elapsed, latencies);
+    }
+
+    private static Result sequential(KafkaTemplate<String, ThoughtRequestMessage> template, String topic, int records)
+            throws Exception {
+        long[] latencies = new long[records];
+        long started = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            long sentAt = System.nanoTime();
+            template.send(topic, "thought-" + (i % KEYS), request(i)).get(30, TimeUnit.SECONDS);
+            latencies[i] = System.nanoTime() - sentAt;
+        }
+        return new Result(records, System.nanoTime() - started, latencies);
+    }
+
+    private static void report(String profile, String workload, Result result) {
+        long[] sorted = result.latencies().clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-12s %-11s %,12.0f %10.2f %10.2f%n", profile, workload,
+                result.records() / (result.elapsedNanos() / 1e9),
+                sorted[sorted.length / 2] / 1e6,
+                sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.99) - 1)] / 1e6);
+    }
+
+    // A typical multi-platform enrichment request, around 1.5 KB as JSON
+    private static ThoughtRequestMessage request(int i) {
+        return ThoughtRequestMessage.builder()
+                .requestId("thought-" + (i % KEYS))
+                .userId("user-" + (i % 50))
+                .originalThought("Draft " + i + ": " + "Smaller pull requests get reviewed sooner. ".repeat(20))
+                .platforms(List.of(PlatformType.LINKEDIN, PlatformType.values()[i % PlatformType.values().length]))
+                .additionalInstructions("Keep it practical and under 200 words.")
+                .modelRole("You are a senior engineer who writes concise, friendly posts.")
+                .searchDescription("engineering practices, code review, delivery")
+                .generation((long) i)
+                .build();
+    }
+
+    private record Result(int records, long elapsedNanos, long[] latencies) {
+    }
+}
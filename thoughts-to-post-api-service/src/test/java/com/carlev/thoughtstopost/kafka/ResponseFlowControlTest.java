@@ -0,0 +1,192 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.connection.ClusterDescription;
+import com.mongodb.event.ClusterDescriptionChangedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ResponseFlowControlTest {
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+    @Mock
+    private ObjectProvider<MongoTemplate> mongoTemplateProvider;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MessageListenerContainer responseContainer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ResponseFlowControl flowControl;
+
+    @BeforeEach
+    void setUp() {
+        flowControl = new ResponseFlowControl(listenerRegistry, mongoTemplateProvider, meterRegistry, Runnable::run);
+    }
+
+    @Test
+    void evaluate_SlowWindow_PausesListenersAndReportsIt() {
+        // Arrange
+        when(listenerRegistry.getListenerContainer(ResponseFlowControl.RESPONSE_LISTENER)).thenReturn(responseContainer);
+        window(10, 800, 0);
+
+        // Act
+        flowControl.evaluate();
+
+        // Assert
+        assertTrue(flowControl.isPaused());
+        verify(responseContainer).pause();
+        Health health = flowControl.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(true, health.getDetails().get("paused"));
+        assertEquals(800.0, health.getDetails().get("latencyMillis"));
+        assertEquals(1.0, meterRegistry.get("kafka.response.paused").gauge().value());
+    }
+
+    @Test
+    void evaluate_FailingCommands_Pause() {
+        // Arrange
+        window(10, 5, 3);
+
+        // Act
+        flowControl.evaluate();
+
+        // Assert
+        assertTrue(flowControl.isPaused());
+    }
+
+    @Test
+    void evaluate_FewCommands_DoNotPause() {
+        // Arrange
+        window(2, 2_000, 0);
+
+        // Act
+        flowControl.evaluate();
+
+        // Assert
+        assertFalse(flowControl.isPaused());
+    }
+
+    @Test
+    void evaluate_ResumesOnlyAfterConsecutiveHealthyWindows() {
+        // Arrange
+        when(listenerRegistry.getListenerContainer(ResponseFlowControl.RESPONSE_LISTENER)).thenReturn(responseContainer);
+        when(mongoTemplateProvider.getObject()).thenReturn(mongoTemplate);
+        window(10, 800, 0);
+        flowControl.evaluate();
+
+        // Act: better but above the resume latency, then four healthy windows, a relapse, and five healthy ones
+        window(10, 300, 0);
+        flowControl.evaluate();
+        for (int i = 0; i < 4; i++) {
+            window(10, 20, 0);
+            flowControl.evaluate();
+        }
+        window(10, 20, 1);
+        flowControl.evaluate();
+        boolean pausedBeforeRecovery = flowControl.isPaused();
+        for (int i = 0; i < 5; i++) {
+            window(10, 20, 0);
+            flowControl.evaluate();
+        }
+
+        // Assert
+        assertTrue(pausedBeforeRecovery);
+        assertFalse(flowControl.isPaused());
+        verify(responseContainer).resume();
+        verify(mongoTemplate, times(11)).executeCommand(any(Document.class));
+    }
+
+    @Test
+    void evaluate_ServerSelectionTimeout_PausesWithoutAnyCommandsUntilMongoAnswers() {
+        // Arrange
+        when(listenerRegistry.getListenerContainer(ResponseFlowControl.RESPONSE_LISTENER)).thenReturn(responseContainer);
+        when(mongoTemplateProvider.getObject()).thenReturn(mongoTemplate);
+        flowControl.recordFailure(new DataAccessResourceFailureException("Timed out",
+                new MongoTimeoutException("Timed out while waiting for a server")));
+
+        // Act: no commands at all, then the ping gets through and five healthy windows follow
+        flowControl.evaluate();
+        boolean pausedWithNoCommands = flowControl.isPaused();
+        for (int i = 0; i < 5; i++) {
+            window(10, 20, 0);
+            flowControl.evaluate();
+        }
+
+        // Assert
+        assertTrue(pausedWithNoCommands);
+        assertFalse(flowControl.isPaused());
+        verify(responseContainer).resume();
+    }
+
+    @Test
+    void clusterDescriptionChanged_LosingTheWritableServer_Pauses() {
+        // Arrange
+        ClusterDescriptionChangedEvent event = mock(ClusterDescriptionChangedEvent.class);
+        ClusterDescription before = mock(ClusterDescription.class);
+        ClusterDescription after = mock(ClusterDescription.class);
+        when(event.getPreviousDescription()).thenReturn(before);
+        when(event.getNewDescription()).thenReturn(after);
+        when(before.hasWritableServer()).thenReturn(true);
+        when(after.hasWritableServer()).thenReturn(false);
+
+        // Act
+        flowControl.clusterDescriptionChanged(event);
+        flowControl.evaluate();
+
+        // Assert
+        assertTrue(flowControl.isPaused());
+        assertEquals("Mongo unreachable: no writable server", flowControl.health().getDetails().get("reason"));
+    }
+
+    @Test
+    void commandSucceeded_OutsideTheResponsePath_IsNotEvaluated() {
+        // Arrange
+        CommandSucceededEvent slow = mock(CommandSucceededEvent.class);
+        when(slow.getElapsedTime(TimeUnit.NANOSECONDS)).thenReturn(TimeUnit.SECONDS.toNanos(2));
+
+        // Act: an export's slow commands, then the same on a thread applying responses
+        for (int i = 0; i < 10; i++) {
+            flowControl.commandSucceeded(slow);
+        }
+        flowControl.evaluate();
+        boolean pausedByExport = flowControl.isPaused();
+        try (ResponseFlowControl.Scope ignored = ResponseFlowControl.watchCommands()) {
+            for (int i = 0; i < 10; i++) {
+                flowControl.commandSucceeded(slow);
+            }
+        }
+        flowControl.evaluate();
+
+        // Assert
+        assertFalse(pausedByExport);
+        assertTrue(flowControl.isPaused());
+    }
+
+    private void window(int commands, long latencyMillis, int failed) {
+        for (int i = 0; i < commands; i++) {
+            flowControl.record(TimeUnit.MILLISECONDS.toNanos(latencyMillis), i < failed);
+        }
+    }
+}
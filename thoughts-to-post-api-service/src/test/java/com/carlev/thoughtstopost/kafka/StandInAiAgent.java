@@ -0,0 +1,149 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Java stand-in for the Python AI agent, used by Kafka integration tests.
+ * <p>
+ * Each request is simulated as a fixed number of timed steps per platform. CANCEL control messages are
+ * consumed on a separate thread and checked between steps, the same way the real agent checks between
+ * platforms. The time a cancelled job would still have run is accumulated as saved work.
+ */
+class StandInAiAgent implements AutoCloseable {
+
+    record Job(String requestId, long generation, boolean cancelled, long elapsedMillis, long plannedMillis) {
+    }
+
+    private final EmbeddedKafkaBroker broker;
+    private final Map<WireFormat, ObjectMapper> mappers;
+    private final String requestTopic;
+    private final String controlTopic;
+    private final int stepsPerPlatform;
+    private final long stepMillis;
+
+    private final Map<String, Long> cancelledGenerations = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> started = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Job> finished = new LinkedBlockingQueue<>();
+    private final AtomicLong savedMillis = new AtomicLong();
+    private final ExecutorService threads = Executors.newFixedThreadPool(2);
+    private volatile boolean running = true;
+
+    StandInAiAgent(EmbeddedKafkaBroker broker, Map<WireFormat, ObjectMapper> mappers,
+                   String requestTopic, String controlTopic, int stepsPerPlatform, long stepMillis) {
+        this.broker = broker;
+        this.mappers = mappers;
+        this.requestTopic = requestTopic;
+        this.controlTopic = controlTopic;
+        this.stepsPerPlatform = stepsPerPlatform;
+        this.stepMillis = stepMillis;
+    }
+
+    StandInAiAgent start() {
+        threads.submit(this::consumeControl);
+        threads.submit(this::consumeRequests);
+        return this;
+    }
+
+    /**
+     * Wait until a job has started and return its "requestId:generation" key.
+     */
+    String awaitStarted(Duration timeout) throws InterruptedException {
+        return started.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    Job awaitFinished(Duration timeout) throws InterruptedException {
+        return finished.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    Duration savedWork() {
+        return Duration.ofMillis(savedMillis.get());
+    }
+
+    private void consumeRequests() {
+        try (Consumer<String, ThoughtRequestMessage> consumer = consumer("stand-in-agent", ThoughtRequestMessage.class)) {
+            consumer.subscribe(List.of(requestTopic));
+            while (running) {
+                for (ConsumerRecord<String, ThoughtRequestMessage> record : consumer.poll(Duration.ofMillis(100))) {
+                    process(record.value());
+                }
+            }
+        }
+    }
+
+    private void consumeControl() {
+        try (Consumer<String, ThoughtControlMessage> consumer = consumer("stand-in-agent-control", ThoughtControlMessage.class)) {
+            consumer.subscribe(List.of(controlTopic));
+            while (running) {
+                for (ConsumerRecord<String, ThoughtControlMessage> record : consumer.poll(Duration.ofMillis(50))) {
+                    ThoughtControlMessage control = record.value();
+                    if (control.getType() == ThoughtControlMessage.ControlType.CANCEL) {
+                        cancelledGenerations.merge(control.getRequestId(), control.getGeneration(), Math::max);
+                    }
+                }
+            }
+        }
+    }
+
+    private void process(ThoughtRequestMessage request) {
+        long generation = request.getGeneration() != null ? request.getGeneration() : 0L;
+        int steps = stepsPerPlatform * Math.max(1, request.getPlatforms() != null ? request.getPlatforms().size() : 1);
+        long planned = steps * stepMillis;
+        long begin = System.nanoTime();
+        started.add(request.getRequestId() + ":" + generation);
+
+        for (int step = 0; step < steps; step++) {
+            if (isCancelled(request.getRequestId(), generation)) {
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+                savedMillis.addAndGet((steps - step) * stepMillis);
+                finished.add(new Job(request.getRequestId(), generation, true, elapsed, planned));
+                return;
+            }
+            sleep(stepMillis);
+        }
+        finished.add(new Job(request.getRequestId(), generation, false,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin), planned));
+    }
+
+    private boolean isCancelled(String requestId, long generation) {
+        Long cancelled = cancelledGenerations.get(requestId);
+        return cancelled != null && cancelled >= generation;
+    }
+
+    private <T> Consumer<String, T> consumer(String group, Class<T> type) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps(group, "true", broker);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new WireFormatDeserializer<>(type, mappers)).createConsumer();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        threads.shutdown();
+        threads.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,131 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.config.KafkaConfig;
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.PlatformPromptRepository;
+import com.carlev.thoughtstopost.repository.ThoughtCategoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.carlev.thoughtstopost.service.EnrichmentDispatcher;
+import com.carlev.thoughtstopost.service.EnrichmentResultCache;
+import com.carlev.thoughtstopost.service.InMemoryDispatchLeaseStore;
+import com.carlev.thoughtstopost.service.NearDuplicateIndex;
+import com.carlev.thoughtstopost.service.SparseThoughtWriter;
+import com.carlev.thoughtstopost.service.ThoughtMergeEngine;
+import com.carlev.thoughtstopost.service.ThoughtsService;
+import com.carlev.thoughtstopost.social.SocialMediaService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-to-end check of the cancellation contract against an embedded broker:
+ * ThoughtsService publishes requests and CANCEL control messages, and {@link StandInAiAgent} plays the agent.
+ */
+@EmbeddedKafka(partitions = 1, topics = {
+        ThoughtCancellationIntegrationTest.REQUEST_TOPIC,
+        ThoughtCancellationIntegrationTest.CONTROL_TOPIC})
+public class ThoughtCancellationIntegrationTest {
+
+    static final String REQUEST_TOPIC = "thoughts-post-request";
+    static final String INTERACTIVE_REQUEST_TOPIC = "thoughts-post-request-interactive";
+    static final String CONTROL_TOPIC = "thoughts-to-post-control";
+
+    private static final int STEPS_PER_PLATFORM = 10;
+    private static final long STEP_MILLIS = 300;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void reenrichWhileProcessing_CancelsSupersededJobInAgent(EmbeddedKafkaBroker broker) throws Exception {
+        // Arrange
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapServers", broker.getBrokersAsString());
+        ReflectionTestUtils.setField(kafkaConfig, "requestTopic", REQUEST_TOPIC);
+        ReflectionTestUtils.setField(kafkaConfig, "interactiveRequestTopic", INTERACTIVE_REQUEST_TOPIC);
+        ReflectionTestUtils.setField(kafkaConfig, "requestWireFormat", "json");
+
+        KafkaTemplate<String, ThoughtRequestMessage> requestTemplate = kafkaConfig.kafkaTemplate();
+        KafkaTemplate<String, ThoughtControlMessage> controlTemplate = kafkaConfig.controlKafkaTemplate();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ThoughtsKafkaProducer producer = new ThoughtsKafkaProducer(requestTemplate, requestTemplate, controlTemplate,
+                meterRegistry);
+        ReflectionTestUtils.setField(producer, "requestTopic", REQUEST_TOPIC);
+        ReflectionTestUtils.setField(producer, "interactiveRequestTopic", INTERACTIVE_REQUEST_TOPIC);
+        ReflectionTestUtils.setField(producer, "controlTopic", CONTROL_TOPIC);
+
+        ThoughtsToPost thought = ThoughtsToPost.builder()
+                .id("thought-1")
+                .userId("user-1")
+                .originalThought("Cancel me")
+                .status(PostStatus.ENRICHED)
+                .platformSelections(new ArrayList<>(List.of(ThoughtsToPost.PlatformSelection.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .build())))
+                .build();
+
+        ThoughtsToPostRepository thoughtsRepository = mock(ThoughtsToPostRepository.class);
+        when(thoughtsRepository.findByIdAndUserId("thought-1", "user-1")).thenReturn(Optional.of(thought));
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        EnrichmentDispatcher dispatcher = new EnrichmentDispatcher(producer, new InMemoryDispatchLeaseStore(),
+                thoughtsRepository, meterRegistry, 1, 1, Duration.ofMinutes(30), Duration.ofMinutes(1));
+        dispatcher.ensureCapacity();
+        ThoughtsService thoughtsService = new ThoughtsService(thoughtsRepository,
+                mock(ThoughtsToPostHistoryRepository.class), producer, mock(SocialMediaService.class),
+                mock(ThoughtCategoryRepository.class), mock(PlatformPromptRepository.class), meterRegistry,
+                dispatcher,
+                mock(EnrichmentResultCache.class),
+                mock(NearDuplicateIndex.class), mock(ThoughtEventPublisher.class), mock(SparseThoughtWriter.class),
+                new ThoughtMergeEngine(thoughtsRepository, meterRegistry, 3));
+
+        try (StandInAiAgent agent = new StandInAiAgent(broker, kafkaConfig.kafkaWireFormatMappers(),
+                REQUEST_TOPIC, CONTROL_TOPIC, STEPS_PER_PLATFORM, STEP_MILLIS).start()) {
+
+            thoughtsService.reenrichThought("thought-1", "First pass", "user-1");
+            assertEquals("thought-1:1", agent.awaitStarted(TIMEOUT));
+
+            // Act
+            thoughtsService.reenrichThought("thought-1", "Second pass", "user-1");
+
+            // Assert
+            StandInAiAgent.Job superseded = agent.awaitFinished(TIMEOUT);
+            assertNotNull(superseded);
+            assertEquals(1L, superseded.generation());
+            assertTrue(superseded.cancelled(), "Generation 1 should be aborted by the CANCEL control message");
+            assertTrue(superseded.elapsedMillis() < superseded.plannedMillis());
+
+            assertEquals("thought-1:2", agent.awaitStarted(TIMEOUT));
+            StandInAiAgent.Job current = agent.awaitFinished(TIMEOUT);
+            assertNotNull(current);
+            assertEquals(2L, current.generation());
+            assertFalse(current.cancelled(), "The superseding dispatch must not be cancelled");
+
+            // Only generation 1 was cancelled, so the saved work is the rest of its plan: whole steps, at least
+            // everything it had not yet run when it stopped
+            long saved = agent.savedWork().toMillis();
+            assertTrue(saved > 0 && saved <= superseded.plannedMillis(), "saved " + saved + " ms");
+            assertEquals(0, saved % STEP_MILLIS);
+            assertTrue(saved >= superseded.plannedMillis() - superseded.elapsedMillis(),
+                    "saved " + saved + " ms after running " + superseded.elapsedMillis() + " ms");
+            assertEquals(1.0, meterRegistry.get("agent.dispatch.cancelled").counter().count());
+        } finally {
+            requestTemplate.destroy();
+            controlTemplate.destroy();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.service.ThoughtsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ThoughtsKafkaConsumerTest {
+
+    @Mock
+    private ThoughtsService thoughtsService;
+    @Mock
+    private ProcessedMessageLedger processedMessageLedger;
+    @Mock
+    private KeyOrderedExecutor responseExecutor;
+    @Mock
+    private ResponseFlowControl flowControl;
+    @Mock
+    private DeadLetterPublishingRecoverer deadLetterRecoverer;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    @InjectMocks
+    private ThoughtsKafkaConsumer consumer;
+
+    private final ThoughtResponseMessage message = ThoughtResponseMessage.builder()
+            .requestId("thought-1")
+            .status("completed")
+            .build();
+    private final ConsumerRecord<String, ThoughtResponseMessage> record =
+            new ConsumerRecord<>("responses", 0, 42L, "other-key", message);
+
+    @Test
+    void handleResponse_HandsRecordToExecutorKeyedByRequestId() throws Exception {
+        // Act
+        consumer.handleResponse(record, acknowledgment);
+
+        // Assert
+        verify(responseExecutor).submit(eq("thought-1"), any());
+        verifyNoInteractions(thoughtsService, acknowledgment);
+    }
+
+    @Test
+    void handleResponse_RecordsLagFromRecordTimestamp() throws Exception {
+        // Arrange
+        ConsumerRecord<String, ThoughtResponseMessage> produced = new ConsumerRecord<>("responses", 0, 42L,
+                System.currentTimeMillis() - 5_000, TimestampType.CREATE_TIME, -1, -1, "thought-1", message,
+                new RecordHeaders(), Optional.empty());
+
+        // Act
+        consumer.handleResponse(produced, acknowledgment);
+
+        // Assert
+        Timer lag = meterRegistry.get("kafka.consumer.record.lag").tag("topic", "responses").timer();
+        assertEquals(1, lag.count());
+        assertTrue(lag.totalTime(TimeUnit.MILLISECONDS) >= 5_000);
+    }
+
+    @Test
+    void handleResponse_NullMessage_IsLeftToTheErrorHandler() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> consumer.handleResponse(new ConsumerRecord<>("responses", 0, 42L, "key", null), acknowledgment));
+        verifyNoInteractions(responseExecutor);
+    }
+
+    @Test
+    void process_AppliesMarksAndAcknowledges() {
+        // Arrange
+        when(processedMessageLedger.keyFor(message, "responses", 0, 42L)).thenReturn("dedupe-1");
+
+        // Act
+        consumer.process(record, acknowledgment);
+
+        // Assert
+        var order = inOrder(thoughtsService, processedMessageLedger, acknowledgment);
+        order.verify(thoughtsService).handleAgentResponse(message);
+        order.verify(processedMessageLedger).markProcessed("dedupe-1");
+        order.verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void process_Duplicate_AcknowledgesWithoutApplying() {
+        // Arrange
+        when(processedMessageLedger.keyFor(message, "responses", 0, 42L)).thenReturn("dedupe-1");
+        when(processedMessageLedger.isDuplicate("dedupe-1")).thenReturn(true);
+
+        // Act
+        consumer.process(record, acknowledgment);
+
+        // Assert
+        verify(thoughtsService, never()).handleAgentResponse(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void process_FailingOnce_RetriesThenAcknowledges() {
+        // Arrange
+        when(processedMessageLedger.keyFor(message, "responses", 0, 42L)).thenReturn("dedupe-1");
+        doThrow(new RuntimeException("Mongo timeout")).doNothing().when(thoughtsService).handleAgentResponse(message);
+
+        // Act
+        consumer.process(record, acknowledgment);
+
+        // Assert
+        verify(thoughtsService, times(2)).handleAgentResponse(message);
+        verify(acknowledgment, times(1)).acknowledge();
+    }
+
+    @Test
+    void process_FailingWhileMongoIsDegraded_IsHeldNotSkipped() {
+        // Arrange
+        when(processedMessageLedger.keyFor(message, "responses", 0, 42L)).thenReturn("dedupe-1");
+        when(flowControl.isPaused()).thenReturn(true, true, true, true, false);
+        doThrow(new RuntimeException("Mongo timeout")).doThrow(new RuntimeException("Mongo timeout"))
+                .doThrow(new RuntimeException("Mongo timeout")).doThrow(new RuntimeException("Mongo timeout"))
+                .doNothing().when(thoughtsService).handleAgentResponse(message);
+
+        // Act
+        consumer.process(record, acknowledgment);
+
+        // Assert
+        verify(thoughtsService, times(5)).handleAgentResponse(message);
+        verify(processedMessageLedger).markProcessed("dedupe-1");
+        verify(acknowledgment, times(1)).acknowledge();
+    }
+
+    @Test
+    void process_FailingEveryAttempt_IsDeadLetteredThenAcknowledged() {
+        // Arrange
+        RuntimeException failure = new RuntimeException("Thought not found: thought-1");
+        when(processedMessageLedger.keyFor(message, "responses", 0, 42L)).thenReturn("dedupe-1");
+        doThrow(failure).when(thoughtsService).handleAgentResponse(message);
+
+        // Act
+        consumer.process(record, acknowledgment);
+
+        // Assert
+        verify(thoughtsService, times(4)).handleAgentResponse(message);
+        var order = inOrder(deadLetterRecoverer, acknowledgment);
+        order.verify(deadLetterRecoverer).accept(record, failure);
+        order.verify(acknowledgment).acknowledge();
+        verify(processedMessageLedger, never()).markProcessed(any());
+        assertEquals(1.0, meterRegistry.counter("kafka.response.dead.lettered", "topic", "responses").count());
+    }
+
+    @Test
+    void process_DeadLetterPublishFailing_LeavesRecordUnacknowledged() {
+        // Arrange
+        when(processedMessageLedger.keyFor(message, "responses", 0, 42L)).thenReturn("dedupe-1");
+        doThrow(new RuntimeException("Mongo timeout")).when(thoughtsService).handleAgentResponse(message);
+        doThrow(new RuntimeException("Broker unavailable")).when(deadLetterRecoverer).accept(eq(record), any());
+
+        // Act
+        consumer.process(record, acknowledgment);
+
+        // Assert
+        verify(acknowledgment, never()).acknowledge();
+    }
+}
@@ -0,0 +1,103 @@
+package com.carlev.thoughtstopost.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ThoughtsKafkaProducerTest {
+
+    @Mock
+    private KafkaTemplate<String, ThoughtRequestMessage> kafkaTemplate;
+    @Mock
+    private KafkaTemplate<String, ThoughtRequestMessage> interactiveKafkaTemplate;
+    @Mock
+    private KafkaTemplate<String, ThoughtControlMessage> controlKafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ThoughtsKafkaProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        producer = new ThoughtsKafkaProducer(kafkaTemplate, interactiveKafkaTemplate, controlKafkaTemplate,
+                meterRegistry);
+        ReflectionTestUtils.setField(producer, "requestTopic", "requests");
+        ReflectionTestUtils.setField(producer, "interactiveRequestTopic", "requests-interactive");
+    }
+
+    @Test
+    void sendRequest_BulkLane_UsesBatchingProducer() {
+        // Arrange
+        ThoughtRequestMessage message = ThoughtRequestMessage.builder().requestId("thought-1").build();
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+
+        // Act
+        producer.sendRequest(message);
+
+        // Assert
+        verify(kafkaTemplate).send("requests", "thought-1", message);
+        verifyNoInteractions(interactiveKafkaTemplate);
+    }
+
+    @Test
+    void sendRequest_InteractiveLane_UsesImmediateProducer() {
+        // Arrange
+        ThoughtRequestMessage message = ThoughtRequestMessage.builder()
+                .requestId("thought-1")
+                .lane(DispatchLane.INTERACTIVE)
+                .build();
+        when(interactiveKafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+
+        // Act
+        producer.sendRequest(message);
+
+        // Assert
+        verify(interactiveKafkaTemplate).send("requests-interactive", "thought-1", message);
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void sendRequest_RecordsSendLatencyWhenAcknowledged() {
+        // Arrange
+        ThoughtRequestMessage message = ThoughtRequestMessage.builder().requestId("thought-1").build();
+        CompletableFuture<SendResult<String, ThoughtRequestMessage>> sent = new CompletableFuture<>();
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(sent);
+
+        // Act
+        producer.sendRequest(message);
+        sent.completeExceptionally(new IllegalStateException("broker unavailable"));
+
+        // Assert
+        assertEquals(1, meterRegistry.get("kafka.producer.send")
+                .tag("lane", "bulk").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void producerProfile_RejectsInFlightAboveIdempotenceLimit() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new ProducerProfile(0, 16_384, "none", 6));
+    }
+
+    @Test
+    void producerProfile_RejectsCodecsTheAgentCannotDecode() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new ProducerProfile(20, 131_072, "lz4", 5));
+        assertThrows(IllegalArgumentException.class, () -> new ProducerProfile(20, 131_072, "snappy", 5));
+        assertTrue(ProducerProfile.AGENT_CODECS.contains(ProducerProfile.BULK.compressionType()));
+    }
+}
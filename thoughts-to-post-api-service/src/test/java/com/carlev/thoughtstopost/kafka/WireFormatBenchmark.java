@@ -0,0 +1,167 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.config.KafkaConfig;
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JSON against CBOR through WireFormatSerializer and WireFormatDeserializer: payload size, serialize and deserialize
+ * throughput and heap allocated per message, for a typical request, a typical text-only response and an image-heavy
+ * response (one image per platform).
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark -Dbenchmark.wire-messages=20000
+ * -Dbenchmark.image-bytes=262144}.
+ */
+@Tag("benchmark")
+public class WireFormatBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final String TOPIC = "benchmark";
+
+    private final Map<WireFormat, ObjectMapper> mappers = new KafkaConfig().kafkaWireFormatMappers();
+
+    @Test
+    void jsonAgainstCbor() {
+        int messages = Integer.getInteger("benchmark.wire-messages", 20_000);
+        int imageBytes = Integer.getInteger("benchmark.image-bytes", 256 * 1024);
+        System.out.printf("%,d messages per round (%,d byte images)%n", messages, imageBytes);
+
+        compare("typical request", ThoughtRequestMessage.class, request(), messages);
+        compare("typical response", ThoughtResponseMessage.class, response(0), messages);
+        // Image-heavy payloads are large; keep the working set comparable
+        int imageMessages = Math.max(1, (int) Math.min(messages, (64L << 20) / ((long) imageBytes * 4)));
+        Map<WireFormat, Result> imageHeavy = compare("image-heavy response", ThoughtResponseMessage.class,
+                response(imageBytes), imageMessages);
+        assertTrue(imageHeavy.get(WireFormat.CBOR).payloadBytes() < imageHeavy.get(WireFormat.JSON).payloadBytes());
+    }
+
+    private <T> Map<WireFormat, Result> compare(String label, Class<T> type, T message, int messages) {
+        System.out.printf("  %s%n", label);
+        Map<WireFormat, Result> results = new EnumMap<>(WireFormat.class);
+        for (WireFormat format : WireFormat.values()) {
+            WireFormatSerializer<T> serializer = new WireFormatSerializer<>(mappers, Map.of(TOPIC, format),
+                    WireFormat.JSON);
+            WireFormatDeserializer<T> deserializer = new WireFormatDeserializer<>(type, mappers);
+            RecordHeaders headers = new RecordHeaders();
+            assertEquals(message, deserializer.deserialize(TOPIC, headers, serializer.serialize(TOPIC, headers,
+                    message)));
+
+            Result result = measure(serializer, deserializer, headers, message, messages);
+            print(format, result, messages);
+            results.put(format, result);
+        }
+        return results;
+    }
+
+    private static <T> Result measure(WireFormatSerializer<T> serializer, WireFormatDeserializer<T> deserializer,
+                                      RecordHeaders headers, T message, int messages) {
+        Result best = null;
+        List<byte[]> payloads = new ArrayList<>(messages);
+        for (int round = 0; round < ROUNDS; round++) {
+            payloads.clear();
+            long allocatedBefore = allocatedBytes();
+            long started = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                payloads.add(serializer.serialize(TOPIC, headers, message));
+            }
+            long serializeNanos = System.nanoTime() - started;
+            long serializeAllocated = allocatedBytes() - allocatedBefore;
+
+            allocatedBefore = allocatedBytes();
+            started = System.nanoTime();
+            for (byte[] payload : payloads) {
+                deserializer.deserialize(TOPIC, headers, payload);
+            }
+            Result result = new Result(payloads.get(0).length, serializeNanos, serializeAllocated,
+                    System.nanoTime() - started, allocatedBytes() - allocatedBefore);
+            best = best == null || result.serializeNanos() + result.deserializeNanos()
+                    < best.serializeNanos() + best.deserializeNanos() ? result : best;
+        }
+        return best;
+    }
+
+    private static void print(WireFormat format, Result result, int messages) {
+        System.out.printf("    %-5s %,9d B/msg  serialize %,9.0f msg/s %,9d B alloc/msg"
+                        + "  deserialize %,9.0f msg/s %,9d B alloc/msg%n",
+                format, result.payloadBytes(),
+                messages / (result.serializeNanos() / 1e9), result.serializeAllocated() / messages,
+                messages / (result.deserializeNanos() / 1e9), result.deserializeAllocated() / messages);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static ThoughtRequestMessage request() {
+        List<ThoughtRequestMessage.PlatformConfiguration> configurations = new ArrayList<>();
+        for (PlatformType platform : PlatformType.values()) {
+            configurations.add(ThoughtRequestMessage.PlatformConfiguration.builder()
+                    .platform(platform)
+                    .prompt("Write for " + platform + " in a professional but warm tone")
+                    .imageParams(GenerationParameters.builder().steps(30).batchSize(2).seed(42L).build())
+                    .build());
+        }
+        return ThoughtRequestMessage.builder()
+                .requestId("65f1c0ffee0123456789abcd")
+                .userId("user-1")
+                .originalThought("Async teams ship faster when decisions are written down. ".repeat(4))
+                .platforms(List.of(PlatformType.values()))
+                .platformConfigurations(configurations)
+                .version(3)
+                .createdAt(LocalDateTime.of(2026, 2, 28, 7, 1, 48, 123000000))
+                .build();
+    }
+
+    private static ThoughtResponseMessage response(int imageBytes) {
+        Random random = new Random(7);
+        List<ThoughtResponseMessage.EnrichedContentMessage> contents = new ArrayList<>();
+        for (PlatformType platform : PlatformType.values()) {
+            List<ThoughtResponseMessage.GeneratedImageMessage> images = new ArrayList<>();
+            if (imageBytes > 0) {
+                byte[] image = new byte[imageBytes];
+                random.nextBytes(image);
+                images.add(ThoughtResponseMessage.GeneratedImageMessage.builder()
+                        .id("img-" + platform)
+                        .imageBase64(Base64.getEncoder().encodeToString(image))
+                        .imageFormat("png")
+                        .promptUsed("An illustration of an async team")
+                        .width(1024)
+                        .height(1024)
+                        .createdAt(LocalDateTime.of(2026, 2, 28, 7, 1, 48, 123000000))
+                        .build());
+            }
+            contents.add(ThoughtResponseMessage.EnrichedContentMessage.builder()
+                    .platform(platform)
+                    .body("Enriched body for " + platform + ". ".repeat(40))
+                    .hashtags(List.of("remote", "work", "async"))
+                    .images(images)
+                    .build());
+        }
+        return ThoughtResponseMessage.builder()
+                .requestId("65f1c0ffee0123456789abcd")
+                .userId("user-1")
+                .status("completed")
+                .version(2)
+                .enrichedContents(contents)
+                .processedAt(LocalDateTime.of(2026, 2, 28, 7, 1, 49, 500000000))
+                .build();
+    }
+
+    private record Result(int payloadBytes, long serializeNanos, long serializeAllocated, long deserializeNanos,
+                          long deserializeAllocated) {
+    }
+}
@@ -0,0 +1,233 @@
+package com.carlev.thoughtstopost.kafka;
+
+import com.carlev.thoughtstopost.config.KafkaConfig;
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WireFormatSerializerTest {
+
+    private static final String REQUEST_TOPIC = "thoughts-post-request";
+    private static final String RESPONSE_TOPIC = "thoughts-to-post-response";
+
+    private Map<WireFormat, ObjectMapper> mappers;
+
+    @BeforeEach
+    void setUp() {
+        mappers = new KafkaConfig().kafkaWireFormatMappers();
+    }
+
+    @Test
+    void jsonFormat_IsReadableByLegacyJsonConsumers() throws Exception {
+        ThoughtRequestMessage message = sampleRequest();
+        WireFormatSerializer<ThoughtRequestMessage> serializer =
+                new WireFormatSerializer<>(mappers, Map.of(REQUEST_TOPIC, WireFormat.JSON), WireFormat.JSON);
+
+        RecordHeaders headers = new RecordHeaders();
+        byte[] bytes = serializer.serialize(REQUEST_TOPIC, headers, message);
+
+        // The previous JsonSerializer output must decode to the same tree
+        ObjectMapper legacyMapper = new ObjectMapper();
+        legacyMapper.registerModule(new JavaTimeModule());
+        legacyMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        byte[] legacyBytes;
+        try (JsonSerializer<ThoughtRequestMessage> legacy = new JsonSerializer<>(legacyMapper)) {
+            legacyBytes = legacy.serialize(REQUEST_TOPIC, message);
+        }
+
+        assertEquals(legacyMapper.readTree(legacyBytes), legacyMapper.readTree(bytes));
+        assertEquals("application/json",
+                new String(headers.lastHeader(WireFormat.HEADER).value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void cborFormat_RoundTripsRequest() {
+        ThoughtRequestMessage message = sampleRequest();
+        WireFormatSerializer<ThoughtRequestMessage> serializer =
+                new WireFormatSerializer<>(mappers, Map.of(REQUEST_TOPIC, WireFormat.CBOR), WireFormat.JSON);
+        WireFormatDeserializer<ThoughtRequestMessage> deserializer =
+                new WireFormatDeserializer<>(ThoughtRequestMessage.class, mappers);
+
+        RecordHeaders headers = new RecordHeaders();
+        byte[] bytes = serializer.serialize(REQUEST_TOPIC, headers, message);
+
+        assertEquals(WireFormat.CBOR, WireFormat.fromHeaders(headers));
+        assertEquals(message, deserializer.deserialize(REQUEST_TOPIC, headers, bytes));
+    }
+
+    @Test
+    void unsupportedHeader_IsRejectedWithItsValue() {
+        WireFormatDeserializer<ThoughtRequestMessage> deserializer =
+                new WireFormatDeserializer<>(ThoughtRequestMessage.class, mappers);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(WireFormat.HEADER, "application/cbr".getBytes(StandardCharsets.UTF_8));
+
+        SerializationException e = assertThrows(SerializationException.class,
+                () -> deserializer.deserialize(REQUEST_TOPIC, headers, "{}".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(e.getMessage().contains("application/cbr"));
+    }
+
+    @Test
+    void headerWithParameters_IsMatchedOnMediaType() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(WireFormat.HEADER, "application/json; charset=utf-8".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(WireFormat.JSON, WireFormat.fromHeaders(headers));
+    }
+
+    @Test
+    void headerlessRecord_IsReadAsJson() {
+        // Payload shape produced by the Python agent today
+        String agentJson = """
+                {"request_id": "thought-1", "user_id": "user-1", "status": "completed",
+                 "enriched_contents": [{"platform": "linkedin", "body": "Hello", "hashtags": ["ai"],
+                   "call_to_action": "Follow", "character_count": 5, "progress": 1.0,
+                   "images": [{"id": "img-1", "image_base64": "abc", "image_format": "png",
+                     "prompt_used": "p", "width": 512, "height": 512,
+                     "created_at": "2026-02-28T07:01:48.123456"}]}],
+                 "failed_platforms": [], "version": 2, "error_message": null,
+                 "processed_at": "2026-02-28T07:01:49.5"}
+                """;
+        WireFormatDeserializer<ThoughtResponseMessage> deserializer =
+                new WireFormatDeserializer<>(ThoughtResponseMessage.class, mappers);
+
+        ThoughtResponseMessage message = deserializer.deserialize(
+                RESPONSE_TOPIC, new RecordHeaders(), agentJson.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("thought-1", message.getRequestId());
+        assertEquals(PlatformType.LINKEDIN, message.getEnrichedContents().get(0).getPlatform());
+        assertEquals("abc", message.getEnrichedContents().get(0).getImages().get(0).getImageBase64());
+        assertEquals(LocalDateTime.of(2026, 2, 28, 7, 1, 48, 123456000),
+                message.getEnrichedContents().get(0).getImages().get(0).getCreatedAt());
+    }
+
+    @Test
+    void cborFormat_RoundTripsImageHeavyResponseAndIsSmaller() {
+        ThoughtResponseMessage message = sampleImageResponse();
+        WireFormatSerializer<ThoughtResponseMessage> jsonSerializer =
+                new WireFormatSerializer<>(mappers, Map.of(), WireFormat.JSON);
+        WireFormatSerializer<ThoughtResponseMessage> cborSerializer =
+                new WireFormatSerializer<>(mappers, Map.of(RESPONSE_TOPIC, WireFormat.CBOR), WireFormat.JSON);
+        WireFormatDeserializer<ThoughtResponseMessage> deserializer =
+                new WireFormatDeserializer<>(ThoughtResponseMessage.class, mappers);
+
+        RecordHeaders jsonHeaders = new RecordHeaders();
+        RecordHeaders cborHeaders = new RecordHeaders();
+        byte[] json = jsonSerializer.serialize(RESPONSE_TOPIC, jsonHeaders, message);
+        byte[] cbor = cborSerializer.serialize(RESPONSE_TOPIC, cborHeaders, message);
+
+        assertEquals(message, deserializer.deserialize(RESPONSE_TOPIC, jsonHeaders, json));
+        assertEquals(message, deserializer.deserialize(RESPONSE_TOPIC, cborHeaders, cbor));
+        assertTrue(cbor.length < json.length, "CBOR payload should be smaller than JSON");
+    }
+
+    @Test
+    void cborFormat_CarriesImagesAsByteStrings() throws Exception {
+        ThoughtResponseMessage message = sampleImageResponse();
+        WireFormatSerializer<ThoughtResponseMessage> cborSerializer =
+                new WireFormatSerializer<>(mappers, Map.of(RESPONSE_TOPIC, WireFormat.CBOR), WireFormat.JSON);
+
+        byte[] cbor = cborSerializer.serialize(RESPONSE_TOPIC, new RecordHeaders(), message);
+
+        JsonNode image = mappers.get(WireFormat.CBOR).readTree(cbor)
+                .get("enriched_contents").get(0).get("images").get(0).get("image_base64");
+        assertTrue(image.isBinary());
+        assertEquals(message.getEnrichedContents().get(0).getImages().get(0).getImageBase64(),
+                Base64.getEncoder().encodeToString(image.binaryValue()));
+    }
+
+    @Test
+    void cborFormat_KeepsNonBase64ImageTextAsString() {
+        ThoughtResponseMessage message = sampleImageResponse();
+        message.getEnrichedContents().get(0).getImages().get(0).setImageBase64("not base64!");
+        WireFormatSerializer<ThoughtResponseMessage> cborSerializer =
+                new WireFormatSerializer<>(mappers, Map.of(RESPONSE_TOPIC, WireFormat.CBOR), WireFormat.JSON);
+        WireFormatDeserializer<ThoughtResponseMessage> deserializer =
+                new WireFormatDeserializer<>(ThoughtResponseMessage.class, mappers);
+
+        RecordHeaders headers = new RecordHeaders();
+        byte[] cbor = cborSerializer.serialize(RESPONSE_TOPIC, headers, message);
+
+        assertEquals(message, deserializer.deserialize(RESPONSE_TOPIC, headers, cbor));
+    }
+
+    @Test
+    void cborRequestFormat_FailsAtStartup() {
+        // The Python agent decodes JSON only
+        KafkaConfig kafkaConfig = new KafkaConfig();
+        ReflectionTestUtils.setField(kafkaConfig, "bootstrapServers", "localhost:9092");
+        ReflectionTestUtils.setField(kafkaConfig, "requestTopic", REQUEST_TOPIC);
+        ReflectionTestUtils.setField(kafkaConfig, "interactiveRequestTopic", "thoughts-post-request-interactive");
+        ReflectionTestUtils.setField(kafkaConfig, "requestWireFormat", "cbor");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, kafkaConfig::producerFactory);
+        assertTrue(e.getMessage().contains("app.kafka.wire-format.request"));
+    }
+
+    @Test
+    void fromString_RejectsUnknownFormat() {
+        assertEquals(WireFormat.CBOR, WireFormat.fromString("cbor"));
+        assertEquals(WireFormat.JSON, WireFormat.fromString(null));
+        assertThrows(IllegalArgumentException.class, () -> WireFormat.fromString("avro"));
+    }
+
+    private ThoughtRequestMessage sampleRequest() {
+        return ThoughtRequestMessage.builder()
+                .requestId("thought-1")
+                .userId("user-1")
+                .originalThought("AI is cool")
+                .platforms(List.of(PlatformType.LINKEDIN))
+                .platformPrompts(Map.of(PlatformType.LINKEDIN, "Be professional"))
+                .platformConfigurations(List.of(ThoughtRequestMessage.PlatformConfiguration.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .prompt("Be professional")
+                        .imageParams(GenerationParameters.builder().steps(30).batchSize(2).seed(42L).build())
+                        .build()))
+                .version(3)
+                .createdAt(LocalDateTime.of(2026, 2, 28, 7, 1, 48, 123000000))
+                .build();
+    }
+
+    private ThoughtResponseMessage sampleImageResponse() {
+        byte[] image = new byte[256 * 1024];
+        new Random(7).nextBytes(image);
+        ThoughtResponseMessage.GeneratedImageMessage imageMessage = ThoughtResponseMessage.GeneratedImageMessage.builder()
+                .id("img-1")
+                .imageBase64(Base64.getEncoder().encodeToString(image))
+                .imageFormat("png")
+                .promptUsed("A thoughtful robot")
+                .width(1024)
+                .height(1024)
+                .createdAt(LocalDateTime.of(2026, 2, 28, 7, 1, 48, 123000000))
+                .build();
+        return ThoughtResponseMessage.builder()
+                .requestId("thought-1")
+                .userId("user-1")
+                .status("completed")
+                .version(2)
+                .enrichedContents(List.of(ThoughtResponseMessage.EnrichedContentMessage.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .body("Hello")
+                        .hashtags(List.of("ai"))
+                        .images(List.of(imageMessage))
+                        .build()))
+                .build();
+    }
+}
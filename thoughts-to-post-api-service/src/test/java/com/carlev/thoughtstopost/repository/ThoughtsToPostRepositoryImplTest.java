@@ -0,0 +1,162 @@
+package com.carlev.thoughtstopost.repository;
+
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ThoughtsToPostRepositoryImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations bulkOperations;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ThoughtsToPostRepositoryImpl repository;
+
+    @Test
+    void replaceAndDeleteAll_ConcurrentSaveOfTheSameVersion_IsAConflict() {
+        // Arrange
+        ThoughtsToPost written = thought("a", 1L);
+        ThoughtsToPost raced = thought("c", 1L);
+        ThoughtsToPost deleted = thought("b", 2L);
+        ThoughtsToPost alreadyGone = thought("d", 2L);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ThoughtsToPost.class)).thenReturn(bulkOperations);
+        // Only a and b matched; another request saved c from version 1 as well, and d was deleted before us
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+        when(mongoTemplate.find(any(Query.class), eq(ThoughtsToPost.class))).thenAnswer(inv -> List.of(
+                stored("a", 2L, written.getWriteToken()),
+                stored("c", 2L, "another-write"),
+                stored("b", 3L, written.getWriteToken())));
+        when(mongoTemplate.remove(any(Query.class), eq(ThoughtsToPost.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        // Act
+        Set<String> conflicts = repository.replaceAndDeleteAll("user-1", List.of(written, raced),
+                List.of(deleted, alreadyGone));
+
+        // Assert
+        assertEquals(Set.of("c", "d"), conflicts);
+        assertEquals(2L, written.getVersion());
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(ThoughtsToPost.class));
+        String filter = removed.getValue().getQueryObject().toJson();
+        assertTrue(filter.contains("\"b\""));
+        assertFalse(filter.contains("\"d\""));
+        assertTrue(filter.contains(written.getWriteToken()));
+    }
+
+    @Test
+    void replaceAndDeleteAll_EverythingMatched_SkipsTheReRead() {
+        // Arrange
+        ThoughtsToPost written = thought("a", 1L);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ThoughtsToPost.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        // Act
+        Set<String> conflicts = repository.replaceAndDeleteAll("user-1", List.of(written), List.of());
+
+        // Assert
+        assertTrue(conflicts.isEmpty());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ThoughtsToPost.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(ThoughtsToPost.class));
+    }
+
+    @Test
+    void replaceAndDeleteAll_ConflictingItem_RecordsNoTransitionAndKeepsItsTiming() {
+        // Arrange
+        Instant entered = Instant.now().minusSeconds(60);
+        ThoughtsToPost written = enriched("a", entered);
+        ThoughtsToPost raced = enriched("b", entered);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ThoughtsToPost.class)).thenReturn(bulkOperations);
+        // As the bulk's before-convert event would: both are stamped APPROVED with a pending transition
+        when(bulkOperations.replaceOne(any(Query.class), any(ThoughtsToPost.class))).thenAnswer(inv -> {
+            ThoughtsToPost thought = inv.getArgument(1);
+            thought.setPendingTransition(new ThoughtsToPost.StatusTransition(PostStatus.ENRICHED,
+                    PostStatus.APPROVED, Duration.ofSeconds(60)));
+            thought.setTimedStatus(PostStatus.APPROVED);
+            thought.setStatusEnteredAt(Instant.now());
+            return bulkOperations;
+        });
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        when(mongoTemplate.find(any(Query.class), eq(ThoughtsToPost.class)))
+                .thenAnswer(inv -> List.of(stored("a", 2L, written.getWriteToken()), stored("b", 2L, "another-write")));
+
+        // Act
+        Set<String> conflicts = repository.replaceAndDeleteAll("user-1", List.of(written, raced), List.of());
+
+        // Assert
+        assertEquals(Set.of("b"), conflicts);
+        ArgumentCaptor<AfterSaveEvent<ThoughtsToPost>> saved = ArgumentCaptor.forClass(AfterSaveEvent.class);
+        verify(eventPublisher).publishEvent(saved.capture());
+        assertSame(written, saved.getValue().getSource());
+        assertFalse(written.isBulkWrite());
+        assertEquals(PostStatus.ENRICHED, raced.getTimedStatus());
+        assertEquals(entered, raced.getStatusEnteredAt());
+        assertNull(raced.getPendingTransition());
+        assertFalse(raced.isBulkWrite());
+    }
+
+    @Test
+    void markDispatchSent_LeavesTheVersionAlone() {
+        // Arrange
+        when(mongoTemplate.getCollectionName(ThoughtsToPost.class)).thenReturn("thoughts_to_post");
+        Instant sentAt = Instant.now();
+
+        // Act
+        repository.markDispatchSent("a", 3L, sentAt);
+
+        // Assert: addressed by collection name, so the template does not add a version increment
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq("thoughts_to_post"));
+        assertEquals(3L, query.getValue().getQueryObject().get("generation"));
+        assertFalse(update.getValue().modifies("version"));
+        assertTrue(update.getValue().modifies("lastDispatch.queueHeartbeatAt"));
+        assertEquals(sentAt, update.getValue().getUpdateObject().get("$set", Document.class)
+                .get("lastDispatch.sentAt"));
+    }
+
+    private static ThoughtsToPost enriched(String id, Instant entered) {
+        ThoughtsToPost thought = thought(id, 1L);
+        thought.setStatus(PostStatus.APPROVED);
+        thought.setTimedStatus(PostStatus.ENRICHED);
+        thought.setStatusEnteredAt(entered);
+        return thought;
+    }
+
+    private static ThoughtsToPost thought(String id, Long version) {
+        return ThoughtsToPost.builder().id(id).userId("user-1").version(version).build();
+    }
+
+    private static ThoughtsToPost stored(String id, Long version, String writeToken) {
+        ThoughtsToPost thought = thought(id, version);
+        thought.setWriteToken(writeToken);
+        return thought;
+    }
+}
@@ -0,0 +1,96 @@
+package com.carlev.thoughtstopost.scheduler;
+
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.carlev.thoughtstopost.service.ThoughtsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EnrichmentWatchdogTest {
+
+    @Mock
+    private ThoughtsToPostRepository thoughtsRepository;
+
+    @Mock
+    private ThoughtsService thoughtsService;
+
+    @InjectMocks
+    private EnrichmentWatchdog watchdog;
+
+    @Test
+    void expireOverdueEnrichments_ExpiresEveryOverdueThought() {
+        // Arrange
+        ThoughtsToPost first = overdue("thought-1");
+        ThoughtsToPost second = overdue("thought-2");
+        when(thoughtsRepository.findByStatusAndDispatchDeadlineBefore(eq(PostStatus.PROCESSING), any(Instant.class)))
+                .thenReturn(List.of(first, second));
+        doThrow(new OptimisticLockingFailureException("changed"))
+                .when(thoughtsService).expireEnrichment(first, "watchdog");
+
+        // Act
+        watchdog.expireOverdueEnrichments();
+
+        // Assert
+        verify(thoughtsService).expireEnrichment(first, "watchdog");
+        verify(thoughtsService).expireEnrichment(second, "watchdog");
+    }
+
+    @Test
+    void expireOverdueEnrichments_NothingOverdue_DoesNothing() {
+        // Arrange
+        when(thoughtsRepository.findByStatusAndDispatchDeadlineBefore(eq(PostStatus.PROCESSING), any(Instant.class)))
+                .thenReturn(List.of());
+
+        // Act
+        watchdog.expireOverdueEnrichments();
+
+        // Assert
+        verifyNoInteractions(thoughtsService);
+    }
+
+    @Test
+    void redispatchStalledEnrichments_RedispatchesStalledThoughts() {
+        // Arrange
+        ThoughtsToPost stalled = overdue("thought-3");
+        when(thoughtsRepository.findStalled(eq(PostStatus.PROCESSING), any(LocalDateTime.class), any(Instant.class),
+                any(Pageable.class)))
+                .thenReturn(List.of(stalled));
+
+        // Act
+        watchdog.redispatchStalledEnrichments();
+
+        // Assert: dispatches sent or heartbeated by their instance within the stall timeout are not stalled
+        ArgumentCaptor<Instant> markedBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(thoughtsRepository).findStalled(eq(PostStatus.PROCESSING), any(LocalDateTime.class),
+                markedBefore.capture(), eq(PageRequest.of(0, 100)));
+        assertTrue(markedBefore.getValue().isBefore(Instant.now().minus(Duration.ofMinutes(4))));
+        verify(thoughtsService).redispatchStalled(stalled);
+    }
+
+    private static ThoughtsToPost overdue(String id) {
+        return ThoughtsToPost.builder()
+                .id(id)
+                .status(PostStatus.PROCESSING)
+                .dispatchDeadline(Instant.now().minusSeconds(300))
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.carlev.thoughtstopost.scheduler;
+
+import com.carlev.thoughtstopost.dto.DispatchQueueStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.carlev.thoughtstopost.service.EnrichmentDispatcher;
+import com.carlev.thoughtstopost.service.ThoughtsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ImportDispatchFeederTest {
+
+    @Mock
+    private ThoughtsToPostRepository thoughtsRepository;
+
+    @Mock
+    private ThoughtsService thoughtsService;
+
+    @Mock
+    private EnrichmentDispatcher enrichmentDispatcher;
+
+    @InjectMocks
+    private ImportDispatchFeeder feeder;
+
+    @Test
+    void feedImportedThoughts_TopsTheQueueUpToMaxQueued() {
+        // Arrange
+        List<ThoughtsToPost> queued = List.of(ThoughtsToPost.builder().id("thought-1").userId("user-1").build());
+        when(enrichmentDispatcher.status()).thenReturn(DispatchQueueStatus.builder().queued(150).build());
+        when(thoughtsRepository.findQueuedForDispatch(PageRequest.of(0, 50))).thenReturn(queued);
+
+        // Act
+        feeder.feedImportedThoughts();
+
+        // Assert
+        verify(thoughtsService).dispatchQueued(queued);
+    }
+
+    @Test
+    void feedImportedThoughts_QueueFull_TakesNothing() {
+        // Arrange
+        when(enrichmentDispatcher.status()).thenReturn(DispatchQueueStatus.builder().queued(200).build());
+
+        // Act
+        feeder.feedImportedThoughts();
+
+        // Assert
+        verify(thoughtsRepository, never()).findQueuedForDispatch(any());
+        verifyNoInteractions(thoughtsService);
+    }
+}
@@ -0,0 +1,187 @@
+package com.carlev.thoughtstopost.security;
+
+import com.carlev.thoughtstopost.model.IdempotencyRecord;
+import com.carlev.thoughtstopost.service.IdempotencyService;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyFilterTest {
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @InjectMocks
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user-1", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void firstRequest_RunsHandlerAndStoresResponse() throws Exception {
+        // Arrange
+        IdempotencyRecord lock = IdempotencyRecord.builder().id("user-1:key-1").build();
+        when(idempotencyService.claim(eq("user-1"), eq("key-1"), anyString()))
+                .thenReturn(new IdempotencyService.Claim(IdempotencyService.Claim.Result.ACQUIRED, lock));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, HttpServletResponse res) throws java.io.IOException {
+                assertEquals("{\"thought\":\"Hi\"}", new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+                res.setStatus(201);
+                res.setContentType("application/json");
+                res.getWriter().write("{\"id\":\"thought-1\"}");
+            }
+        });
+
+        // Act
+        filter.doFilter(request("key-1"), response, chain);
+
+        // Assert
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"id\":\"thought-1\"}", response.getContentAsString());
+        verify(idempotencyService).complete(eq(lock), eq(201), startsWith("application/json"),
+                aryEq("{\"id\":\"thought-1\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void bufferedBody_CanBeReadThroughAReadListener() throws Exception {
+        // Arrange
+        IdempotencyRecord lock = IdempotencyRecord.builder().id("user-1:key-1").build();
+        when(idempotencyService.claim(eq("user-1"), eq("key-1"), anyString()))
+                .thenReturn(new IdempotencyService.Claim(IdempotencyService.Claim.Result.ACQUIRED, lock));
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+        MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, HttpServletResponse res)
+                    throws java.io.IOException {
+                ServletInputStream input = req.getInputStream();
+                input.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws java.io.IOException {
+                        byte[] buffer = new byte[4];
+                        while (input.isReady() && !input.isFinished()) {
+                            int n = input.read(buffer);
+                            read.write(buffer, 0, n);
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allRead.set(true);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fail(t);
+                    }
+                });
+                res.setStatus(202);
+            }
+        });
+
+        // Act
+        filter.doFilter(request("key-1"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertTrue(allRead.get());
+        assertEquals("{\"thought\":\"Hi\"}", read.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void retry_ReplaysStoredResponseWithoutRunningHandler() throws Exception {
+        // Arrange
+        IdempotencyRecord stored = IdempotencyRecord.builder()
+                .id("user-1:key-1")
+                .state(IdempotencyRecord.State.COMPLETED)
+                .statusCode(201)
+                .contentType("application/json")
+                .responseBody("{\"id\":\"thought-1\"}".getBytes(StandardCharsets.UTF_8))
+                .build();
+        when(idempotencyService.claim(eq("user-1"), eq("key-1"), anyString()))
+                .thenReturn(new IdempotencyService.Claim(IdempotencyService.Claim.Result.REPLAY, stored));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request("key-1"), response, chain);
+
+        // Assert
+        assertNull(chain.getRequest(), "The controller must not run for a replay");
+        assertEquals(201, response.getStatus());
+        assertEquals("true", response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("{\"id\":\"thought-1\"}", response.getContentAsString());
+    }
+
+    @Test
+    void concurrentDuplicate_IsRejectedWithConflict() throws Exception {
+        // Arrange
+        when(idempotencyService.claim(eq("user-1"), eq("key-1"), anyString()))
+                .thenReturn(new IdempotencyService.Claim(IdempotencyService.Claim.Result.IN_PROGRESS, null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request("key-1"), response, chain);
+
+        // Assert
+        assertNull(chain.getRequest());
+        assertEquals(409, response.getStatus());
+    }
+
+    @Test
+    void requestWithoutKey_PassesThrough() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request(null);
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(idempotencyService);
+    }
+
+    private MockHttpServletRequest request(String key) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/thoughts");
+        request.setContentType("application/json");
+        request.setContent("{\"thought\":\"Hi\"}".getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        return request;
+    }
+}
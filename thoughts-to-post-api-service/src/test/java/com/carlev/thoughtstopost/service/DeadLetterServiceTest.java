@@ -0,0 +1,244 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.DeadLetterEntry;
+import com.carlev.thoughtstopost.dto.DeadLetterReplayRequest;
+import com.carlev.thoughtstopost.dto.DeadLetterReplayStatus;
+import com.carlev.thoughtstopost.kafka.ProcessedMessageLedger;
+import com.carlev.thoughtstopost.kafka.ThoughtResponseMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeadLetterServiceTest {
+
+    private static final String TOPIC = "responses-dlt";
+
+    @Mock
+    private ConsumerFactory<String, ThoughtResponseMessage> consumerFactory;
+    @Mock
+    private ThoughtsService thoughtsService;
+    @Mock
+    private ProcessedMessageLedger processedMessageLedger;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ConsumerRecord<String, ThoughtResponseMessage>> deadLetters = new ArrayList<>();
+    private DeadLetterService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(consumerFactory.createConsumer(null, "dead-letters")).thenAnswer(invocation -> consumer());
+        service = new DeadLetterService(consumerFactory, thoughtsService, processedMessageLedger, meterRegistry, TOPIC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdownReplayExecutor();
+    }
+
+    @Test
+    void browse_ReturnsEntriesWithFailureHeaders() {
+        // Arrange
+        deadLetter(0, "thought-1", message("thought-1"), "java.lang.IllegalStateException", 7L);
+
+        // Act
+        List<DeadLetterEntry> entries = service.browse(new DeadLetterReplayRequest(), 10);
+
+        // Assert
+        assertEquals(1, entries.size());
+        DeadLetterEntry entry = entries.get(0);
+        assertEquals("thought-1", entry.getRequestId());
+        assertEquals("responses", entry.getOriginalTopic());
+        assertEquals(2, entry.getOriginalPartition());
+        assertEquals(7L, entry.getOriginalOffset());
+        assertEquals("java.lang.IllegalStateException", entry.getExceptionType());
+        assertEquals("boom", entry.getExceptionMessage());
+        assertTrue(entry.isReplayable());
+    }
+
+    @Test
+    void browse_FiltersByRequestIdExceptionTypeAndTime() {
+        // Arrange
+        deadLetter(0, "thought-1", message("thought-1"), "java.lang.IllegalStateException", 1L);
+        deadLetter(1, "thought-2", message("thought-2"), "java.util.concurrent.TimeoutException", 2L);
+        deadLetter(2, "thought-2", message("thought-2"), "java.lang.IllegalStateException", 3L);
+
+        // Act
+        List<DeadLetterEntry> byRequest = service.browse(
+                DeadLetterReplayRequest.builder().requestId("thought-2").build(), 10);
+        List<DeadLetterEntry> byException = service.browse(
+                DeadLetterReplayRequest.builder().exceptionType("timeout").build(), 10);
+        List<DeadLetterEntry> byTime = service.browse(
+                DeadLetterReplayRequest.builder().to(Instant.ofEpochMilli(2_000)).build(), 10);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), byRequest.stream().map(DeadLetterEntry::getOffset).toList());
+        assertEquals(List.of(1L), byException.stream().map(DeadLetterEntry::getOffset).toList());
+        assertEquals(List.of(0L), byTime.stream().map(DeadLetterEntry::getOffset).toList());
+    }
+
+    @Test
+    void browse_StopsAtLimit() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            deadLetter(i, "thought-" + i, message("thought-" + i), "java.lang.IllegalStateException", i);
+        }
+
+        // Act & Assert
+        assertEquals(2, service.browse(new DeadLetterReplayRequest(), 2).size());
+    }
+
+    @Test
+    void startReplay_AppliesMatchingResponsesAndRecordsThemInTheLedger() throws Exception {
+        // Arrange
+        ThoughtResponseMessage first = message("thought-1");
+        ThoughtResponseMessage second = message("thought-2");
+        deadLetter(0, "thought-1", first, "java.lang.IllegalStateException", 1L);
+        deadLetter(1, "thought-2", second, "java.lang.IllegalStateException", 2L);
+        deadLetter(2, "thought-3", null, "org.springframework.kafka.support.serializer.DeserializationException", 3L);
+        when(processedMessageLedger.keyFor(first, "responses", 2, 1L)).thenReturn("dedupe-1");
+        when(processedMessageLedger.keyFor(second, "responses", 2, 2L)).thenReturn("dedupe-2");
+        when(processedMessageLedger.isDuplicate("dedupe-1")).thenReturn(false);
+        when(processedMessageLedger.isDuplicate("dedupe-2")).thenReturn(true);
+
+        // Act
+        service.startReplay(DeadLetterReplayRequest.builder().ratePerSecond(1_000).build());
+        DeadLetterReplayStatus status = awaitFinished();
+
+        // Assert
+        verify(thoughtsService).handleAgentResponse(first);
+        verify(thoughtsService, never()).handleAgentResponse(second);
+        verify(processedMessageLedger).markProcessed("dedupe-1");
+        assertEquals(DeadLetterReplayStatus.State.COMPLETED, status.getState());
+        assertEquals(3, status.getScanned());
+        assertEquals(1, status.getReplayed());
+        assertEquals(1, status.getAlreadyApplied());
+        assertEquals(1, status.getUnreadable());
+        assertEquals(0, status.getRemaining());
+        assertEquals(1.0, meterRegistry.get("kafka.dlt.replay").tag("outcome", "replayed").counter().count());
+    }
+
+    @Test
+    void startReplay_FailingAgainIsCountedAndNotMarked() throws Exception {
+        // Arrange
+        ThoughtResponseMessage response = message("thought-1");
+        deadLetter(0, "thought-1", response, "java.lang.IllegalStateException", 1L);
+        when(processedMessageLedger.keyFor(response, "responses", 2, 1L)).thenReturn("dedupe-1");
+        doThrow(new RuntimeException("Thought not found: thought-1"))
+                .when(thoughtsService).handleAgentResponse(response);
+
+        // Act
+        service.startReplay(DeadLetterReplayRequest.builder().ratePerSecond(1_000).build());
+        DeadLetterReplayStatus status = awaitFinished();
+
+        // Assert
+        assertEquals(1, status.getFailed());
+        assertEquals(0, status.getReplayed());
+        verify(processedMessageLedger, never()).markProcessed(any());
+    }
+
+    @Test
+    void startReplay_RejectsRateOutOfRange() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> service.startReplay(DeadLetterReplayRequest.builder().ratePerSecond(0).build()));
+        assertTrue(service.replayStatus().isEmpty());
+    }
+
+    @Test
+    void startReplay_WhileRunning_IsRejectedAndCancelStopsIt() throws Exception {
+        // Arrange
+        deadLetter(0, "thought-1", message("thought-1"), "java.lang.IllegalStateException", 1L);
+        deadLetter(1, "thought-2", message("thought-2"), "java.lang.IllegalStateException", 2L);
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            applying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(thoughtsService).handleAgentResponse(any());
+        service.startReplay(DeadLetterReplayRequest.builder().ratePerSecond(1_000).build());
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> service.startReplay(new DeadLetterReplayRequest()));
+        Optional<DeadLetterReplayStatus> cancelled = service.cancelReplay();
+        release.countDown();
+        DeadLetterReplayStatus status = awaitFinished();
+
+        // Assert
+        assertTrue(cancelled.isPresent());
+        assertEquals(DeadLetterReplayStatus.State.CANCELLED, status.getState());
+        verify(thoughtsService, times(1)).handleAgentResponse(any());
+    }
+
+    private DeadLetterReplayStatus awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            DeadLetterReplayStatus status = service.replayStatus().orElseThrow();
+            if (status.getState() != DeadLetterReplayStatus.State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Replay did not finish");
+    }
+
+    private MockConsumer<String, ThoughtResponseMessage> consumer() {
+        MockConsumer<String, ThoughtResponseMessage> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        TopicPartition partition = new TopicPartition(TOPIC, 0);
+        consumer.updatePartitions(TOPIC, List.of(new PartitionInfo(TOPIC, 0, null, null, null)));
+        consumer.updateBeginningOffsets(Map.of(partition, 0L));
+        consumer.updateEndOffsets(Map.of(partition, (long) deadLetters.size()));
+        consumer.schedulePollTask(() -> deadLetters.forEach(consumer::addRecord));
+        return consumer;
+    }
+
+    private void deadLetter(long offset, String key, ThoughtResponseMessage value, String exception,
+                            long originalOffset) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, "responses".getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(2).array());
+        headers.add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(originalOffset).array());
+        headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN,
+                "org.springframework.kafka.listener.ListenerExecutionFailedException".getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN, exception.getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, "boom".getBytes(StandardCharsets.UTF_8));
+        deadLetters.add(new ConsumerRecord<>(TOPIC, 0, offset, (offset + 1) * 1_000, TimestampType.CREATE_TIME,
+                -1, -1, key, value, headers, Optional.empty()));
+    }
+
+    private static ThoughtResponseMessage message(String requestId) {
+        return ThoughtResponseMessage.builder()
+                .requestId(requestId)
+                .status("completed")
+                .build();
+    }
+}
@@ -0,0 +1,306 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.DispatchQueueStatus;
+import com.carlev.thoughtstopost.kafka.DispatchLane;
+import com.carlev.thoughtstopost.kafka.GenerationParameters;
+import com.carlev.thoughtstopost.kafka.ThoughtRequestMessage;
+import com.carlev.thoughtstopost.kafka.ThoughtsKafkaProducer;
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EnrichmentDispatcherTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(30);
+    private static final Duration HEARTBEAT = Duration.ofMinutes(1);
+
+    @Mock
+    private ThoughtsKafkaProducer kafkaProducer;
+
+    @Mock
+    private ThoughtsToPostRepository thoughtsRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InMemoryDispatchLeaseStore leaseStore;
+    private EnrichmentDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        leaseStore = new InMemoryDispatchLeaseStore();
+        dispatcher = new EnrichmentDispatcher(kafkaProducer, leaseStore, thoughtsRepository, meterRegistry, 1, 1,
+                LEASE, HEARTBEAT);
+        dispatcher.ensureCapacity();
+    }
+
+    @Test
+    void submit_HeavyUserDoesNotStarveOthers() {
+        // Arrange: user-a occupies the only credit and queues five expensive SDXL batches
+        dispatcher.submit(request("a-0", "user-a", 1L, sdxlBatch()));
+        for (int i = 1; i <= 5; i++) {
+            dispatcher.submit(request("a-" + i, "user-a", 1L, sdxlBatch()));
+        }
+        dispatcher.submit(request("b-1", "user-b", 1L, null));
+
+        // Act
+        dispatcher.release("a-0", 1L);
+        dispatcher.release("b-1", 1L);
+
+        // Assert
+        ArgumentCaptor<ThoughtRequestMessage> sent = ArgumentCaptor.forClass(ThoughtRequestMessage.class);
+        verify(kafkaProducer, times(3)).sendRequest(sent.capture());
+        assertEquals(List.of("a-0", "b-1", "a-1"),
+                sent.getAllValues().stream().map(ThoughtRequestMessage::getRequestId).toList());
+    }
+
+    @Test
+    void submit_NewGenerationReplacesQueuedRequest() {
+        // Arrange
+        dispatcher.submit(request("busy", "user-a", 1L, null));
+        dispatcher.submit(request("thought-1", "user-b", 1L, null));
+
+        // Act
+        dispatcher.submit(request("thought-1", "user-b", 2L, null));
+
+        // Assert
+        DispatchQueueStatus status = dispatcher.status();
+        assertEquals(1, status.getQueued());
+        assertEquals(1, status.getQueuedByUser().get("user-b"));
+
+        dispatcher.release("busy", 1L);
+        ArgumentCaptor<ThoughtRequestMessage> sent = ArgumentCaptor.forClass(ThoughtRequestMessage.class);
+        verify(kafkaProducer, times(2)).sendRequest(sent.capture());
+        assertEquals(2L, sent.getAllValues().get(1).getGeneration());
+    }
+
+    @Test
+    void submit_SameGenerationInFlight_IsResentImmediately() {
+        // Arrange
+        dispatcher.submit(request("thought-1", "user-a", 3L, null));
+
+        // Act
+        dispatcher.submit(request("thought-1", "user-a", 3L, null));
+
+        // Assert
+        verify(kafkaProducer, times(2)).sendRequest(any());
+        assertEquals(1, dispatcher.status().getInFlight());
+    }
+
+    @Test
+    void submitAll_QueuesBatchAndSendsUpToCapacity() {
+        // Act
+        dispatcher.submitAll(List.of(
+                request("thought-1", "user-a", 1L, null),
+                request("thought-2", "user-a", 1L, null),
+                request("thought-3", "user-a", 1L, null)));
+
+        // Assert
+        verify(kafkaProducer, times(1)).sendRequest(argThat(message -> message.getRequestId().equals("thought-1")));
+        assertEquals(1, dispatcher.status().getInFlight());
+        assertEquals(2, dispatcher.status().getQueuedByUser().get("user-a"));
+    }
+
+    @Test
+    void release_OlderGenerationKeepsNewerLease() {
+        // Arrange
+        dispatcher.submit(request("thought-1", "user-a", 2L, null));
+
+        // Act
+        dispatcher.release("thought-1", 1L);
+
+        // Assert
+        assertEquals(1, dispatcher.status().getInFlight());
+        assertEquals(1.0, meterRegistry.get("enrichment.dispatch.in.flight").tag("lane", "bulk").gauge().value());
+    }
+
+    @Test
+    void cancel_RemovesQueuedRequestAndFreesCredit() {
+        // Arrange
+        dispatcher.submit(request("thought-1", "user-a", 1L, null));
+        dispatcher.submit(request("thought-2", "user-a", 1L, null));
+
+        // Act
+        dispatcher.cancel("thought-2");
+        dispatcher.cancel("thought-1");
+
+        // Assert
+        verify(kafkaProducer, times(1)).sendRequest(any());
+        assertEquals(0, dispatcher.status().getInFlight());
+        assertEquals(0, dispatcher.status().getQueued());
+    }
+
+    @Test
+    void ensureCapacity_SmallerConfiguration_CapsClaimsBelowLeftoverCredits() {
+        // Arrange: credits left in the store by an earlier configuration of 3
+        InMemoryDispatchLeaseStore store = new InMemoryDispatchLeaseStore();
+        store.ensureCapacity(DispatchLane.BULK, 3);
+        EnrichmentDispatcher resized = new EnrichmentDispatcher(kafkaProducer, store, thoughtsRepository,
+                new SimpleMeterRegistry(), 1, 1, LEASE, HEARTBEAT);
+        resized.ensureCapacity();
+
+        // Act
+        resized.submitAll(List.of(request("thought-1", "user-a", 1L, null), request("thought-2", "user-b", 1L, null)));
+
+        // Assert
+        verify(kafkaProducer, times(1)).sendRequest(any());
+        assertEquals(1, resized.status().getQueued());
+    }
+
+    @Test
+    void drain_ClaimsCreditsWithoutHoldingTheQueueMonitor() {
+        // Arrange: a store whose claim reads the queue from another thread, as a concurrent request would
+        EnrichmentDispatcher[] holder = new EnrichmentDispatcher[1];
+        InMemoryDispatchLeaseStore store = new InMemoryDispatchLeaseStore() {
+            @Override
+            public boolean claim(DispatchLane lane, String requestId, Long generation, String owner, Instant expiresAt) {
+                assertTimeoutPreemptively(Duration.ofSeconds(5), () -> CompletableFuture
+                        .supplyAsync(() -> holder[0].isQueued(requestId)).join());
+                return super.claim(lane, requestId, generation, owner, expiresAt);
+            }
+        };
+        holder[0] = new EnrichmentDispatcher(kafkaProducer, store, thoughtsRepository, new SimpleMeterRegistry(),
+                1, 1, LEASE, HEARTBEAT);
+        holder[0].ensureCapacity();
+
+        // Act
+        holder[0].submit(request("thought-1", "user-a", 1L, null));
+
+        // Assert
+        verify(kafkaProducer).sendRequest(argThat(message -> message.getRequestId().equals("thought-1")));
+    }
+
+    @Test
+    void drain_SkipsQueuedRequestsPastTheirDeadline() {
+        // Arrange
+        dispatcher.submit(request("busy", "user-a", 1L, null));
+        ThoughtRequestMessage expired = request("late", "user-b", 1L, null);
+        expired.setDeadline(Instant.now().minusSeconds(1));
+        dispatcher.submit(expired);
+
+        // Act
+        dispatcher.release("busy", 1L);
+
+        // Assert
+        verify(kafkaProducer, times(1)).sendRequest(any());
+        assertFalse(dispatcher.isQueued("late"));
+    }
+
+    @Test
+    void send_MarksTheDispatchSentOnTheThought() {
+        // Act
+        dispatcher.submit(request("thought-1", "user-a", 3L, null));
+        dispatcher.submit(request("thought-2", "user-b", 1L, null));
+
+        // Assert: only the request that got a credit is marked; the queued one is left to its heartbeat
+        verify(thoughtsRepository).markDispatchSent(eq("thought-1"), eq(3L), any(Instant.class));
+        verify(thoughtsRepository, never()).markDispatchSent(eq("thought-2"), any(), any());
+    }
+
+    @Test
+    void drainQueued_RefreshesTheHeartbeatOfWaitingRequestsOncePerInterval() {
+        // Arrange
+        dispatcher.submit(request("busy", "user-a", 1L, null));
+        dispatcher.submit(request("waiting", "user-b", 1L, null));
+
+        // Act
+        dispatcher.drainQueued();
+        dispatcher.drainQueued();
+
+        // Assert
+        verify(thoughtsRepository, times(1)).touchDispatchQueued(eq(List.of("waiting")), any(Instant.class));
+    }
+
+    @Test
+    void submit_InteractiveLaneHasItsOwnCreditsAndDrainsFirst() {
+        // Arrange: the bulk credit is taken and bulk work is queued
+        dispatcher.submit(request("bulk-0", "user-a", 1L, null));
+        dispatcher.submit(request("bulk-1", "user-a", 1L, null));
+
+        // Act
+        ThoughtRequestMessage refinement = request("refine-1", "user-b", 1L, null);
+        refinement.setLane(DispatchLane.INTERACTIVE);
+        dispatcher.submit(refinement);
+
+        // Assert
+        ArgumentCaptor<ThoughtRequestMessage> sent = ArgumentCaptor.forClass(ThoughtRequestMessage.class);
+        verify(kafkaProducer, times(2)).sendRequest(sent.capture());
+        assertEquals(List.of("bulk-0", "refine-1"),
+                sent.getAllValues().stream().map(ThoughtRequestMessage::getRequestId).toList());
+        DispatchQueueStatus status = dispatcher.status();
+        assertEquals(1, status.getLanes().get(DispatchLane.INTERACTIVE).getInFlight());
+        assertEquals(1, status.getLanes().get(DispatchLane.BULK).getQueued());
+        assertEquals(2, status.getInFlight());
+    }
+
+    @Test
+    void release_OnAnotherInstance_ReturnsTheSharedCredit() throws InterruptedException {
+        // Arrange: a second replica sharing the lease store
+        ThoughtsKafkaProducer otherProducer = mock(ThoughtsKafkaProducer.class);
+        EnrichmentDispatcher replica = new EnrichmentDispatcher(otherProducer, leaseStore, thoughtsRepository,
+                new SimpleMeterRegistry(), 1, 1, LEASE, HEARTBEAT);
+        replica.ensureCapacity();
+        dispatcher.submit(request("thought-1", "user-a", 1L, null));
+        dispatcher.submit(request("thought-2", "user-a", 1L, null));
+        replica.submit(request("thought-3", "user-b", 1L, null));
+        verify(otherProducer, never()).sendRequest(any());
+        Thread.sleep(5);
+
+        // Act: the replica consumes the response for thought-1
+        Instant releasedAt = Instant.now();
+        replica.release("thought-1", 1L);
+        dispatcher.drainQueued();
+
+        // Assert: one credit across both instances, and thought-2's lease runs from its send, not its enqueue
+        verify(otherProducer).sendRequest(argThat(message -> message.getRequestId().equals("thought-3")));
+        verify(kafkaProducer, never()).sendRequest(argThat(message -> message.getRequestId().equals("thought-2")));
+        replica.release("thought-3", 1L);
+        dispatcher.drainQueued();
+        verify(kafkaProducer).sendRequest(argThat(message -> message.getRequestId().equals("thought-2")));
+        assertFalse(leaseStore.expiryOf("thought-2").isBefore(releasedAt.plus(LEASE)));
+        assertEquals(1, dispatcher.status().getInFlight());
+    }
+
+    @Test
+    void estimateCost_ScalesWithStepsBatchResolutionAndVideo() {
+        ThoughtRequestMessage plain = request("r", "u", 1L, null);
+        ThoughtRequestMessage heavy = request("r", "u", 1L, sdxlBatch());
+        heavy.getPlatformConfigurations().get(0).setVideoPrompt("pan across");
+        heavy.getPlatformConfigurations().get(0).setVideoParams(GenerationParameters.builder().duration(10).fps(8).build());
+
+        assertEquals(2.0, EnrichmentDispatcher.estimateCost(plain), 1e-9);
+        // text 1 + image (60/30 * 4 * 1.0) + video (10s * 8fps * 0.2)
+        assertEquals(1 + 8 + 16, EnrichmentDispatcher.estimateCost(heavy), 1e-9);
+    }
+
+    private static GenerationParameters sdxlBatch() {
+        return GenerationParameters.builder().modelType("SDXL").resolution("1024x1024").steps(60).batchSize(4).build();
+    }
+
+    private static ThoughtRequestMessage request(String requestId, String userId, Long generation, GenerationParameters imageParams) {
+        return ThoughtRequestMessage.builder()
+                .requestId(requestId)
+                .userId(userId)
+                .generation(generation)
+                .platforms(List.of(PlatformType.LINKEDIN))
+                .platformConfigurations(List.of(ThoughtRequestMessage.PlatformConfiguration.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .imageParams(imageParams)
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.kafka.GenerationParameters;
+import com.carlev.thoughtstopost.kafka.ThoughtRequestMessage;
+import com.carlev.thoughtstopost.model.EnrichmentCacheEntry;
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.EnrichmentCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EnrichmentResultCacheTest {
+
+    @Mock
+    private EnrichmentCacheRepository cacheRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private EnrichmentResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new EnrichmentResultCache(cacheRepository, meterRegistry, true, Duration.ofDays(7), 2);
+    }
+
+    @Test
+    void keyFor_IgnoresCaseWhitespaceAndDeliveryMode() {
+        // Arrange
+        ThoughtRequestMessage first = request("Ship it", GenerationParameters.builder()
+                .resolution("1024x1024").modelType("SDXL").seed(42L).asyncMode(true).build());
+        ThoughtRequestMessage second = request("Ship it", GenerationParameters.builder()
+                .resolution("1024 x 1024").modelType("sdxl ").seed(42L).batchSize(1).build());
+        second.setRequestId("other-thought");
+        second.setGeneration(7L);
+
+        // Act & Assert
+        assertEquals(cache.keyFor(first), cache.keyFor(second));
+    }
+
+    @Test
+    void keyFor_DiffersWhenSeedOrInstructionsChange() {
+        // Arrange
+        ThoughtRequestMessage base = request("Ship it", GenerationParameters.builder().seed(42L).build());
+        ThoughtRequestMessage otherSeed = request("Ship it", GenerationParameters.builder().seed(43L).build());
+        ThoughtRequestMessage otherInstructions = request("Ship it", GenerationParameters.builder().seed(42L).build());
+        otherInstructions.setAdditionalInstructions("Make it punchy");
+
+        // Act
+        String key = cache.keyFor(base).orElseThrow();
+
+        // Assert
+        assertNotEquals(key, cache.keyFor(otherSeed).orElseThrow());
+        assertNotEquals(key, cache.keyFor(otherInstructions).orElseThrow());
+    }
+
+    @Test
+    void keyFor_RepostMatchesTheOriginalEnrichment() {
+        // Arrange
+        ThoughtRequestMessage original = request("Ship it", GenerationParameters.builder().seed(42L).build());
+        ThoughtRequestMessage repost = request("Ship it", GenerationParameters.builder().seed(42L).build());
+        repost.setAdditionalInstructions(ThoughtRequestMessage.REPOST_INSTRUCTIONS);
+
+        // Act & Assert
+        assertEquals(cache.keyFor(original).orElseThrow(), cache.keyFor(repost).orElseThrow());
+    }
+
+    @Test
+    void keyFor_WithoutFixedSeedOrForRefinement_IsNotCacheable() {
+        // Arrange
+        ThoughtRequestMessage unseeded = request("Ship it", GenerationParameters.builder().resolution("1024x1024").build());
+        ThoughtRequestMessage refinement = request("Ship it", GenerationParameters.builder().seed(42L).build());
+        refinement.setImageRefinementInstructions("Warmer colours");
+
+        // Act & Assert
+        assertTrue(cache.keyFor(unseeded).isEmpty());
+        assertTrue(cache.keyFor(refinement).isEmpty());
+    }
+
+    @Test
+    void lookup_ReturnsCopiesWithFreshPostingState() {
+        // Arrange
+        when(cacheRepository.findById("key-1")).thenReturn(Optional.of(EnrichmentCacheEntry.builder()
+                .id("key-1")
+                .enrichedContents(List.of(ThoughtsToPost.EnrichedContent.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .body("Cached body")
+                        .status(PostStatus.POSTED)
+                        .postId("urn:li:share:1")
+                        .build()))
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build()));
+
+        // Act
+        List<ThoughtsToPost.EnrichedContent> contents = cache.lookup("key-1").orElseThrow();
+
+        // Assert
+        assertEquals("Cached body", contents.get(0).getBody());
+        assertEquals(PostStatus.PENDING, contents.get(0).getStatus());
+        assertNull(contents.get(0).getPostId());
+        assertEquals(1.0, meterRegistry.get("enrichment.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void lookup_ExpiredEntry_IsAMiss() {
+        // Arrange
+        when(cacheRepository.findById("key-1")).thenReturn(Optional.of(EnrichmentCacheEntry.builder()
+                .id("key-1")
+                .expiresAt(Instant.now().minusSeconds(1))
+                .build()));
+
+        // Act & Assert
+        assertTrue(cache.lookup("key-1").isEmpty());
+        assertEquals(1.0, meterRegistry.get("enrichment.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void store_OverSizeBound_EvictsOldest() {
+        // Arrange
+        when(cacheRepository.count()).thenReturn(3L);
+        when(cacheRepository.findOldest(any())).thenReturn(List.of(EnrichmentCacheEntry.builder().id("oldest").build()));
+
+        // Act
+        cache.store("key-3", List.of(ThoughtsToPost.EnrichedContent.builder()
+                .platform(PlatformType.LINKEDIN)
+                .body("Fresh body")
+                .build()));
+
+        // Assert
+        verify(cacheRepository).save(argThat(entry -> "key-3".equals(entry.getId()) && entry.getExpiresAt() != null));
+        verify(cacheRepository).deleteAllById(List.of("oldest"));
+        assertEquals(1.0, meterRegistry.get("enrichment.cache.evicted").counter().count());
+    }
+
+    private ThoughtRequestMessage request(String thought, GenerationParameters imageParams) {
+        return ThoughtRequestMessage.builder()
+                .requestId("thought-1")
+                .userId("user-1")
+                .originalThought(thought)
+                .modelRole("Tech role")
+                .platformConfigurations(List.of(ThoughtRequestMessage.PlatformConfiguration.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .prompt("Write for LinkedIn")
+                        .imageParams(imageParams)
+                        .build()))
+                .build();
+    }
+}
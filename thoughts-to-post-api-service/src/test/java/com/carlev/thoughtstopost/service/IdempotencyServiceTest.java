@@ -0,0 +1,123 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.IdempotencyRecord;
+import com.carlev.thoughtstopost.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(repository, new SimpleMeterRegistry(), Duration.ofHours(24), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void claim_NewKey_InsertsLock() {
+        // Act
+        IdempotencyService.Claim claim = service.claim("user-1", "key-1", "fp");
+
+        // Assert
+        assertEquals(IdempotencyService.Claim.Result.ACQUIRED, claim.result());
+        verify(repository).insert(argThat((IdempotencyRecord r) -> "user-1:key-1".equals(r.getId())
+                && r.getState() == IdempotencyRecord.State.IN_PROGRESS));
+    }
+
+    @Test
+    void claim_CompletedKey_ReplaysStoredResponse() {
+        // Arrange
+        IdempotencyRecord stored = IdempotencyRecord.builder()
+                .id("user-1:key-1").fingerprint("fp").state(IdempotencyRecord.State.COMPLETED).statusCode(201).build();
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(repository.findById("user-1:key-1")).thenReturn(Optional.of(stored));
+
+        // Act
+        IdempotencyService.Claim claim = service.claim("user-1", "key-1", "fp");
+
+        // Assert
+        assertEquals(IdempotencyService.Claim.Result.REPLAY, claim.result());
+        assertSame(stored, claim.record());
+    }
+
+    @Test
+    void claim_KeyReusedForDifferentRequest_IsMismatch() {
+        // Arrange
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(repository.findById("user-1:key-1")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .id("user-1:key-1").fingerprint("other").state(IdempotencyRecord.State.COMPLETED).build()));
+
+        // Act & Assert
+        assertEquals(IdempotencyService.Claim.Result.MISMATCH, service.claim("user-1", "key-1", "fp").result());
+    }
+
+    @Test
+    void claim_AbandonedLock_IsTakenOver() {
+        // Arrange
+        when(repository.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("dup"))
+                .thenAnswer(inv -> inv.getArgument(0));
+        when(repository.findById("user-1:key-1")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .id("user-1:key-1").fingerprint("fp").state(IdempotencyRecord.State.IN_PROGRESS)
+                .expiresAt(Instant.now().minusSeconds(5)).build()));
+        when(repository.deleteByIdAndStateAndExpiresAtBefore(eq("user-1:key-1"), eq(IdempotencyRecord.State.IN_PROGRESS), any()))
+                .thenReturn(1L);
+
+        // Act & Assert
+        assertEquals(IdempotencyService.Claim.Result.ACQUIRED, service.claim("user-1", "key-1", "fp").result());
+    }
+
+    @Test
+    void complete_StoresResponseOnlyUnderTheHoldersToken() {
+        // Arrange
+        IdempotencyRecord lock = service.claim("user-1", "key-1", "fp").record();
+        byte[] body = "{}".getBytes();
+        when(repository.completeHeldLock(eq("user-1:key-1"), eq(lock.getLockToken()), eq(201), eq("application/json"),
+                eq(body), any(), any())).thenReturn(1L);
+
+        // Act & Assert
+        assertNotNull(lock.getLockToken());
+        assertTrue(service.complete(lock, 201, "application/json", body));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void complete_AfterTakeover_LeavesTheNewHoldersLock() {
+        // Arrange: the lock expired and another request claimed the key with its own token
+        IdempotencyRecord stale = IdempotencyRecord.builder()
+                .id("user-1:key-1").fingerprint("fp").state(IdempotencyRecord.State.IN_PROGRESS)
+                .lockToken("stale-token").build();
+        when(repository.completeHeldLock(eq("user-1:key-1"), eq("stale-token"), anyInt(), any(), any(), any(), any()))
+                .thenReturn(0L);
+
+        // Act
+        boolean stored = service.complete(stale, 201, "application/json", new byte[0]);
+        service.release(stale);
+
+        // Assert
+        assertFalse(stored);
+        verify(repository, never()).save(any());
+        verify(repository).deleteByIdAndStateAndLockToken("user-1:key-1", IdempotencyRecord.State.IN_PROGRESS,
+                "stale-token");
+    }
+}
@@ -0,0 +1,93 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.kafka.DispatchLane;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DispatchLeaseStore} held in memory, shared between dispatchers in a test to stand in for replicas.
+ */
+public class InMemoryDispatchLeaseStore implements DispatchLeaseStore {
+
+    private final Map<DispatchLane, List<Slot>> slots = new EnumMap<>(DispatchLane.class);
+    private final Map<DispatchLane, Integer> capacities = new EnumMap<>(DispatchLane.class);
+
+    @Override
+    public synchronized void ensureCapacity(DispatchLane lane, int capacity) {
+        capacities.put(lane, capacity);
+        List<Slot> laneSlots = slots.computeIfAbsent(lane, key -> new ArrayList<>());
+        while (laneSlots.size() < capacity) {
+            laneSlots.add(new Slot());
+        }
+    }
+
+    @Override
+    public synchronized boolean claim(DispatchLane lane, String requestId, Long generation, String owner,
+                                      Instant expiresAt) {
+        List<Slot> laneSlots = slots.getOrDefault(lane, List.of());
+        // As in Mongo: only slots below the configured capacity are handed out
+        List<Slot> claimable = laneSlots.subList(0, Math.min(laneSlots.size(),
+                capacities.getOrDefault(lane, laneSlots.size())));
+        Slot slot = laneSlots.stream().filter(s -> requestId.equals(s.requestId)).findFirst()
+                .or(() -> claimable.stream().filter(Slot::isFree).findFirst())
+                .orElse(null);
+        if (slot == null) {
+            return false;
+        }
+        slot.requestId = requestId;
+        slot.generation = generation;
+        slot.expiresAt = expiresAt;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean holds(String requestId, Long generation) {
+        return slots.values().stream().flatMap(List::stream)
+                .anyMatch(s -> !s.isFree() && requestId.equals(s.requestId) && generation.equals(s.generation));
+    }
+
+    @Override
+    public synchronized long release(String requestId, Long generation) {
+        long released = 0;
+        for (Slot slot : (Iterable<Slot>) slots.values().stream().flatMap(List::stream)::iterator) {
+            if (requestId.equals(slot.requestId)
+                    && (generation == null || slot.generation == null || slot.generation <= generation)) {
+                slot.requestId = null;
+                slot.generation = null;
+                slot.expiresAt = null;
+                released++;
+            }
+        }
+        return released;
+    }
+
+    @Override
+    public synchronized int countHeld(DispatchLane lane) {
+        return (int) slots.getOrDefault(lane, List.of()).stream().filter(s -> !s.isFree()).count();
+    }
+
+    /**
+     * Expiry of the lease a request holds, or null.
+     */
+    public synchronized Instant expiryOf(String requestId) {
+        return slots.values().stream().flatMap(List::stream)
+                .filter(s -> requestId.equals(s.requestId))
+                .map(s -> s.expiresAt)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static final class Slot {
+        private String requestId;
+        private Long generation;
+        private Instant expiresAt;
+
+        private boolean isFree() {
+            return requestId == null || expiresAt.isBefore(Instant.now());
+        }
+    }
+}
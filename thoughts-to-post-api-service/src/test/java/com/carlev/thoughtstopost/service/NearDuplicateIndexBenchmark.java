@@ -0,0 +1,92 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Index memory and query latency at scale. Excluded from {@code test}; run with
+ * {@code ./gradlew benchmark -Dbenchmark.thoughts=1000000}.
+ */
+@Tag("benchmark")
+public class NearDuplicateIndexBenchmark {
+
+    private static final String[] WORDS = ("remote work team async meeting product launch customer feedback data model "
+            + "cloud cost startup hiring culture design review code quality test deploy release latency scale growth "
+            + "market sales pricing strategy leadership focus roadmap").split(" ");
+
+    @Test
+    void indexMemoryAndQueryLatency() {
+        int thoughts = Integer.getInteger("benchmark.thoughts", 1_000_000);
+        int thoughtsPerUser = 1_000;
+        int users = Math.max(1, thoughts / thoughtsPerUser);
+        int queries = 10_000;
+        Random random = new Random(1);
+        NearDuplicateIndex index = new NearDuplicateIndex(mock(ThoughtsToPostRepository.class), new SimpleMeterRegistry());
+
+        String[] probes = new String[Math.min(thoughts, 1_000)];
+        long heapBefore = usedHeap();
+        long buildStarted = System.nanoTime();
+        for (int i = 0; i < thoughts; i++) {
+            String text = randomThought(random);
+            if (i < probes.length) {
+                probes[i] = text;
+            }
+            index.add("user-" + (i % users), id(i), text);
+        }
+        long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+        long heapBytes = usedHeap() - heapBefore;
+
+        // Each probe is a light rewording of a stored thought and should find it first
+        long[] latencies = new long[queries];
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            int i = q % probes.length;
+            String reworded = probes[i].replaceFirst("team", "teams").replaceFirst("data", "the data");
+            long started = System.nanoTime();
+            List<NearDuplicateIndex.Match> matches = index.findSimilar("user-" + (i % users), reworded, 5, 0.5);
+            latencies[q] = System.nanoTime() - started;
+            if (!matches.isEmpty() && matches.get(0).thoughtId().equals(id(i))) {
+                found++;
+            }
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("Near-duplicate index: %,d thoughts over %,d users built in %,d ms%n", thoughts, users, buildMillis);
+        System.out.printf("  heap %,d MB measured, %,d MB estimated (%d bytes per thought)%n",
+                heapBytes >> 20, index.estimatedBytes() >> 20, index.estimatedBytes() / thoughts);
+        System.out.printf("  query p50 %.1f us, p99 %.1f us, max %.1f us; recall %d/%d%n",
+                latencies[queries / 2] / 1000.0, latencies[queries * 99 / 100] / 1000.0,
+                latencies[queries - 1] / 1000.0, found, queries);
+
+        assertTrue(found >= queries * 0.95, "Light rewordings should almost always be found");
+        assertTrue(latencies[queries * 99 / 100] < 10_000_000, "p99 query latency should stay within milliseconds");
+    }
+
+    private static String randomThought(Random random) {
+        StringBuilder text = new StringBuilder();
+        int length = 15 + random.nextInt(20);
+        for (int w = 0; w < length; w++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    private static String id(int i) {
+        return String.format("%024x", i);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,111 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class NearDuplicateIndexTest {
+
+    private static final String ORIGINAL = "Remote work makes teams more productive when meetings are kept async.";
+    private static final String REWORDED = "Remote work makes teams more productive if meetings are asynchronous";
+    private static final String UNRELATED = "Kubernetes operators are overkill for most small startups.";
+
+    @Mock
+    private ThoughtsToPostRepository thoughtsRepository;
+
+    private NearDuplicateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NearDuplicateIndex(thoughtsRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void findSimilar_RewordedThought_IsFoundAndUnrelatedIsNot() {
+        // Arrange
+        index.add("user-1", "t-1", ORIGINAL);
+        index.add("user-1", "t-2", UNRELATED);
+
+        // Act
+        List<NearDuplicateIndex.Match> matches = index.findSimilar("user-1", REWORDED, 5, 0.5);
+
+        // Assert
+        assertEquals(1, matches.size());
+        assertEquals("t-1", matches.get(0).thoughtId());
+        assertTrue(matches.get(0).similarity() > 0.5);
+    }
+
+    @Test
+    void findSimilar_OnlySearchesTheUsersOwnThoughts() {
+        // Arrange
+        index.add("user-2", "t-1", ORIGINAL);
+
+        // Act & Assert
+        assertTrue(index.findSimilar("user-1", ORIGINAL, 5, 0.5).isEmpty());
+        assertEquals(1.0, index.findSimilar("user-2", ORIGINAL, 5, 0.5).get(0).similarity());
+    }
+
+    @Test
+    void remove_DropsThoughtFromResults() {
+        // Arrange
+        index.add("user-1", "t-1", ORIGINAL);
+
+        // Act
+        index.remove("user-1", "t-1");
+
+        // Assert
+        assertTrue(index.findSimilar("user-1", ORIGINAL, 5, 0.0).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void remove_CompactsTombstonesInsteadOfGrowing() {
+        // Arrange: eight thoughts fill the user's arrays
+        for (int i = 0; i < 8; i++) {
+            index.add("user-1", "t-" + i, UNRELATED + " #" + i);
+        }
+        long fullBytes = index.estimatedBytes();
+
+        // Act: delete six and add five new ones
+        for (int i = 0; i < 6; i++) {
+            index.remove("user-1", "t-" + i);
+        }
+        for (int i = 0; i < 4; i++) {
+            index.add("user-1", "u-" + i, UNRELATED + " #" + (10 + i));
+        }
+        index.add("user-1", "u-4", ORIGINAL);
+
+        // Assert: the freed slots were reused rather than the arrays doubling, and live thoughts are still found
+        assertEquals(7, index.size());
+        assertTrue(index.estimatedBytes() < fullBytes);
+        assertEquals("u-4", index.findSimilar("user-1", REWORDED, 1, 0.5).get(0).thoughtId());
+        assertEquals(1.0, index.findSimilar("user-1", UNRELATED + " #7", 8, 0.0).get(0).similarity());
+    }
+
+    @Test
+    void rebuild_LoadsEveryStoredThought() {
+        // Arrange
+        when(thoughtsRepository.findAllOriginalThoughts()).thenReturn(Stream.of(
+                ThoughtsToPost.builder().id("t-1").userId("user-1").originalThought(ORIGINAL).build(),
+                ThoughtsToPost.builder().id("t-2").userId("user-2").originalThought(UNRELATED).build()));
+
+        // Act
+        index.rebuild();
+
+        // Assert
+        assertEquals(2, index.size());
+        assertEquals("t-1", index.findSimilar("user-1", REWORDED, 1, 0.5).get(0).thoughtId());
+    }
+}
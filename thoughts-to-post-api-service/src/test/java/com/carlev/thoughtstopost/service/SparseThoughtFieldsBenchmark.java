@@ -0,0 +1,224 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.ThoughtField;
+import com.carlev.thoughtstopost.dto.ThoughtResponse;
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Full list response against {@code fields=} sparse responses for one user with many thoughts: BSON bytes the
+ * server would send, heap allocated decoding and serializing, response bytes and time. The server-side projection
+ * is applied to the stored documents up front, so the decode and serialization costs are the service's own.
+ * Excluded from {@code test}; run with {@code ./gradlew benchmark -Dbenchmark.user-thoughts=10000}.
+ */
+@Tag("benchmark")
+public class SparseThoughtFieldsBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final SparseThoughtWriter writer = new SparseThoughtWriter(objectMapper);
+    private final MappingMongoConverter converter = converter();
+
+    @Test
+    void fullAgainstSparseListResponse() throws Exception {
+        int thoughts = Integer.getInteger("benchmark.user-thoughts", 10_000);
+        int imageBytes = Integer.getInteger("benchmark.image-bytes", 8 * 1024);
+        List<Document> stored = new ArrayList<>(thoughts);
+        for (int i = 0; i < thoughts; i++) {
+            Document document = new Document();
+            converter.write(thought(i, imageBytes), document);
+            stored.add(document);
+        }
+
+        Result full = measureFull(stored);
+        System.out.printf("User with %,d thoughts (%,d byte images)%n", thoughts, imageBytes);
+        print("full", full);
+        for (String fields : List.of("id,status,updatedAt", "id,status,enrichedContents")) {
+            Result sparse = measureSparse(stored, ThoughtField.parse(fields));
+            print("fields=" + fields, sparse);
+            assertTrue(sparse.bsonBytes() < full.bsonBytes());
+            assertTrue(sparse.allocatedBytes() < full.allocatedBytes());
+        }
+    }
+
+    private Result measureFull(List<Document> stored) throws Exception {
+        long bsonBytes = stored.stream().mapToLong(SparseThoughtFieldsBenchmark::bsonSize).sum();
+        Result best = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            CountingOutputStream out = new CountingOutputStream();
+            long allocatedBefore = allocatedBytes();
+            long started = System.nanoTime();
+            // As getUserThoughts: decode every document, map every DTO, then serialize the list
+            List<ThoughtResponse> responses = stored.stream()
+                    .map(document -> converter.read(ThoughtsToPost.class, document))
+                    .map(ThoughtResponse::fromEntity)
+                    .toList();
+            objectMapper.writeValue(out, responses);
+            best = best(best, new Result(bsonBytes, allocatedBytes() - allocatedBefore, out.count,
+                    System.nanoTime() - started));
+        }
+        return best;
+    }
+
+    private Result measureSparse(List<Document> stored, Set<ThoughtField> fields) throws Exception {
+        List<String> paths = ThoughtField.projection(fields);
+        List<Document> projected = stored.stream().map(document -> project(document, paths)).toList();
+        long bsonBytes = projected.stream().mapToLong(SparseThoughtFieldsBenchmark::bsonSize).sum();
+        Result best = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            CountingOutputStream out = new CountingOutputStream();
+            long allocatedBefore = allocatedBytes();
+            long started = System.nanoTime();
+            // As writeUserThoughtsFields: decode each projected document as the cursor yields it and write it
+            writer.writeArray(projected.stream()
+                    .map(document -> converter.read(ThoughtsToPost.class, document))
+                    .iterator(), fields, out);
+            best = best(best, new Result(bsonBytes, allocatedBytes() - allocatedBefore, out.count,
+                    System.nanoTime() - started));
+        }
+        return best;
+    }
+
+    private static Result best(Result best, Result round) {
+        return best == null || round.nanos() < best.nanos() ? round : best;
+    }
+
+    private static void print(String label, Result result) {
+        System.out.printf("  %-30s bson %,8d KB  allocated %,9d KB  response %,8d KB  %,6.1f ms%n", label,
+                result.bsonBytes() >> 10, result.allocatedBytes() >> 10, result.responseBytes() >> 10,
+                result.nanos() / 1e6);
+    }
+
+    /**
+     * What Mongo returns for an inclusion projection: the listed paths, through arrays of sub-documents.
+     */
+    private static Document project(Document source, List<String> paths) {
+        Document target = new Document();
+        for (String path : paths) {
+            copy(source, target, path.split("\\."), 0);
+        }
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void copy(Document from, Document to, String[] parts, int depth) {
+        String key = depth == 0 && parts[0].equals("id") ? "_id" : parts[depth];
+        Object value = from.get(key);
+        if (value == null) {
+            return;
+        }
+        if (depth == parts.length - 1) {
+            to.put(key, value);
+        } else if (value instanceof Document nested) {
+            copy(nested, (Document) to.computeIfAbsent(key, k -> new Document()), parts, depth + 1);
+        } else if (value instanceof List<?> list) {
+            List<Object> targets = (List<Object>) to.computeIfAbsent(key, k -> {
+                List<Object> documents = new ArrayList<>(list.size());
+                list.forEach(item -> documents.add(new Document()));
+                return documents;
+            });
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) instanceof Document nested) {
+                    copy(nested, (Document) targets.get(i), parts, depth + 1);
+                }
+            }
+        }
+    }
+
+    private static long bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static MappingMongoConverter converter() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private static ThoughtsToPost thought(int i, int imageBytes) {
+        char[] data = new char[imageBytes];
+        Arrays.fill(data, (char) ('A' + i % 26));
+        String base64 = new String(data);
+        List<ThoughtsToPost.EnrichedContent> contents = new ArrayList<>();
+        for (PlatformType platform : PlatformType.values()) {
+            contents.add(ThoughtsToPost.EnrichedContent.builder()
+                    .platform(platform)
+                    .title("Title " + i)
+                    .body("Enriched body of thought " + i + " for " + platform + ". ".repeat(40))
+                    .hashtags(List.of("#remote", "#work", "#async"))
+                    .characterCount(900)
+                    .status(PostStatus.ENRICHED)
+                    .images(List.of(ThoughtsToPost.GeneratedImage.builder()
+                            .id("img-" + i + "-" + platform)
+                            .base64Data(base64)
+                            .url("data:image/png;base64," + base64)
+                            .prompt("An illustration of thought " + i)
+                            .format("png")
+                            .width(1024)
+                            .height(1024)
+                            .createdAt(LocalDateTime.now())
+                            .build()))
+                    .build());
+        }
+        return ThoughtsToPost.builder()
+                .id(String.format("%024x", i))
+                .userId("user-1")
+                .categoryId("cat-1")
+                .originalThought("Original thought " + i + " about remote work and async teams")
+                .platformSelections(Arrays.stream(PlatformType.values())
+                        .map(platform -> ThoughtsToPost.PlatformSelection.builder().platform(platform).build())
+                        .toList())
+                .enrichedContents(contents)
+                .selectedPlatforms(List.of(PlatformType.values()))
+                .status(PostStatus.ENRICHED)
+                .version(3L)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private record Result(long bsonBytes, long allocatedBytes, long responseBytes, long nanos) {
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.dto.ThoughtField;
+import com.carlev.thoughtstopost.dto.ThoughtResponse;
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SparseThoughtWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final SparseThoughtWriter writer = new SparseThoughtWriter(objectMapper);
+
+    @Test
+    void writeObject_WritesRequestedFieldsAsThoughtResponseWould() throws Exception {
+        // Arrange
+        ThoughtsToPost thought = thought("thought-1");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EnumSet<ThoughtField> fields = EnumSet.of(ThoughtField.UPDATED_AT, ThoughtField.ID,
+                ThoughtField.ENRICHED_CONTENTS, ThoughtField.POST_IMAGE);
+
+        // Act
+        writer.writeObject(thought, fields, out);
+
+        // Assert
+        JsonNode sparse = objectMapper.readTree(out.toByteArray());
+        JsonNode full = objectMapper.valueToTree(ThoughtResponse.fromEntity(thought));
+        assertEquals(List.of("id", "enrichedContents", "updatedAt", "postImage"), fieldNames(sparse));
+        for (ThoughtField field : fields) {
+            assertEquals(full.get(field.jsonName()), sparse.get(field.jsonName()), field.jsonName());
+        }
+    }
+
+    @Test
+    void writeArray_WritesOneObjectPerThoughtAndLeavesStreamOpen() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        writer.writeArray(List.of(thought("thought-1"), thought("thought-2")).iterator(),
+                EnumSet.of(ThoughtField.ID, ThoughtField.STATUS), out);
+        out.write(' ');
+
+        // Assert
+        assertEquals("[{\"id\":\"thought-1\",\"status\":\"ENRICHED\"},{\"id\":\"thought-2\",\"status\":\"ENRICHED\"}] ",
+                out.toString());
+    }
+
+    @Test
+    void parse_UnknownOrEmptyFields_AreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ThoughtField.parse("id,generatedImageBase64"));
+        assertThrows(IllegalArgumentException.class, () -> ThoughtField.parse(" , "));
+        assertEquals(EnumSet.of(ThoughtField.ID, ThoughtField.STATUS), ThoughtField.parse("status, id"));
+    }
+
+    @Test
+    void projection_LeavesOutImageDataAndDispatchState() {
+        List<String> paths = ThoughtField.projection(EnumSet.allOf(ThoughtField.class));
+
+        assertTrue(paths.contains("enrichedContents.images.url"));
+        assertFalse(paths.stream().anyMatch(path -> path.contains("base64")));
+        assertFalse(paths.stream().anyMatch(path -> path.startsWith("lastDispatch") || path.equals("generation")));
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static ThoughtsToPost thought(String id) {
+        return ThoughtsToPost.builder()
+                .id(id)
+                .userId("user-1")
+                .originalThought("Thought " + id)
+                .status(PostStatus.ENRICHED)
+                .version(2L)
+                .updatedAt(LocalDateTime.of(2026, 10, 1, 12, 30))
+                .enrichedContents(List.of(ThoughtsToPost.EnrichedContent.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .body("Body")
+                        .images(List.of(ThoughtsToPost.GeneratedImage.builder()
+                                .id("img-1")
+                                .base64Data("aGVsbG8=")
+                                .url("https://cdn.example/img-1.png")
+                                .build()))
+                        .build()))
+                .build();
+    }
+}
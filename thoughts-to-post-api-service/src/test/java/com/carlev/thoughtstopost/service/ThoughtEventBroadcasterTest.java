@@ -0,0 +1,170 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.controller.ThoughtsController;
+import com.carlev.thoughtstopost.kafka.ThoughtEventMessage;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@ExtendWith(MockitoExtension.class)
+public class ThoughtEventBroadcasterTest {
+
+    @Mock
+    private ThoughtsService thoughtsService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ThoughtEventBroadcaster broadcaster;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Sends run on the calling thread, so each stream's content is complete when broadcast returns
+        broadcaster = new ThoughtEventBroadcaster(new ObjectMapper().findAndRegisterModules(), meterRegistry,
+                3, Duration.ofMinutes(10), Duration.ofMinutes(30), 16, Runnable::run);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ThoughtsController(thoughtsService, broadcaster)).build();
+    }
+
+    @Test
+    void stream_ReceivesLiveEventsForItsUserOnly() throws Exception {
+        // Arrange
+        MockHttpServletResponse stream = open("user-1", null);
+
+        // Act
+        broadcaster.broadcast("0-5", event("user-1", "thought-1"));
+        broadcaster.broadcast("0-6", event("user-2", "thought-2"));
+
+        // Assert
+        String content = stream.getContentAsString();
+        assertTrue(content.contains("id:0-5\nevent:status\ndata:{"), content);
+        assertTrue(content.contains("\"thoughtId\":\"thought-1\""));
+        assertFalse(content.contains("thought-2"));
+        assertEquals(1.0, meterRegistry.get("thought.events.subscribers").gauge().value());
+    }
+
+    @Test
+    void stream_WithLastEventId_ReplaysOnlyMissedEvents() throws Exception {
+        // Arrange
+        broadcaster.broadcast("0-1", event("user-1", "thought-1"));
+        broadcaster.broadcast("0-2", event("user-1", "thought-2"));
+        broadcaster.broadcast("0-3", event("user-1", "thought-3"));
+
+        // Act
+        MockHttpServletResponse stream = open("user-1", "0-1");
+
+        // Assert
+        String content = stream.getContentAsString();
+        assertFalse(content.contains("id:0-1\n"));
+        assertTrue(content.contains("id:0-2\n"));
+        assertTrue(content.contains("id:0-3\n"));
+        assertFalse(content.contains("event:resync"));
+    }
+
+    @Test
+    void stream_WithLastEventIdNoLongerBuffered_AsksClientToResync() throws Exception {
+        // Arrange: the buffer holds three events, so 0-1 has been dropped
+        for (int offset = 1; offset <= 4; offset++) {
+            broadcaster.broadcast("0-" + offset, event("user-1", "thought-" + offset));
+        }
+
+        // Act
+        MockHttpServletResponse stream = open("user-1", "0-1");
+
+        // Assert
+        String content = stream.getContentAsString();
+        assertTrue(content.contains("event:resync"));
+        assertFalse(content.contains("id:0-2\n"));
+    }
+
+    @Test
+    void heartbeat_KeepsOpenStreamsAndDropsIdleBuffers() throws Exception {
+        // Arrange
+        ThoughtEventBroadcaster shortWindow = new ThoughtEventBroadcaster(new ObjectMapper().findAndRegisterModules(),
+                new SimpleMeterRegistry(), 3, Duration.ZERO, Duration.ofMinutes(30), 16, Runnable::run);
+        shortWindow.broadcast("0-1", event("user-1", "thought-1"));
+        MockHttpServletResponse stream = MockMvcBuilders.standaloneSetup(new ThoughtsController(thoughtsService, shortWindow))
+                .build()
+                .perform(get("/api/thoughts/stream").principal(auth("user-2")))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+
+        // Act
+        Thread.sleep(5);
+        shortWindow.heartbeat();
+
+        // Assert
+        assertTrue(stream.getContentAsString().contains(":heartbeat"));
+        assertEquals(1, shortWindow.subscriberCount());
+        MockHttpServletResponse resumed = MockMvcBuilders.standaloneSetup(new ThoughtsController(thoughtsService, shortWindow))
+                .build()
+                .perform(get("/api/thoughts/stream").header("Last-Event-ID", "0-1").principal(auth("user-1")))
+                .andReturn()
+                .getResponse();
+        assertTrue(resumed.getContentAsString().contains("event:resync"));
+    }
+
+    @Test
+    void broadcast_StalledStream_IsClosedWithoutBlockingTheCaller() throws Exception {
+        // Arrange: send tasks are queued but never run, like a client that stopped reading
+        List<Runnable> stalledSends = new ArrayList<>();
+        ThoughtEventBroadcaster stalled = new ThoughtEventBroadcaster(new ObjectMapper().findAndRegisterModules(),
+                meterRegistry, 3, Duration.ofMinutes(10), Duration.ofMinutes(30), 2, stalledSends::add);
+        MockMvcBuilders.standaloneSetup(new ThoughtsController(thoughtsService, stalled))
+                .build()
+                .perform(get("/api/thoughts/stream").principal(auth("user-1")))
+                .andExpect(request().asyncStarted());
+
+        // Act: "connected" plus one event fill the stream's queue; the next event overflows it
+        stalled.broadcast("0-1", event("user-1", "thought-1"));
+        stalled.broadcast("0-2", event("user-1", "thought-2"));
+
+        // Assert
+        assertEquals(1, stalledSends.size(), "One send task per stream, however many events are queued");
+        assertEquals(0, stalled.subscriberCount());
+        assertEquals(1.0, meterRegistry.get("thought.events.lagging").counter().count());
+    }
+
+    private MockHttpServletResponse open(String userId, String lastEventId) throws Exception {
+        var builder = get("/api/thoughts/stream").principal(auth(userId));
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static UsernamePasswordAuthenticationToken auth(String userId) {
+        return new UsernamePasswordAuthenticationToken(userId, null, List.of());
+    }
+
+    private static ThoughtEventMessage event(String userId, String thoughtId) {
+        return ThoughtEventMessage.builder()
+                .thoughtId(thoughtId)
+                .userId(userId)
+                .type(ThoughtEventMessage.EventType.STATUS)
+                .status(PostStatus.ENRICHED)
+                .occurredAt(Instant.now())
+                .build();
+    }
+}
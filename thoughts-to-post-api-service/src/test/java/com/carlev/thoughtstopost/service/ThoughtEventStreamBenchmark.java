@@ -0,0 +1,243 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.controller.ThoughtsController;
+import com.carlev.thoughtstopost.kafka.ThoughtEventMessage;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Idle SSE subscribers on one instance: heap per open stream, heartbeat sweep time and event delivery latency.
+ * Runs {@link ThoughtsController#streamEvents} on embedded Tomcat (NIO, as in the service) with real HTTP/1.1
+ * clients. Excluded from {@code test}; run with {@code ./gradlew benchmark -Dbenchmark.sse.subscribers=10000}.
+ * Client and server share the JVM, so heap per subscriber is an upper bound, and the process needs a file
+ * descriptor limit above twice the subscriber count.
+ */
+@Tag("benchmark")
+public class ThoughtEventStreamBenchmark {
+
+    private static final int CONNECTS_IN_FLIGHT = 200;
+
+    @Test
+    void idleSubscribersHeapAndDeliveryLatency() throws Exception {
+        int subscribers = Integer.getInteger("benchmark.sse.subscribers", 10_000);
+        int users = Math.min(subscribers, Integer.getInteger("benchmark.sse.users", 1_000));
+        ThoughtEventBroadcaster broadcaster = new ThoughtEventBroadcaster(new ObjectMapper().findAndRegisterModules(),
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), Duration.ofMinutes(30), 256);
+
+        Tomcat tomcat = startServer(broadcaster, subscribers);
+        int port = tomcat.getConnector().getLocalPort();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try {
+            long heapBefore = usedHeap();
+
+            // Connect
+            CountDownLatch connected = new CountDownLatch(subscribers);
+            CountDownLatch delivered = new CountDownLatch(subscribers);
+            Semaphore connecting = new Semaphore(CONNECTS_IN_FLIGHT);
+            AtomicInteger errors = new AtomicInteger();
+            List<StreamSubscriber> streams = new ArrayList<>(subscribers);
+            long connectStarted = System.nanoTime();
+            for (int i = 0; i < subscribers; i++) {
+                connecting.acquire();
+                StreamSubscriber stream = new StreamSubscriber(connecting, connected, delivered, errors);
+                streams.add(stream);
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                + "/api/thoughts/stream?user=user-" + (i % users)))
+                        .header("Accept", "text/event-stream")
+                        .build();
+                client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(stream));
+            }
+            assertTrue(connected.await(2, TimeUnit.MINUTES), "Subscribers failed to connect: " + connected.getCount());
+            long connectMillis = (System.nanoTime() - connectStarted) / 1_000_000;
+            assertEquals(subscribers, broadcaster.subscriberCount());
+            long heapBytes = usedHeap() - heapBefore;
+
+            // Idle: one heartbeat sweep over every stream
+            long heartbeatStarted = System.nanoTime();
+            broadcaster.heartbeat();
+            long heartbeatMillis = (System.nanoTime() - heartbeatStarted) / 1_000_000;
+
+            // One event per user reaches every stream of that user
+            long broadcastStarted = System.nanoTime();
+            for (int u = 0; u < users; u++) {
+                broadcaster.broadcast("0-" + u, ThoughtEventMessage.builder()
+                        .thoughtId("thought-" + u)
+                        .userId("user-" + u)
+                        .type(ThoughtEventMessage.EventType.STATUS)
+                        .status(PostStatus.ENRICHED)
+                        .occurredAt(Instant.now())
+                        .build());
+            }
+            long broadcastMillis = (System.nanoTime() - broadcastStarted) / 1_000_000;
+            assertTrue(delivered.await(1, TimeUnit.MINUTES), "Events not delivered: " + delivered.getCount());
+
+            long[] latencies = streams.stream().mapToLong(stream -> stream.receivedAt - broadcastStarted).toArray();
+            Arrays.sort(latencies);
+
+            System.out.printf("SSE streams: %,d idle subscribers over %,d users connected in %,d ms%n",
+                    subscribers, users, connectMillis);
+            System.out.printf("  heap %,d MB for all streams, client and server (%,d bytes per subscriber)%n",
+                    heapBytes >> 20, heapBytes / subscribers);
+            System.out.printf("  heartbeat sweep %,d ms; broadcast loop %,d ms%n", heartbeatMillis, broadcastMillis);
+            System.out.printf("  delivery p50 %.1f ms, p99 %.1f ms, max %.1f ms; errors %d%n",
+                    latencies[subscribers / 2] / 1e6, latencies[subscribers * 99 / 100] / 1e6,
+                    latencies[subscribers - 1] / 1e6, errors.get());
+
+            assertEquals(0, errors.get());
+            assertTrue(latencies[subscribers * 99 / 100] < 5_000_000_000L, "p99 delivery should stay within seconds");
+        } finally {
+            client.shutdownNow();
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    private static Tomcat startServer(ThoughtEventBroadcaster broadcaster, int subscribers) throws Exception {
+        GenericWebApplicationContext webContext = new GenericWebApplicationContext();
+        AnnotationConfigUtils.registerAnnotationConfigProcessors(webContext);
+        webContext.registerBean(WebConfig.class);
+        webContext.registerBean(ThoughtsController.class,
+                () -> new ThoughtsController(mock(ThoughtsService.class), broadcaster));
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("sse-benchmark").toString());
+        Connector connector = new Connector("org.apache.coyote.http11.Http11NioProtocol");
+        connector.setPort(0);
+        connector.setProperty("maxConnections", String.valueOf(subscribers + 1_000));
+        connector.setProperty("acceptCount", String.valueOf(CONNECTS_IN_FLIGHT * 2));
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", null);
+        Wrapper dispatcher = Tomcat.addServlet(context, "dispatcher", new DispatcherServlet(webContext));
+        dispatcher.setAsyncSupported(true);
+        dispatcher.setLoadOnStartup(1);
+        context.addServletMappingDecoded("/", "dispatcher");
+
+        // Stands in for the JWT filter: the user comes from the query string
+        Filter principalFilter = (request, response, chain) -> {
+            HttpServletRequest http = (HttpServletRequest) request;
+            Principal user = new UsernamePasswordAuthenticationToken(http.getParameter("user"), null, List.of());
+            chain.doFilter(new HttpServletRequestWrapper(http) {
+                @Override
+                public Principal getUserPrincipal() {
+                    return user;
+                }
+            }, response);
+        };
+        FilterDef filterDef = new FilterDef();
+        filterDef.setFilterName("principal");
+        filterDef.setFilter(principalFilter);
+        filterDef.setAsyncSupported("true");
+        context.addFilterDef(filterDef);
+        FilterMap filterMap = new FilterMap();
+        filterMap.setFilterName("principal");
+        filterMap.addURLPattern("/*");
+        context.addFilterMap(filterMap);
+
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class WebConfig {
+    }
+
+    /**
+     * Counts the stream as connected on the broadcaster's greeting and records when the first event arrives.
+     */
+    private static final class StreamSubscriber implements Flow.Subscriber<String> {
+
+        private final Semaphore connecting;
+        private final CountDownLatch connected;
+        private final CountDownLatch delivered;
+        private final AtomicInteger errors;
+        private volatile boolean greeted;
+        private volatile long receivedAt;
+
+        StreamSubscriber(Semaphore connecting, CountDownLatch connected, CountDownLatch delivered, AtomicInteger errors) {
+            this.connecting = connecting;
+            this.connected = connected;
+            this.delivered = delivered;
+            this.errors = errors;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!greeted && line.startsWith(":connected")) {
+                greeted = true;
+                connecting.release();
+                connected.countDown();
+            } else if (receivedAt == 0 && line.startsWith("data:")) {
+                receivedAt = System.nanoTime();
+                delivered.countDown();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            errors.incrementAndGet();
+            if (!greeted) {
+                greeted = true;
+                connecting.release();
+                connected.countDown();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Exports a user with a million documents (thoughts and history, half each by default), plain and gzipped. The
+ * cursors decode every document from BSON as Mongo's would, as projected by the export, and the live heap is
+ * sampled as the export runs, so growth would show a document being retained. Excluded from {@code test}; run
+ * with {@code ./gradlew benchmark -Dbenchmark.export-documents=1000000}.
+ */
+@Tag("benchmark")
+public class ThoughtExportBenchmark {
+
+    private static final int DISTINCT_DOCUMENTS = 100;
+    private static final int SAMPLE_EVERY = 50_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final MappingMongoConverter converter = converter();
+
+    @Test
+    void millionDocumentExport() throws Exception {
+        int documents = Integer.getInteger("benchmark.export-documents", 1_000_000);
+        int thoughts = documents / 2;
+        int history = documents - thoughts;
+        List<Document> storedThoughts = new ArrayList<>();
+        List<Document> storedHistory = new ArrayList<>();
+        for (int i = 0; i < DISTINCT_DOCUMENTS; i++) {
+            Document thought = new Document();
+            converter.write(thought(i), thought);
+            storedThoughts.add(thought);
+            Document entry = new Document();
+            converter.write(ThoughtsToPostHistory.fromThoughtsToPost(thought(i),
+                    ThoughtsToPostHistory.ActionType.STATUS_CHANGE, "user-1"), entry);
+            storedHistory.add(entry);
+        }
+
+        List<Long> liveHeap = new ArrayList<>();
+        ThoughtsToPostRepository thoughtsRepository = mock(ThoughtsToPostRepository.class, withSettings().stubOnly());
+        when(thoughtsRepository.streamProjectedByUserId(eq("user-1"), isNull(), isNull(), isNull(), any()))
+                .thenAnswer(inv -> cursor(storedThoughts, thoughts, ThoughtsToPost.class, liveHeap));
+        ThoughtsToPostHistoryRepository historyRepository = mock(ThoughtsToPostHistoryRepository.class,
+                withSettings().stubOnly());
+        when(historyRepository.streamByUserIdExcluding(eq("user-1"), any()))
+                .thenAnswer(inv -> cursor(storedHistory, history, ThoughtsToPostHistory.class, liveHeap));
+        ThoughtExportService exportService = new ThoughtExportService(thoughtsRepository, historyRepository,
+                new SparseThoughtWriter(objectMapper), objectMapper, new SimpleMeterRegistry());
+
+        System.out.printf("Export of %,d thoughts and %,d history entries%n", thoughts, history);
+        for (boolean gzip : List.of(false, true)) {
+            liveHeap.clear();
+            CountingOutputStream counted = new CountingOutputStream();
+            long started = System.nanoTime();
+            if (gzip) {
+                try (GZIPOutputStream out = new GZIPOutputStream(counted, 64 * 1024, true)) {
+                    exportService.export("user-1", true, true, out);
+                }
+            } else {
+                exportService.export("user-1", true, true, counted);
+            }
+            long nanos = System.nanoTime() - started;
+
+            long first = liveHeap.get(0);
+            long last = liveHeap.get(liveHeap.size() - 1);
+            long peak = liveHeap.stream().mapToLong(Long::longValue).max().orElseThrow();
+            System.out.printf("  %-5s %,9d KB  %,7.0f ms  %,9.0f docs/s%n", gzip ? "gzip" : "plain",
+                    counted.count >> 10, nanos / 1e6, documents / (nanos / 1e9));
+            System.out.printf("        live heap first %,d KB, peak %,d KB, last %,d KB%n",
+                    first >> 10, peak >> 10, last >> 10);
+            if (!gzip) {
+                assertEquals(documents + 1, counted.lines);
+            }
+            assertTrue(last - first < 16L * 1024 * 1024, "live heap grew by " + ((last - first) >> 10) + " KB");
+        }
+    }
+
+    /**
+     * A cursor over {@code count} documents cycling through the stored ones, decoding each as it is read.
+     */
+    private <T> Stream<T> cursor(List<Document> stored, int count, Class<T> type, List<Long> liveHeap) {
+        Function<Integer, T> decode = i -> {
+            if (i % SAMPLE_EVERY == 0) {
+                liveHeap.add(liveHeapBytes());
+            }
+            return converter.read(type, stored.get(i % stored.size()));
+        };
+        return IntStream.range(0, count).boxed().map(decode);
+    }
+
+    private static long liveHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static MappingMongoConverter converter() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    /**
+     * A thought as the export projects it: image references but no image data.
+     */
+    private static ThoughtsToPost thought(int i) {
+        List<ThoughtsToPost.EnrichedContent> contents = new ArrayList<>();
+        for (PlatformType platform : PlatformType.values()) {
+            contents.add(ThoughtsToPost.EnrichedContent.builder()
+                    .platform(platform)
+                    .title("Title " + i)
+                    .body("Enriched body of thought " + i + " for " + platform + ". ".repeat(40))
+                    .hashtags(List.of("#remote", "#work", "#async"))
+                    .characterCount(900)
+                    .status(PostStatus.POSTED)
+                    .images(List.of(ThoughtsToPost.GeneratedImage.builder()
+                            .id("img-" + i + "-" + platform)
+                            .prompt("An illustration of thought " + i)
+                            .format("png")
+                            .width(1024)
+                            .height(1024)
+                            .createdAt(LocalDateTime.now())
+                            .build()))
+                    .build());
+        }
+        return ThoughtsToPost.builder()
+                .id(String.format("%024x", i))
+                .userId("user-1")
+                .categoryId("cat-1")
+                .originalThought("Original thought " + i + " about remote work and async teams")
+                .platformSelections(Arrays.stream(PlatformType.values())
+                        .map(platform -> ThoughtsToPost.PlatformSelection.builder().platform(platform).build())
+                        .toList())
+                .enrichedContents(contents)
+                .selectedPlatforms(List.of(PlatformType.values()))
+                .status(PostStatus.POSTED)
+                .version(5L)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            count++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
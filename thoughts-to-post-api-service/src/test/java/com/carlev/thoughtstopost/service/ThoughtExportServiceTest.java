@@ -0,0 +1,142 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ThoughtExportServiceTest {
+
+    @Mock
+    private ThoughtsToPostRepository thoughtsRepository;
+    @Mock
+    private ThoughtsToPostHistoryRepository historyRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private ThoughtExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ThoughtExportService(thoughtsRepository, historyRepository,
+                new SparseThoughtWriter(objectMapper), objectMapper, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void export_WritesThoughtsThenHistoryAndClosesCursors() throws Exception {
+        // Arrange
+        AtomicBoolean thoughtsClosed = new AtomicBoolean();
+        AtomicBoolean historyClosed = new AtomicBoolean();
+        when(thoughtsRepository.streamProjectedByUserId(eq("user-1"), isNull(), isNull(), isNull(), any()))
+                .thenReturn(Stream.of(thought("thought-1"), thought("thought-2")).onClose(() -> thoughtsClosed.set(true)));
+        when(historyRepository.streamByUserIdExcluding(eq("user-1"), any()))
+                .thenReturn(Stream.of(ThoughtsToPostHistory.fromThoughtsToPost(thought("thought-1"),
+                        ThoughtsToPostHistory.ActionType.CREATE, "user-1")).onClose(() -> historyClosed.set(true)));
+
+        // Act
+        List<JsonNode> lines = export(true, true);
+
+        // Assert
+        assertEquals(List.of("thought", "thought", "history", "summary"),
+                lines.stream().map(line -> line.get("type").asText()).toList());
+        assertEquals("thought-2", lines.get(1).get("data").get("id").asText());
+        assertEquals("POSTED", lines.get(1).get("data").get("status").asText());
+        assertEquals("CREATE", lines.get(2).get("data").get("actionType").asText());
+        assertEquals(2, lines.get(3).get("thoughts").asInt());
+        assertEquals(1, lines.get(3).get("history").asInt());
+        assertTrue(thoughtsClosed.get());
+        assertTrue(historyClosed.get());
+    }
+
+    @Test
+    void export_NeverReadsImageDataAndLeavesOutImagesUnlessAsked() throws Exception {
+        // Arrange
+        when(thoughtsRepository.streamProjectedByUserId(eq("user-1"), isNull(), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> Stream.empty());
+        when(historyRepository.streamByUserIdExcluding(eq("user-1"), any())).thenAnswer(invocation -> Stream.empty());
+
+        // Act
+        export(true, true);
+        export(true, false);
+
+        // Assert
+        ArgumentCaptor<Collection<String>> paths = ArgumentCaptor.forClass(Collection.class);
+        verify(thoughtsRepository, times(2)).streamProjectedByUserId(eq("user-1"), isNull(), isNull(), isNull(),
+                paths.capture());
+        assertTrue(paths.getAllValues().get(0).contains("enrichedContents.images.id"));
+        assertTrue(paths.getAllValues().stream().flatMap(Collection::stream)
+                .noneMatch(path -> path.contains("base64") || path.equals("enrichedContents.images.url")));
+        assertTrue(paths.getAllValues().get(1).stream().noneMatch(path -> path.startsWith("enrichedContents.images")));
+
+        ArgumentCaptor<Collection<String>> excluded = ArgumentCaptor.forClass(Collection.class);
+        verify(historyRepository, times(2)).streamByUserIdExcluding(eq("user-1"), excluded.capture());
+        assertTrue(excluded.getAllValues().get(0).contains("enrichedContents.images.base64Data"));
+        assertEquals(List.of("enrichedContents.images"), excluded.getAllValues().get(1));
+    }
+
+    @Test
+    void export_WithoutHistory_DoesNotQueryIt() throws Exception {
+        // Arrange
+        when(thoughtsRepository.streamProjectedByUserId(eq("user-1"), isNull(), isNull(), isNull(), any()))
+                .thenReturn(Stream.empty());
+
+        // Act
+        List<JsonNode> lines = export(false, false);
+
+        // Assert
+        assertEquals(1, lines.size());
+        assertEquals(0, lines.get(0).get("thoughts").asInt());
+        verifyNoInteractions(historyRepository);
+    }
+
+    private List<JsonNode> export(boolean includeHistory, boolean includeImages) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export("user-1", includeHistory, includeImages, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static ThoughtsToPost thought(String id) {
+        return ThoughtsToPost.builder()
+                .id(id)
+                .userId("user-1")
+                .originalThought("Thought " + id)
+                .status(PostStatus.POSTED)
+                .version(1L)
+                .enrichedContents(List.of(ThoughtsToPost.EnrichedContent.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .body("Body")
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Imports a generated NDJSON upload of many rows and samples the live heap after each batch. The upload is
+ * produced as it is read and the repositories are stub-only mocks that keep nothing, so any growth is the
+ * import's own. Excluded from {@code test}; run with {@code ./gradlew benchmark -Dbenchmark.import-rows=100000}.
+ */
+@Tag("benchmark")
+public class ThoughtImportBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Test
+    void heapStaysFlatAcrossLargeImport() throws Exception {
+        int rows = Integer.getInteger("benchmark.import-rows", 100_000);
+        List<Long> liveHeap = new ArrayList<>();
+        ThoughtsToPostRepository thoughtsRepository = mock(ThoughtsToPostRepository.class, withSettings().stubOnly());
+        when(thoughtsRepository.insert(anyList())).thenAnswer(inv -> {
+            List<ThoughtsToPost> batch = inv.getArgument(0);
+            batch.forEach(thought -> thought.setId(Integer.toHexString(thought.getOriginalThought().hashCode())));
+            if (liveHeap.size() < rows / BATCH_SIZE) {
+                liveHeap.add(liveHeapBytes());
+            }
+            return batch;
+        });
+        ThoughtImportService importService = new ThoughtImportService(thoughtsRepository,
+                mock(ThoughtsToPostHistoryRepository.class, withSettings().stubOnly()),
+                mock(NearDuplicateIndex.class, withSettings().stubOnly()),
+                new ObjectMapper().findAndRegisterModules(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry(), BATCH_SIZE);
+        CountingOutputStream out = new CountingOutputStream();
+
+        long started = System.nanoTime();
+        importService.importThoughts(new GeneratedUpload(rows), ThoughtImportService.Format.NDJSON, "user-1", out);
+        long nanos = System.nanoTime() - started;
+
+        long first = liveHeap.get(1);
+        long peak = liveHeap.stream().mapToLong(Long::longValue).max().orElseThrow();
+        long last = liveHeap.get(liveHeap.size() - 1);
+        System.out.printf("Imported %,d rows in %,.0f ms (%,d result lines, %,d KB)%n", rows, nanos / 1e6,
+                out.lines, out.count >> 10);
+        System.out.printf("  live heap after batch 2 %,d KB, peak %,d KB, last %,d KB over %d batches%n",
+                first >> 10, peak >> 10, last >> 10, liveHeap.size());
+        assertEquals(rows + 1, out.lines);
+        // A buffered upload or result list would grow by tens of MB over 100k rows
+        assertTrue(last - first < 8L * 1024 * 1024, "live heap grew by " + ((last - first) >> 10) + " KB");
+    }
+
+    private static long liveHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * An NDJSON body whose rows are generated as they are read.
+     */
+    private static final class GeneratedUpload extends InputStream {
+
+        private final int rows;
+        private int row;
+        private byte[] line = new byte[0];
+        private int position;
+
+        private GeneratedUpload(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (row == rows) {
+                    return -1;
+                }
+                row++;
+                line = ("{\"thought\": \"Imported thought " + row + " about remote work and async teams\", "
+                        + "\"platforms\": [\"LINKEDIN\"], \"categoryId\": \"cat-" + row % 7 + "\"}\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++] & 0xff;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            count++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+    }
+}
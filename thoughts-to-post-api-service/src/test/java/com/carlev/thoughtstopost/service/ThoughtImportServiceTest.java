@@ -0,0 +1,140 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ThoughtImportServiceTest {
+
+    @Mock
+    private ThoughtsToPostRepository thoughtsRepository;
+    @Mock
+    private ThoughtsToPostHistoryRepository historyRepository;
+    @Mock
+    private NearDuplicateIndex nearDuplicateIndex;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ThoughtImportService importService;
+    private int nextId;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ThoughtImportService(thoughtsRepository, historyRepository, nearDuplicateIndex,
+                objectMapper, Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    void importThoughts_Ndjson_InsertsValidRowsInBatchesAndReportsEveryRow() throws Exception {
+        // Arrange
+        assignIdsOnInsert();
+        String body = """
+                {"thought": "First", "platforms": ["LINKEDIN"]}
+                {"thought": "", "platforms": ["LINKEDIN"]}
+
+                not json
+                {"thought": "Second", "platforms": ["LINKEDIN"], "additionalInstructions": "Short"}
+                """;
+
+        // Act
+        List<JsonNode> results = importThoughts(body, ThoughtImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(5, results.size());
+        assertEquals("thought-1", results.get(0).get("id").asText());
+        assertEquals("Thought content is required", results.get(1).get("error").asText());
+        assertTrue(results.get(2).get("error").asText().startsWith("Unreadable row"));
+        assertEquals(4, results.get(3).get("row").asInt());
+        assertEquals("thought-2", results.get(3).get("id").asText());
+        assertEquals(4, results.get(4).get("rows").asInt());
+        assertEquals(2, results.get(4).get("imported").asInt());
+        assertEquals(2, results.get(4).get("failed").asInt());
+
+        ArgumentCaptor<List<ThoughtsToPost>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(thoughtsRepository, times(2)).insert(inserted.capture());
+        ThoughtsToPost second = inserted.getAllValues().get(1).get(0);
+        assertEquals("Short", second.getAdditionalInstructions());
+        assertEquals(PostStatus.PENDING, second.getStatus());
+        assertNotNull(second.getQueuedForDispatchAt());
+        verify(historyRepository, times(2)).insert(anyList());
+        verify(nearDuplicateIndex).add("user-1", "thought-2", "Second");
+    }
+
+    @Test
+    void importThoughts_Csv_ParsesPlatformsAndRejectsUnknownOnes() throws Exception {
+        // Arrange
+        assignIdsOnInsert();
+        String body = """
+                thought,categoryId,platforms,additionalInstructions
+                "Remote work, async",cat-1,linkedin;facebook,
+                Hello,,myspace,
+                """;
+
+        // Act
+        List<JsonNode> results = importThoughts(body, ThoughtImportService.Format.CSV);
+
+        // Assert
+        assertEquals("thought-1", results.get(0).get("id").asText());
+        assertEquals("Unknown platform: myspace", results.get(1).get("error").asText());
+        ArgumentCaptor<List<ThoughtsToPost>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(thoughtsRepository).insert(inserted.capture());
+        ThoughtsToPost thought = inserted.getValue().get(0);
+        assertEquals("Remote work, async", thought.getOriginalThought());
+        assertEquals("cat-1", thought.getCategoryId());
+        assertEquals(List.of(PlatformType.LINKEDIN, PlatformType.FACEBOOK), thought.getSelectedPlatforms());
+        assertNull(thought.getAdditionalInstructions());
+    }
+
+    @Test
+    void importThoughts_NoValidRows_InsertsNothing() throws Exception {
+        // Act
+        List<JsonNode> results = importThoughts("{\"thought\": \"No platforms\"}\n", ThoughtImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals("At least one platform must be selected", results.get(0).get("error").asText());
+        assertEquals(0, results.get(1).get("imported").asInt());
+        verify(thoughtsRepository, never()).insert(anyList());
+        verifyNoInteractions(historyRepository, nearDuplicateIndex);
+    }
+
+    private void assignIdsOnInsert() {
+        when(thoughtsRepository.insert(anyList())).thenAnswer(inv -> {
+            List<ThoughtsToPost> thoughts = inv.getArgument(0);
+            thoughts.forEach(thought -> thought.setId("thought-" + ++nextId));
+            return new ArrayList<>(thoughts);
+        });
+    }
+
+    private List<JsonNode> importThoughts(String body, ThoughtImportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importService.importThoughts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format,
+                "user-1", out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+}
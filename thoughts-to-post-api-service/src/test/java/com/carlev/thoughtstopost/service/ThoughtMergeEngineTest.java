@@ -0,0 +1,139 @@
+package com.carlev.thoughtstopost.service;
+
+import com.carlev.thoughtstopost.model.PlatformType;
+import com.carlev.thoughtstopost.model.PostStatus;
+import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ThoughtMergeEngineTest {
+
+    @Mock
+    private ThoughtsToPostRepository thoughtsRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimisticLockingFailureException conflict = new OptimisticLockingFailureException("version 2");
+    private ThoughtMergeEngine mergeEngine;
+
+    @BeforeEach
+    void setUp() {
+        mergeEngine = new ThoughtMergeEngine(thoughtsRepository, meterRegistry, 3);
+    }
+
+    @Test
+    void merge_PosterWrite_KeepsPostStateAndTakesUserChanges() {
+        // Arrange
+        ThoughtsToPost intended = thought(PostStatus.POSTING, 2L);
+        ThoughtsToPost.EnrichedContent content = intended.getEnrichedContents().get(0);
+        content.setStatus(PostStatus.POSTED);
+        content.setPostId("urn:li:share:1");
+        ThoughtsToPost stored = thought(PostStatus.POSTING, 3L);
+        stored.setTextContentComments("Shorter please");
+        stored.getEnrichedContents().get(0).getImages().get(0).setSelected(false);
+        when(thoughtsRepository.findById("thought-1")).thenReturn(Optional.of(stored));
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ThoughtsToPost merged = mergeEngine.merge(intended, ThoughtWriter.POSTER, conflict);
+
+        // Assert
+        assertSame(intended, merged);
+        assertSame(content, merged.getEnrichedContents().get(0));
+        assertEquals(3L, merged.getVersion());
+        assertEquals("Shorter please", merged.getTextContentComments());
+        assertEquals(PostStatus.POSTED, content.getStatus());
+        assertEquals("urn:li:share:1", content.getPostId());
+        assertFalse(content.getImages().get(0).isSelected());
+        assertEquals(1.0, meterRegistry.counter("thoughts.write.conflicts", "writer", "poster",
+                "outcome", "merged").count());
+    }
+
+    @Test
+    void merge_AgentWrite_AddsImagesAndKeepsUserSelection() {
+        // Arrange
+        ThoughtsToPost intended = thought(PostStatus.ENRICHED, 2L);
+        ThoughtsToPost.EnrichedContent content = intended.getEnrichedContents().get(0);
+        content.setBody("Generated body");
+        content.getImages().add(ThoughtsToPost.GeneratedImage.builder().id("img-2").build());
+        ThoughtsToPost stored = thought(PostStatus.PROCESSING, 3L);
+        stored.getEnrichedContents().get(0).getImages().get(0).setTag("pre-explanation");
+        when(thoughtsRepository.findById("thought-1")).thenReturn(Optional.of(stored));
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ThoughtsToPost merged = mergeEngine.merge(intended, ThoughtWriter.AGENT, conflict);
+
+        // Assert
+        assertEquals(PostStatus.ENRICHED, merged.getStatus());
+        assertEquals("Generated body", content.getBody());
+        assertEquals(List.of("img-1", "img-2"),
+                content.getImages().stream().map(ThoughtsToPost.GeneratedImage::getId).toList());
+        assertEquals("pre-explanation", content.getImages().get(0).getTag());
+    }
+
+    @Test
+    void merge_AgentWriteFromSupersededGeneration_IsRejected() {
+        // Arrange
+        ThoughtsToPost intended = thought(PostStatus.ENRICHED, 2L);
+        ThoughtsToPost stored = thought(PostStatus.PROCESSING, 3L);
+        stored.setGeneration(2L);
+        when(thoughtsRepository.findById("thought-1")).thenReturn(Optional.of(stored));
+
+        // Act & Assert
+        assertSame(conflict, assertThrows(OptimisticLockingFailureException.class,
+                () -> mergeEngine.merge(intended, ThoughtWriter.AGENT, conflict)));
+        verify(thoughtsRepository, never()).save(any());
+        assertEquals(1.0, meterRegistry.counter("thoughts.write.conflicts", "writer", "agent",
+                "outcome", "rejected").count());
+    }
+
+    @Test
+    void merge_StillConflicting_GivesUpAfterMaxAttempts() {
+        // Arrange
+        ThoughtsToPost intended = thought(PostStatus.POSTING, 2L);
+        when(thoughtsRepository.findById("thought-1")).thenAnswer(inv -> Optional.of(thought(PostStatus.POSTING, 3L)));
+        when(thoughtsRepository.save(any())).thenThrow(new OptimisticLockingFailureException("version 3"));
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> mergeEngine.merge(intended, ThoughtWriter.POSTER, conflict));
+        verify(thoughtsRepository, times(3)).save(intended);
+        assertEquals(1.0, meterRegistry.counter("thoughts.write.conflicts", "writer", "poster",
+                "outcome", "exhausted").count());
+    }
+
+    private static ThoughtsToPost thought(PostStatus status, Long version) {
+        List<ThoughtsToPost.GeneratedImage> images = new ArrayList<>();
+        images.add(ThoughtsToPost.GeneratedImage.builder().id("img-1").selected(true).build());
+        List<ThoughtsToPost.EnrichedContent> contents = new ArrayList<>();
+        contents.add(ThoughtsToPost.EnrichedContent.builder()
+                .platform(PlatformType.LINKEDIN)
+                .body("Body")
+                .images(images)
+                .status(PostStatus.PENDING)
+                .build());
+        return ThoughtsToPost.builder()
+                .id("thought-1")
+                .userId("user-1")
+                .status(status)
+                .generation(1L)
+                .version(version)
+                .enrichedContents(contents)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.carlev.thoughtstopost.service;
 
+import com.carlev.thoughtstopost.kafka.ThoughtEventPublisher;
 import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.PostStatus;
 import com.carlev.thoughtstopost.model.ThoughtsToPost;
@@ -34,6 +35,9 @@ public class ThoughtsServicePostingTest {
     @Mock
     private SocialMediaService socialMediaService;
 
+    @Mock
+    private ThoughtEventPublisher eventPublisher;
+
     @InjectMocks
     private ThoughtsService thoughtsService;
 
@@ -1,7 +1,10 @@
 package com.carlev.thoughtstopost.service;
 
+import com.carlev.thoughtstopost.dto.BulkThoughtRequest;
+import com.carlev.thoughtstopost.dto.BulkThoughtResponse;
 import com.carlev.thoughtstopost.dto.CreateThoughtRequest;
 import com.carlev.thoughtstopost.dto.ThoughtResponse;
+import com.carlev.thoughtstopost.kafka.ThoughtEventPublisher;
 import com.carlev.thoughtstopost.kafka.ThoughtRequestMessage;
 import com.carlev.thoughtstopost.kafka.ThoughtResponseMessage;
 import com.carlev.thoughtstopost.kafka.ThoughtsKafkaProducer;
@@ -9,22 +12,33 @@ import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.PostStatus;
 import com.carlev.thoughtstopost.model.ThoughtCategory;
 import com.carlev.thoughtstopost.model.ThoughtsToPost;
+import com.carlev.thoughtstopost.model.ThoughtsToPostHistory;
 import com.carlev.thoughtstopost.repository.PlatformPromptRepository;
 import com.carlev.thoughtstopost.repository.ThoughtCategoryRepository;
 import com.carlev.thoughtstopost.repository.ThoughtsToPostHistoryRepository;
 import com.carlev.thoughtstopost.repository.ThoughtsToPostRepository;
 import com.carlev.thoughtstopost.social.SocialMediaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -45,6 +59,16 @@ public class ThoughtsServiceTest {
     private ThoughtCategoryRepository categoryRepository;
     @Mock
     private PlatformPromptRepository platformPromptRepository;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private EnrichmentDispatcher enrichmentDispatcher;
+    @Mock
+    private EnrichmentResultCache enrichmentResultCache;
+    @Mock
+    private NearDuplicateIndex nearDuplicateIndex;
+    @Mock
+    private ThoughtEventPublisher eventPublisher;
 
     @InjectMocks
     private ThoughtsService thoughtsService;
@@ -89,14 +113,264 @@ public class ThoughtsServiceTest {
         assertEquals("thought-1", response.getId());
 
         ArgumentCaptor<ThoughtRequestMessage> msgCaptor = ArgumentCaptor.forClass(ThoughtRequestMessage.class);
-        verify(kafkaProducer).sendRequest(msgCaptor.capture());
+        verify(enrichmentDispatcher).submit(msgCaptor.capture());
 
         ThoughtRequestMessage sentMsg = msgCaptor.getValue();
+        assertEquals(1L, sentMsg.getGeneration());
+        assertEquals(com.carlev.thoughtstopost.kafka.DispatchLane.BULK, sentMsg.getLane());
+        assertNotNull(sentMsg.getDeadline());
+        assertTrue(sentMsg.getDeadline().isAfter(Instant.now()));
         assertEquals("Tech role", sentMsg.getModelRole());
         assertEquals("Tech search", sentMsg.getSearchDescription());
         assertEquals("AI is cool", sentMsg.getOriginalThought());
     }
 
+    @Test
+    void createThought_CacheHit_ServesStoredResultWithoutDispatch() {
+        // Arrange
+        CreateThoughtRequest request = new CreateThoughtRequest();
+        request.setThought("AI is cool");
+        request.setPlatforms(List.of(PlatformType.LINKEDIN));
+
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(enrichmentResultCache.keyFor(any())).thenReturn(Optional.of("key-1"));
+        when(enrichmentResultCache.lookup("key-1")).thenReturn(Optional.of(List.of(ThoughtsToPost.EnrichedContent.builder()
+                .platform(PlatformType.LINKEDIN)
+                .body("Cached body")
+                .images(new java.util.ArrayList<>())
+                .status(PostStatus.PENDING)
+                .build())));
+
+        // Act
+        ThoughtResponse response = thoughtsService.createThought(request, "user-1");
+
+        // Assert
+        verify(enrichmentDispatcher, never()).submit(any());
+        assertEquals(PostStatus.ENRICHED, response.getStatus());
+        assertEquals("Cached body", response.getEnrichedContents().get(0).getBody());
+    }
+
+    @Test
+    void createThought_SkipCache_DispatchesWithoutLookup() {
+        // Arrange
+        CreateThoughtRequest request = new CreateThoughtRequest();
+        request.setThought("AI is cool");
+        request.setPlatforms(List.of(PlatformType.LINKEDIN));
+        request.setSkipCache(true);
+
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        thoughtsService.createThought(request, "user-1");
+
+        // Assert
+        verify(enrichmentResultCache, never()).keyFor(any());
+        verify(enrichmentDispatcher).submit(any());
+    }
+
+    @Test
+    void createThought_NearDuplicateAboveThreshold_ReusesItsEnrichment() {
+        // Arrange
+        ReflectionTestUtils.setField(thoughtsService, "autoReuseThreshold", 0.8);
+        CreateThoughtRequest request = new CreateThoughtRequest();
+        request.setThought("AI is so cool");
+        request.setPlatforms(List.of(PlatformType.LINKEDIN));
+
+        ThoughtsToPost previous = ThoughtsToPost.builder()
+                .id("thought-0")
+                .userId("user-1")
+                .status(PostStatus.POSTED)
+                .enrichedContents(List.of(ThoughtsToPost.EnrichedContent.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .body("Earlier body")
+                        .status(PostStatus.POSTED)
+                        .build()))
+                .build();
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(nearDuplicateIndex.findSimilar("user-1", "AI is so cool", 3, 0.8))
+                .thenReturn(List.of(new NearDuplicateIndex.Match("thought-0", 0.9)));
+        when(thoughtsRepository.findByIdAndUserId("thought-0", "user-1")).thenReturn(Optional.of(previous));
+
+        // Act
+        ThoughtResponse response = thoughtsService.createThought(request, "user-1");
+
+        // Assert
+        verify(enrichmentDispatcher, never()).submit(any());
+        verify(nearDuplicateIndex).add(eq("user-1"), any(), eq("AI is so cool"));
+        assertEquals(PostStatus.ENRICHED, response.getStatus());
+        assertEquals("Earlier body", response.getEnrichedContents().get(0).getBody());
+        assertEquals(PostStatus.PENDING, response.getEnrichedContents().get(0).getStatus());
+    }
+
+    @Test
+    void createThought_InsertsThoughtAndHistoryOnceEach() {
+        // Arrange
+        CreateThoughtRequest request = new CreateThoughtRequest();
+        request.setThought("AI is cool");
+        request.setPlatforms(List.of(PlatformType.LINKEDIN));
+        request.setSkipCache(true);
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ThoughtResponse response = thoughtsService.createThought(request, "user-1");
+
+        // Assert
+        ArgumentCaptor<ThoughtRequestMessage> msgCaptor = ArgumentCaptor.forClass(ThoughtRequestMessage.class);
+        verify(enrichmentDispatcher).submit(msgCaptor.capture());
+        assertEquals(response.getId(), msgCaptor.getValue().getRequestId());
+        verify(thoughtsRepository, times(1)).save(any());
+        verify(historyRepository, times(1)).save(any());
+        // Insert, history, default category and the LinkedIn prompt
+        assertTrue(mongoOperations() <= 4, "Mongo operations: " + mongoOperations());
+    }
+
+    @Test
+    void reenrichThought_LoadsAndWritesOnceEach() {
+        // Arrange
+        ThoughtsToPost thought = enrichedThought();
+        when(thoughtsRepository.findByIdAndUserId("thought-1", "user-1")).thenReturn(Optional.of(thought));
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        ThoughtResponse response = thoughtsService.reenrichThought("thought-1", "More detail", true, "user-1");
+
+        // Assert
+        assertEquals(PostStatus.PROCESSING, response.getStatus());
+        verify(thoughtsRepository, never()).findById(any());
+        verify(thoughtsRepository, times(1)).save(any());
+        verify(historyRepository, times(1)).save(any());
+        // Load, save, history, default category and the LinkedIn prompt
+        assertTrue(mongoOperations() <= 5, "Mongo operations: " + mongoOperations());
+    }
+
+    @Test
+    void reenrichThought_WhileProcessing_CancelsSupersededRunAfterSave() {
+        // Arrange
+        ThoughtsToPost thought = enrichedThought();
+        thought.setStatus(PostStatus.PROCESSING);
+        thought.setGeneration(2L);
+        when(thoughtsRepository.findByIdAndUserId("thought-1", "user-1")).thenReturn(Optional.of(thought));
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        thoughtsService.reenrichThought("thought-1", "More detail", true, "user-1");
+
+        // Assert
+        var order = inOrder(thoughtsRepository, kafkaProducer, enrichmentDispatcher);
+        order.verify(thoughtsRepository).save(any());
+        order.verify(enrichmentDispatcher).cancel("thought-1");
+        order.verify(kafkaProducer).sendControl(argThat(control -> control.getGeneration() == 2L));
+        order.verify(enrichmentDispatcher).submit(any());
+    }
+
+    @Test
+    void repostThought_WhenSaveConflicts_LeavesRunningJobAlone() {
+        // Arrange
+        ThoughtsToPost thought = enrichedThought();
+        thought.setStatus(PostStatus.PROCESSING);
+        thought.setGeneration(2L);
+        when(thoughtsRepository.findByIdAndUserId("thought-1", "user-1")).thenReturn(Optional.of(thought));
+        when(thoughtsRepository.save(any()))
+                .thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        // Act
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> thoughtsService.repostThought("thought-1", true, "user-1"));
+
+        // Assert
+        verify(kafkaProducer, never()).sendControl(any());
+        verify(enrichmentDispatcher, never()).cancel(any());
+    }
+
+    @Test
+    void approveAndPost_WritesApprovalWithPostingState() {
+        // Arrange
+        ThoughtsToPost thought = enrichedThought();
+        when(thoughtsRepository.findByIdAndUserId("thought-1", "user-1")).thenReturn(Optional.of(thought));
+        List<PostStatus> savedStatuses = new java.util.ArrayList<>();
+        when(thoughtsRepository.save(any())).thenAnswer(inv -> {
+            ThoughtsToPost saved = inv.getArgument(0);
+            savedStatuses.add(saved.getStatus());
+            return saved;
+        });
+        doAnswer(inv -> {
+            thought.getEnrichedContents().forEach(c -> c.setStatus(PostStatus.POSTED));
+            return null;
+        }).when(socialMediaService).postToSelectedPlatforms(thought);
+
+        // Act
+        ThoughtResponse response = thoughtsService.approveAndPost("thought-1",
+                new com.carlev.thoughtstopost.dto.ApproveThoughtRequest(), "user-1");
+
+        // Assert
+        assertEquals(PostStatus.POSTED, response.getStatus());
+        assertEquals(List.of(PostStatus.POSTING, PostStatus.POSTED), savedStatuses);
+        verify(thoughtsRepository, never()).findById(any());
+        ArgumentCaptor<ThoughtsToPostHistory> history = ArgumentCaptor.forClass(ThoughtsToPostHistory.class);
+        verify(historyRepository, times(2)).save(history.capture());
+        assertEquals(List.of(ThoughtsToPostHistory.ActionType.APPROVE, ThoughtsToPostHistory.ActionType.POST),
+                history.getAllValues().stream().map(ThoughtsToPostHistory::getActionType).toList());
+        // Load, two saves and two history entries
+        assertTrue(mongoOperations() <= 5, "Mongo operations: " + mongoOperations());
+    }
+
+    /**
+     * Calls made to the repositories, each a round trip to Mongo.
+     */
+    private int mongoOperations() {
+        return Stream.of(thoughtsRepository, historyRepository, categoryRepository, platformPromptRepository)
+                .mapToInt(repository -> mockingDetails(repository).getInvocations().size())
+                .sum();
+    }
+
+    private static ThoughtsToPost enrichedThought() {
+        return ThoughtsToPost.builder()
+                .id("thought-1")
+                .userId("user-1")
+                .originalThought("AI is cool")
+                .selectedPlatforms(List.of(PlatformType.LINKEDIN))
+                .platformSelections(List.of(ThoughtsToPost.PlatformSelection.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .build()))
+                .enrichedContents(new java.util.ArrayList<>(List.of(ThoughtsToPost.EnrichedContent.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .body("Body")
+                        .status(PostStatus.PENDING)
+                        .build())))
+                .status(PostStatus.ENRICHED)
+                .version(2L)
+                .build();
+    }
+
+    @Test
+    void handleAgentResponse_Completed_StoresResultUnderDispatchCacheKey() {
+        // Arrange
+        ThoughtsToPost thought = ThoughtsToPost.builder()
+                .id("thought-1")
+                .status(PostStatus.PROCESSING)
+                .generation(1L)
+                .lastDispatch(ThoughtsToPost.DispatchRecord.builder().cacheKey("key-1").build())
+                .build();
+        ThoughtResponseMessage message = ThoughtResponseMessage.builder()
+                .requestId("thought-1")
+                .status("completed")
+                .generation(1L)
+                .enrichedContents(List.of(ThoughtResponseMessage.EnrichedContentMessage.builder()
+                        .platform(PlatformType.LINKEDIN)
+                        .body("Fresh body")
+                        .build()))
+                .build();
+        when(thoughtsRepository.findById("thought-1")).thenReturn(Optional.of(thought));
+        when(thoughtsRepository.save(any(ThoughtsToPost.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        thoughtsService.handleAgentResponse(message);
+
+        // Assert
+        verify(enrichmentResultCache).store(eq("key-1"), argThat(contents ->
+                contents.size() == 1 && "Fresh body".equals(contents.get(0).getBody())));
+    }
+
     @Test
     void handleAgentResponse_ShouldUpdateImageWithDataUri() {
         // Arrange
@@ -138,4 +412,360 @@ public class ThoughtsServiceTest {
         assertEquals("abc", savedImage.getBase64Data());
         assertEquals("data:image/png;base64,abc", savedImage.getUrl());
     }
+
+    @Test
+    void handleAgentResponse_PublishesProgressImageAndStatusEvents() {
+        // Arrange
+        ThoughtsToPost thought = ThoughtsToPost.builder()
+                .id("thought-1")
+                .userId("user-1")
+                .status(PostStatus.PROCESSING)
+                .build();
+
+        when(thoughtsRepository.findById("thought-1")).thenReturn(Optional.of(thought));
+        when(thoughtsRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        ThoughtResponseMessage.GeneratedImageMessage image = new ThoughtResponseMessage.GeneratedImageMessage();
+        image.setId("img-1");
+        image.setImageBase64("abc");
+        image.setImageFormat("png");
+
+        ThoughtResponseMessage.EnrichedContentMessage ecMsg = new ThoughtResponseMessage.EnrichedContentMessage();
+        ecMsg.setPlatform(PlatformType.LINKEDIN);
+        ecMsg.setBody("Some enriched body");
+        ecMsg.setProgress(100.0);
+        ecMsg.setImages(List.of(image));
+
+        ThoughtResponseMessage message = new ThoughtResponseMessage();
+        message.setRequestId("thought-1");
+        message.setStatus("completed");
+        message.setEnrichedContents(List.of(ecMsg));
+
+        // Act
+        thoughtsService.handleAgentResponse(message);
+
+        // Assert
+        verify(eventPublisher).progress(thought, PlatformType.LINKEDIN, 100.0);
+        verify(eventPublisher).imageReady(thought, PlatformType.LINKEDIN, "img-1");
+        verify(eventPublisher).statusChanged(thought);
+    }
+
+    @Test
+    void handleAgentResponse_InProgressWithoutStatusChange_PublishesNoStatusEvent() {
+        // Arrange
+        ThoughtsToPost thought = ThoughtsToPost.builder()
+                .id("thought-1")
+                .userId("user-1")
+                .status(PostStatus.PROCESSING)
+                .build();
+
+        when(thoughtsRepository.findById("thought-1")).thenReturn(Optional.of(thought));
+        when(thoughtsRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        ThoughtResponseMessage message = new ThoughtResponseMessage();
+        message.setRequestId("thought-1");
+        message.setStatus("in_progress");
+
+        // Act
+        thoughtsService.handleAgentResponse(message);
+
+        // Assert
+        verify(eventPublisher, never()).statusChanged(any());
+    }
+
+    @Test
+    void handleAgentResponse_FromSupersededGeneration_IsDiscarded() {
+        // Arrange
+        ThoughtsToPost thought = ThoughtsToPost.builder()
+                .id("thought-1")
+                .status(PostStatus.PROCESSING)
+                .generation(3L)
+                .build();
+
+        when(thoughtsRepository.findById("thought-1")).thenReturn(Optional.of(thought));
+
+        ThoughtResponseMessage.EnrichedContentMessage ecMsg = new ThoughtResponseMessage.EnrichedContentMessage();
+        ecMsg.setPlatform(PlatformType.LINKEDIN);
+        ecMsg.setBody("Old body");
+
+        ThoughtResponseMessage message = new ThoughtResponseMessage();
+        message.setRequestId("thought-1");
+        message.setStatus("completed");
+        message.setGeneration(2L);
+        message.setEnrichedContents(List.of(ecMsg));
+
+        // Act
+        thoughtsService.handleAgentResponse(message);
+
+        // Assert
+        assertEquals(PostStatus.PROCESSING, thought.getStatus());
+        assertTrue(thought.getEnrichedContents().isEmpty());
+        verify(thoughtsRepository, never()).save(any());
+        verify(historyRepository, never()).save(any());
+        assertEquals(1.0, meterRegistry.get("agent.response.fenced").counter().count());
+    }
+
+    @Test
+    void handleAgentResponse_AfterDeadline_IsDroppedAndThoughtFailed() {
+        // Arrange
+        ThoughtsToPost thought = ThoughtsToPost.builder()
+                .id("thought-1")
+                .status(PostStatus.PROCESSING)
+                .generation(1L)
+                .dispatchDeadline(Instant.now().minusSeconds(60))
+                .build();
+
+        when(thoughtsRepository.findById("thought-1")).thenReturn(Optional.of(thought));
+        when(thoughtsRepository.save(any(ThoughtsToPost.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ThoughtResponseMessage.EnrichedContentMessage ecMsg = new ThoughtResponseMessage.EnrichedContentMessage();
+        ecMsg.setPlatform(PlatformType.LINKEDIN);
+        ecMsg.setBody("Too late");
+
+        ThoughtResponseMessage message = new ThoughtResponseMessage();
+        message.setRequestId("thought-1");
+        message.setStatus("completed");
+        message.setGeneration(1L);
+        message.setEnrichedContents(List.of(ecMsg));
+
+        // Act
+        thoughtsService.handleAgentResponse(message);
+
+        // Assert
+        assertEquals(PostStatus.FAILED, thought.getStatus());
+        assertTrue(thought.getErrorMessage().contains("deadline"));
+        assertTrue(thought.getEnrichedContents().isEmpty());
+        verify(kafkaProducer).sendControl(any());
+        assertEquals(1.0, meterRegistry.get("enrichment.expired").tag("source", "response").counter().count());
+    }
+
+    @Test
+    void redispatchStalled_ResendsSameGenerationAndCountsAttempt() {
+        // Arrange
+        ThoughtsToPost thought = ThoughtsToPost.builder()
+                .id("thought-1")
+                .userId("user-1")
+                .status(PostStatus.PROCESSING)
+                .generation(4L)
+                .dispatchDeadline(Instant.now().plusSeconds(600))
+                .lastDispatch(ThoughtsToPost.DispatchRecord.builder()
+                        .additionalInstructions("Shorter please")
+                        .attempts(1)
+                        .sentAt(Instant.now().minusSeconds(600))
+                        .build())
+                .build();
+        when(thoughtsRepository.save(any(ThoughtsToPost.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        thoughtsService.redispatchStalled(thought);
+
+        // Assert
+        ArgumentCaptor<ThoughtRequestMessage> msgCaptor = ArgumentCaptor.forClass(ThoughtRequestMessage.class);
+        verify(enrichmentDispatcher).submit(msgCaptor.capture());
+        assertEquals(4L, msgCaptor.getValue().getGeneration());
+        assertEquals("Shorter please", msgCaptor.getValue().getAdditionalInstructions());
+        assertEquals(2, thought.getLastDispatch().getAttempts());
+        assertEquals(PostStatus.PROCESSING, thought.getStatus());
+        // Queued again: unsent, with a fresh heartbeat, until the dispatcher hands it to Kafka
+        assertNull(thought.getLastDispatch().getSentAt());
+        assertNotNull(thought.getLastDispatch().getQueueHeartbeatAt());
+    }
+
+    @Test
+    void redispatchStalled_AttemptsExhausted_MarksFailed() {
+        // Arrange
+        ThoughtsToPost thought = ThoughtsToPost.builder()
+                .id("thought-1")
+                .status(PostStatus.PROCESSING)
+                .generation(4L)
+                .lastDispatch(ThoughtsToPost.DispatchRecord.builder().attempts(3).build())
+                .build();
+        when(thoughtsRepository.save(any(ThoughtsToPost.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        thoughtsService.redispatchStalled(thought);
+
+        // Assert
+        verify(enrichmentDispatcher, never()).submit(any());
+        assertEquals(PostStatus.FAILED, thought.getStatus());
+        assertTrue(thought.getErrorMessage().contains("3 dispatch attempts"));
+    }
+
+    @Test
+    void getThoughtETag_UsesVersionProjection() {
+        // Arrange
+        when(thoughtsRepository.findVersionByIdAndUserId("thought-1", "user-1"))
+                .thenReturn(Optional.of(ThoughtsToPost.builder().id("thought-1").version(5L).build()));
+
+        // Act
+        String eTag = thoughtsService.getThoughtETag("thought-1", "user-1");
+
+        // Assert
+        assertEquals("\"thought-1-5\"", eTag);
+        verify(thoughtsRepository, never()).findByIdAndUserId(any(), any());
+    }
+
+    @Test
+    void getUserThoughtsETag_ChangesWithCountAndLatestUpdate() {
+        // Arrange
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+        when(thoughtsRepository.countByUserIdAndStatus("user-1", PostStatus.ENRICHED)).thenReturn(2L, 1L, 1L);
+        when(thoughtsRepository.findLatestUpdateByUserIdAndStatus(eq("user-1"), eq(PostStatus.ENRICHED), any()))
+                .thenReturn(List.of(ThoughtsToPost.builder().updatedAt(updatedAt).build()),
+                        List.of(ThoughtsToPost.builder().updatedAt(updatedAt).build()),
+                        List.of(ThoughtsToPost.builder().updatedAt(updatedAt.plusSeconds(1)).build()));
+
+        // Act
+        String before = thoughtsService.getUserThoughtsETag("user-1", PostStatus.ENRICHED, null, null);
+        String afterDelete = thoughtsService.getUserThoughtsETag("user-1", PostStatus.ENRICHED, null, null);
+        String afterUpdate = thoughtsService.getUserThoughtsETag("user-1", PostStatus.ENRICHED, null, null);
+
+        // Assert
+        assertTrue(before.startsWith("W/\""));
+        assertNotEquals(before, afterDelete);
+        assertNotEquals(afterDelete, afterUpdate);
+    }
+
+    @Test
+    void bulkAction_Approve_WritesOnceAndReportsEachItem() {
+        // Arrange
+        ThoughtsToPost ready = ThoughtsToPost.builder().id("a").userId("user-1").status(PostStatus.ENRICHED).version(1L).build();
+        ThoughtsToPost pending = ThoughtsToPost.builder().id("b").userId("user-1").status(PostStatus.PENDING).build();
+        ThoughtsToPost raced = ThoughtsToPost.builder().id("c").userId("user-1").status(PostStatus.FAILED).version(2L).build();
+        when(thoughtsRepository.findByUserIdAndIdIn(eq("user-1"), eq(List.of("a", "b", "missing", "c"))))
+                .thenReturn(List.of(ready, pending, raced));
+        when(thoughtsRepository.replaceAndDeleteAll(eq("user-1"), any(), any())).thenReturn(Set.of("c"));
+        BulkThoughtRequest request = BulkThoughtRequest.builder()
+                .action(BulkThoughtRequest.Action.APPROVE)
+                .ids(List.of("a", "b", "missing", "c", "a"))
+                .build();
+
+        // Act
+        BulkThoughtResponse response = thoughtsService.bulkAction(request, "user-1");
+
+        // Assert
+        assertEquals(List.of("a", "b", "missing", "c"), response.getResults().stream().map(BulkThoughtResponse.ItemResult::getId).toList());
+        assertEquals(List.of(BulkThoughtResponse.Outcome.OK, BulkThoughtResponse.Outcome.INVALID_STATE,
+                        BulkThoughtResponse.Outcome.NOT_FOUND, BulkThoughtResponse.Outcome.CONFLICT),
+                response.getResults().stream().map(BulkThoughtResponse.ItemResult::getOutcome).toList());
+        assertEquals(PostStatus.APPROVED, response.getResults().get(0).getStatus());
+        assertEquals(1, response.getSucceeded());
+        assertEquals(3, response.getFailed());
+
+        verify(thoughtsRepository).replaceAndDeleteAll(eq("user-1"), eq(List.of(ready, raced)), eq(List.of()));
+        verify(thoughtsRepository, never()).save(any());
+        ArgumentCaptor<List<ThoughtsToPostHistory>> history = ArgumentCaptor.forClass(List.class);
+        verify(historyRepository).insert(history.capture());
+        assertEquals(List.of("a"), history.getValue().stream().map(ThoughtsToPostHistory::getThoughtsToPostId).toList());
+        verify(eventPublisher).statusChanged(ready);
+    }
+
+    @Test
+    void bulkAction_Repost_CancelsSupersededRunsAndQueuesDispatchesTogether() {
+        // Arrange
+        ThoughtsToPost running = ThoughtsToPost.builder().id("a").userId("user-1").status(PostStatus.PROCESSING)
+                .generation(2L).version(4L).build();
+        ThoughtsToPost posted = ThoughtsToPost.builder().id("b").userId("user-1").status(PostStatus.POSTED)
+                .generation(1L).version(7L).build();
+        when(thoughtsRepository.findByUserIdAndIdIn(eq("user-1"), any())).thenReturn(List.of(running, posted));
+        when(thoughtsRepository.replaceAndDeleteAll(eq("user-1"), any(), any())).thenReturn(Set.of());
+        BulkThoughtRequest repost = BulkThoughtRequest.builder()
+                .action(BulkThoughtRequest.Action.REPOST)
+                .ids(List.of("a", "b"))
+                .build();
+
+        // Act
+        BulkThoughtResponse response = thoughtsService.bulkAction(repost, "user-1");
+
+        // Assert
+        assertEquals(2, response.getSucceeded());
+        assertEquals(PostStatus.PROCESSING, running.getStatus());
+        assertEquals(3L, running.getGeneration());
+        verify(enrichmentDispatcher).cancel("a");
+        verify(enrichmentDispatcher, never()).cancel("b");
+        verify(kafkaProducer).sendControl(argThat(control -> control.getRequestId().equals("a") && control.getGeneration() == 2L));
+        ArgumentCaptor<List<ThoughtRequestMessage>> dispatched = ArgumentCaptor.forClass(List.class);
+        verify(enrichmentDispatcher).submitAll(dispatched.capture());
+        assertEquals(List.of("a", "b"), dispatched.getValue().stream().map(ThoughtRequestMessage::getRequestId).toList());
+        verify(enrichmentDispatcher, never()).submit(any());
+    }
+
+    @Test
+    void bulkAction_Delete_ReportsDeletesThatMissedTheirVersion() {
+        // Arrange
+        ThoughtsToPost kept = ThoughtsToPost.builder().id("a").userId("user-1").status(PostStatus.ENRICHED).version(1L).build();
+        ThoughtsToPost raced = ThoughtsToPost.builder().id("b").userId("user-1").status(PostStatus.ENRICHED).version(3L).build();
+        when(thoughtsRepository.findByUserIdAndIdIn(eq("user-1"), any())).thenReturn(List.of(kept, raced));
+        when(thoughtsRepository.replaceAndDeleteAll(eq("user-1"), any(), any())).thenReturn(Set.of("b"));
+        BulkThoughtRequest request = BulkThoughtRequest.builder()
+                .action(BulkThoughtRequest.Action.DELETE)
+                .ids(List.of("a", "b"))
+                .build();
+
+        // Act
+        BulkThoughtResponse response = thoughtsService.bulkAction(request, "user-1");
+
+        // Assert
+        assertEquals(List.of(BulkThoughtResponse.Outcome.OK, BulkThoughtResponse.Outcome.CONFLICT),
+                response.getResults().stream().map(BulkThoughtResponse.ItemResult::getOutcome).toList());
+        verify(thoughtsRepository).replaceAndDeleteAll(eq("user-1"), eq(List.of()), eq(List.of(kept, raced)));
+        verify(nearDuplicateIndex).remove("user-1", "a");
+        verify(nearDuplicateIndex, never()).remove("user-1", "b");
+        ArgumentCaptor<List<ThoughtsToPostHistory>> history = ArgumentCaptor.forClass(List.class);
+        verify(historyRepository).insert(history.capture());
+        assertEquals(List.of("a"), history.getValue().stream().map(ThoughtsToPostHistory::getThoughtsToPostId).toList());
+    }
+
+    @Test
+    void bulkAction_TooManyIds_IsRejected() {
+        // Arrange
+        BulkThoughtRequest request = BulkThoughtRequest.builder()
+                .action(BulkThoughtRequest.Action.DELETE)
+                .ids(IntStream.range(0, 101).mapToObj(i -> "t-" + i).toList())
+                .build();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> thoughtsService.bulkAction(request, "user-1"));
+        verifyNoInteractions(thoughtsRepository);
+    }
+
+    @Test
+    void dispatchQueued_WritesPerUserAndSkipsThoughtsChangedMeanwhile() {
+        // Arrange
+        ThoughtsToPost first = queued("a", "user-1");
+        ThoughtsToPost deleted = queued("b", "user-1");
+        ThoughtsToPost other = queued("c", "user-2");
+        when(thoughtsRepository.replaceAndDeleteAll(eq("user-1"), any(), any())).thenAnswer(inv -> {
+            List<ThoughtsToPost> written = inv.getArgument(1);
+            written.forEach(thought -> thought.setVersion(thought.getVersion() + 1));
+            return Set.of("b");
+        });
+        when(thoughtsRepository.replaceAndDeleteAll(eq("user-2"), any(), any())).thenReturn(Set.of());
+
+        // Act
+        int dispatched = thoughtsService.dispatchQueued(List.of(first, deleted, other));
+
+        // Assert
+        assertEquals(2, dispatched);
+        assertNull(first.getQueuedForDispatchAt());
+        assertEquals(PostStatus.PROCESSING, first.getStatus());
+        ArgumentCaptor<List<ThoughtRequestMessage>> submitted = ArgumentCaptor.forClass(List.class);
+        verify(enrichmentDispatcher).submitAll(submitted.capture());
+        assertEquals(List.of("a", "c"), submitted.getValue().stream().map(ThoughtRequestMessage::getRequestId).toList());
+        assertEquals(Integer.valueOf(1), submitted.getValue().get(0).getVersion());
+        verify(eventPublisher, never()).statusChanged(deleted);
+        verify(thoughtsRepository, never()).save(any());
+    }
+
+    private static ThoughtsToPost queued(String id, String userId) {
+        return ThoughtsToPost.builder()
+                .id(id)
+                .userId(userId)
+                .originalThought("Imported " + id)
+                .selectedPlatforms(List.of(PlatformType.LINKEDIN))
+                .status(PostStatus.PENDING)
+                .version(0L)
+                .queuedForDispatchAt(Instant.now())
+                .build();
+    }
 }
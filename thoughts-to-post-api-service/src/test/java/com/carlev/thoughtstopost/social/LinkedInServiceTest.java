@@ -3,11 +3,14 @@ package com.carlev.thoughtstopost.social;
 import com.carlev.thoughtstopost.model.PlatformType;
 import com.carlev.thoughtstopost.model.ThoughtsToPost;
 import com.carlev.thoughtstopost.repository.UserAccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -49,6 +52,9 @@ class LinkedInServiceTest {
     @Mock
     private UserAccountRepository userAccountRepository;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private LinkedInService linkedInService;
 
@@ -98,6 +104,8 @@ class LinkedInServiceTest {
 
         assertNotNull(result);
         assertEquals("urn:li:share:placeholder", result);
+        assertEquals(1, meterRegistry.get("linkedin.api.latency")
+                .tag("endpoint", "ugc-posts").tag("outcome", "success").timer().count());
     }
 
     @Test